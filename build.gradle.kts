@@ -4,6 +4,7 @@ plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "1.8.20"
     id("org.jetbrains.intellij") version "1.17.2"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.redis.plugin"
@@ -34,6 +35,19 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.3.1")
 }
 
+// JMH benchmarks of the hot paths live in src/jmh/java; run them with ./gradlew jmh
+jmh {
+    jmhVersion.set("1.37")
+    // The benchmarked panels load platform classes, which the IntelliJ plugin puts on the test classpath
+    includeTests.set(true)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    // e.g. ./gradlew jmh -Pjmh.includes=ConvertResult
+    project.findProperty("jmh.includes")?.let { includes.set(listOf(it.toString())) }
+}
+
 // Set JVM compatibility
 java {
     sourceCompatibility = JavaVersion.VERSION_17
@@ -0,0 +1,89 @@
+package com.redis.plugin.service.embedded;
+
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.impl.Replies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Commands typed into the command panel, end to end against the {@link EmbeddedRedisServer}
+ * holding real data, with and without a simulated network round trip
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmbeddedServerBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"0", "1"})
+    public int latencyMillis;
+
+    private EmbeddedRedisServer server;
+    private JedisRedisService service;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = EmbeddedRedisServer.builder()
+                .latency(Duration.ofMillis(latencyMillis))
+                .build();
+        RedisConnection connection = RedisConnection.builder()
+                .name("embedded")
+                .host(server.getHost())
+                .port(server.start())
+                .timeout(60_000)
+                .build();
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            Pipeline pipeline = jedis.pipelined();
+            for (int i = 0; i < size; i++) {
+                pipeline.rpush("list", Replies.value(i));
+                pipeline.hset("hash", "field-" + i, Replies.value(i));
+                pipeline.zadd("zset", i, Replies.value(i));
+            }
+            pipeline.sync();
+        }
+        service = new JedisRedisService();
+        RedisResult connected = service.connect(connection);
+        if (connected.isError()) {
+            throw new IllegalStateException(connected.getError());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.disconnect();
+        server.stop();
+    }
+
+    @Benchmark
+    public RedisResult lrange() {
+        return service.execute("LRANGE list 0 -1");
+    }
+
+    @Benchmark
+    public RedisResult hgetall() {
+        return service.execute("HGETALL hash");
+    }
+
+    @Benchmark
+    public RedisResult zrangeWithScores() {
+        return service.execute("ZRANGE zset 0 -1 WITHSCORES");
+    }
+}
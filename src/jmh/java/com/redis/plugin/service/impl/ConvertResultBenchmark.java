@@ -0,0 +1,54 @@
+package com.redis.plugin.service.impl;
+
+import com.redis.plugin.model.RedisResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of raw Jedis replies into results, for replies of 10 to 1M elements
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvertResultBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private List<Object> list;
+    private Set<Object> set;
+    private Map<Object, Object> map;
+
+    @Setup
+    public void setup() {
+        list = Replies.rawList(size);
+        set = Replies.rawSet(size);
+        map = Replies.rawMap(size);
+    }
+
+    @Benchmark
+    public RedisResult convertList() {
+        return JedisRedisService.convertResult(list);
+    }
+
+    @Benchmark
+    public RedisResult convertSet() {
+        return JedisRedisService.convertResult(set);
+    }
+
+    @Benchmark
+    public RedisResult convertMap() {
+        return JedisRedisService.convertResult(map);
+    }
+}
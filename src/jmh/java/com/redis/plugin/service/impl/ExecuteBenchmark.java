@@ -0,0 +1,86 @@
+package com.redis.plugin.service.impl;
+
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.embedded.EmbeddedRedisServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A command typed into the command panel, end to end: parsing, the round trip to an
+ * in-process {@link EmbeddedRedisServer}, decoding by Jedis and conversion into a result
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExecuteBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private EmbeddedRedisServer server;
+    private JedisRedisService service;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = EmbeddedRedisServer.builder().build();
+        RedisConnection connection = RedisConnection.builder()
+                .name("embedded")
+                .host(server.getHost())
+                .port(server.start())
+                .timeout(60_000)
+                .build();
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            Pipeline pipeline = jedis.pipelined();
+            for (int i = 0; i < size; i++) {
+                pipeline.rpush("list", Replies.value(i));
+                pipeline.hset("hash", "field-" + i, Replies.value(i));
+                // Keep the pipelined replies of the larger sizes from piling up
+                if (i % 10_000 == 9_999) {
+                    pipeline.sync();
+                }
+            }
+            pipeline.set("string", "x".repeat(size));
+            pipeline.sync();
+        }
+        service = new JedisRedisService();
+        RedisResult connected = service.connect(connection);
+        if (connected.isError()) {
+            throw new IllegalStateException(connected.getError());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.disconnect();
+        server.stop();
+    }
+
+    @Benchmark
+    public RedisResult lrange() {
+        return service.execute("LRANGE list 0 -1");
+    }
+
+    @Benchmark
+    public RedisResult hgetall() {
+        return service.execute("HGETALL hash");
+    }
+
+    @Benchmark
+    public RedisResult get() {
+        return service.execute("GET string");
+    }
+}
@@ -0,0 +1,49 @@
+package com.redis.plugin.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting of command lines typed into the command panel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseCommandLineBenchmark {
+
+    @Param({"short", "quoted", "long"})
+    public String shape;
+
+    private String commandLine;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case "short":
+                commandLine = "GET user:1000:profile";
+                break;
+            case "quoted":
+                commandLine = "HSET user:1000 name \"Ada Lovelace\" bio \"Wrote the \\\"first\\\" program\" age 36";
+                break;
+            default:
+                StringBuilder line = new StringBuilder("MSET");
+                for (int i = 0; i < 1000; i++) {
+                    line.append(" key:").append(i).append(' ').append(Replies.value(i));
+                }
+                commandLine = line.toString();
+        }
+    }
+
+    @Benchmark
+    public String[] parseCommandLine() {
+        return JedisRedisService.parseCommandLine(commandLine);
+    }
+}
@@ -0,0 +1,85 @@
+package com.redis.plugin.service.impl;
+
+import com.redis.plugin.model.RedisResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reply fixtures shared by the benchmarks, shaped like what Jedis and the plugin produce
+ */
+public final class Replies {
+
+    private Replies() {
+    }
+
+    /**
+     * @return the i-th element value, a realistic short string
+     */
+    public static String value(int i) {
+        return "user:" + i + ":session:" + Integer.toHexString(i * 0x9E3779B1);
+    }
+
+    /**
+     * @return a raw multi-bulk reply as Jedis returns it from sendCommand
+     */
+    public static List<Object> rawList(int size) {
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(value(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return list;
+    }
+
+    /**
+     * @return a raw set reply as Jedis returns it with RESP3
+     */
+    public static Set<Object> rawSet(int size) {
+        Set<Object> set = new HashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            set.add(value(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return set;
+    }
+
+    /**
+     * @return a raw map reply as Jedis returns it with RESP3
+     */
+    public static Map<Object, Object> rawMap(int size) {
+        Map<Object, Object> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(("field-" + i).getBytes(StandardCharsets.UTF_8), value(i).getBytes(StandardCharsets.UTF_8));
+        }
+        return map;
+    }
+
+    /**
+     * @return converted results of each collection type, as the panels receive them
+     */
+    public static RedisResult arrayResult(int size) {
+        return JedisRedisService.convertResult(rawList(size));
+    }
+
+    public static RedisResult setResult(int size) {
+        Set<Object> set = new LinkedHashSet<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            set.add(value(i));
+        }
+        return JedisRedisService.convertResult(set);
+    }
+
+    public static RedisResult hashResult(int size) {
+        Map<String, String> map = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put("field-" + i, value(i));
+        }
+        return JedisRedisService.convertResult(map);
+    }
+}
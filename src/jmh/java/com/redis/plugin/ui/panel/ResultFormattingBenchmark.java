@@ -0,0 +1,88 @@
+package com.redis.plugin.ui.panel;
+
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.impl.Replies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.swing.table.DefaultTableModel;
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning results into what the console and the result panel display, for replies of
+ * 10 to 1M elements. Only the models are built; nothing is rendered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResultFormattingBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int size;
+
+    private RedisResult array;
+    private RedisResult hash;
+    private RedisResult set;
+
+    @Setup
+    public void setup() {
+        array = Replies.arrayResult(size);
+        hash = Replies.hashResult(size);
+        set = Replies.setResult(size);
+    }
+
+    @Benchmark
+    public String consoleArray() {
+        return ConsolePanel.formatResult(array);
+    }
+
+    @Benchmark
+    public String consoleHash() {
+        return ConsolePanel.formatResult(hash);
+    }
+
+    @Benchmark
+    public String consoleSet() {
+        return ConsolePanel.formatResult(set);
+    }
+
+    @Benchmark
+    public DefaultTableModel arrayTable() {
+        return ResultPanel.createListTableModel((List<?>) array.getValue());
+    }
+
+    @Benchmark
+    public DefaultMutableTreeNode arrayTree() {
+        return ResultPanel.createListNode((List<?>) array.getValue());
+    }
+
+    @Benchmark
+    public DefaultTableModel hashTable() {
+        return ResultPanel.createHashTableModel((Map<?, ?>) hash.getValue());
+    }
+
+    @Benchmark
+    public DefaultMutableTreeNode hashTree() {
+        return ResultPanel.createHashNode((Map<?, ?>) hash.getValue());
+    }
+
+    @Benchmark
+    public DefaultTableModel setTable() {
+        return ResultPanel.createSetTableModel((Set<?>) set.getValue());
+    }
+
+    @Benchmark
+    public DefaultMutableTreeNode setTree() {
+        return ResultPanel.createSetNode((Set<?>) set.getValue());
+    }
+}
@@ -0,0 +1,126 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.RedisJobCheckpointService;
+import com.redis.plugin.service.bulk.BulkExpireJob;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.BulkExpireDialog;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Action for applying or removing a TTL on every key matching a pattern
+ */
+public class BulkExpireAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        RedisConnection connection = connectionManager.getActiveConnection();
+
+        if (!connectionManager.isConnected() || connection == null) {
+            Messages.showErrorDialog(
+                    project,
+                    "Not connected to Redis server",
+                    "Error"
+            );
+            return;
+        }
+
+        BulkExpireDialog dialog = new BulkExpireDialog(project);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        // Offer to continue an interrupted run of the same scan
+        RedisJobCheckpointService checkpoints = ApplicationManager.getApplication()
+                .getService(RedisJobCheckpointService.class);
+        String checkpointKey = BulkExpireJob.checkpointKey(connection, dialog.getPattern(), dialog.getKeyType());
+        String startCursor = checkpoints.getCursor(checkpointKey);
+        if (startCursor != null) {
+            int resume = Messages.showYesNoDialog(
+                    project,
+                    "A previous run for pattern '" + dialog.getPattern() + "' was interrupted. Resume from where it stopped?",
+                    "Set Expiration by Pattern",
+                    Messages.getQuestionIcon()
+            );
+            if (resume != Messages.YES) {
+                startCursor = null;
+                checkpoints.clear(checkpointKey);
+            }
+        }
+
+        BulkExpireJob job = BulkExpireJob.builder()
+                .connection(connection)
+                .pattern(dialog.getPattern())
+                .type(dialog.getKeyType())
+                .mode(dialog.getMode())
+                .value(dialog.getValue())
+                .jitterPercent(dialog.getJitterPercent())
+                .batchSize(dialog.getBatchSize())
+                .opsPerSecond(dialog.getOpsPerSecond())
+                .startCursor(startCursor)
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Applying " + dialog.getMode().name() + " to '" + dialog.getPattern() + "'", true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                job.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                checkpoints.clear(checkpointKey);
+                RedisNotifications.info(project, "Set Expiration by Pattern",
+                        String.format("Updated %,d of %,d matching keys", job.getUpdated(), job.getScanned()));
+            }
+
+            @Override
+            public void onCancel() {
+                checkpoints.saveCursor(checkpointKey, job.getCursor());
+                RedisNotifications.warning(project, "Set Expiration by Pattern",
+                        String.format("Cancelled after %,d keys. Run again with the same pattern to resume.",
+                                job.getScanned()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                checkpoints.saveCursor(checkpointKey, job.getCursor());
+                RedisNotifications.error(project, "Set Expiration by Pattern",
+                        "Failed after " + job.getScanned() + " keys: " + error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            e.getPresentation().setEnabled(false);
+            return;
+        }
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        e.getPresentation().setEnabled(connectionManager.isConnected());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
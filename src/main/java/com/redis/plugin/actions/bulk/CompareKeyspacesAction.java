@@ -0,0 +1,121 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.KeyspaceDiff;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.bulk.KeyspaceDiffJob;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.CompareKeyspacesDialog;
+import com.redis.plugin.ui.dialog.KeyspaceDiffResultDialog;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Action for comparing the keys of the active connection with another connection
+ */
+public class CompareKeyspacesAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        RedisConnection source = connectionManager.getActiveConnection();
+
+        if (!connectionManager.isConnected() || source == null) {
+            Messages.showErrorDialog(
+                    project,
+                    "Not connected to Redis server",
+                    "Error"
+            );
+            return;
+        }
+
+        List<RedisConnection> targets = connectionManager.getConnections().stream()
+                .filter(c -> !c.getId().equals(source.getId()))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            Messages.showInfoMessage(
+                    project,
+                    "Add another connection to compare with.",
+                    "Compare Keyspaces"
+            );
+            return;
+        }
+
+        CompareKeyspacesDialog dialog = new CompareKeyspacesDialog(project, source, targets);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        RedisConnection target = dialog.getTarget();
+        KeyspaceDiffJob job = KeyspaceDiffJob.builder()
+                .source(source)
+                .target(target)
+                .pattern(dialog.getPattern())
+                .type(dialog.getKeyType())
+                .batchSize(dialog.getBatchSize())
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Comparing " + source.getName() + " with " + target.getName(), true) {
+            private KeyspaceDiff diff;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    diff = job.run(indicator);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Error writing temporary sort files: " + ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (diff.getDifferences() == 0) {
+                    RedisNotifications.info(project, "Compare Keyspaces",
+                            String.format("No differences: %,d keys are identical", diff.getUnchanged()));
+                    return;
+                }
+                new KeyspaceDiffResultDialog(project, diff, source.getName(), target.getName()).show();
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Compare Keyspaces", "Comparison failed: " + error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            e.getPresentation().setEnabled(false);
+            return;
+        }
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        e.getPresentation().setEnabled(connectionManager.isConnected());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
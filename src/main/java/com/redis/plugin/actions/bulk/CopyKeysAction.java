@@ -0,0 +1,130 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.bulk.KeyMigrationJob;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.CopyKeysDialog;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Action for copying keys matching a pattern from the active connection to another connection
+ */
+public class CopyKeysAction extends AnAction {
+    private static final Logger LOG = Logger.getInstance(CopyKeysAction.class);
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        RedisConnection source = connectionManager.getActiveConnection();
+
+        if (!connectionManager.isConnected() || source == null) {
+            Messages.showErrorDialog(
+                    project,
+                    "Not connected to Redis server",
+                    "Error"
+            );
+            return;
+        }
+
+        List<RedisConnection> targets = connectionManager.getConnections().stream()
+                .filter(c -> !c.getId().equals(source.getId()))
+                .collect(Collectors.toList());
+        if (targets.isEmpty()) {
+            Messages.showInfoMessage(
+                    project,
+                    "Add another connection to copy keys to.",
+                    "Copy Keys"
+            );
+            return;
+        }
+
+        CopyKeysDialog dialog = new CopyKeysDialog(project, source, targets);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        RedisConnection target = dialog.getTarget();
+        KeyMigrationJob job = KeyMigrationJob.builder()
+                .source(source)
+                .target(target)
+                .pattern(dialog.getPattern())
+                .type(dialog.getKeyType())
+                .strategy(dialog.getStrategy())
+                .replace(dialog.isReplace())
+                .batchSize(dialog.getBatchSize())
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Copying '" + dialog.getPattern() + "' from " + source.getName() + " to " + target.getName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                job.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                String summary = String.format("Copied %,d keys to %s using %s",
+                        job.getCopied(), target.getName(), job.getUsedStrategy());
+                if (job.getSkipped() > 0) {
+                    summary += String.format(", %,d already existed", job.getSkipped());
+                }
+                if (job.getFailed() == 0) {
+                    RedisNotifications.info(project, "Copy Keys", summary);
+                    return;
+                }
+                List<String> errors = job.getErrors();
+                errors.forEach(error -> LOG.warn("Copy to " + target.getName() + ": " + error));
+                RedisNotifications.warning(project, "Copy Keys",
+                        String.format("%s. %,d keys failed, first error: %s",
+                                summary, job.getFailed(), errors.isEmpty() ? "unknown" : errors.get(0)));
+            }
+
+            @Override
+            public void onCancel() {
+                RedisNotifications.warning(project, "Copy Keys",
+                        String.format("Copy cancelled after %,d keys", job.getCopied()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Copy Keys", "Copy failed: " + error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            e.getPresentation().setEnabled(false);
+            return;
+        }
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        e.getPresentation().setEnabled(connectionManager.isConnected());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
@@ -0,0 +1,111 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.bulk.KeyspaceExportJob;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.ExportKeyspaceDialog;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Action for exporting all keys matching a pattern to a file in the background
+ */
+public class ExportKeyspaceAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        RedisConnection connection = connectionManager.getActiveConnection();
+
+        if (!connectionManager.isConnected() || connection == null) {
+            Messages.showErrorDialog(
+                    project,
+                    "Not connected to Redis server",
+                    "Error"
+            );
+            return;
+        }
+
+        ExportKeyspaceDialog dialog = new ExportKeyspaceDialog(project);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        // The export only reads, so a replica may serve it
+        KeyspaceExportJob job = KeyspaceExportJob.builder()
+                .connection(connectionManager.getRedisService().getReadConnection())
+                .pattern(dialog.getPattern())
+                .type(dialog.getKeyType())
+                .format(dialog.getFormat())
+                .target(dialog.getTarget())
+                .gzip(dialog.isGzip())
+                .batchSize(dialog.getBatchSize())
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Exporting '" + dialog.getPattern() + "' to " + dialog.getTarget().getFileName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    job.run(indicator);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Error writing " + job.getTarget() + ": " + ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                String skipped = job.getSkipped() > 0
+                        ? String.format(" (%,d skipped)", job.getSkipped())
+                        : "";
+                RedisNotifications.info(project, "Export Keyspace",
+                        String.format("Exported %,d keys%s to %s", job.getExported(), skipped, job.getTarget()));
+            }
+
+            @Override
+            public void onCancel() {
+                RedisNotifications.warning(project, "Export Keyspace",
+                        String.format("Export cancelled after %,d keys. %s is incomplete.",
+                                job.getExported(), job.getTarget()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Export Keyspace", "Export failed: " + error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            e.getPresentation().setEnabled(false);
+            return;
+        }
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        e.getPresentation().setEnabled(connectionManager.isConnected());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
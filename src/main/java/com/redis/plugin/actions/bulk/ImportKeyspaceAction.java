@@ -0,0 +1,135 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.bulk.KeyspaceImportJob;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.ImportKeyspaceDialog;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Action for loading keys from a file in the background
+ */
+public class ImportKeyspaceAction extends AnAction {
+    private static final Logger LOG = Logger.getInstance(ImportKeyspaceAction.class);
+    private static final int ERRORS_SHOWN = 10;
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        RedisConnection connection = connectionManager.getActiveConnection();
+
+        if (!connectionManager.isConnected() || connection == null) {
+            Messages.showErrorDialog(
+                    project,
+                    "Not connected to Redis server",
+                    "Error"
+            );
+            return;
+        }
+
+        ImportKeyspaceDialog dialog = new ImportKeyspaceDialog(project);
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        KeyspaceImportJob job = KeyspaceImportJob.builder()
+                .connection(connection)
+                .source(dialog.getSource())
+                .format(dialog.getFormat())
+                .replace(dialog.isReplace())
+                .pipelineDepth(dialog.getPipelineDepth())
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Importing " + dialog.getSource().getFileName() + " into " + connection.getName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    job.run(indicator);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Error reading " + job.getSource() + ": " + ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (job.getFailed() == 0) {
+                    RedisNotifications.info(project, "Import Keyspace",
+                            String.format("Imported %,d records (%,d commands) from %s",
+                                    job.getRecords(), job.getCommands(), job.getSource().getFileName()));
+                    return;
+                }
+                RedisNotifications.warning(project, "Import Keyspace",
+                        String.format("Imported %,d records from %s with %,d errors:<br>%s",
+                                job.getRecords(), job.getSource().getFileName(), job.getFailed(),
+                                summarizeErrors(job)));
+            }
+
+            @Override
+            public void onCancel() {
+                RedisNotifications.warning(project, "Import Keyspace",
+                        String.format("Import cancelled after %,d records", job.getRecords()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Import Keyspace", "Import failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private static String summarizeErrors(KeyspaceImportJob job) {
+        List<String> errors = job.getErrors();
+        for (String error : errors) {
+            LOG.warn("Import of " + job.getSource() + ": " + error);
+        }
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < Math.min(ERRORS_SHOWN, errors.size()); i++) {
+            summary.append(escape(errors.get(i))).append("<br>");
+        }
+        if (job.getFailed() > ERRORS_SHOWN) {
+            summary.append(String.format("... and %,d more, see idea.log", job.getFailed() - ERRORS_SHOWN));
+        }
+        return summary.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) {
+            e.getPresentation().setEnabled(false);
+            return;
+        }
+
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        e.getPresentation().setEnabled(connectionManager.isConnected());
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
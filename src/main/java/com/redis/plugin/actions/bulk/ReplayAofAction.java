@@ -0,0 +1,156 @@
+package com.redis.plugin.actions.bulk;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.aof.AofReplayJob;
+import com.redis.plugin.service.benchmark.LatencyHistogram;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.ReplayAofDialog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Action for replaying an append-only file against a connection and reporting throughput and latency
+ */
+public class ReplayAofAction extends AnAction {
+    private static final Logger LOG = Logger.getInstance(ReplayAofAction.class);
+    private static final int ERRORS_SHOWN = 10;
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+        replay(project, null);
+    }
+
+    /**
+     * Ask for the replay settings and run the replay in the background
+     * @param project the project
+     * @param file the file to preselect, or null
+     */
+    public static void replay(@NotNull Project project, @Nullable Path file) {
+        RedisConnectionManager connectionManager = ApplicationManager.getApplication()
+                .getService(RedisConnectionManager.class);
+        List<RedisConnection> targets = connectionManager.getConnections();
+        if (targets.isEmpty()) {
+            Messages.showInfoMessage(
+                    project,
+                    "Add a connection to replay against.",
+                    "Replay AOF File"
+            );
+            return;
+        }
+
+        ReplayAofDialog dialog = new ReplayAofDialog(project, file, targets, connectionManager.getActiveConnection());
+        if (!dialog.showAndGet()) {
+            return;
+        }
+
+        RedisConnection target = dialog.getTarget();
+        AofReplayJob job = AofReplayJob.builder()
+                .connection(target)
+                .source(dialog.getSource())
+                .speed(dialog.getSpeed())
+                .pipelineDepth(dialog.getPipelineDepth())
+                .skipFlush(dialog.isSkipFlush())
+                .build();
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project,
+                "Replaying " + dialog.getSource().getFileName() + " against " + target.getName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    job.run(indicator);
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Error reading " + job.getSource() + ": " + ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                String summary = summarize(job);
+                if (job.getFailed() == 0) {
+                    RedisNotifications.info(project, "Replay AOF File", summary);
+                    return;
+                }
+                RedisNotifications.warning(project, "Replay AOF File",
+                        summary + String.format("<br>%,d errors:<br>%s", job.getFailed(), summarizeErrors(job)));
+            }
+
+            @Override
+            public void onCancel() {
+                RedisNotifications.warning(project, "Replay AOF File",
+                        String.format("Replay cancelled after %,d commands", job.getCommands()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Replay AOF File", "Replay failed: " + error.getMessage());
+            }
+        });
+    }
+
+    private static String summarize(AofReplayJob job) {
+        LatencyHistogram histogram = job.getHistogram();
+        long elapsed = Math.max(1, job.getElapsedMillis());
+        StringBuilder summary = new StringBuilder(String.format(
+                "Replayed %,d commands in %.1f s (%,d ops/s)<br>Latency p50 %s, p95 %s, p99 %s, max %s",
+                job.getCommands(), elapsed / 1000.0, job.getCommands() * 1000 / elapsed,
+                formatMicros(histogram.getValueAtPercentile(50)), formatMicros(histogram.getValueAtPercentile(95)),
+                formatMicros(histogram.getValueAtPercentile(99)), formatMicros(histogram.getMax())));
+        if (job.getSpeed() > 0 && !job.isPaced()) {
+            summary.append("<br>The file has no timestamp annotations, so it was replayed at full speed");
+        }
+        if (job.getSkipped() > 0) {
+            summary.append(String.format("<br>Skipped %,d FLUSHALL/FLUSHDB commands", job.getSkipped()));
+        }
+        return summary.toString();
+    }
+
+    private static String formatMicros(long micros) {
+        return micros < 1000 ? micros + " µs" : String.format("%.2f ms", micros / 1000.0);
+    }
+
+    private static String summarizeErrors(AofReplayJob job) {
+        List<String> errors = job.getErrors();
+        for (String error : errors) {
+            LOG.warn("Replay of " + job.getSource() + ": " + error);
+        }
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < Math.min(ERRORS_SHOWN, errors.size()); i++) {
+            summary.append(escape(errors.get(i))).append("<br>");
+        }
+        if (job.getFailed() > ERRORS_SHOWN) {
+            summary.append(String.format("... and %,d more, see idea.log", job.getFailed() - ERRORS_SHOWN));
+        }
+        return summary.toString();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+}
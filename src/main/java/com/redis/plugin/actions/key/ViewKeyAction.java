@@ -8,6 +8,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
 import com.redis.plugin.model.RedisResult;
 import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.ui.ProductionGuard;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -71,24 +72,24 @@ public class ViewKeyAction extends AnAction {
         }
         
         String type = typeResult.getValue().toString();
-        RedisResult valueResult;
+        String command;
         
         // Get key value based on type
         switch (type.toLowerCase()) {
             case "string":
-                valueResult = connectionManager.getRedisService().execute("GET " + key);
+                command = "GET " + key;
                 break;
             case "list":
-                valueResult = connectionManager.getRedisService().execute("LRANGE " + key + " 0 -1");
+                command = "LRANGE " + key + " 0 -1";
                 break;
             case "set":
-                valueResult = connectionManager.getRedisService().execute("SMEMBERS " + key);
+                command = "SMEMBERS " + key;
                 break;
             case "zset":
-                valueResult = connectionManager.getRedisService().execute("ZRANGE " + key + " 0 -1 WITHSCORES");
+                command = "ZRANGE " + key + " 0 -1 WITHSCORES";
                 break;
             case "hash":
-                valueResult = connectionManager.getRedisService().execute("HGETALL " + key);
+                command = "HGETALL " + key;
                 break;
             default:
                 Messages.showErrorDialog(
@@ -99,6 +100,14 @@ public class ViewKeyAction extends AnAction {
                 return;
         }
         
+        // Whole collections on production servers are confirmed, paged or refused first
+        command = ProductionGuard.guard(project, connectionManager.getRedisService(), command,
+                reason -> Messages.showErrorDialog(project, reason, "Expensive Command"));
+        if (command == null) {
+            return;
+        }
+        RedisResult valueResult = connectionManager.getRedisService().execute(command);
+        
         if (valueResult.isError()) {
             Messages.showErrorDialog(
                     project,
@@ -0,0 +1,123 @@
+package com.redis.plugin.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the commands in an append-only file
+ */
+public class AofProfile {
+
+    /**
+     * Number of commands and bytes for a group, such as a command name or a key namespace
+     */
+    public static class Entry {
+        private final String name;
+        private final long commands;
+        private final long bytes;
+
+        public Entry(String name, long commands, long bytes) {
+            this.name = name;
+            this.commands = commands;
+            this.bytes = bytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCommands() {
+            return commands;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+    }
+
+    private final String source;
+    private final long totalCommands;
+    private final long totalBytes;
+    private final long firstTimestamp;
+    private final long lastTimestamp;
+    private final long elapsedMillis;
+    private final Map<String, String> metadata;
+    private final List<Entry> commands;
+    private final List<Entry> namespaces;
+    private final List<Entry> databases;
+
+    public AofProfile(String source, long totalCommands, long totalBytes, long firstTimestamp, long lastTimestamp,
+                      long elapsedMillis, Map<String, String> metadata, List<Entry> commands,
+                      List<Entry> namespaces, List<Entry> databases) {
+        this.source = source;
+        this.totalCommands = totalCommands;
+        this.totalBytes = totalBytes;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+        this.elapsedMillis = elapsedMillis;
+        this.metadata = Collections.unmodifiableMap(metadata);
+        this.commands = Collections.unmodifiableList(commands);
+        this.namespaces = Collections.unmodifiableList(namespaces);
+        this.databases = Collections.unmodifiableList(databases);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getTotalCommands() {
+        return totalCommands;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * @return the first {@code #TS} annotation in seconds, or -1 if the file has none
+     */
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    /**
+     * @return the last {@code #TS} annotation in seconds, or -1 if the file has none
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    public boolean hasTimestamps() {
+        return firstTimestamp >= 0;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return commands by name, most frequent first
+     */
+    public List<Entry> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return key namespaces written to, most frequent first
+     */
+    public List<Entry> getNamespaces() {
+        return namespaces;
+    }
+
+    /**
+     * @return commands per database selected with SELECT, in database order
+     */
+    public List<Entry> getDatabases() {
+        return databases;
+    }
+}
@@ -0,0 +1,73 @@
+package com.redis.plugin.model;
+
+/**
+ * A server metric derived from {@code INFO} and charted over time
+ */
+public enum InfoMetric {
+    OPS_PER_SECOND("Ops/sec", Unit.RATE),
+    USED_MEMORY("Used Memory", Unit.BYTES),
+    HIT_RATIO("Hit Ratio", Unit.PERCENT),
+    CONNECTED_CLIENTS("Connected Clients", Unit.COUNT),
+    EVICTIONS_PER_SECOND("Evictions/sec", Unit.RATE),
+    REPLICATION_OFFSET("Replication Offset", Unit.COUNT);
+
+    /**
+     * How the values of a metric are displayed
+     */
+    public enum Unit {
+        COUNT, RATE, BYTES, PERCENT
+    }
+
+    private final String label;
+    private final Unit unit;
+
+    InfoMetric(String label, Unit unit) {
+        this.label = label;
+        this.unit = unit;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    /**
+     * Format a value of this metric for display
+     *
+     * @param value the value, or NaN if unknown
+     * @return the formatted value
+     */
+    public String format(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        switch (unit) {
+            case BYTES:
+                return formatBytes(value);
+            case PERCENT:
+                return String.format("%.1f%%", value);
+            case RATE:
+                return value < 10 ? String.format("%.1f", value) : String.format("%,.0f", value);
+            default:
+                return String.format("%,.0f", value);
+        }
+    }
+
+    private static String formatBytes(double bytes) {
+        String[] units = {"B", "KB", "MB", "GB", "TB"};
+        int unit = 0;
+        while (bytes >= 1024 && unit < units.length - 1) {
+            bytes /= 1024;
+            unit++;
+        }
+        return unit == 0 ? String.format("%.0f B", bytes) : String.format("%.1f %s", bytes, units[unit]);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
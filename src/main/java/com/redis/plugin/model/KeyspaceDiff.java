@@ -0,0 +1,130 @@
+package com.redis.plugin.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of comparing the keys of two connections.
+ * Counts cover every key; individual keys are kept only up to the sample limit.
+ */
+public class KeyspaceDiff {
+    /**
+     * How a key differs between the two sides
+     */
+    public enum Change {
+        ADDED("Only in target"),
+        REMOVED("Only in source"),
+        CHANGED("Value differs");
+
+        private final String displayName;
+
+        Change(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * A single differing key
+     */
+    public static class Entry {
+        private final String key;
+        private final Change change;
+
+        public Entry(String key, Change change) {
+            this.key = key;
+            this.change = change;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Change getChange() {
+            return change;
+        }
+    }
+
+    private final int sampleLimit;
+    private final List<Entry> samples = new ArrayList<>();
+    private long added;
+    private long removed;
+    private long changed;
+    private long unchanged;
+
+    /**
+     * @param sampleLimit maximum number of differing keys to keep
+     */
+    public KeyspaceDiff(int sampleLimit) {
+        this.sampleLimit = sampleLimit;
+    }
+
+    /**
+     * Record a differing key
+     * @param key the key name
+     * @param change how it differs
+     */
+    public void add(String key, Change change) {
+        switch (change) {
+            case ADDED:
+                added++;
+                break;
+            case REMOVED:
+                removed++;
+                break;
+            case CHANGED:
+                changed++;
+                break;
+        }
+        if (samples.size() < sampleLimit) {
+            samples.add(new Entry(key, change));
+        }
+    }
+
+    /**
+     * Record a key that is identical on both sides
+     */
+    public void addUnchanged() {
+        unchanged++;
+    }
+
+    public long getAdded() {
+        return added;
+    }
+
+    public long getRemoved() {
+        return removed;
+    }
+
+    public long getChanged() {
+        return changed;
+    }
+
+    public long getUnchanged() {
+        return unchanged;
+    }
+
+    public long getDifferences() {
+        return added + removed + changed;
+    }
+
+    /**
+     * Get the recorded differing keys in key order
+     * @return at most the sample limit of entries
+     */
+    public List<Entry> getSamples() {
+        return Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * @return true if more keys differ than were kept
+     */
+    public boolean isTruncated() {
+        return getDifferences() > samples.size();
+    }
+}
@@ -0,0 +1,215 @@
+package com.redis.plugin.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of a keyspace, produced either from a live server or from an RDB file.
+ * Sizes are in bytes; what they measure depends on the source and is described by
+ * {@link #getSizeMetric()}.
+ */
+public class KeyspaceReport {
+
+    /**
+     * Aggregated figures for a group of keys, such as a namespace or a type
+     */
+    public static class GroupStats {
+        private final String name;
+        private final long keys;
+        private final long bytes;
+        private final long keysWithTtl;
+
+        public GroupStats(String name, long keys, long bytes, long keysWithTtl) {
+            this.name = name;
+            this.keys = keys;
+            this.bytes = bytes;
+            this.keysWithTtl = keysWithTtl;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getKeys() {
+            return keys;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getKeysWithTtl() {
+            return keysWithTtl;
+        }
+    }
+
+    /**
+     * Details of a single key
+     */
+    public static class KeyInfo {
+        private final int database;
+        private final String key;
+        private final String type;
+        private final String encoding;
+        private final long bytes;
+        private final long elements;
+        private final long ttlMillis;
+
+        /**
+         * @param database the database index
+         * @param key the key name
+         * @param type the Redis type name
+         * @param encoding the internal encoding
+         * @param bytes the size of the key
+         * @param elements number of elements, or -1 if unknown
+         * @param ttlMillis remaining time to live, -1 if the key does not expire, 0 if already expired
+         */
+        public KeyInfo(int database, String key, String type, String encoding, long bytes, long elements, long ttlMillis) {
+            this.database = database;
+            this.key = key;
+            this.type = type;
+            this.encoding = encoding;
+            this.bytes = bytes;
+            this.elements = elements;
+            this.ttlMillis = ttlMillis;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getEncoding() {
+            return encoding;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElements() {
+            return elements;
+        }
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+    }
+
+    private final String source;
+    private final String sizeMetric;
+    private final long totalKeys;
+    private final long totalBytes;
+    private final long keysWithTtl;
+    private final long elapsedMillis;
+    private final boolean complete;
+    private final Map<String, String> metadata;
+    private final List<GroupStats> namespaces;
+    private final List<GroupStats> types;
+    private final List<GroupStats> encodings;
+    private final List<GroupStats> ttlBuckets;
+    private final List<GroupStats> databases;
+    private final List<KeyInfo> biggestKeys;
+
+    public KeyspaceReport(String source, String sizeMetric, long totalKeys, long totalBytes, long keysWithTtl,
+                          long elapsedMillis, boolean complete, Map<String, String> metadata,
+                          List<GroupStats> namespaces, List<GroupStats> types, List<GroupStats> encodings,
+                          List<GroupStats> ttlBuckets, List<GroupStats> databases, List<KeyInfo> biggestKeys) {
+        this.source = source;
+        this.sizeMetric = sizeMetric;
+        this.totalKeys = totalKeys;
+        this.totalBytes = totalBytes;
+        this.keysWithTtl = keysWithTtl;
+        this.elapsedMillis = elapsedMillis;
+        this.complete = complete;
+        this.metadata = Collections.unmodifiableMap(metadata);
+        this.namespaces = Collections.unmodifiableList(namespaces);
+        this.types = Collections.unmodifiableList(types);
+        this.encodings = Collections.unmodifiableList(encodings);
+        this.ttlBuckets = Collections.unmodifiableList(ttlBuckets);
+        this.databases = Collections.unmodifiableList(databases);
+        this.biggestKeys = Collections.unmodifiableList(biggestKeys);
+    }
+
+    /**
+     * @return a description of what was analyzed, such as a connection name or file path
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return what the byte figures measure, e.g. "Memory usage" or "Serialized size"
+     */
+    public String getSizeMetric() {
+        return sizeMetric;
+    }
+
+    public long getTotalKeys() {
+        return totalKeys;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getKeysWithTtl() {
+        return keysWithTtl;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return false if the analysis stopped early, for example on cancellation or a key limit
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return source-specific details such as the Redis version recorded in an RDB file
+     */
+    public Map<String, String> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return namespaces ordered by size, largest first
+     */
+    public List<GroupStats> getNamespaces() {
+        return namespaces;
+    }
+
+    public List<GroupStats> getTypes() {
+        return types;
+    }
+
+    public List<GroupStats> getEncodings() {
+        return encodings;
+    }
+
+    public List<GroupStats> getTtlBuckets() {
+        return ttlBuckets;
+    }
+
+    public List<GroupStats> getDatabases() {
+        return databases;
+    }
+
+    /**
+     * @return the largest keys, largest first
+     */
+    public List<KeyInfo> getBiggestKeys() {
+        return biggestKeys;
+    }
+}
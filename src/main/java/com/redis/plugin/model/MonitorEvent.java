@@ -0,0 +1,52 @@
+package com.redis.plugin.model;
+
+import java.util.List;
+
+/**
+ * A single command reported by {@code MONITOR}
+ */
+public class MonitorEvent {
+    private final long timestampMicros;
+    private final int database;
+    private final String client;
+    private final List<String> args;
+
+    /**
+     * @param timestampMicros server time in microseconds since the epoch
+     * @param database the database the command ran against
+     * @param client the client address, "lua" for scripts or "unix:..." for socket clients
+     * @param args the command name followed by its arguments
+     */
+    public MonitorEvent(long timestampMicros, int database, String client, List<String> args) {
+        this.timestampMicros = timestampMicros;
+        this.database = database;
+        this.client = client;
+        this.args = args;
+    }
+
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    public int getDatabase() {
+        return database;
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    /**
+     * @return the command name in upper case
+     */
+    public String getCommand() {
+        return args.isEmpty() ? "" : args.get(0).toUpperCase();
+    }
+
+    /**
+     * @return the command name followed by its arguments
+     */
+    public List<String> getArgs() {
+        return args;
+    }
+}
@@ -0,0 +1,49 @@
+package com.redis.plugin.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A message received by a Pub/Sub subscription
+ */
+public class PubSubMessage {
+    private final long timestamp;
+    private final String channel;
+    private final String pattern;
+    private final byte[] payload;
+
+    /**
+     * @param timestamp time the message was received, in milliseconds
+     * @param channel the channel it was published to
+     * @param pattern the pattern that matched the channel, or null for channel subscriptions
+     * @param payload the raw message
+     */
+    public PubSubMessage(long timestamp, String channel, String pattern, byte[] payload) {
+        this.timestamp = timestamp;
+        this.channel = channel;
+        this.pattern = pattern;
+        this.payload = payload;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public int getSize() {
+        return payload.length;
+    }
+
+    /**
+     * @return the payload decoded as UTF-8
+     */
+    public String getText() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
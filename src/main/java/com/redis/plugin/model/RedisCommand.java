@@ -6,7 +6,11 @@ import java.util.List;
 import java.util.Objects;
 
 /**
- * Represents a Redis command with its documentation
+ * Represents a Redis command with its documentation.
+ * <p>
+ * Commands read from a server's {@code COMMAND DOCS} and {@code COMMAND} replies also carry
+ * the group, flags, ACL categories and key specs the server reports; built-in commands
+ * leave them empty.
  */
 public class RedisCommand {
     private final String name;
@@ -15,8 +19,17 @@ public class RedisCommand {
     private final List<String> examples;
     private final List<String> parameters;
     private final List<String> returnValues;
+    private final List<String> flags;
+    private final List<String> aclCategories;
+    private final List<String> keySpecs;
     private RedisCommandComplexity complexity;
+    private String complexityText;
     private String since;
+    private String group;
+    private int arity;
+    private int firstKey;
+    private int lastKey;
+    private int keyStep;
 
     /**
      * Create a new Redis command
@@ -32,6 +45,9 @@ public class RedisCommand {
         this.examples = new ArrayList<>();
         this.parameters = new ArrayList<>();
         this.returnValues = new ArrayList<>();
+        this.flags = new ArrayList<>();
+        this.aclCategories = new ArrayList<>();
+        this.keySpecs = new ArrayList<>();
     }
 
     /**
@@ -151,6 +167,154 @@ public class RedisCommand {
         this.since = since;
     }
 
+    /**
+     * Get the complexity as documented by the server, e.g. "O(log(N)) for each item added"
+     * 
+     * @return the documented complexity, or null for built-in commands
+     */
+    public String getComplexityText() {
+        return complexityText;
+    }
+
+    /**
+     * Set the complexity as documented by the server
+     * 
+     * @param complexityText the documented complexity
+     */
+    public void setComplexityText(String complexityText) {
+        this.complexityText = complexityText;
+    }
+
+    /**
+     * Get the category the command belongs to, e.g. "Sorted Sets"
+     * 
+     * @return the category name, or null for built-in commands
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Set the category the command belongs to
+     * 
+     * @param group the category name
+     */
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    /**
+     * Get the command flags, e.g. "write" or "denyoom"
+     * 
+     * @return an unmodifiable list of flags
+     */
+    public List<String> getFlags() {
+        return Collections.unmodifiableList(flags);
+    }
+
+    /**
+     * Add a command flag
+     * 
+     * @param flag the flag to add
+     */
+    public void addFlag(String flag) {
+        this.flags.add(flag);
+    }
+
+    /**
+     * Get the ACL categories of the command, e.g. "@write"
+     * 
+     * @return an unmodifiable list of ACL categories
+     */
+    public List<String> getAclCategories() {
+        return Collections.unmodifiableList(aclCategories);
+    }
+
+    /**
+     * Add an ACL category
+     * 
+     * @param aclCategory the ACL category to add
+     */
+    public void addAclCategory(String aclCategory) {
+        this.aclCategories.add(aclCategory);
+    }
+
+    /**
+     * Get the key specs of the command, each describing where some of its keys are
+     * 
+     * @return an unmodifiable list of key spec descriptions
+     */
+    public List<String> getKeySpecs() {
+        return Collections.unmodifiableList(keySpecs);
+    }
+
+    /**
+     * Add a key spec description
+     * 
+     * @param keySpec the key spec description
+     */
+    public void addKeySpec(String keySpec) {
+        this.keySpecs.add(keySpec);
+    }
+
+    /**
+     * Get the number of arguments, including the command name; negative when it is a minimum
+     * 
+     * @return the arity, or 0 when unknown
+     */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+     * Set the number of arguments, including the command name
+     * 
+     * @param arity the arity, negative when it is a minimum
+     */
+    public void setArity(int arity) {
+        this.arity = arity;
+    }
+
+    /**
+     * Get the position of the first key in the arguments, the command name being at 0
+     * 
+     * @return the position, or 0 when the command takes no keys or they are not known
+     */
+    public int getFirstKey() {
+        return firstKey;
+    }
+
+    /**
+     * Get the position of the last key in the arguments
+     * 
+     * @return the position, negative when counted from the end
+     */
+    public int getLastKey() {
+        return lastKey;
+    }
+
+    /**
+     * Get the distance between two keys in the arguments
+     * 
+     * @return the step
+     */
+    public int getKeyStep() {
+        return keyStep;
+    }
+
+    /**
+     * Set where the keys are in the arguments, as reported by {@code COMMAND}
+     * 
+     * @param firstKey position of the first key, or 0 if none
+     * @param lastKey position of the last key, negative when counted from the end
+     * @param keyStep distance between two keys
+     */
+    public void setKeyPositions(int firstKey, int lastKey, int keyStep) {
+        this.firstKey = firstKey;
+        this.lastKey = lastKey;
+        this.keyStep = keyStep;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -7,6 +7,21 @@ import java.util.UUID;
  * Represents a Redis server connection with configuration details
  */
 public class RedisConnection {
+    /**
+     * Elements a command may touch on a production server before asking for confirmation
+     */
+    public static final long DEFAULT_WARN_COST = 10_000;
+
+    /**
+     * Elements a command may touch on a production server before it is refused or rewritten
+     */
+    public static final long DEFAULT_BLOCK_COST = 1_000_000;
+
+    /**
+     * Seconds a replica may lag behind its primary and still serve reads
+     */
+    public static final int DEFAULT_MAX_REPLICA_LAG = 10;
+
     private String id;
     private String name;
     private String host;
@@ -15,6 +30,14 @@ public class RedisConnection {
     private boolean useSSL;
     private int database;
     private int timeout;
+    private boolean embedded;
+    private int embeddedLatency;
+    private boolean production;
+    private long warnCost;
+    private long blockCost;
+    private boolean readFromReplicas;
+    private String replicas;
+    private int maxReplicaLag;
     private boolean connected;
 
     /**
@@ -25,6 +48,9 @@ public class RedisConnection {
         this.port = 6379; // Default Redis port
         this.database = 0;
         this.timeout = 5000; // 5 seconds default
+        this.warnCost = DEFAULT_WARN_COST;
+        this.blockCost = DEFAULT_BLOCK_COST;
+        this.maxReplicaLag = DEFAULT_MAX_REPLICA_LAG;
         this.connected = false;
     }
 
@@ -40,6 +66,9 @@ public class RedisConnection {
         this.useSSL = useSSL;
         this.database = database;
         this.timeout = timeout;
+        this.warnCost = DEFAULT_WARN_COST;
+        this.blockCost = DEFAULT_BLOCK_COST;
+        this.maxReplicaLag = DEFAULT_MAX_REPLICA_LAG;
         this.connected = false;
     }
 
@@ -65,6 +94,14 @@ public class RedisConnection {
                 .useSSL(this.useSSL)
                 .database(this.database)
                 .timeout(this.timeout)
+                .embedded(this.embedded)
+                .embeddedLatency(this.embeddedLatency)
+                .production(this.production)
+                .warnCost(this.warnCost)
+                .blockCost(this.blockCost)
+                .readFromReplicas(this.readFromReplicas)
+                .replicas(this.replicas)
+                .maxReplicaLag(this.maxReplicaLag)
                 .connected(this.connected);
     }
 
@@ -132,6 +169,99 @@ public class RedisConnection {
         this.timeout = timeout;
     }
 
+    /**
+     * @return true if this connection targets an in-process server started by the plugin
+     *         rather than a Redis server; host and port are then assigned when connecting
+     */
+    public boolean isEmbedded() {
+        return embedded;
+    }
+
+    public void setEmbedded(boolean embedded) {
+        this.embedded = embedded;
+    }
+
+    /**
+     * @return the artificial latency in milliseconds the embedded server adds to each reply
+     */
+    public int getEmbeddedLatency() {
+        return embeddedLatency;
+    }
+
+    public void setEmbeddedLatency(int embeddedLatency) {
+        this.embeddedLatency = embeddedLatency;
+    }
+
+    /**
+     * @return true if this connection targets a production server, whose expensive commands
+     *         are estimated before running and confirmed, refused or rewritten
+     */
+    public boolean isProduction() {
+        return production;
+    }
+
+    public void setProduction(boolean production) {
+        this.production = production;
+    }
+
+    /**
+     * @return the estimated number of elements above which a command asks for confirmation
+     */
+    public long getWarnCost() {
+        return warnCost;
+    }
+
+    public void setWarnCost(long warnCost) {
+        this.warnCost = warnCost;
+    }
+
+    /**
+     * @return the estimated number of elements above which a command is refused, or rewritten
+     *         to a paged equivalent when it has one
+     */
+    public long getBlockCost() {
+        return blockCost;
+    }
+
+    public void setBlockCost(long blockCost) {
+        this.blockCost = blockCost;
+    }
+
+    /**
+     * @return true if read-only commands are sent to the healthy replica answering fastest
+     *         rather than to this server
+     */
+    public boolean isReadFromReplicas() {
+        return readFromReplicas;
+    }
+
+    public void setReadFromReplicas(boolean readFromReplicas) {
+        this.readFromReplicas = readFromReplicas;
+    }
+
+    /**
+     * @return the replicas to read from as comma-separated host:port pairs, or null or empty
+     *         to discover them from {@code INFO replication}
+     */
+    public String getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(String replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * @return the seconds a replica may lag behind this server and still serve reads
+     */
+    public int getMaxReplicaLag() {
+        return maxReplicaLag;
+    }
+
+    public void setMaxReplicaLag(int maxReplicaLag) {
+        this.maxReplicaLag = maxReplicaLag;
+    }
+
     public boolean isConnected() {
         return connected;
     }
@@ -142,7 +272,7 @@ public class RedisConnection {
 
     @Override
     public String toString() {
-        return name + " (" + host + ":" + port + ")";
+        return name + (embedded ? " (embedded)" : " (" + host + ":" + port + ")");
     }
 
     @Override
@@ -170,6 +300,14 @@ public class RedisConnection {
         private boolean useSSL = false;
         private int database = 0;
         private int timeout = 5000;
+        private boolean embedded = false;
+        private int embeddedLatency = 0;
+        private boolean production = false;
+        private long warnCost = DEFAULT_WARN_COST;
+        private long blockCost = DEFAULT_BLOCK_COST;
+        private boolean readFromReplicas = false;
+        private String replicas;
+        private int maxReplicaLag = DEFAULT_MAX_REPLICA_LAG;
         private boolean connected = false;
 
         public Builder id(String id) {
@@ -212,6 +350,46 @@ public class RedisConnection {
             return this;
         }
 
+        public Builder embedded(boolean embedded) {
+            this.embedded = embedded;
+            return this;
+        }
+
+        public Builder embeddedLatency(int embeddedLatency) {
+            this.embeddedLatency = embeddedLatency;
+            return this;
+        }
+
+        public Builder production(boolean production) {
+            this.production = production;
+            return this;
+        }
+
+        public Builder warnCost(long warnCost) {
+            this.warnCost = warnCost;
+            return this;
+        }
+
+        public Builder blockCost(long blockCost) {
+            this.blockCost = blockCost;
+            return this;
+        }
+
+        public Builder readFromReplicas(boolean readFromReplicas) {
+            this.readFromReplicas = readFromReplicas;
+            return this;
+        }
+
+        public Builder replicas(String replicas) {
+            this.replicas = replicas;
+            return this;
+        }
+
+        public Builder maxReplicaLag(int maxReplicaLag) {
+            this.maxReplicaLag = maxReplicaLag;
+            return this;
+        }
+
         public Builder connected(boolean connected) {
             this.connected = connected;
             return this;
@@ -229,6 +407,14 @@ public class RedisConnection {
             connection.useSSL = useSSL;
             connection.database = database;
             connection.timeout = timeout;
+            connection.embedded = embedded;
+            connection.embeddedLatency = embeddedLatency;
+            connection.production = production;
+            connection.warnCost = warnCost;
+            connection.blockCost = blockCost;
+            connection.readFromReplicas = readFromReplicas;
+            connection.replicas = replicas;
+            connection.maxReplicaLag = maxReplicaLag;
             connection.connected = connected;
             return connection;
         }
@@ -0,0 +1,55 @@
+package com.redis.plugin.model;
+
+import java.util.Set;
+
+/**
+ * A function of a Redis 7 library, as listed by {@code FUNCTION LIST}
+ */
+public class RedisFunction {
+    private final String library;
+    private final String name;
+    private final String description;
+    private final Set<String> flags;
+
+    public RedisFunction(String library, String name, String description, Set<String> flags) {
+        this.library = library;
+        this.name = name;
+        this.description = description;
+        this.flags = flags;
+    }
+
+    public String getLibrary() {
+        return library;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the description given when registering the function, or null
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return the flags of the function, e.g. "no-writes" or "allow-oom"
+     */
+    public Set<String> getFlags() {
+        return flags;
+    }
+
+    /**
+     * @return whether the function declares it does not write, so it can run with
+     * {@code FCALL_RO}, on a replica too
+     */
+    public boolean isReadOnly() {
+        return flags.contains("no-writes");
+    }
+
+    @Override
+    public String toString() {
+        return library + "." + name;
+    }
+}
@@ -0,0 +1,68 @@
+package com.redis.plugin.model;
+
+/**
+ * A single key with its type, remaining time to live and value,
+ * as moved by export and import jobs.
+ * <p>
+ * The value depends on the type:
+ * <ul>
+ *     <li>string - {@code String}</li>
+ *     <li>hash - {@code Map<String, String>}</li>
+ *     <li>list - {@code List<String>}</li>
+ *     <li>set - {@code Collection<String>}</li>
+ *     <li>zset - {@code List<Map.Entry<String, Double>>} in score order</li>
+ *     <li>stream - {@code List<Map.Entry<String, Map<String, String>>>} of entry ID to fields</li>
+ * </ul>
+ */
+public class RedisKeyRecord {
+    public static final String TYPE_STRING = "string";
+    public static final String TYPE_HASH = "hash";
+    public static final String TYPE_LIST = "list";
+    public static final String TYPE_SET = "set";
+    public static final String TYPE_ZSET = "zset";
+    public static final String TYPE_STREAM = "stream";
+
+    private final String key;
+    private final String type;
+    private final long ttlMillis;
+    private final Object value;
+
+    /**
+     * Create a key record
+     * @param key the key name
+     * @param type the Redis type name as returned by TYPE
+     * @param ttlMillis remaining time to live in milliseconds, or -1 if the key does not expire
+     * @param value the value, see the class documentation for the representation per type
+     */
+    public RedisKeyRecord(String key, String type, long ttlMillis, Object value) {
+        this.key = key;
+        this.type = type;
+        this.ttlMillis = ttlMillis;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public boolean hasTtl() {
+        return ttlMillis > 0;
+    }
+
+    @Override
+    public String toString() {
+        return key + " (" + type + ")";
+    }
+}
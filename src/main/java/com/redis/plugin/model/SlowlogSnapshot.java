@@ -0,0 +1,195 @@
+package com.redis.plugin.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Aggregated view of the slow log entries seen since monitoring started
+ */
+public class SlowlogSnapshot {
+
+    /**
+     * Statistics for all entries that normalize to the same command template
+     */
+    public static class TemplateStats {
+        private final String template;
+        private final String command;
+        private final RedisCommandComplexity complexity;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+        private final long p99Micros;
+        private final long lastSeen;
+        private final String example;
+
+        /**
+         * @param template the normalized command, e.g. "HGETALL user:*"
+         * @param command the command name as known to the command catalog
+         * @param complexity the catalog complexity, or null if the command is not in the catalog
+         * @param count number of entries
+         * @param totalMicros total execution time
+         * @param maxMicros slowest execution
+         * @param p99Micros 99th percentile execution time
+         * @param lastSeen unix time in seconds of the most recent entry
+         * @param example the arguments of the most recent entry
+         */
+        public TemplateStats(String template, String command, RedisCommandComplexity complexity, long count,
+                             long totalMicros, long maxMicros, long p99Micros, long lastSeen, String example) {
+            this.template = template;
+            this.command = command;
+            this.complexity = complexity;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+            this.p99Micros = p99Micros;
+            this.lastSeen = lastSeen;
+            this.example = example;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public RedisCommandComplexity getComplexity() {
+            return complexity;
+        }
+
+        /**
+         * @return true if the catalog lists the command as linear or worse
+         */
+        public boolean isLinear() {
+            return complexity == RedisCommandComplexity.ON
+                    || complexity == RedisCommandComplexity.OM_PLUS_N
+                    || complexity == RedisCommandComplexity.ON_SQUARE;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMicros() {
+            return totalMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+
+        public String getExample() {
+            return example;
+        }
+    }
+
+    /**
+     * A single slow log entry
+     */
+    public static class Entry {
+        private final long id;
+        private final long timestamp;
+        private final long micros;
+        private final String command;
+        private final String client;
+
+        public Entry(long id, long timestamp, long micros, String command, String client) {
+            this.id = id;
+            this.timestamp = timestamp;
+            this.micros = micros;
+            this.command = command;
+            this.client = client;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * @return unix time in seconds when the command ran
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getMicros() {
+            return micros;
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getClient() {
+            return client;
+        }
+    }
+
+    private final List<TemplateStats> templates;
+    private final List<Entry> recent;
+    private final long entries;
+    private final long missed;
+    private final long pollTime;
+    private final String error;
+
+    public SlowlogSnapshot(List<TemplateStats> templates, List<Entry> recent, long entries, long missed,
+                           long pollTime, String error) {
+        this.templates = Collections.unmodifiableList(templates);
+        this.recent = Collections.unmodifiableList(recent);
+        this.entries = entries;
+        this.missed = missed;
+        this.pollTime = pollTime;
+        this.error = error;
+    }
+
+    /**
+     * @return templates ordered by total execution time, largest first
+     */
+    public List<TemplateStats> getTemplates() {
+        return templates;
+    }
+
+    /**
+     * @return the most recent entries, newest first
+     */
+    public List<Entry> getRecent() {
+        return recent;
+    }
+
+    /**
+     * @return number of entries aggregated
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return number of entries that were rotated out of the server's slow log between two polls
+     */
+    public long getMissed() {
+        return missed;
+    }
+
+    /**
+     * @return time of the last poll in milliseconds
+     */
+    public long getPollTime() {
+        return pollTime;
+    }
+
+    /**
+     * @return the error of the last poll, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+}
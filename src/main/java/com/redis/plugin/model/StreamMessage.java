@@ -0,0 +1,50 @@
+package com.redis.plugin.model;
+
+import java.util.Map;
+
+/**
+ * An entry of a Redis stream
+ */
+public class StreamMessage {
+    private final String id;
+    private final Map<String, String> fields;
+
+    public StreamMessage(String id, Map<String, String> fields) {
+        this.id = id;
+        this.fields = fields;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the time part of the id, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        int dash = id.indexOf('-');
+        try {
+            return Long.parseLong(dash < 0 ? id : id.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return the fields as "name=value" pairs
+     */
+    public String getFieldsText() {
+        StringBuilder text = new StringBuilder();
+        fields.forEach((name, value) -> {
+            if (text.length() > 0) {
+                text.append(", ");
+            }
+            text.append(name).append('=').append(value);
+        });
+        return text.toString();
+    }
+}
@@ -0,0 +1,160 @@
+package com.redis.plugin.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Length, ids and consumer groups of a stream at one point in time
+ */
+public class StreamStatus {
+
+    /**
+     * A consumer of a group
+     */
+    public static class Consumer {
+        private final String name;
+        private final long pending;
+        private final long idleMillis;
+
+        public Consumer(String name, long pending, long idleMillis) {
+            this.name = name;
+            this.pending = pending;
+            this.idleMillis = idleMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return number of entries delivered to this consumer and not yet acknowledged
+         */
+        public long getPending() {
+            return pending;
+        }
+
+        /**
+         * @return time since the consumer last interacted with the server
+         */
+        public long getIdleMillis() {
+            return idleMillis;
+        }
+    }
+
+    /**
+     * A consumer group with its backlog
+     */
+    public static class Group {
+        private final String name;
+        private final long pending;
+        private final String lastDeliveredId;
+        private final long lag;
+        private final boolean lagExact;
+        private final List<Consumer> consumers;
+
+        /**
+         * @param name the group name
+         * @param pending entries delivered and not yet acknowledged
+         * @param lastDeliveredId the id of the last entry delivered to the group
+         * @param lag entries not yet delivered to the group
+         * @param lagExact false if the lag is a lower bound
+         * @param consumers the consumers of the group
+         */
+        public Group(String name, long pending, String lastDeliveredId, long lag, boolean lagExact,
+                     List<Consumer> consumers) {
+            this.name = name;
+            this.pending = pending;
+            this.lastDeliveredId = lastDeliveredId;
+            this.lag = lag;
+            this.lagExact = lagExact;
+            this.consumers = Collections.unmodifiableList(consumers);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPending() {
+            return pending;
+        }
+
+        public String getLastDeliveredId() {
+            return lastDeliveredId;
+        }
+
+        public long getLag() {
+            return lag;
+        }
+
+        public boolean isLagExact() {
+            return lagExact;
+        }
+
+        public List<Consumer> getConsumers() {
+            return consumers;
+        }
+    }
+
+    private final String key;
+    private final long length;
+    private final String firstId;
+    private final String lastGeneratedId;
+    private final List<Group> groups;
+    private final long pollTime;
+    private final String error;
+
+    public StreamStatus(String key, long length, String firstId, String lastGeneratedId, List<Group> groups,
+                        long pollTime, String error) {
+        this.key = key;
+        this.length = length;
+        this.firstId = firstId;
+        this.lastGeneratedId = lastGeneratedId;
+        this.groups = Collections.unmodifiableList(groups);
+        this.pollTime = pollTime;
+        this.error = error;
+    }
+
+    /**
+     * Create a status for a poll that failed
+     */
+    public static StreamStatus error(String key, long pollTime, String error) {
+        return new StreamStatus(key, 0, null, null, Collections.emptyList(), pollTime, error);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * @return the id of the oldest entry, or null if the stream is empty
+     */
+    public String getFirstId() {
+        return firstId;
+    }
+
+    public String getLastGeneratedId() {
+        return lastGeneratedId;
+    }
+
+    public List<Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return time of the poll in milliseconds
+     */
+    public long getPollTime() {
+        return pollTime;
+    }
+
+    /**
+     * @return the error of the poll, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+}
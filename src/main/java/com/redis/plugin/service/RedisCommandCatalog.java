@@ -1,36 +1,224 @@
 package com.redis.plugin.service;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
 import com.redis.plugin.model.RedisCommand;
 import com.redis.plugin.model.RedisCommandCategory;
 import com.redis.plugin.model.RedisCommandComplexity;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.catalog.CommandCatalogCache;
+import com.redis.plugin.service.catalog.CommandDocsLoader;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
- * Service that provides a catalog of Redis commands
+ * Service that provides a catalog of Redis commands.
+ * <p>
+ * Once a server is connected, {@link #loadFromServer} replaces the catalog by the commands
+ * that server documents through {@code COMMAND DOCS} and {@code COMMAND}, modules included,
+ * keeping the examples and return values of the built-in list. Those commands are cached per
+ * server version by a {@link CommandCatalogCache}, so they are only fetched once. The
+ * built-in list, built on first use, remains the catalog until then and for servers that do
+ * not document their commands.
  */
 @Service
 public final class RedisCommandCatalog {
+    private static final Logger LOG = Logger.getInstance(RedisCommandCatalog.class);
+
     private final List<RedisCommandCategory> categories;
     private final Map<String, RedisCommand> commandsByName;
+    private final CommandCatalogCache cache;
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean builtinLoaded;
+    private volatile ServerCatalog server;
     
     public RedisCommandCatalog() {
+        this(new CommandCatalogCache(Path.of(PathManager.getSystemPath(), "redis-plugin", "commands")));
+    }
+
+    RedisCommandCatalog(CommandCatalogCache cache) {
+        this.cache = cache;
         categories = new ArrayList<>();
         commandsByName = new HashMap<>();
-        initializeCommands();
     }
     
     public List<RedisCommandCategory> getCategories() {
+        ServerCatalog loaded = server;
+        if (loaded != null) {
+            return loaded.categories;
+        }
+        ensureBuiltin();
         return categories;
     }
     
     public RedisCommand getCommand(String name) {
+        ServerCatalog loaded = server;
+        if (loaded != null) {
+            return loaded.commandsByName.get(name.toLowerCase());
+        }
+        ensureBuiltin();
         return commandsByName.get(name.toLowerCase());
     }
+
+    /**
+     * Get what the catalog was read from
+     *
+     * @return the server key, e.g. "redis-7.2.4", or null for the built-in list
+     */
+    public String getServerKey() {
+        ServerCatalog loaded = server;
+        return loaded != null ? loaded.serverKey : null;
+    }
+
+    /**
+     * Add a listener called, on the loading thread, when the catalog is replaced
+     *
+     * @param listener the listener to add
+     * @param parentDisposable removes the listener when disposed
+     */
+    public void addChangeListener(Runnable listener, Disposable parentDisposable) {
+        changeListeners.add(listener);
+        Disposer.register(parentDisposable, () -> changeListeners.remove(listener));
+    }
+
+    /**
+     * Replace the catalog by the commands of a server, from the cache if it has seen the
+     * server version before. Falls back to the built-in list if the server does not document
+     * its commands, and keeps the current catalog if they cannot be read. Blocks on the
+     * server; call it off the EDT.
+     *
+     * @param connection the server to read the commands of
+     */
+    public void loadFromServer(RedisConnection connection) {
+        ServerCatalog loaded;
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            String serverKey = CommandDocsLoader.serverKey(jedis);
+            ServerCatalog current = server;
+            if (current != null && current.serverKey.equals(serverKey)) {
+                return;
+            }
+            Map<String, RedisCommand> commands = readCache(serverKey);
+            if (commands == null) {
+                try {
+                    commands = CommandDocsLoader.fetch(jedis);
+                } catch (JedisDataException e) {
+                    // No COMMAND DOCS before Redis 7; use the built-in list, not the previous server's
+                    LOG.info(connection.getName() + " does not document its commands: " + e.getMessage());
+                    commands = Collections.emptyMap();
+                }
+                if (!commands.isEmpty()) {
+                    writeCache(serverKey, commands);
+                }
+            }
+            loaded = commands.isEmpty() ? null : index(serverKey, commands);
+        } catch (JedisException e) {
+            LOG.info("Could not read the commands of " + connection.getName() + ": " + e.getMessage());
+            return;
+        }
+        if (loaded == null && server == null) {
+            return;
+        }
+        server = loaded;
+        for (Runnable listener : changeListeners) {
+            listener.run();
+        }
+    }
+
+    private Map<String, RedisCommand> readCache(String serverKey) {
+        try {
+            return cache.read(serverKey);
+        } catch (IOException e) {
+            LOG.warn("Could not read the cached commands of " + serverKey, e);
+            return null;
+        }
+    }
+
+    private void writeCache(String serverKey, Map<String, RedisCommand> commands) {
+        try {
+            cache.write(serverKey, commands.values());
+        } catch (IOException e) {
+            LOG.warn("Could not cache the commands of " + serverKey, e);
+        }
+    }
+
+    /**
+     * Sort server commands into categories, the built-in ones first, and give them the
+     * examples and return values of their built-in counterparts
+     */
+    private ServerCatalog index(String serverKey, Map<String, RedisCommand> commands) {
+        ensureBuiltin();
+        Map<String, RedisCommandCategory> byName = new LinkedHashMap<>();
+        for (RedisCommandCategory category : categories) {
+            byName.put(category.getName(), new RedisCommandCategory(category.getName(), category.getDescription()));
+        }
+        List<RedisCommand> sorted = new ArrayList<>(commands.values());
+        sorted.sort(Comparator.comparing(RedisCommand::getName));
+        List<RedisCommandCategory> added = new ArrayList<>();
+        for (RedisCommand command : sorted) {
+            RedisCommand builtin = commandsByName.get(command.getName());
+            if (builtin != null) {
+                builtin.getExamples().forEach(command::addExample);
+                builtin.getReturnValues().forEach(command::addReturnValue);
+            }
+            String group = command.getGroup() != null ? command.getGroup() : "Other";
+            byName.computeIfAbsent(group, name -> {
+                RedisCommandCategory category = new RedisCommandCategory(name, name + " commands");
+                added.add(category);
+                return category;
+            }).addCommand(command);
+        }
+        added.sort(Comparator.comparing(RedisCommandCategory::getName));
+        List<RedisCommandCategory> serverCategories = new ArrayList<>();
+        for (RedisCommandCategory category : byName.values()) {
+            if (!category.getCommands().isEmpty() && !added.contains(category)) {
+                serverCategories.add(category);
+            }
+        }
+        serverCategories.addAll(added);
+        return new ServerCatalog(serverKey, serverCategories, commands);
+    }
+
+    private void ensureBuiltin() {
+        if (!builtinLoaded) {
+            synchronized (this) {
+                if (!builtinLoaded) {
+                    initializeCommands();
+                    builtinLoaded = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Commands read from a server
+     */
+    private static class ServerCatalog {
+        final String serverKey;
+        final List<RedisCommandCategory> categories;
+        final Map<String, RedisCommand> commandsByName;
+
+        ServerCatalog(String serverKey, List<RedisCommandCategory> categories, Map<String, RedisCommand> commandsByName) {
+            this.serverKey = serverKey;
+            this.categories = categories;
+            this.commandsByName = commandsByName;
+        }
+    }
     
     private void initializeCommands() {
         // Create categories
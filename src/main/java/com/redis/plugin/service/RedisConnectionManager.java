@@ -1,5 +1,7 @@
 package com.redis.plugin.service;
 
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
@@ -9,12 +11,17 @@ import com.intellij.openapi.project.Project;
 import com.intellij.util.messages.Topic;
 import com.redis.plugin.model.RedisConnection;
 import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.embedded.EmbeddedRedisServer;
 import com.redis.plugin.service.impl.JedisRedisService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Optional;
 
 /**
@@ -25,7 +32,7 @@ import java.util.Optional;
     name = "RedisConnections",
     storages = @Storage("redis-connections.xml")
 )
-public final class RedisConnectionManager implements PersistentStateComponent<RedisConnectionManager.State> {
+public final class RedisConnectionManager implements PersistentStateComponent<RedisConnectionManager.State>, Disposable {
     private static final Logger LOG = Logger.getInstance(RedisConnectionManager.class);
     
     // Topic for publishing connection events
@@ -33,9 +40,11 @@ public final class RedisConnectionManager implements PersistentStateComponent<Re
     
     private State state = new State();
     private RedisService redisService;
+    private final Map<String, EmbeddedRedisServer> embeddedServers = new ConcurrentHashMap<>();
     
     public RedisConnectionManager() {
-        redisService = new JedisRedisService();
+        redisService = new JedisRedisService(
+                () -> ApplicationManager.getApplication().getService(RedisCommandCatalog.class));
     }
     
     @Nullable
@@ -66,6 +75,15 @@ public final class RedisConnectionManager implements PersistentStateComponent<Re
         if (index >= 0) {
             state.connections.set(index, connection);
         }
+        EmbeddedRedisServer server = embeddedServers.get(connection.getId());
+        if (server != null) {
+            if (connection.isEmbedded()) {
+                server.setLatency(Duration.ofMillis(connection.getEmbeddedLatency()));
+            } else {
+                embeddedServers.remove(connection.getId());
+                server.stop();
+            }
+        }
     }
     
     /**
@@ -77,6 +95,10 @@ public final class RedisConnectionManager implements PersistentStateComponent<Re
         if (index >= 0) {
             state.connections.remove(index);
         }
+        EmbeddedRedisServer server = embeddedServers.remove(connectionId);
+        if (server != null) {
+            server.stop();
+        }
     }
     
     /**
@@ -109,6 +131,14 @@ public final class RedisConnectionManager implements PersistentStateComponent<Re
         if (connection == null) {
             return RedisResult.error("Connection not found: " + connectionId);
         }
+        if (connection.isEmbedded()) {
+            try {
+                startEmbeddedServer(connection);
+            } catch (IOException e) {
+                LOG.warn("Failed to start embedded server for " + connection.getName(), e);
+                return RedisResult.error("Failed to start embedded server: " + e.getMessage());
+            }
+        }
         
         RedisResult result = redisService.connect(connection);
         if (!result.isError()) {
@@ -125,6 +155,36 @@ public final class RedisConnectionManager implements PersistentStateComponent<Re
         state.activeConnectionId = null;
     }
     
+    /**
+     * Start the in-process server of an embedded connection if it is not running yet, and
+     * point the connection's host and port at it. Each embedded connection has its own server,
+     * which keeps its data until the connection is removed or the IDE exits, so disconnecting
+     * and reconnecting finds the same keys.
+     * @param connection an embedded connection
+     * @throws IOException if the server cannot listen
+     */
+    public synchronized void startEmbeddedServer(RedisConnection connection) throws IOException {
+        EmbeddedRedisServer server = embeddedServers.get(connection.getId());
+        if (server == null || !server.isRunning()) {
+            server = EmbeddedRedisServer.builder()
+                    .password(connection.getPassword())
+                    .latency(Duration.ofMillis(connection.getEmbeddedLatency()))
+                    .build();
+            server.start();
+            embeddedServers.put(connection.getId(), server);
+        }
+        connection.setHost(server.getHost());
+        connection.setPort(server.getPort());
+    }
+    
+    @Override
+    public void dispose() {
+        for (EmbeddedRedisServer server : embeddedServers.values()) {
+            server.stop();
+        }
+        embeddedServers.clear();
+    }
+    
     /**
      * Get the Redis service
      * @return the Redis service
@@ -1,107 +1,510 @@
 package com.redis.plugin.service;
 
-import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.PersistentStateComponentWithModificationTracker;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.service.history.CommandHistory;
+import com.redis.plugin.service.history.HistoryEntry;
+import com.redis.plugin.service.history.HistoryLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 /**
- * Service for managing Redis command history
+ * Service for managing Redis command history.
+ * <p>
+ * History is kept per connection and database, each partition in a {@link CommandHistory}
+ * so that recording a command stays O(1) at any size. Commands are persisted to an
+ * append-only {@link HistoryLog} in the IDE system directory, with when they ran, how long
+ * they took and whether they failed. The log is read in the background on first use, and
+ * rewritten in the background once stale records dominate it, so the UI never waits for the
+ * file. The XML state only holds settings, and history saved there by earlier versions is
+ * moved to the log on first use.
  */
 @Service
 @State(
     name = "RedisCommandHistory",
     storages = @Storage("redis-command-history.xml")
 )
-public final class RedisHistoryService implements PersistentStateComponent<RedisHistoryService.State> {
-    private State state = new State();
-    
+public final class RedisHistoryService implements PersistentStateComponentWithModificationTracker<RedisHistoryService.State>, Disposable {
+    private static final Logger LOG = Logger.getInstance(RedisHistoryService.class);
+
+    /**
+     * Commands kept per connection and database unless configured otherwise
+     */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    /**
+     * Largest configurable number of commands per connection and database
+     */
+    public static final int MAX_SIZE_LIMIT = 100_000;
+
+    /**
+     * Records tolerated in the log before it is compacted, however few commands are live
+     */
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 10_000;
+
+    /**
+     * Log partition of history saved before it was kept per connection
+     */
+    private static final String UNASSIGNED = "";
+
+    private final Map<String, CommandHistory> partitions = new LinkedHashMap<>();
+    private final HistoryLog log;
+    /**
+     * Reads and rewrites the log one task at a time, off the EDT
+     */
+    private final ExecutorService background = AppExecutorUtil.createBoundedApplicationPoolExecutor("Redis Command History", 1);
+    /**
+     * Changes made before the log was read, applied once it has been
+     */
+    private final List<Runnable> deferred = new ArrayList<>();
+    private CommandHistory unassigned;
+    private State legacy;
+    /**
+     * History imported from XML, kept in the state until a rewrite has put it in the log
+     */
+    private State importedLegacy;
+    private boolean loadStarted;
+    private boolean loaded;
+    private boolean compactionScheduled;
+    private boolean disposed;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private long modificationCount;
+
     public RedisHistoryService(Project project) {
-        // Initialize service
+        this(new HistoryLog(Path.of(PathManager.getSystemPath(), "redis-plugin", "history", project.getLocationHash() + ".log")));
     }
-    
+
+    RedisHistoryService(HistoryLog log) {
+        this.log = log;
+    }
+
     @Nullable
     @Override
-    public State getState() {
+    public synchronized State getState() {
+        // History saved as XML is kept there until it has been moved to the log
+        State state = legacy != null ? legacy : importedLegacy != null ? importedLegacy : new State();
+        state.maxSize = maxSize;
         return state;
     }
 
     @Override
-    public void loadState(@NotNull State state) {
-        this.state = state;
+    public synchronized void loadState(@NotNull State state) {
+        maxSize = Math.max(1, Math.min(MAX_SIZE_LIMIT, state.maxSize));
+        if (!state.partitions.isEmpty() || !state.commandHistory.isEmpty()) {
+            legacy = state;
+            if (loaded) {
+                importLegacy();
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getStateModificationCount() {
+        return modificationCount;
     }
 
     /**
-     * Add a command to the history
+     * Add a command to the history of a connection and database
      *
+     * @param connectionId the connection the command ran on
+     * @param database the database the command ran against
      * @param command the command to add
      */
-    public void addCommand(String command) {
+    public void addCommand(String connectionId, int database, String command) {
+        addCommand(connectionId, database, command, HistoryEntry.UNKNOWN_LATENCY, false);
+    }
+
+    /**
+     * Add a command that was run to the history of a connection and database.
+     * Commands added before the log has been read are recorded once it has.
+     *
+     * @param connectionId the connection the command ran on
+     * @param database the database the command ran against
+     * @param command the command to add
+     * @param latencyMillis how long the command took
+     * @param error whether the command failed
+     */
+    public synchronized void addCommand(String connectionId, int database, String command, long latencyMillis, boolean error) {
         if (command == null || command.trim().isEmpty()) {
             return;
         }
+        HistoryEntry entry = new HistoryEntry(command.trim(), System.currentTimeMillis(), latencyMillis, error);
+        String key = key(connectionId, database);
+        if (!ensureLoaded()) {
+            deferred.add(() -> record(key, entry));
+            return;
+        }
+        record(key, entry);
+    }
 
-        String trimmedCommand = command.trim();
+    private void record(String key, HistoryEntry entry) {
+        partition(key).add(entry);
+        append(key, entry);
+        compactIfStale();
+    }
 
-        // Remove if already exists to avoid duplicates
-        state.commandHistory.remove(trimmedCommand);
+    /**
+     * Get the most recent commands of a connection and database
+     *
+     * @param limit maximum number of commands returned
+     * @return historical commands, most recent first; empty until the log has been read
+     */
+    public synchronized List<String> getHistory(String connectionId, int database, int limit) {
+        if (!ensureLoaded()) {
+            return Collections.emptyList();
+        }
+        CommandHistory history = partitions.get(key(connectionId, database));
+        return history == null ? Collections.emptyList() : history.recent(limit);
+    }
 
-        // Add to the beginning of the list
-        state.commandHistory.add(0, trimmedCommand);
+    /**
+     * Get the command history of a connection and database
+     *
+     * @return historical commands, most recent first
+     */
+    public List<String> getHistory(String connectionId, int database) {
+        return getHistory(connectionId, database, Integer.MAX_VALUE);
+    }
 
-        // Limit history size
-        if (state.commandHistory.size() > state.maxSize) {
-            state.commandHistory = state.commandHistory.subList(0, state.maxSize);
+    /**
+     * Search the command history of a connection and database as the user types
+     *
+     * @param query text to look for, ignoring case
+     * @param limit maximum number of commands returned
+     * @return commands containing the query, most recent first, followed by similar commands;
+     * empty until the log has been read
+     */
+    public synchronized List<String> search(String connectionId, int database, String query, int limit) {
+        if (!ensureLoaded()) {
+            return Collections.emptyList();
         }
+        CommandHistory history = partitions.get(key(connectionId, database));
+        return history == null ? Collections.emptyList() : history.search(query, limit);
     }
 
     /**
-     * Get the command history
-     *
-     * @return list of historical commands
+     * Clear the command history of a connection and database
      */
-    public List<String> getHistory() {
-        return new ArrayList<>(state.commandHistory);
+    public synchronized void clearHistory(String connectionId, int database) {
+        String key = key(connectionId, database);
+        if (!ensureLoaded()) {
+            deferred.add(() -> clearPartition(key));
+            return;
+        }
+        clearPartition(key);
+    }
+
+    private void clearPartition(String key) {
+        if (partitions.remove(key) != null) {
+            clear(key);
+        }
     }
 
     /**
      * Clear all command history
      */
-    public void clearHistory() {
-        state.commandHistory.clear();
+    public synchronized void clearHistory() {
+        if (!ensureLoaded()) {
+            deferred.add(this::clearAll);
+            return;
+        }
+        clearAll();
+    }
+
+    private void clearAll() {
+        for (String key : partitions.keySet()) {
+            clear(key);
+        }
+        if (unassigned != null) {
+            clear(UNASSIGNED);
+        }
+        partitions.clear();
+        unassigned = null;
+        scheduleCompaction();
     }
 
     /**
-     * Set the maximum history size
+     * Set the maximum history size of each connection and database
      *
-     * @param maxSize maximum number of commands to keep in history
+     * @param maxSize maximum number of commands to keep, at most {@link #MAX_SIZE_LIMIT}
      */
-    public void setMaxSize(int maxSize) {
-        state.maxSize = Math.max(1, maxSize);
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, Math.min(MAX_SIZE_LIMIT, maxSize));
+        modificationCount++;
+        if (!ensureLoaded()) {
+            // Applied to the history when it has been read
+            return;
+        }
 
         // Truncate existing history if needed
-        if (state.commandHistory.size() > state.maxSize) {
-            state.commandHistory = state.commandHistory.subList(0, state.maxSize);
+        for (CommandHistory history : partitions.values()) {
+            history.setMaxSize(this.maxSize);
         }
+        compactIfStale();
     }
 
     /**
      * Get the maximum history size
      *
-     * @return maximum history size
+     * @return maximum history size of each connection and database
      */
-    public int getMaxSize() {
-        return state.maxSize;
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        background.shutdown();
+        try {
+            log.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing command history log", e);
+        }
+    }
+
+    /**
+     * Start reading the log the first time history is used, rather than when the IDE starts
+     *
+     * @return true once the log has been read
+     */
+    private boolean ensureLoaded() {
+        if (!loadStarted) {
+            loadStarted = true;
+            background.execute(this::load);
+        }
+        return loaded;
+    }
+
+    /**
+     * Replay the log without holding the lock, then install what it holds and apply the
+     * changes made in the meantime. Nothing else touches the log until it is loaded.
+     */
+    private void load() {
+        int size;
+        synchronized (this) {
+            size = maxSize;
+        }
+        Replay replay = new Replay(size);
+        try {
+            log.replay(replay);
+        } catch (IOException e) {
+            LOG.warn("Could not read command history from " + log.getFile(), e);
+        }
+        synchronized (this) {
+            partitions.putAll(replay.partitions);
+            unassigned = replay.unassigned;
+            if (maxSize != size) {
+                for (CommandHistory history : partitions.values()) {
+                    history.setMaxSize(maxSize);
+                }
+            }
+            loaded = true;
+            if (legacy != null) {
+                importLegacy();
+            }
+            for (Runnable change : deferred) {
+                change.run();
+            }
+            deferred.clear();
+            compactIfStale();
+        }
+    }
+
+    /**
+     * Move history saved as XML by earlier versions to the log
+     */
+    private void importLegacy() {
+        for (Partition partition : legacy.partitions) {
+            CommandHistory history = partitions.computeIfAbsent(key(partition.connectionId, partition.database),
+                    k -> new CommandHistory(maxSize));
+            for (String command : partition.commands) {
+                history.addOldest(new HistoryEntry(command, 0, HistoryEntry.UNKNOWN_LATENCY, false));
+            }
+        }
+        // History saved before it was kept per connection goes to the first connection used
+        if (!legacy.commandHistory.isEmpty()) {
+            if (unassigned == null) {
+                unassigned = new CommandHistory(maxSize);
+            }
+            for (String command : legacy.commandHistory) {
+                unassigned.addOldest(new HistoryEntry(command, 0, HistoryEntry.UNKNOWN_LATENCY, false));
+            }
+        }
+        importedLegacy = legacy;
+        legacy = null;
+        scheduleCompaction();
+    }
+
+    private void compactIfStale() {
+        long live = unassigned == null ? 0 : unassigned.size();
+        for (CommandHistory history : partitions.values()) {
+            live += history.size();
+        }
+        if (log.getRecordCount() > Math.max(MIN_RECORDS_BEFORE_COMPACTION, 2 * live)) {
+            scheduleCompaction();
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!compactionScheduled && !disposed) {
+            compactionScheduled = true;
+            background.execute(this::compact);
+        }
+    }
+
+    /**
+     * Rewrite the log from the live history. The entries are copied under the lock but
+     * written without it, so recording a command never waits for the rewrite; records
+     * appended meanwhile are carried over to the new log.
+     */
+    private void compact() {
+        Map<String, List<HistoryEntry>> live = new LinkedHashMap<>();
+        State imported;
+        synchronized (this) {
+            compactionScheduled = false;
+            if (disposed) {
+                return;
+            }
+            for (Map.Entry<String, CommandHistory> partition : partitions.entrySet()) {
+                live.put(partition.getKey(), partition.getValue().entries());
+            }
+            if (unassigned != null) {
+                live.put(UNASSIGNED, unassigned.entries());
+            }
+            imported = importedLegacy;
+            log.startRewrite();
+        }
+        try {
+            long records = log.writeSnapshot(live);
+            synchronized (this) {
+                log.finishRewrite(records);
+                if (imported != null && importedLegacy == imported) {
+                    importedLegacy = null;
+                    modificationCount++;
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not compact command history in " + log.getFile(), e);
+            synchronized (this) {
+                try {
+                    log.abortRewrite();
+                } catch (IOException ex) {
+                    LOG.debug("Could not remove command history snapshot", ex);
+                }
+            }
+        }
+    }
+
+    private void append(String key, HistoryEntry entry) {
+        try {
+            log.append(key, entry);
+        } catch (IOException e) {
+            LOG.warn("Could not write command history to " + log.getFile(), e);
+        }
+    }
+
+    private void clear(String key) {
+        try {
+            log.clear(key);
+        } catch (IOException e) {
+            LOG.warn("Could not write command history to " + log.getFile(), e);
+        }
+    }
+
+    private CommandHistory partition(String key) {
+        CommandHistory history = partitions.get(key);
+        if (history == null) {
+            history = new CommandHistory(maxSize);
+            partitions.put(key, history);
+            if (unassigned != null) {
+                // Move the records too, oldest first, so the log does not need a rewrite
+                List<HistoryEntry> entries = unassigned.entries();
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    history.add(entries.get(i));
+                    append(key, entries.get(i));
+                }
+                unassigned = null;
+                clear(UNASSIGNED);
+            }
+        }
+        return history;
+    }
+
+    private static String key(String connectionId, int database) {
+        return (connectionId == null ? "" : connectionId) + "/" + database;
+    }
+
+    /**
+     * Rebuilds the history from the records of the log
+     */
+    private static class Replay implements HistoryLog.Listener {
+        private final Map<String, CommandHistory> partitions = new LinkedHashMap<>();
+        private final int maxSize;
+        private CommandHistory unassigned;
+
+        Replay(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public void added(String partition, HistoryEntry entry) {
+            if (UNASSIGNED.equals(partition)) {
+                if (unassigned == null) {
+                    unassigned = new CommandHistory(maxSize);
+                }
+                unassigned.add(entry);
+            } else {
+                partitions.computeIfAbsent(partition, k -> new CommandHistory(maxSize)).add(entry);
+            }
+        }
+
+        @Override
+        public void cleared(String partition) {
+            if (UNASSIGNED.equals(partition)) {
+                unassigned = null;
+            } else {
+                partitions.remove(partition);
+            }
+        }
     }
 
     public static class State {
+        public int maxSize = DEFAULT_MAX_SIZE;
+
+        /**
+         * History saved as XML before it moved to the log; only read, to import it
+         */
+        public List<Partition> partitions = new ArrayList<>();
+
+        /**
+         * History saved before it was partitioned, most recent first; only read, to import it
+         */
         public List<String> commandHistory = new ArrayList<>();
-        public int maxSize = 100; // Increased default size for console usage
+    }
+
+    /**
+     * History of one connection and database saved as XML, most recent first
+     */
+    public static class Partition {
+        public String connectionId;
+        public int database;
+        public List<String> commands = new ArrayList<>();
     }
 }
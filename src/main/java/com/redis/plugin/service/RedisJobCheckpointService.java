@@ -0,0 +1,69 @@
+package com.redis.plugin.service;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Service for remembering the SCAN cursor of interrupted bulk jobs,
+ * so a cancelled or failed job can continue where it stopped
+ */
+@Service
+@State(
+    name = "RedisJobCheckpoints",
+    storages = @Storage("redis-job-checkpoints.xml")
+)
+public final class RedisJobCheckpointService implements PersistentStateComponent<RedisJobCheckpointService.State> {
+    private State state = new State();
+
+    @Nullable
+    @Override
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull State state) {
+        this.state = state;
+    }
+
+    /**
+     * Save the cursor of an interrupted job
+     * @param jobKey key identifying the job (connection, database, job type and parameters)
+     * @param cursor the SCAN cursor to resume from
+     */
+    public void saveCursor(String jobKey, String cursor) {
+        if (cursor == null || "0".equals(cursor)) {
+            clear(jobKey);
+            return;
+        }
+        state.cursors.put(jobKey, cursor);
+    }
+
+    /**
+     * Get the saved cursor for a job
+     * @param jobKey key identifying the job
+     * @return the cursor to resume from, or null if the job has no checkpoint
+     */
+    public String getCursor(String jobKey) {
+        return state.cursors.get(jobKey);
+    }
+
+    /**
+     * Remove the checkpoint of a job
+     * @param jobKey key identifying the job
+     */
+    public void clear(String jobKey) {
+        state.cursors.remove(jobKey);
+    }
+
+    public static class State {
+        public Map<String, String> cursors = new HashMap<>();
+    }
+}
@@ -18,6 +18,13 @@ public interface RedisService {
      */
     RedisResult execute(String command);
     
+    /**
+     * Execute a command given as separate arguments, which need no quoting
+     * @param args the command name followed by its arguments
+     * @return the result of the command
+     */
+    RedisResult executeArgs(String... args);
+    
     /**
      * Check if service is connected to Redis server
      * @return true if connected, false otherwise
@@ -101,5 +108,12 @@ public interface RedisService {
      * @return the current connection or null if not connected
      */
     RedisConnection getCurrentConnection();
+    
+    /**
+     * Get the connection jobs that only read should use, such as scans and exports
+     * @return the best replica of the current connection if it reads from replicas and one is
+     * healthy, else the current connection
+     */
+    RedisConnection getReadConnection();
 }
 
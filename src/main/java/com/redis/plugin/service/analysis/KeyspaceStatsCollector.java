@@ -0,0 +1,193 @@
+package com.redis.plugin.service.analysis;
+
+import com.redis.plugin.model.KeyspaceReport;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Accumulates per-key figures into a {@link KeyspaceReport}.
+ * Only aggregates and a fixed number of the largest keys are kept, so memory
+ * does not grow with the number of keys. Used by both the live and the RDB analyzer.
+ */
+public class KeyspaceStatsCollector {
+    /**
+     * Namespaces beyond this count are folded into a single "(other)" group
+     */
+    public static final int MAX_NAMESPACES = 10_000;
+    public static final String NO_NAMESPACE = "(no namespace)";
+    public static final String OTHER_NAMESPACES = "(other)";
+
+    private static final long HOUR = 3_600_000L;
+    private static final String[] TTL_BUCKETS = {
+            "No expiry", "Expired", "< 1 hour", "< 1 day", "< 1 week", "> 1 week"
+    };
+
+    private static class Group {
+        long keys;
+        long bytes;
+        long keysWithTtl;
+
+        void add(long size, boolean hasTtl) {
+            keys++;
+            bytes += size;
+            if (hasTtl) {
+                keysWithTtl++;
+            }
+        }
+    }
+
+    private final String delimiter;
+    private final int topKeys;
+    private final Map<String, Group> namespaces = new HashMap<>();
+    private final Map<String, Group> types = new HashMap<>();
+    private final Map<String, Group> encodings = new HashMap<>();
+    private final Map<Integer, Group> databases = new TreeMap<>();
+    private final Group[] ttlBuckets = new Group[TTL_BUCKETS.length];
+    private final PriorityQueue<KeyspaceReport.KeyInfo> biggest =
+            new PriorityQueue<>(Comparator.comparingLong(KeyspaceReport.KeyInfo::getBytes));
+    private final Map<String, String> metadata = new LinkedHashMap<>();
+
+    private long totalKeys;
+    private long totalBytes;
+    private long keysWithTtl;
+
+    /**
+     * @param delimiter separator between a key's namespace and the rest of its name, e.g. ":"
+     * @param topKeys number of largest keys to keep
+     */
+    public KeyspaceStatsCollector(String delimiter, int topKeys) {
+        this.delimiter = delimiter;
+        this.topKeys = topKeys;
+        for (int i = 0; i < ttlBuckets.length; i++) {
+            ttlBuckets[i] = new Group();
+        }
+    }
+
+    /**
+     * Record one key
+     * @param database the database index
+     * @param key the key name
+     * @param type the Redis type name
+     * @param encoding the internal encoding
+     * @param bytes the size of the key
+     * @param elements number of elements, or -1 if unknown
+     * @param ttlMillis remaining time to live, -1 if the key does not expire, 0 if already expired
+     */
+    public void addKey(int database, String key, String type, String encoding,
+                       long bytes, long elements, long ttlMillis) {
+        boolean hasTtl = ttlMillis >= 0;
+        totalKeys++;
+        totalBytes += bytes;
+        if (hasTtl) {
+            keysWithTtl++;
+        }
+
+        namespaceGroup(key).add(bytes, hasTtl);
+        types.computeIfAbsent(type, t -> new Group()).add(bytes, hasTtl);
+        encodings.computeIfAbsent(encoding, e -> new Group()).add(bytes, hasTtl);
+        databases.computeIfAbsent(database, d -> new Group()).add(bytes, hasTtl);
+        ttlBuckets[ttlBucket(ttlMillis)].add(bytes, hasTtl);
+
+        if (biggest.size() < topKeys) {
+            biggest.add(new KeyspaceReport.KeyInfo(database, key, type, encoding, bytes, elements, ttlMillis));
+        } else if (topKeys > 0 && bytes > biggest.peek().getBytes()) {
+            biggest.poll();
+            biggest.add(new KeyspaceReport.KeyInfo(database, key, type, encoding, bytes, elements, ttlMillis));
+        }
+    }
+
+    /**
+     * Get the namespace pattern of a key, such as "user:*" for "user:42"
+     * @param key the key name
+     * @param delimiter separator between the namespace and the rest of the name
+     * @return the pattern, or {@link #NO_NAMESPACE} if the key has no delimiter
+     */
+    public static String namespaceOf(String key, String delimiter) {
+        int index = delimiter.isEmpty() ? -1 : key.indexOf(delimiter);
+        return index < 0 ? NO_NAMESPACE : key.substring(0, index + delimiter.length()) + "*";
+    }
+
+    private Group namespaceGroup(String key) {
+        String namespace = namespaceOf(key, delimiter);
+        Group group = namespaces.get(namespace);
+        if (group == null) {
+            if (namespaces.size() >= MAX_NAMESPACES) {
+                namespace = OTHER_NAMESPACES;
+            }
+            group = namespaces.computeIfAbsent(namespace, n -> new Group());
+        }
+        return group;
+    }
+
+    private static int ttlBucket(long ttlMillis) {
+        if (ttlMillis < 0) {
+            return 0;
+        } else if (ttlMillis == 0) {
+            return 1;
+        } else if (ttlMillis < HOUR) {
+            return 2;
+        } else if (ttlMillis < 24 * HOUR) {
+            return 3;
+        } else if (ttlMillis < 7 * 24 * HOUR) {
+            return 4;
+        }
+        return 5;
+    }
+
+    /**
+     * Attach a source-specific detail to the report
+     */
+    public void putMetadata(String name, String value) {
+        metadata.put(name, value);
+    }
+
+    public long getTotalKeys() {
+        return totalKeys;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Build the report from everything recorded so far
+     * @param source description of what was analyzed
+     * @param sizeMetric what the byte figures measure
+     * @param elapsedMillis time taken
+     * @param complete false if the analysis stopped early
+     * @return the report
+     */
+    public KeyspaceReport toReport(String source, String sizeMetric, long elapsedMillis, boolean complete) {
+        List<KeyspaceReport.KeyInfo> biggestKeys = new ArrayList<>(biggest);
+        biggestKeys.sort(Comparator.comparingLong(KeyspaceReport.KeyInfo::getBytes).reversed());
+
+        List<KeyspaceReport.GroupStats> ttl = new ArrayList<>();
+        for (int i = 0; i < TTL_BUCKETS.length; i++) {
+            ttl.add(new KeyspaceReport.GroupStats(TTL_BUCKETS[i], ttlBuckets[i].keys, ttlBuckets[i].bytes,
+                    ttlBuckets[i].keysWithTtl));
+        }
+
+        List<KeyspaceReport.GroupStats> databaseStats = new ArrayList<>();
+        databases.forEach((db, group) -> databaseStats.add(
+                new KeyspaceReport.GroupStats("db" + db, group.keys, group.bytes, group.keysWithTtl)));
+
+        return new KeyspaceReport(source, sizeMetric, totalKeys, totalBytes, keysWithTtl, elapsedMillis, complete,
+                new LinkedHashMap<>(metadata), bySize(namespaces), bySize(types), bySize(encodings), ttl,
+                databaseStats, biggestKeys);
+    }
+
+    private static List<KeyspaceReport.GroupStats> bySize(Map<String, Group> groups) {
+        List<KeyspaceReport.GroupStats> stats = new ArrayList<>(groups.size());
+        groups.forEach((name, group) -> stats.add(
+                new KeyspaceReport.GroupStats(name, group.keys, group.bytes, group.keysWithTtl)));
+        stats.sort(Comparator.comparingLong(KeyspaceReport.GroupStats::getBytes).reversed());
+        return stats;
+    }
+}
@@ -0,0 +1,215 @@
+package com.redis.plugin.service.analysis;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.KeyspaceReport;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a {@link KeyspaceReport} from a running server.
+ * <p>
+ * Keys are scanned in pages and the type, encoding, memory usage and TTL of every key in
+ * a page are fetched in one pipeline, followed by a second pipeline for element counts.
+ */
+public class LiveKeyspaceAnalyzer {
+    public static final String SIZE_METRIC = "Memory usage";
+
+    private final RedisConnection connection;
+    private final String pattern;
+    private final String delimiter;
+    private final int topKeys;
+    private final long maxKeys;
+    private final int batchSize;
+
+    private LiveKeyspaceAnalyzer(Builder builder) {
+        this.connection = builder.connection;
+        this.pattern = builder.pattern;
+        this.delimiter = builder.delimiter;
+        this.topKeys = builder.topKeys;
+        this.maxKeys = builder.maxKeys;
+        this.batchSize = builder.batchSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the analysis on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @return the report, marked incomplete if the key limit was reached
+     */
+    public KeyspaceReport run(ProgressIndicator indicator) {
+        KeyspaceStatsCollector collector = new KeyspaceStatsCollector(delimiter, topKeys);
+        long startTime = System.currentTimeMillis();
+        boolean complete = true;
+
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            long total = jedis.dbSize();
+            indicator.setIndeterminate(total == 0);
+            collector.putMetadata("Pattern", pattern);
+            collector.putMetadata("Keys in database", String.format("%,d", total));
+
+            ScanParams params = new ScanParams().match(pattern).count(batchSize);
+            String cursor = ScanParams.SCAN_POINTER_START;
+            do {
+                indicator.checkCanceled();
+                ScanResult<String> page = jedis.scan(cursor, params);
+                List<String> keys = page.getResult();
+                if (!keys.isEmpty()) {
+                    analyzePage(jedis, keys, collector);
+                }
+                cursor = page.getCursor();
+
+                if (total > 0) {
+                    indicator.setFraction(Math.min(1.0, (double) collector.getTotalKeys() / total));
+                }
+                long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+                indicator.setText2(String.format("%,d keys analyzed (%,d keys/s)",
+                        collector.getTotalKeys(), collector.getTotalKeys() * 1000 / elapsed));
+
+                if (maxKeys > 0 && collector.getTotalKeys() >= maxKeys) {
+                    complete = ScanParams.SCAN_POINTER_START.equals(cursor);
+                    break;
+                }
+            } while (!ScanParams.SCAN_POINTER_START.equals(cursor));
+        }
+
+        return collector.toReport(connection.getName() + " (db" + connection.getDatabase() + ")",
+                SIZE_METRIC, System.currentTimeMillis() - startTime, complete);
+    }
+
+    private void analyzePage(Jedis jedis, List<String> keys, KeyspaceStatsCollector collector) {
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        List<Response<String>> encodings = new ArrayList<>(keys.size());
+        List<Response<Long>> sizes = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        Pipeline pipeline = jedis.pipelined();
+        for (String key : keys) {
+            types.add(pipeline.type(key));
+            encodings.add(pipeline.objectEncoding(key));
+            sizes.add(pipeline.memoryUsage(key));
+            ttls.add(pipeline.pttl(key));
+        }
+        // Errors such as a key expiring between SCAN and OBJECT are read per response below
+        pipeline.syncAndReturnAll();
+
+        List<Response<Long>> lengths = new ArrayList<>(keys.size());
+        pipeline = jedis.pipelined();
+        for (int i = 0; i < keys.size(); i++) {
+            lengths.add(lengthOf(pipeline, keys.get(i), safeGet(types.get(i))));
+        }
+        pipeline.syncAndReturnAll();
+
+        for (int i = 0; i < keys.size(); i++) {
+            String type = safeGet(types.get(i));
+            Long ttl = safeGet(ttls.get(i));
+            if (type == null || "none".equals(type) || ttl == null || ttl == -2) {
+                // Deleted or expired since it was scanned
+                continue;
+            }
+            String encoding = safeGet(encodings.get(i));
+            Long size = safeGet(sizes.get(i));
+            Response<Long> length = lengths.get(i);
+            Long elements = length == null ? null : safeGet(length);
+            collector.addKey(connection.getDatabase(), keys.get(i), type,
+                    encoding == null ? "unknown" : encoding,
+                    size == null ? 0 : size,
+                    elements == null ? -1 : elements,
+                    ttl);
+        }
+    }
+
+    private static Response<Long> lengthOf(Pipeline pipeline, String key, String type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "string":
+                return pipeline.strlen(key);
+            case "list":
+                return pipeline.llen(key);
+            case "set":
+                return pipeline.scard(key);
+            case "zset":
+                return pipeline.zcard(key);
+            case "hash":
+                return pipeline.hlen(key);
+            case "stream":
+                return pipeline.xlen(key);
+            default:
+                return null;
+        }
+    }
+
+    private static <T> T safeGet(Response<T> response) {
+        try {
+            return response.get();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builder for LiveKeyspaceAnalyzer
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private String pattern = "*";
+        private String delimiter = ":";
+        private int topKeys = 100;
+        private long maxKeys;
+        private int batchSize = 500;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        public Builder delimiter(String delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public Builder topKeys(int topKeys) {
+            this.topKeys = topKeys;
+            return this;
+        }
+
+        /**
+         * @param maxKeys stop after this many keys, or 0 to analyze all matching keys
+         */
+        public Builder maxKeys(long maxKeys) {
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public LiveKeyspaceAnalyzer build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (delimiter == null) {
+                throw new IllegalStateException("Delimiter is required");
+            }
+            return new LiveKeyspaceAnalyzer(this);
+        }
+    }
+}
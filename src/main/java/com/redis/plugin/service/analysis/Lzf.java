@@ -0,0 +1,58 @@
+package com.redis.plugin.service.analysis;
+
+import java.io.IOException;
+
+/**
+ * LZF decompression as used for compressed strings in RDB files
+ */
+final class Lzf {
+
+    private Lzf() {
+    }
+
+    /**
+     * Decompress {@code in}, stopping once {@code limit} bytes have been produced
+     * @param in the compressed data
+     * @param length the uncompressed length recorded in the file
+     * @param limit maximum number of bytes to produce
+     * @return the first {@code min(length, limit)} uncompressed bytes
+     * @throws IOException if the data is corrupt
+     */
+    static byte[] decompress(byte[] in, int length, int limit) throws IOException {
+        byte[] out = new byte[Math.min(length, limit)];
+        int ip = 0;
+        int op = 0;
+        while (ip < in.length && op < out.length) {
+            int ctrl = in[ip++] & 0xFF;
+            if (ctrl < 32) {
+                int run = ctrl + 1;
+                if (ip + run > in.length) {
+                    throw new IOException("Corrupt LZF data");
+                }
+                int copy = Math.min(run, out.length - op);
+                System.arraycopy(in, ip, out, op, copy);
+                ip += run;
+                op += copy;
+            } else {
+                int run = ctrl >> 5;
+                int ref = op - ((ctrl & 0x1F) << 8) - 1;
+                if (ip + (run == 7 ? 2 : 1) > in.length) {
+                    throw new IOException("Corrupt LZF data");
+                }
+                if (run == 7) {
+                    run += in[ip++] & 0xFF;
+                }
+                ref -= in[ip++] & 0xFF;
+                run += 2;
+                if (ref < 0) {
+                    throw new IOException("Corrupt LZF data");
+                }
+                // Back references may overlap the output being written, so copy byte by byte
+                for (int i = 0; i < run && op < out.length; i++) {
+                    out[op++] = out[ref++];
+                }
+            }
+        }
+        return out;
+    }
+}
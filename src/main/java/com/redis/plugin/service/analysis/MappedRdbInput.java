@@ -0,0 +1,123 @@
+package com.redis.plugin.service.analysis;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Random-access reader over a memory-mapped RDB file.
+ * <p>
+ * The file is mapped in fixed-size windows that are remapped as the position moves on,
+ * so files larger than 2GB can be read and the data stays in the OS page cache instead
+ * of the Java heap. Values that are only measured, not inspected, are skipped without
+ * being copied.
+ */
+class MappedRdbInput implements Closeable {
+    static final long DEFAULT_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    MappedRdbInput(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    MappedRdbInput(Path file, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = windowSize;
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    /**
+     * Make sure the next {@code count} bytes (at most one window) are mapped
+     */
+    private void ensure(int count) throws IOException {
+        if (position + count > size) {
+            throw new EOFException("Unexpected end of RDB file at offset " + position);
+        }
+        if (window == null || position < windowStart || position + count > windowStart + window.limit()) {
+            windowStart = position;
+            long length = Math.min(Math.max(windowSize, count), size - position);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+            window.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    int readUnsignedByte() throws IOException {
+        ensure(1);
+        int value = window.get((int) (position - windowStart)) & 0xFF;
+        position++;
+        return value;
+    }
+
+    int readIntLE() throws IOException {
+        ensure(4);
+        int value = window.getInt((int) (position - windowStart));
+        position += 4;
+        return value;
+    }
+
+    long readLongLE() throws IOException {
+        ensure(8);
+        long value = window.getLong((int) (position - windowStart));
+        position += 8;
+        return value;
+    }
+
+    int readIntBE() throws IOException {
+        return Integer.reverseBytes(readIntLE());
+    }
+
+    long readLongBE() throws IOException {
+        return Long.reverseBytes(readLongLE());
+    }
+
+    /**
+     * Read {@code length} bytes into a new array
+     */
+    byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int chunk = (int) Math.min(length - offset, windowSize);
+            ensure(chunk);
+            window.get((int) (position - windowStart), bytes, offset, chunk);
+            position += chunk;
+            offset += chunk;
+        }
+        return bytes;
+    }
+
+    /**
+     * Move past {@code length} bytes without reading them
+     */
+    void skip(long length) throws IOException {
+        if (position + length > size) {
+            throw new EOFException("Unexpected end of RDB file at offset " + position);
+        }
+        position += length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
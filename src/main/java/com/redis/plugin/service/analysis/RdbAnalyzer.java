@@ -0,0 +1,637 @@
+package com.redis.plugin.service.analysis;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.KeyspaceReport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds a {@link KeyspaceReport} from an RDB file without a running server.
+ * <p>
+ * The file is parsed front to back through {@link MappedRdbInput}. Keys are decoded,
+ * but values are only walked to measure their serialized size and read element counts
+ * from compact encodings' headers, so memory use does not depend on the dataset size.
+ * Parsing stops with a partial report at the first value type it does not understand.
+ */
+public class RdbAnalyzer {
+    private static final Logger LOG = Logger.getInstance(RdbAnalyzer.class);
+
+    public static final String SIZE_METRIC = "Serialized size";
+
+    /**
+     * Highest RDB version whose format is known to this parser
+     */
+    static final int MAX_KNOWN_VERSION = 12;
+
+    private static final int OPCODE_SLOT_INFO = 0xF4;
+    private static final int OPCODE_FUNCTION_PRE_GA = 0xF5;
+    private static final int OPCODE_FUNCTION2 = 0xF6;
+    private static final int OPCODE_MODULE_AUX = 0xF7;
+    private static final int OPCODE_IDLE = 0xF8;
+    private static final int OPCODE_FREQ = 0xF9;
+    private static final int OPCODE_AUX = 0xFA;
+    private static final int OPCODE_RESIZEDB = 0xFB;
+    private static final int OPCODE_EXPIRETIME_MS = 0xFC;
+    private static final int OPCODE_EXPIRETIME = 0xFD;
+    private static final int OPCODE_SELECTDB = 0xFE;
+    private static final int OPCODE_EOF = 0xFF;
+
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_LIST = 1;
+    private static final int TYPE_SET = 2;
+    private static final int TYPE_ZSET = 3;
+    private static final int TYPE_HASH = 4;
+    private static final int TYPE_ZSET_2 = 5;
+    private static final int TYPE_MODULE_2 = 7;
+    private static final int TYPE_HASH_ZIPMAP = 9;
+    private static final int TYPE_LIST_ZIPLIST = 10;
+    private static final int TYPE_SET_INTSET = 11;
+    private static final int TYPE_ZSET_ZIPLIST = 12;
+    private static final int TYPE_HASH_ZIPLIST = 13;
+    private static final int TYPE_LIST_QUICKLIST = 14;
+    private static final int TYPE_STREAM_LISTPACKS = 15;
+    private static final int TYPE_HASH_LISTPACK = 16;
+    private static final int TYPE_ZSET_LISTPACK = 17;
+    private static final int TYPE_LIST_QUICKLIST_2 = 18;
+    private static final int TYPE_STREAM_LISTPACKS_2 = 19;
+    private static final int TYPE_SET_LISTPACK = 20;
+    private static final int TYPE_STREAM_LISTPACKS_3 = 21;
+    private static final int TYPE_HASH_METADATA_PRE_GA = 22;
+    private static final int TYPE_HASH_LISTPACK_EX_PRE_GA = 23;
+    private static final int TYPE_HASH_METADATA = 24;
+    private static final int TYPE_HASH_LISTPACK_EX = 25;
+
+    private static final int ENCODING_INT8 = 0;
+    private static final int ENCODING_INT16 = 1;
+    private static final int ENCODING_INT32 = 2;
+    private static final int ENCODING_LZF = 3;
+
+    private static final int MODULE_OPCODE_EOF = 0;
+    private static final int MODULE_OPCODE_SINT = 1;
+    private static final int MODULE_OPCODE_UINT = 2;
+    private static final int MODULE_OPCODE_FLOAT = 3;
+    private static final int MODULE_OPCODE_DOUBLE = 4;
+    private static final int MODULE_OPCODE_STRING = 5;
+
+    private static final String MODULE_NAME_CHARSET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+
+    /**
+     * Set by {@link #readLength()} when the length byte introduces a special string encoding
+     */
+    private static final long ENCODED = -1;
+
+    private final Path file;
+    private final String delimiter;
+    private final int topKeys;
+
+    private MappedRdbInput in;
+    private int encodingType;
+    private boolean lastStringIntEncoded;
+
+    private RdbAnalyzer(Builder builder) {
+        this.file = builder.file;
+        this.delimiter = builder.delimiter;
+        this.topKeys = builder.topKeys;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Parse the file on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @return the report, marked incomplete if parsing stopped before the end of the file
+     * @throws IOException if the file cannot be read or is not an RDB file
+     */
+    public KeyspaceReport run(ProgressIndicator indicator) throws IOException {
+        KeyspaceStatsCollector collector = new KeyspaceStatsCollector(delimiter, topKeys);
+        long startTime = System.currentTimeMillis();
+        boolean complete = false;
+
+        try (MappedRdbInput input = new MappedRdbInput(file)) {
+            in = input;
+            int version = readHeader();
+            collector.putMetadata("RDB version", String.valueOf(version));
+            collector.putMetadata("File size", String.format("%,d bytes", in.getSize()));
+            if (version > MAX_KNOWN_VERSION) {
+                collector.putMetadata("Warning", "RDB version " + version + " is newer than this parser");
+            }
+
+            long referenceTime = Files.getLastModifiedTime(file).toMillis();
+            int database = 0;
+            long expireAt = -1;
+            indicator.setIndeterminate(false);
+
+            try {
+                while (true) {
+                    if ((collector.getTotalKeys() & 0x3FF) == 0) {
+                        indicator.checkCanceled();
+                        report(indicator, collector, startTime);
+                    }
+
+                    long start = in.getPosition();
+                    int type = in.readUnsignedByte();
+                    switch (type) {
+                        case OPCODE_EOF:
+                            complete = true;
+                            break;
+                        case OPCODE_SELECTDB:
+                            database = (int) readLength();
+                            continue;
+                        case OPCODE_RESIZEDB:
+                            readLength();
+                            readLength();
+                            continue;
+                        case OPCODE_EXPIRETIME:
+                            expireAt = (in.readIntLE() & 0xFFFFFFFFL) * 1000;
+                            continue;
+                        case OPCODE_EXPIRETIME_MS:
+                            expireAt = in.readLongLE();
+                            continue;
+                        case OPCODE_FREQ:
+                            in.readUnsignedByte();
+                            continue;
+                        case OPCODE_IDLE:
+                            readLength();
+                            continue;
+                        case OPCODE_SLOT_INFO:
+                            readLength();
+                            readLength();
+                            readLength();
+                            continue;
+                        case OPCODE_FUNCTION2:
+                            skipString();
+                            continue;
+                        case OPCODE_MODULE_AUX:
+                            readLength();
+                            readLength();
+                            readLength();
+                            skipModuleValue();
+                            continue;
+                        case OPCODE_AUX:
+                            String name = readStringValue();
+                            String value = readStringValue();
+                            if ("ctime".equals(name)) {
+                                referenceTime = parseLong(value, referenceTime / 1000) * 1000;
+                            }
+                            collector.putMetadata(name, value);
+                            continue;
+                        default:
+                            break;
+                    }
+                    if (complete) {
+                        break;
+                    }
+                    if (type == OPCODE_FUNCTION_PRE_GA) {
+                        stop(collector, start, "pre-release function format is not supported");
+                        break;
+                    }
+
+                    String key = readStringValue();
+                    ValueInfo info = readValue(type);
+                    if (info == null) {
+                        stop(collector, start, "value type " + type + " is not supported");
+                        break;
+                    }
+                    long ttl = expireAt < 0 ? -1 : Math.max(0, expireAt - referenceTime);
+                    collector.addKey(database, key, info.type, info.encoding, in.getPosition() - start,
+                            info.elements, ttl);
+                    expireAt = -1;
+                }
+            } catch (EOFException e) {
+                stop(collector, in.getPosition(), "file is truncated");
+            }
+            report(indicator, collector, startTime);
+        } finally {
+            in = null;
+        }
+
+        return collector.toReport(file.toString(), SIZE_METRIC, System.currentTimeMillis() - startTime, complete);
+    }
+
+    private void stop(KeyspaceStatsCollector collector, long offset, String reason) {
+        LOG.warn("Stopped parsing " + file + " at offset " + offset + ": " + reason);
+        collector.putMetadata("Stopped", String.format("At offset %,d: %s", offset, reason));
+    }
+
+    private void report(ProgressIndicator indicator, KeyspaceStatsCollector collector, long startTime) {
+        indicator.setFraction(in.getSize() == 0 ? 1.0 : (double) in.getPosition() / in.getSize());
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        indicator.setText2(String.format("%,d keys, %,d MB read (%,d MB/s)", collector.getTotalKeys(),
+                in.getPosition() >> 20, (in.getPosition() >> 20) * 1000 / elapsed));
+    }
+
+    private int readHeader() throws IOException {
+        if (in.getSize() < 9) {
+            throw new IOException("Not an RDB file: " + file);
+        }
+        String header = new String(in.readBytes(9), StandardCharsets.US_ASCII);
+        if (!header.startsWith("REDIS")) {
+            throw new IOException("Not an RDB file: " + file);
+        }
+        try {
+            return Integer.parseInt(header.substring(5));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid RDB version in " + file + ": " + header.substring(5));
+        }
+    }
+
+    private static long parseLong(String value, long fallback) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Type, encoding and element count of a value
+     */
+    private static class ValueInfo {
+        final String type;
+        final String encoding;
+        final long elements;
+
+        ValueInfo(String type, String encoding, long elements) {
+            this.type = type;
+            this.encoding = encoding;
+            this.elements = elements;
+        }
+    }
+
+    /**
+     * Walk past one value
+     * @return what was read, or null if the type is not supported
+     */
+    private ValueInfo readValue(int type) throws IOException {
+        switch (type) {
+            case TYPE_STRING: {
+                long length = skipString();
+                return new ValueInfo("string", lastStringIntEncoded ? "int" : "raw", length);
+            }
+            case TYPE_LIST:
+                return new ValueInfo("list", "linkedlist", skipStrings(1));
+            case TYPE_SET:
+                return new ValueInfo("set", "hashtable", skipStrings(1));
+            case TYPE_HASH:
+                return new ValueInfo("hash", "hashtable", skipStrings(2));
+            case TYPE_ZSET: {
+                long count = readLength();
+                for (long i = 0; i < count; i++) {
+                    skipString();
+                    int length = in.readUnsignedByte();
+                    if (length < 253) {
+                        in.skip(length);
+                    }
+                }
+                return new ValueInfo("zset", "skiplist", count);
+            }
+            case TYPE_ZSET_2: {
+                long count = readLength();
+                for (long i = 0; i < count; i++) {
+                    skipString();
+                    in.skip(8);
+                }
+                return new ValueInfo("zset", "skiplist", count);
+            }
+            case TYPE_MODULE_2: {
+                long moduleId = readLength();
+                skipModuleValue();
+                return new ValueInfo(moduleName(moduleId), "module", -1);
+            }
+            case TYPE_HASH_ZIPMAP: {
+                int count = readBlobHeader(1)[0] & 0xFF;
+                return new ValueInfo("hash", "zipmap", count < 254 ? count : -1);
+            }
+            case TYPE_LIST_ZIPLIST:
+                return new ValueInfo("list", "ziplist", ziplistEntries(readBlobHeader(10)));
+            case TYPE_SET_INTSET:
+                return new ValueInfo("set", "intset", uint32(readBlobHeader(8), 4));
+            case TYPE_ZSET_ZIPLIST:
+                return new ValueInfo("zset", "ziplist", half(ziplistEntries(readBlobHeader(10))));
+            case TYPE_HASH_ZIPLIST:
+                return new ValueInfo("hash", "ziplist", half(ziplistEntries(readBlobHeader(10))));
+            case TYPE_LIST_QUICKLIST: {
+                long nodes = readLength();
+                long count = 0;
+                for (long i = 0; i < nodes; i++) {
+                    count = sum(count, ziplistEntries(readBlobHeader(10)));
+                }
+                return new ValueInfo("list", "quicklist", count);
+            }
+            case TYPE_LIST_QUICKLIST_2: {
+                long nodes = readLength();
+                long count = 0;
+                for (long i = 0; i < nodes; i++) {
+                    long container = readLength();
+                    if (container == 1) {
+                        skipString();
+                        count = sum(count, 1);
+                    } else {
+                        count = sum(count, listpackEntries(readBlobHeader(6)));
+                    }
+                }
+                return new ValueInfo("list", "quicklist", count);
+            }
+            case TYPE_HASH_LISTPACK:
+                return new ValueInfo("hash", "listpack", half(listpackEntries(readBlobHeader(6))));
+            case TYPE_ZSET_LISTPACK:
+                return new ValueInfo("zset", "listpack", half(listpackEntries(readBlobHeader(6))));
+            case TYPE_SET_LISTPACK:
+                return new ValueInfo("set", "listpack", listpackEntries(readBlobHeader(6)));
+            case TYPE_STREAM_LISTPACKS:
+            case TYPE_STREAM_LISTPACKS_2:
+            case TYPE_STREAM_LISTPACKS_3:
+                return new ValueInfo("stream", "stream", skipStream(type));
+            case TYPE_HASH_METADATA_PRE_GA:
+            case TYPE_HASH_METADATA: {
+                if (type == TYPE_HASH_METADATA) {
+                    in.skip(8);
+                }
+                long count = readLength();
+                for (long i = 0; i < count; i++) {
+                    if (type == TYPE_HASH_METADATA) {
+                        readLength();
+                    } else {
+                        in.skip(8);
+                    }
+                    skipString();
+                    skipString();
+                }
+                return new ValueInfo("hash", "hashtable", count);
+            }
+            case TYPE_HASH_LISTPACK_EX_PRE_GA:
+            case TYPE_HASH_LISTPACK_EX: {
+                if (type == TYPE_HASH_LISTPACK_EX) {
+                    in.skip(8);
+                }
+                long entries = listpackEntries(readBlobHeader(6));
+                return new ValueInfo("hash", "listpackex", entries < 0 ? -1 : entries / 3);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private long skipStream(int type) throws IOException {
+        long listpacks = readLength();
+        for (long i = 0; i < listpacks; i++) {
+            skipString();
+            skipString();
+        }
+        long length = readLength();
+        readLength();
+        readLength();
+        if (type >= TYPE_STREAM_LISTPACKS_2) {
+            // First id, max deleted id and entries added
+            for (int i = 0; i < 5; i++) {
+                readLength();
+            }
+        }
+
+        long groups = readLength();
+        for (long g = 0; g < groups; g++) {
+            skipString();
+            readLength();
+            readLength();
+            if (type >= TYPE_STREAM_LISTPACKS_2) {
+                readLength();
+            }
+            long pending = readLength();
+            for (long p = 0; p < pending; p++) {
+                in.skip(16 + 8);
+                readLength();
+            }
+            long consumers = readLength();
+            for (long c = 0; c < consumers; c++) {
+                skipString();
+                in.skip(type >= TYPE_STREAM_LISTPACKS_3 ? 16 : 8);
+                long owned = readLength();
+                in.skip(owned * 16);
+            }
+        }
+        return length;
+    }
+
+    private void skipModuleValue() throws IOException {
+        while (true) {
+            long opcode = readLength();
+            switch ((int) opcode) {
+                case MODULE_OPCODE_EOF:
+                    return;
+                case MODULE_OPCODE_SINT:
+                case MODULE_OPCODE_UINT:
+                    readLength();
+                    break;
+                case MODULE_OPCODE_FLOAT:
+                    in.skip(4);
+                    break;
+                case MODULE_OPCODE_DOUBLE:
+                    in.skip(8);
+                    break;
+                case MODULE_OPCODE_STRING:
+                    skipString();
+                    break;
+                default:
+                    throw new IOException("Unknown module opcode " + opcode + " at offset " + in.getPosition());
+            }
+        }
+    }
+
+    /**
+     * Module type ids pack a 9 character name and a 10 bit encoding version
+     */
+    private static String moduleName(long moduleId) {
+        char[] name = new char[9];
+        long id = moduleId >>> 10;
+        for (int i = 8; i >= 0; i--) {
+            name[i] = MODULE_NAME_CHARSET.charAt((int) (id & 63));
+            id >>>= 6;
+        }
+        return new String(name);
+    }
+
+    /**
+     * Read a length, leaving the special encoding in {@link #encodingType} when {@link #ENCODED} is returned
+     */
+    private long readLength() throws IOException {
+        int first = in.readUnsignedByte();
+        switch ((first & 0xC0) >> 6) {
+            case 0:
+                return first & 0x3F;
+            case 1:
+                return ((first & 0x3F) << 8) | in.readUnsignedByte();
+            case 2:
+                if (first == 0x80) {
+                    return in.readIntBE() & 0xFFFFFFFFL;
+                } else if (first == 0x81) {
+                    return in.readLongBE();
+                }
+                throw new IOException("Invalid length encoding at offset " + (in.getPosition() - 1));
+            default:
+                encodingType = first & 0x3F;
+                return ENCODED;
+        }
+    }
+
+    private long skipStrings(int perElement) throws IOException {
+        long count = readLength();
+        for (long i = 0; i < count * perElement; i++) {
+            skipString();
+        }
+        return count;
+    }
+
+    /**
+     * Skip a string
+     * @return its uncompressed length in bytes
+     */
+    private long skipString() throws IOException {
+        long length = readLength();
+        lastStringIntEncoded = length == ENCODED && encodingType != ENCODING_LZF;
+        if (length != ENCODED) {
+            in.skip(length);
+            return length;
+        }
+        switch (encodingType) {
+            case ENCODING_INT8:
+            case ENCODING_INT16:
+            case ENCODING_INT32:
+                return readEncodedInt().length();
+            case ENCODING_LZF: {
+                long compressed = readLength();
+                long uncompressed = readLength();
+                in.skip(compressed);
+                return uncompressed;
+            }
+            default:
+                throw new IOException("Unknown string encoding " + encodingType + " at offset " + in.getPosition());
+        }
+    }
+
+    private String readEncodedInt() throws IOException {
+        switch (encodingType) {
+            case ENCODING_INT8:
+                return String.valueOf((byte) in.readUnsignedByte());
+            case ENCODING_INT16:
+                return String.valueOf((short) (in.readUnsignedByte() | in.readUnsignedByte() << 8));
+            default:
+                return String.valueOf(in.readIntLE());
+        }
+    }
+
+    private String readStringValue() throws IOException {
+        return new String(readBlobHeader(Integer.MAX_VALUE), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read up to {@code limit} leading bytes of a string and skip the rest of it
+     */
+    private byte[] readBlobHeader(int limit) throws IOException {
+        long length = readLength();
+        if (length != ENCODED) {
+            int count = (int) Math.min(length, limit);
+            byte[] bytes = in.readBytes(count);
+            in.skip(length - count);
+            return bytes;
+        }
+        switch (encodingType) {
+            case ENCODING_INT8:
+            case ENCODING_INT16:
+            case ENCODING_INT32:
+                return readEncodedInt().getBytes(StandardCharsets.US_ASCII);
+            case ENCODING_LZF: {
+                long compressed = readLength();
+                long uncompressed = readLength();
+                if (compressed > Integer.MAX_VALUE || uncompressed > Integer.MAX_VALUE) {
+                    throw new IOException("Compressed string too large at offset " + in.getPosition());
+                }
+                return Lzf.decompress(in.readBytes((int) compressed), (int) uncompressed, limit);
+            }
+            default:
+                throw new IOException("Unknown string encoding " + encodingType + " at offset " + in.getPosition());
+        }
+    }
+
+    /**
+     * Ziplists start with zlbytes and zltail (4 bytes each) followed by a 2 byte entry count
+     */
+    private static long ziplistEntries(byte[] header) {
+        if (header.length < 10) {
+            return -1;
+        }
+        int count = uint16(header, 8);
+        return count == 0xFFFF ? -1 : count;
+    }
+
+    /**
+     * Listpacks start with a 4 byte total size followed by a 2 byte element count
+     */
+    private static long listpackEntries(byte[] header) {
+        if (header.length < 6) {
+            return -1;
+        }
+        int count = uint16(header, 4);
+        return count == 0xFFFF ? -1 : count;
+    }
+
+    private static int uint16(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+    }
+
+    private static long uint32(byte[] bytes, int offset) {
+        if (bytes.length < offset + 4) {
+            return -1;
+        }
+        return (uint16(bytes, offset) | (long) uint16(bytes, offset + 2) << 16);
+    }
+
+    private static long half(long entries) {
+        return entries < 0 ? -1 : entries / 2;
+    }
+
+    private static long sum(long total, long entries) {
+        return total < 0 || entries < 0 ? -1 : total + entries;
+    }
+
+    /**
+     * Builder for RdbAnalyzer
+     */
+    public static class Builder {
+        private Path file;
+        private String delimiter = ":";
+        private int topKeys = 100;
+
+        public Builder file(Path file) {
+            this.file = file;
+            return this;
+        }
+
+        public Builder delimiter(String delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public Builder topKeys(int topKeys) {
+            this.topKeys = topKeys;
+            return this;
+        }
+
+        public RdbAnalyzer build() {
+            if (file == null) {
+                throw new IllegalStateException("RDB file is required");
+            }
+            if (delimiter == null) {
+                throw new IllegalStateException("Delimiter is required");
+            }
+            return new RdbAnalyzer(this);
+        }
+    }
+}
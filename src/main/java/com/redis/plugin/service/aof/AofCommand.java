@@ -0,0 +1,75 @@
+package com.redis.plugin.service.aof;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One command read from an append-only file
+ */
+public class AofCommand {
+    private final String name;
+    private final byte[][] args;
+    private final long timestamp;
+    private final int size;
+
+    /**
+     * @param name the command name in upper case
+     * @param args the arguments after the name
+     * @param timestamp the last {@code #TS} annotation seen before the command, in seconds, or -1 if none
+     * @param size the number of bytes the command occupies in the file
+     */
+    public AofCommand(String name, byte[][] args, long timestamp, int size) {
+        this.name = name;
+        this.args = args;
+        this.timestamp = timestamp;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[][] getArgs() {
+        return args;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the first key the command operates on, for commands whose keys are known
+     * @return the key, or null for commands without keys
+     */
+    public String getFirstKey() {
+        switch (name) {
+            case "SELECT":
+            case "MULTI":
+            case "EXEC":
+            case "DISCARD":
+            case "FLUSHALL":
+            case "FLUSHDB":
+            case "SWAPDB":
+            case "SCRIPT":
+            case "FUNCTION":
+            case "PUBLISH":
+            case "PING":
+                return null;
+            case "EVAL":
+            case "EVALSHA":
+            case "EVAL_RO":
+            case "EVALSHA_RO":
+            case "FCALL":
+            case "FCALL_RO":
+                if (args.length < 3 || "0".equals(new String(args[1], StandardCharsets.US_ASCII))) {
+                    return null;
+                }
+                return new String(args[2], StandardCharsets.UTF_8);
+            default:
+                return args.length == 0 ? null : new String(args[0], StandardCharsets.UTF_8);
+        }
+    }
+}
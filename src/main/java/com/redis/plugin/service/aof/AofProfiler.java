@@ -0,0 +1,167 @@
+package com.redis.plugin.service.aof;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.AofProfile;
+import com.redis.plugin.service.analysis.KeyspaceStatsCollector;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds an {@link AofProfile} by reading an append-only file once
+ */
+public class AofProfiler {
+    private final Path source;
+    private final String delimiter;
+
+    private static class Counter {
+        long commands;
+        long bytes;
+
+        void add(int size) {
+            commands++;
+            bytes += size;
+        }
+    }
+
+    private AofProfiler(Builder builder) {
+        this.source = builder.source;
+        this.delimiter = builder.delimiter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Read the file on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @return the profile
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public AofProfile run(ProgressIndicator indicator) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Map<String, Counter> commands = new HashMap<>();
+        Map<String, Counter> namespaces = new HashMap<>();
+        Map<Integer, Counter> databases = new TreeMap<>();
+        Map<String, String> metadata = new LinkedHashMap<>();
+        long total = 0;
+        long bytes = 0;
+        long firstTimestamp = -1;
+        long lastTimestamp = -1;
+        int database = 0;
+
+        try (AofReader reader = AofReader.open(source)) {
+            indicator.setIndeterminate(reader.getSize() == 0);
+            AofCommand command;
+            while ((command = reader.next()) != null) {
+                if (++total % 10_000 == 0) {
+                    indicator.checkCanceled();
+                    report(indicator, reader, total, startTime);
+                }
+                bytes += command.getSize();
+                if (command.getTimestamp() >= 0) {
+                    if (firstTimestamp < 0) {
+                        firstTimestamp = command.getTimestamp();
+                    }
+                    lastTimestamp = command.getTimestamp();
+                }
+                if ("SELECT".equals(command.getName()) && command.getArgs().length == 1) {
+                    database = parseDatabase(command.getArgs()[0], database);
+                }
+
+                commands.computeIfAbsent(command.getName(), n -> new Counter()).add(command.getSize());
+                databases.computeIfAbsent(database, d -> new Counter()).add(command.getSize());
+                String key = command.getFirstKey();
+                if (key != null) {
+                    namespaceCounter(namespaces, key).add(command.getSize());
+                }
+            }
+
+            metadata.put("Files", String.valueOf(reader.getFiles().size()));
+            for (Path skipped : reader.getSkippedFiles()) {
+                metadata.put("Skipped", skipped.getFileName() + " (RDB base snapshot)");
+            }
+            report(indicator, reader, total, startTime);
+        }
+
+        List<AofProfile.Entry> databaseEntries = new ArrayList<>();
+        databases.forEach((db, counter) ->
+                databaseEntries.add(new AofProfile.Entry("db" + db, counter.commands, counter.bytes)));
+        return new AofProfile(source.toString(), total, bytes, firstTimestamp, lastTimestamp,
+                System.currentTimeMillis() - startTime, metadata, byCount(commands), byCount(namespaces),
+                databaseEntries);
+    }
+
+    private Counter namespaceCounter(Map<String, Counter> namespaces, String key) {
+        String namespace = KeyspaceStatsCollector.namespaceOf(key, delimiter);
+        Counter counter = namespaces.get(namespace);
+        if (counter == null) {
+            if (namespaces.size() >= KeyspaceStatsCollector.MAX_NAMESPACES) {
+                namespace = KeyspaceStatsCollector.OTHER_NAMESPACES;
+            }
+            counter = namespaces.computeIfAbsent(namespace, n -> new Counter());
+        }
+        return counter;
+    }
+
+    private static int parseDatabase(byte[] arg, int current) {
+        try {
+            return Integer.parseInt(new String(arg, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return current;
+        }
+    }
+
+    private static List<AofProfile.Entry> byCount(Map<String, Counter> counters) {
+        List<AofProfile.Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((name, counter) -> entries.add(new AofProfile.Entry(name, counter.commands, counter.bytes)));
+        entries.sort(Comparator.comparingLong(AofProfile.Entry::getCommands).reversed());
+        return entries;
+    }
+
+    private static void report(ProgressIndicator indicator, AofReader reader, long commands, long startTime) {
+        if (reader.getSize() > 0) {
+            indicator.setFraction(Math.min(1.0, (double) reader.getPosition() / reader.getSize()));
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        indicator.setText2(String.format("%s: %,d commands read (%,d commands/s)",
+                reader.getCurrentFile().getFileName(), commands, commands * 1000 / elapsed));
+    }
+
+    /**
+     * Builder for AofProfiler
+     */
+    public static class Builder {
+        private Path source;
+        private String delimiter = ":";
+
+        public Builder source(Path source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder delimiter(String delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        public AofProfiler build() {
+            if (source == null) {
+                throw new IllegalStateException("AOF file is required");
+            }
+            if (delimiter == null) {
+                throw new IllegalStateException("Delimiter is required");
+            }
+            return new AofProfiler(this);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.redis.plugin.service.aof;
+
+import com.redis.plugin.service.bulk.ChannelInput;
+import com.redis.plugin.service.impl.JedisRedisService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Incremental reader for append-only files.
+ * <p>
+ * Reads a single AOF file or, given a Redis 7 manifest, the base and incremental
+ * files it lists in order. Commands are parsed one at a time through {@link ChannelInput},
+ * so memory use does not depend on the file size. {@code #TS} timestamp annotations are
+ * attached to the commands that follow them.
+ */
+public class AofReader implements Closeable {
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final String TIMESTAMP_PREFIX = "#TS:";
+
+    private final List<Path> files;
+    private final List<Path> skippedFiles;
+    private final long totalSize;
+    private int fileIndex = -1;
+    private long completedSize;
+    private ChannelInput in;
+    private long timestamp = -1;
+
+    private AofReader(List<Path> files, List<Path> skippedFiles) throws IOException {
+        this.files = files;
+        this.skippedFiles = skippedFiles;
+        long size = 0;
+        for (Path file : files) {
+            size += Files.size(file);
+        }
+        this.totalSize = size;
+    }
+
+    /**
+     * Open an AOF file or a multi-part AOF manifest
+     * @param path the file to read
+     * @return the reader
+     * @throws IOException if the file or manifest cannot be read
+     */
+    public static AofReader open(Path path) throws IOException {
+        if (!path.getFileName().toString().endsWith(MANIFEST_SUFFIX)) {
+            return new AofReader(Collections.singletonList(path), Collections.emptyList());
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        List<Path> files = new ArrayList<>();
+        List<Path> skipped = new ArrayList<>();
+        List<long[]> incrementalOrder = new ArrayList<>();
+        List<Path> incremental = new ArrayList<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = JedisRedisService.parseCommandLine(line.trim());
+            String name = null;
+            String type = null;
+            long seq = 0;
+            for (int i = 0; i + 1 < parts.length; i += 2) {
+                switch (parts[i]) {
+                    case "file":
+                        name = parts[i + 1];
+                        break;
+                    case "type":
+                        type = parts[i + 1];
+                        break;
+                    case "seq":
+                        seq = Long.parseLong(parts[i + 1]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (name == null || type == null) {
+                throw new IOException("Invalid manifest line: " + line);
+            }
+            Path file = directory.resolve(name);
+            if ("b".equals(type)) {
+                if (name.endsWith(".rdb")) {
+                    // RDB base snapshots can be inspected with the RDB analyzer instead
+                    skipped.add(file);
+                } else {
+                    files.add(0, file);
+                }
+            } else if ("i".equals(type)) {
+                incrementalOrder.add(new long[]{seq, incremental.size()});
+                incremental.add(file);
+            }
+        }
+        incrementalOrder.sort(Comparator.comparingLong(entry -> entry[0]));
+        for (long[] entry : incrementalOrder) {
+            files.add(incremental.get((int) entry[1]));
+        }
+        return new AofReader(files, skipped);
+    }
+
+    /**
+     * Read the next command
+     * @return the command, or null at the end of the last file
+     * @throws IOException if reading fails or the file is not a RESP command stream
+     */
+    public AofCommand next() throws IOException {
+        while (true) {
+            if (in == null || in.peek() < 0) {
+                if (!nextFile()) {
+                    return null;
+                }
+                continue;
+            }
+
+            int first = in.peek();
+            String header = in.readLine();
+            if (first == '#') {
+                if (header.startsWith(TIMESTAMP_PREFIX)) {
+                    try {
+                        timestamp = Long.parseLong(header.substring(TIMESTAMP_PREFIX.length()).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IOException(location() + ": invalid timestamp annotation " + header);
+                    }
+                }
+                continue;
+            }
+            if (header.isEmpty()) {
+                continue;
+            }
+            if (first != '*') {
+                if (in.getLineNumber() == 1 && header.startsWith("REDIS")) {
+                    throw new IOException(getCurrentFile() + " starts with an RDB preamble; "
+                            + "open the RDB part in the Analysis tab or use a multi-part AOF manifest");
+                }
+                throw new IOException(location() + ": expected a RESP array but found " + abbreviate(header));
+            }
+            return readArray(header);
+        }
+    }
+
+    private AofCommand readArray(String header) throws IOException {
+        int count;
+        try {
+            count = Integer.parseInt(header.substring(1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(location() + ": invalid array header " + abbreviate(header));
+        }
+        if (count <= 0) {
+            throw new IOException(location() + ": empty command");
+        }
+
+        int size = header.length() + 2;
+        String name = null;
+        byte[][] args = new byte[count - 1][];
+        for (int i = 0; i < count; i++) {
+            String bulkHeader = in.readLine();
+            if (bulkHeader == null || bulkHeader.isEmpty() || bulkHeader.charAt(0) != '$') {
+                throw new IOException(location() + ": expected bulk string");
+            }
+            int length;
+            try {
+                length = Integer.parseInt(bulkHeader.substring(1).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException(location() + ": invalid bulk header " + abbreviate(bulkHeader));
+            }
+            byte[] bytes = in.readBulk(length);
+            size += bulkHeader.length() + length + 4;
+            if (i == 0) {
+                name = new String(bytes, StandardCharsets.UTF_8).toUpperCase();
+            } else {
+                args[i - 1] = bytes;
+            }
+        }
+        return new AofCommand(name, args, timestamp, size);
+    }
+
+    private boolean nextFile() throws IOException {
+        if (in != null) {
+            completedSize += in.getSize();
+            in.close();
+            in = null;
+        }
+        if (fileIndex + 1 >= files.size()) {
+            return false;
+        }
+        fileIndex++;
+        in = ChannelInput.open(files.get(fileIndex));
+        return true;
+    }
+
+    private String location() {
+        return getCurrentFile().getFileName() + " line " + in.getLineNumber();
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() > 40 ? text.substring(0, 40) + "..." : text;
+    }
+
+    /**
+     * @return the files that are read, in order
+     */
+    public List<Path> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * @return files listed in a manifest that are not read, such as an RDB base snapshot
+     */
+    public List<Path> getSkippedFiles() {
+        return Collections.unmodifiableList(skippedFiles);
+    }
+
+    public Path getCurrentFile() {
+        return files.get(Math.max(0, fileIndex));
+    }
+
+    /**
+     * @return bytes consumed across all files; compressed bytes for gzip files
+     */
+    public long getPosition() {
+        return completedSize + (in != null ? Math.max(0, in.getPosition()) : 0);
+    }
+
+    public long getSize() {
+        return totalSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.redis.plugin.service.aof;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.benchmark.LatencyHistogram;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the commands of an append-only file against a connection as a load test.
+ * <p>
+ * Commands are pipelined in batches. With a speed factor, {@code #TS} annotations in the
+ * file set the pace: the commands logged in one second of the original run are sent
+ * together, N times faster than recorded. Without annotations, or with speed 0, the file
+ * is replayed as fast as the server accepts it. Each command's latency is measured from
+ * when it is queued until the reply to its batch has been read.
+ */
+public class AofReplayJob {
+    private static final Logger LOG = Logger.getInstance(AofReplayJob.class);
+
+    /**
+     * Maximum number of error messages kept; failures beyond this are only counted
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    private final RedisConnection connection;
+    private final Path source;
+    private final double speed;
+    private final int pipelineDepth;
+    private final boolean skipFlush;
+
+    private final Map<String, ProtocolCommand> commandCache = new HashMap<>();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final long[] pendingSentAt;
+    private final long[] pendingNumbers;
+    private final String[] pendingNames;
+    private int pendingCount;
+    private Pipeline pipeline;
+
+    private volatile long commands;
+    private volatile long failed;
+    private volatile long skipped;
+    private volatile boolean paced;
+    private volatile long elapsedMillis;
+
+    private AofReplayJob(Builder builder) {
+        this.connection = builder.connection;
+        this.source = builder.source;
+        this.speed = builder.speed;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.skipFlush = builder.skipFlush;
+        this.pendingSentAt = new long[pipelineDepth];
+        this.pendingNumbers = new long[pipelineDepth];
+        this.pendingNames = new String[pipelineDepth];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the replay on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public void run(ProgressIndicator indicator) throws IOException {
+        try (Jedis jedis = JedisRedisService.createClient(connection);
+             AofReader reader = AofReader.open(source)) {
+            indicator.setIndeterminate(reader.getSize() == 0);
+            pipeline = jedis.pipelined();
+            long startTime = System.nanoTime();
+            long firstTimestamp = -1;
+            long read = 0;
+
+            try {
+                AofCommand command;
+                while ((command = reader.next()) != null) {
+                    if (++read % 10_000 == 0) {
+                        indicator.checkCanceled();
+                        report(indicator, reader, startTime);
+                    }
+                    if (speed > 0 && command.getTimestamp() >= 0) {
+                        if (firstTimestamp < 0) {
+                            firstTimestamp = command.getTimestamp();
+                            paced = true;
+                        }
+                        long due = startTime + (long) ((command.getTimestamp() - firstTimestamp) * 1e9 / speed);
+                        if (due > System.nanoTime()) {
+                            sync();
+                            waitUntil(due, indicator, reader, startTime);
+                        }
+                    }
+                    if (skipFlush && ("FLUSHALL".equals(command.getName()) || "FLUSHDB".equals(command.getName()))) {
+                        skipped++;
+                        continue;
+                    }
+                    send(read, command);
+                }
+                sync();
+            } finally {
+                elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            }
+            report(indicator, reader, startTime);
+        }
+    }
+
+    private void waitUntil(long due, ProgressIndicator indicator, AofReader reader, long startTime) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            indicator.checkCanceled();
+            report(indicator, reader, startTime);
+            try {
+                TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException();
+            }
+        }
+    }
+
+    private void send(long number, AofCommand command) {
+        ProtocolCommand protocolCommand = commandCache.computeIfAbsent(command.getName(), name -> {
+            byte[] raw = name.getBytes(StandardCharsets.UTF_8);
+            return () -> raw;
+        });
+        pendingSentAt[pendingCount] = System.nanoTime();
+        pendingNumbers[pendingCount] = number;
+        pendingNames[pendingCount] = command.getName();
+        pendingCount++;
+        pipeline.sendCommand(protocolCommand, command.getArgs());
+        commands++;
+        if (pendingCount == pipelineDepth) {
+            sync();
+        }
+    }
+
+    /**
+     * Read all outstanding replies, recording latencies and errors
+     */
+    private void sync() {
+        if (pendingCount == 0) {
+            return;
+        }
+        List<Object> replies = pipeline.syncAndReturnAll();
+        long now = System.nanoTime();
+        for (int i = 0; i < pendingCount; i++) {
+            histogram.record(TimeUnit.NANOSECONDS.toMicros(now - pendingSentAt[i]));
+            if (i < replies.size() && replies.get(i) instanceof JedisDataException) {
+                addError(pendingNumbers[i], pendingNames[i], ((JedisDataException) replies.get(i)).getMessage());
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private void addError(long number, String name, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Command " + number + " (" + name + "): " + message);
+        }
+        LOG.debug("Replay error at command " + number + ": " + message);
+    }
+
+    private void report(ProgressIndicator indicator, AofReader reader, long startTime) {
+        if (reader.getSize() > 0) {
+            indicator.setFraction(Math.min(1.0, (double) reader.getPosition() / reader.getSize()));
+        }
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        indicator.setText2(String.format("%,d commands sent, %,d failed (%,d ops/s)",
+                commands, failed, commands * 1000 / elapsed));
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return number of FLUSHALL and FLUSHDB commands left out
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return true if the replay was paced by timestamp annotations
+     */
+    public boolean isPaced() {
+        return paced;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return per-command latencies in microseconds; read only after {@link #run} has returned
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return the first {@link #MAX_ERRORS} error messages
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    /**
+     * Builder for AofReplayJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private Path source;
+        private double speed;
+        private int pipelineDepth = 100;
+        private boolean skipFlush = true;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder source(Path source) {
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * @param speed replay speed relative to the recorded timestamps, or 0 for as fast as possible
+         */
+        public Builder speed(double speed) {
+            this.speed = speed;
+            return this;
+        }
+
+        public Builder pipelineDepth(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        /**
+         * @param skipFlush true to leave out FLUSHALL and FLUSHDB commands
+         */
+        public Builder skipFlush(boolean skipFlush) {
+            this.skipFlush = skipFlush;
+            return this;
+        }
+
+        public AofReplayJob build() {
+            if (connection == null || source == null) {
+                throw new IllegalStateException("Connection and AOF file are required");
+            }
+            if (speed < 0) {
+                throw new IllegalStateException("Speed cannot be negative");
+            }
+            if (pipelineDepth < 1) {
+                throw new IllegalStateException("Pipeline depth must be positive");
+            }
+            return new AofReplayJob(this);
+        }
+    }
+}
@@ -0,0 +1,431 @@
+package com.redis.plugin.service.benchmark;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator in the style of redis-benchmark: a number of clients, each on its own
+ * connection and thread, send commands built from templates for a fixed duration.
+ * <p>
+ * Every client keeps two histograms. The service time runs from sending a pipelined batch to
+ * reading its replies. The corrected latency also counts the time a command waited to be
+ * sent, which a closed-loop client otherwise hides (coordinated omission): with a target rate
+ * each command has an intended send time on a fixed schedule and its latency runs from that
+ * time; without one, batches slower than twice the client's average round trip are
+ * back-filled with the batches that could not be sent meanwhile.
+ */
+public class BenchmarkJob {
+    private static final Logger LOG = Logger.getInstance(BenchmarkJob.class);
+
+    /**
+     * Maximum number of error messages kept; failures beyond this are only counted
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * Number of distinct random values each client chooses from
+     */
+    static final int VALUE_POOL_SIZE = 64;
+
+    /**
+     * Batches measured before a closed-loop client starts correcting, so its average is stable
+     */
+    static final int WARMUP_BATCHES = 100;
+
+    private final RedisConnection connection;
+    private final List<BenchmarkTemplate> templates;
+    private final int clients;
+    private final int pipelineDepth;
+    private final long durationMillis;
+    private final long targetRate;
+    private final int keyspace;
+    private final byte[] keyPrefix;
+    private final int minValueSize;
+    private final int maxValueSize;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LatencyHistogram correctedHistogram = new LatencyHistogram();
+    private final long[] templateCounts;
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean stopping;
+    private volatile String connectionError;
+    private volatile long elapsedMillis;
+
+    private BenchmarkJob(Builder builder) {
+        this.connection = builder.connection;
+        this.templates = Collections.unmodifiableList(new ArrayList<>(builder.templates));
+        this.clients = builder.clients;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.durationMillis = builder.durationMillis;
+        this.targetRate = builder.targetRate;
+        this.keyspace = builder.keyspace;
+        this.keyPrefix = builder.keyPrefix.getBytes(StandardCharsets.UTF_8);
+        this.minValueSize = builder.minValueSize;
+        this.maxValueSize = builder.maxValueSize;
+        this.templateCounts = new long[templates.size()];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the benchmark, blocking the calling thread until all clients are done
+     * @param indicator progress indicator used for reporting and cancellation
+     * @throws IllegalStateException if no client could connect
+     */
+    public void run(ProgressIndicator indicator) {
+        CountDownLatch done = new CountDownLatch(clients);
+        List<Client> started = new ArrayList<>();
+        long startTime = System.nanoTime();
+        long endTime = startTime + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(i, startTime, endTime, done);
+            started.add(client);
+            AppExecutorUtil.getAppExecutorService().execute(client);
+        }
+
+        try {
+            while (!done.await(100, TimeUnit.MILLISECONDS)) {
+                indicator.checkCanceled();
+                long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+                indicator.setFraction(Math.min(1.0, (double) elapsed / durationMillis));
+                indicator.setText2(String.format("%,d commands, %,d failed (%,d ops/s)",
+                        commands.sum(), failed.sum(), commands.sum() * 1000 / elapsed));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopAndWait(done);
+            throw new ProcessCanceledException();
+        } catch (ProcessCanceledException e) {
+            stopAndWait(done);
+            throw e;
+        } finally {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            for (Client client : started) {
+                histogram.add(client.histogram);
+                correctedHistogram.add(client.correctedHistogram);
+                for (int i = 0; i < templateCounts.length; i++) {
+                    templateCounts[i] += client.templateCounts[i];
+                }
+            }
+        }
+        if (commands.sum() == 0 && connectionError != null) {
+            throw new IllegalStateException(connectionError);
+        }
+    }
+
+    private void stopAndWait(CountDownLatch done) {
+        stopping = true;
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * One connection sending batches until the end time
+     */
+    private class Client implements Runnable {
+        private final int index;
+        private final long startTime;
+        private final long endTime;
+        private final CountDownLatch done;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LatencyHistogram correctedHistogram = new LatencyHistogram();
+        private final long[] templateCounts = new long[templates.size()];
+        private final int[] batchTemplates = new int[pipelineDepth];
+        private final long[] intendedTimes = new long[pipelineDepth];
+
+        Client(int index, long startTime, long endTime, CountDownLatch done) {
+            this.index = index;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try (Jedis jedis = JedisRedisService.createClient(connection)) {
+                send(jedis.pipelined());
+            } catch (JedisException e) {
+                if (!stopping) {
+                    LOG.info("Benchmark client for " + connection.getName() + " failed: " + e.getMessage());
+                    connectionError = e.getMessage();
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void send(Pipeline pipeline) {
+            Random random = ThreadLocalRandom.current();
+            byte[][] values = createValues(random);
+            // Each client sends its share of the target rate on its own schedule
+            long interval = targetRate > 0 ? Math.max(1, TimeUnit.SECONDS.toNanos(clients) / targetRate) : 0;
+            // Offset the schedules so the clients do not all send at the same instant
+            long nextIntended = startTime + interval * index / clients;
+            long batches = 0;
+            long totalRoundTrip = 0;
+
+            while (!stopping) {
+                long now = System.nanoTime();
+                if (now >= endTime) {
+                    break;
+                }
+                int batch = pipelineDepth;
+                if (interval > 0) {
+                    if (nextIntended > now) {
+                        LockSupport.parkNanos(Math.min(nextIntended - now, TimeUnit.MILLISECONDS.toNanos(100)));
+                        continue;
+                    }
+                    // Commands that fell behind schedule are sent at once, up to a full pipeline
+                    batch = (int) Math.min(pipelineDepth, (now - nextIntended) / interval + 1);
+                }
+                for (int i = 0; i < batch; i++) {
+                    int template = templates.size() == 1 ? 0 : random.nextInt(templates.size());
+                    BenchmarkTemplate command = templates.get(template);
+                    batchTemplates[i] = template;
+                    intendedTimes[i] = nextIntended + i * interval;
+                    pipeline.sendCommand(command.getCommand(),
+                            command.arguments(random, keyPrefix, keyspace, values));
+                }
+                long sent = System.nanoTime();
+                List<Object> replies = pipeline.syncAndReturnAll();
+                long received = System.nanoTime();
+
+                long roundTrip = TimeUnit.NANOSECONDS.toMicros(received - sent);
+                histogram.record(roundTrip, batch);
+                if (interval > 0) {
+                    for (int i = 0; i < batch; i++) {
+                        correctedHistogram.record(TimeUnit.NANOSECONDS.toMicros(received - intendedTimes[i]));
+                    }
+                    nextIntended += batch * interval;
+                } else {
+                    long expected = batches < WARMUP_BATCHES ? 0 : totalRoundTrip / batches;
+                    // Only stalls of at least two average round trips hid any batches
+                    correctedHistogram.recordCorrected(roundTrip, batch, expected);
+                }
+                batches++;
+                totalRoundTrip += roundTrip;
+
+                int batchFailures = 0;
+                for (int i = 0; i < batch; i++) {
+                    templateCounts[batchTemplates[i]]++;
+                    if (i < replies.size() && replies.get(i) instanceof JedisDataException) {
+                        batchFailures++;
+                        addError(templates.get(batchTemplates[i]), ((JedisDataException) replies.get(i)).getMessage());
+                    }
+                }
+                commands.add(batch);
+                if (batchFailures > 0) {
+                    failed.add(batchFailures);
+                }
+            }
+        }
+    }
+
+    private byte[][] createValues(Random random) {
+        byte[][] values = new byte[VALUE_POOL_SIZE][];
+        for (int i = 0; i < values.length; i++) {
+            int size = minValueSize + random.nextInt(maxValueSize - minValueSize + 1);
+            values[i] = new byte[size];
+            for (int j = 0; j < size; j++) {
+                // Printable characters keep the values readable in the console
+                values[i][j] = (byte) ('a' + random.nextInt(26));
+            }
+        }
+        return values;
+    }
+
+    private void addError(BenchmarkTemplate template, String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(template.getName() + ": " + message);
+        }
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    public List<BenchmarkTemplate> getTemplates() {
+        return templates;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    /**
+     * @return the target rate in commands per second, or 0 for as fast as possible
+     */
+    public long getTargetRate() {
+        return targetRate;
+    }
+
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return time from sending a batch to reading its replies, in microseconds;
+     * read only after {@link #run} has returned
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return latency corrected for coordinated omission, in microseconds;
+     * read only after {@link #run} has returned
+     */
+    public LatencyHistogram getCorrectedHistogram() {
+        return correctedHistogram;
+    }
+
+    /**
+     * @return number of commands sent per template, in the order of {@link #getTemplates()};
+     * read only after {@link #run} has returned
+     */
+    public long[] getTemplateCounts() {
+        return templateCounts;
+    }
+
+    /**
+     * @return the first {@link #MAX_ERRORS} error messages
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Builder for BenchmarkJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private final List<BenchmarkTemplate> templates = new ArrayList<>();
+        private int clients = 50;
+        private int pipelineDepth = 1;
+        private long durationMillis = 10_000;
+        private long targetRate;
+        private int keyspace = 100_000;
+        private String keyPrefix = "benchmark:";
+        private int minValueSize = 3;
+        private int maxValueSize = 3;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder template(BenchmarkTemplate template) {
+            this.templates.add(template);
+            return this;
+        }
+
+        /**
+         * @param clients number of connections sending in parallel
+         */
+        public Builder clients(int clients) {
+            this.clients = clients;
+            return this;
+        }
+
+        public Builder pipelineDepth(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        public Builder durationMillis(long durationMillis) {
+            this.durationMillis = durationMillis;
+            return this;
+        }
+
+        /**
+         * @param targetRate commands per second across all clients, or 0 for as fast as possible
+         */
+        public Builder targetRate(long targetRate) {
+            this.targetRate = targetRate;
+            return this;
+        }
+
+        /**
+         * @param keyspace number of distinct keys {@value BenchmarkTemplate#KEY_PLACEHOLDER} is replaced with
+         */
+        public Builder keyspace(int keyspace) {
+            this.keyspace = keyspace;
+            return this;
+        }
+
+        public Builder keyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+            return this;
+        }
+
+        /**
+         * Values are chosen with sizes spread evenly between the two bounds
+         */
+        public Builder valueSize(int minValueSize, int maxValueSize) {
+            this.minValueSize = minValueSize;
+            this.maxValueSize = maxValueSize;
+            return this;
+        }
+
+        public BenchmarkJob build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (templates.isEmpty()) {
+                throw new IllegalStateException("At least one command is required");
+            }
+            if (clients < 1 || pipelineDepth < 1 || durationMillis < 1 || keyspace < 1) {
+                throw new IllegalStateException("Clients, pipeline depth, duration and keyspace must be positive");
+            }
+            if (targetRate < 0) {
+                throw new IllegalStateException("Target rate cannot be negative");
+            }
+            if (minValueSize < 0 || maxValueSize < minValueSize) {
+                throw new IllegalStateException("Value sizes must satisfy 0 <= minimum <= maximum");
+            }
+            if (keyPrefix == null) {
+                keyPrefix = "";
+            }
+            return new BenchmarkJob(this);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.redis.plugin.service.benchmark;
+
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.commands.ProtocolCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A command line sent by the benchmark, with placeholders filled in for every command.
+ * <p>
+ * {@value #KEY_PLACEHOLDER} becomes a random key of the keyspace and {@value #VALUE_PLACEHOLDER}
+ * a random value; both may appear inside a larger argument such as {@code user:{key}}. The
+ * template is parsed once, so building a command only copies bytes.
+ */
+public class BenchmarkTemplate {
+    public static final String KEY_PLACEHOLDER = "{key}";
+    public static final String VALUE_PLACEHOLDER = "{value}";
+
+    public static final String GET = "GET {key}";
+    public static final String SET = "SET {key} {value}";
+    public static final String INCR = "INCR {key}";
+    public static final String LPUSH = "LPUSH {key} {value}";
+
+    private static final int LITERAL = 0;
+    private static final int KEY = 1;
+    private static final int VALUE = 2;
+
+    private final String text;
+    private final String name;
+    private final ProtocolCommand command;
+    private final byte[][] prefixes;
+    private final int[] kinds;
+    private final byte[][] suffixes;
+
+    private BenchmarkTemplate(String text, String[] parts) {
+        this.text = text;
+        this.name = parts[0].toUpperCase(Locale.ROOT);
+        byte[] raw = name.getBytes(StandardCharsets.UTF_8);
+        this.command = () -> raw;
+        int args = parts.length - 1;
+        this.prefixes = new byte[args][];
+        this.kinds = new int[args];
+        this.suffixes = new byte[args][];
+        for (int i = 0; i < args; i++) {
+            String part = parts[i + 1];
+            int key = part.indexOf(KEY_PLACEHOLDER);
+            int value = part.indexOf(VALUE_PLACEHOLDER);
+            if (key >= 0) {
+                split(i, part, key, KEY_PLACEHOLDER, KEY);
+            } else if (value >= 0) {
+                split(i, part, value, VALUE_PLACEHOLDER, VALUE);
+            } else {
+                prefixes[i] = part.getBytes(StandardCharsets.UTF_8);
+                kinds[i] = LITERAL;
+            }
+        }
+    }
+
+    private void split(int arg, String part, int index, String placeholder, int kind) {
+        prefixes[arg] = part.substring(0, index).getBytes(StandardCharsets.UTF_8);
+        suffixes[arg] = part.substring(index + placeholder.length()).getBytes(StandardCharsets.UTF_8);
+        kinds[arg] = kind;
+    }
+
+    /**
+     * Parse a command line template
+     *
+     * @param text the template, e.g. {@code HSET user:{key} name {value}}
+     * @return the parsed template
+     * @throws IllegalArgumentException if the template is empty or uses a command that blocks its connection
+     */
+    public static BenchmarkTemplate parse(String text) {
+        String[] parts = JedisRedisService.parseCommandLine(text.trim());
+        if (parts.length == 0) {
+            throw new IllegalArgumentException("Command template is empty");
+        }
+        String name = parts[0].toUpperCase(Locale.ROOT);
+        if (name.endsWith("SUBSCRIBE") || name.equals("MONITOR")) {
+            throw new IllegalArgumentException(name + " cannot be benchmarked");
+        }
+        return new BenchmarkTemplate(text.trim(), parts);
+    }
+
+    /**
+     * Build the arguments of one command
+     *
+     * @param random the random source of the calling thread
+     * @param keyPrefix prefix of every generated key
+     * @param keyspace number of distinct keys
+     * @param values the values to choose from
+     * @return the arguments, without the command name
+     */
+    byte[][] arguments(Random random, byte[] keyPrefix, int keyspace, byte[][] values) {
+        byte[][] args = new byte[kinds.length][];
+        for (int i = 0; i < args.length; i++) {
+            switch (kinds[i]) {
+                case KEY:
+                    args[i] = join(prefixes[i], key(keyPrefix, random.nextInt(keyspace)), suffixes[i]);
+                    break;
+                case VALUE:
+                    byte[] value = values[random.nextInt(values.length)];
+                    args[i] = prefixes[i].length == 0 && suffixes[i].length == 0
+                            ? value : join(prefixes[i], value, suffixes[i]);
+                    break;
+                default:
+                    args[i] = prefixes[i];
+            }
+        }
+        return args;
+    }
+
+    private static byte[] key(byte[] prefix, int number) {
+        int digits = 1;
+        for (int n = number; n >= 10; n /= 10) {
+            digits++;
+        }
+        byte[] key = new byte[prefix.length + digits];
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        for (int i = key.length - 1, n = number; i >= prefix.length; i--, n /= 10) {
+            key[i] = (byte) ('0' + n % 10);
+        }
+        return key;
+    }
+
+    private static byte[] join(byte[] prefix, byte[] middle, byte[] suffix) {
+        if (prefix.length == 0 && suffix.length == 0) {
+            return middle;
+        }
+        byte[] joined = new byte[prefix.length + middle.length + suffix.length];
+        System.arraycopy(prefix, 0, joined, 0, prefix.length);
+        System.arraycopy(middle, 0, joined, prefix.length, middle.length);
+        System.arraycopy(suffix, 0, joined, prefix.length + middle.length, suffix.length);
+        return joined;
+    }
+
+    ProtocolCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the upper case command name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,172 @@
+package com.redis.plugin.service.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size latency histogram with logarithmic buckets.
+ * <p>
+ * Values are in microseconds. Each power of two is split into 2^precision linear
+ * sub-buckets. The default precision of 7 bits keeps every value with a relative error
+ * below 1%, and the histogram stays a few kilobytes however many values are recorded.
+ * Not thread-safe; use one histogram per thread and {@link #add} them.
+ */
+public class LatencyHistogram {
+    public static final int DEFAULT_PRECISION = 7;
+
+    /**
+     * Values above this are recorded as this value (about 1.2 hours)
+     */
+    public static final long MAX_VALUE = (1L << 32) - 1;
+
+    private final int subBucketBits;
+    private final int subBuckets;
+    private final long[] counts;
+    private long totalCount;
+    private long totalValue;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public LatencyHistogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision number of bits per power of two; the relative error is below 2^-precision
+     */
+    public LatencyHistogram(int precision) {
+        if (precision < 1 || precision > 14) {
+            throw new IllegalArgumentException("Precision must be between 1 and 14 bits");
+        }
+        this.subBucketBits = precision;
+        this.subBuckets = 1 << precision;
+        this.counts = new long[bucketIndex(MAX_VALUE) + 1];
+    }
+
+    /**
+     * Record one value
+     * @param micros the latency in microseconds
+     */
+    public void record(long micros) {
+        record(micros, 1);
+    }
+
+    /**
+     * Record the same value several times
+     * @param micros the latency in microseconds
+     * @param count number of times to record it
+     */
+    public void record(long micros, long count) {
+        if (count <= 0) {
+            return;
+        }
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts[bucketIndex(value)] += count;
+        totalCount += count;
+        totalValue += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Record a value measured by a closed-loop client and back-fill the values the client
+     * could not measure while it was waiting, as HdrHistogram does.
+     * <p>
+     * A client that waits for each reply sends nothing during a stall, so the requests it
+     * would have sent are missing from the histogram. For every whole interval the stall
+     * exceeded the expected interval by, one value shorter by that interval is added.
+     * @param micros the latency in microseconds
+     * @param count number of requests the value applies to, such as a pipelined batch
+     * @param expectedIntervalMicros the usual time between requests, or 0 to record without correction
+     */
+    public void recordCorrected(long micros, long count, long expectedIntervalMicros) {
+        record(micros, count);
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros;
+             missing -= expectedIntervalMicros) {
+            record(missing, count);
+        }
+    }
+
+    /**
+     * Add all values recorded in another histogram
+     */
+    public void add(LatencyHistogram other) {
+        if (other.subBucketBits != subBucketBits) {
+            throw new IllegalArgumentException("Histograms have different precision");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+    }
+
+    /**
+     * Get the value at a percentile
+     * @param percentile between 0 and 100
+     * @return the highest value of the bucket containing the percentile, capped at the maximum recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, bucketUpperBound(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values below {@code 2 * subBuckets} get their own bucket; above that, each
+     * power of two is divided into {@code subBuckets} equal parts
+     */
+    int bucketIndex(long value) {
+        if (value < 2L * subBuckets) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return (shift + 1) * subBuckets + (int) (value >>> shift) - subBuckets;
+    }
+
+    long bucketUpperBound(int index) {
+        if (index < 2 * subBuckets) {
+            return index;
+        }
+        int shift = index / subBuckets - 1;
+        long subBucket = index % subBuckets + subBuckets;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
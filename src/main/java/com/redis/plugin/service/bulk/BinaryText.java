@@ -0,0 +1,76 @@
+package com.redis.plugin.service.bulk;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Binary-safe text for the NDJSON and CSV formats.
+ * Keys, fields and values that are valid UTF-8 are written as text; anything else is
+ * written as {@value #MARKER} followed by its Base64 encoding. Text that itself starts
+ * with the marker is encoded too, so reading a value back is never ambiguous.
+ */
+final class BinaryText {
+    static final String MARKER = "base64:";
+
+    private static final byte[] MARKER_BYTES = MARKER.getBytes(StandardCharsets.US_ASCII);
+
+    private BinaryText() {
+    }
+
+    /**
+     * @param bytes a key, field or value as stored in Redis
+     * @return the bytes as text, or Base64 after the marker if they are not UTF-8
+     */
+    static String encode(byte[] bytes) {
+        if (!startsWithMarker(bytes)) {
+            if (isAscii(bytes)) {
+                return new String(bytes, StandardCharsets.US_ASCII);
+            }
+            try {
+                return StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString();
+            } catch (CharacterCodingException e) {
+                // Not UTF-8; fall through to Base64
+            }
+        }
+        return MARKER + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * @param text text as written by {@link #encode}
+     * @return the original bytes
+     * @throws IllegalArgumentException if the text has the marker but no valid Base64 after it
+     */
+    static byte[] decode(String text) {
+        if (!text.startsWith(MARKER)) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return Base64.getDecoder().decode(text.substring(MARKER.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid Base64 value: " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean startsWithMarker(byte[] bytes) {
+        if (bytes.length < MARKER_BYTES.length) {
+            return false;
+        }
+        for (int i = 0; i < MARKER_BYTES.length; i++) {
+            if (bytes[i] != MARKER_BYTES[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,275 @@
+package com.redis.plugin.service.bulk;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Applies or removes a TTL on every key matching a pattern.
+ * Keys are enumerated with SCAN and updated with one pipelined round trip per
+ * SCAN page. The SCAN cursor is exposed after every page so an interrupted job
+ * can be resumed without touching the keys that were already processed.
+ */
+public class BulkExpireJob {
+    /**
+     * The TTL operation to apply
+     */
+    public enum Mode {
+        EXPIRE("EXPIRE (seconds from now)"),
+        PEXPIREAT("PEXPIREAT (unix time in milliseconds)"),
+        PERSIST("PERSIST (remove expiration)");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private final RedisConnection connection;
+    private final String pattern;
+    private final String type;
+    private final Mode mode;
+    private final long value;
+    private final int jitterPercent;
+    private final int batchSize;
+    private final RateLimiter rateLimiter;
+    private final String startCursor;
+
+    private volatile String cursor;
+    private volatile long scanned;
+    private volatile long updated;
+
+    private BulkExpireJob(Builder builder) {
+        this.connection = builder.connection;
+        this.pattern = builder.pattern;
+        this.type = builder.type;
+        this.mode = builder.mode;
+        this.value = builder.value;
+        this.jitterPercent = builder.jitterPercent;
+        this.batchSize = builder.batchSize;
+        this.rateLimiter = new RateLimiter(builder.opsPerSecond);
+        this.startCursor = builder.startCursor;
+        this.cursor = builder.startCursor;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the job on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     */
+    public void run(ProgressIndicator indicator) {
+        ScanParams params = new ScanParams().match(pattern).count(batchSize);
+        long startTime = System.currentTimeMillis();
+
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            long total = jedis.dbSize();
+            indicator.setIndeterminate(total == 0);
+
+            String current = startCursor;
+            do {
+                indicator.checkCanceled();
+
+                ScanResult<String> page = type == null
+                        ? jedis.scan(current, params)
+                        : jedis.scan(current, params, type);
+                List<String> keys = page.getResult();
+
+                if (!keys.isEmpty()) {
+                    rateLimiter.acquire(keys.size());
+                    updated += applyBatch(jedis, keys);
+                    scanned += keys.size();
+                }
+
+                // Only advance the checkpoint once the whole page has been applied
+                current = page.getCursor();
+                cursor = current;
+
+                if (total > 0) {
+                    indicator.setFraction(Math.min(1.0, (double) scanned / total));
+                }
+                long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+                indicator.setText2(String.format("%,d keys scanned, %,d updated (%,d keys/s)",
+                        scanned, updated, scanned * 1000 / elapsed));
+            } while (!"0".equals(current));
+        }
+    }
+
+    private long applyBatch(Jedis jedis, List<String> keys) {
+        Pipeline pipeline = jedis.pipelined();
+        for (String key : keys) {
+            switch (mode) {
+                case EXPIRE:
+                    pipeline.expire(key, applyJitter(value));
+                    break;
+                case PEXPIREAT:
+                    pipeline.pexpireAt(key, applyJitter(value));
+                    break;
+                case PERSIST:
+                    pipeline.persist(key);
+                    break;
+            }
+        }
+
+        long changed = 0;
+        for (Object reply : pipeline.syncAndReturnAll()) {
+            if (reply instanceof Long && (Long) reply == 1L) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Spread a TTL or deadline by up to +/- jitterPercent so the keys
+     * do not all expire in the same instant
+     */
+    private long applyJitter(long base) {
+        if (jitterPercent <= 0) {
+            return base;
+        }
+
+        long spread;
+        if (mode == Mode.PEXPIREAT) {
+            // Jitter the remaining lifetime, not the absolute timestamp
+            long remaining = Math.max(0, base - System.currentTimeMillis());
+            spread = remaining * jitterPercent / 100;
+        } else {
+            spread = base * jitterPercent / 100;
+        }
+        if (spread <= 0) {
+            return base;
+        }
+
+        long jittered = base + ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+        return mode == Mode.EXPIRE ? Math.max(1, jittered) : jittered;
+    }
+
+    /**
+     * Get the SCAN cursor reached so far
+     * @return the cursor to resume from, or "0" when the scan completed
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    /**
+     * Build the checkpoint key identifying this job's scan.
+     * A SCAN cursor is only meaningful for the same database, pattern and type filter.
+     * @return the checkpoint key
+     */
+    public String getCheckpointKey() {
+        return checkpointKey(connection, pattern, type);
+    }
+
+    /**
+     * Build the checkpoint key for a bulk expire job
+     * @param connection the connection
+     * @param pattern the key pattern
+     * @param type the type filter, or null
+     * @return the checkpoint key
+     */
+    public static String checkpointKey(RedisConnection connection, String pattern, String type) {
+        return "expire|" + connection.getId() + "|" + connection.getDatabase() + "|" + pattern + "|"
+                + (type != null ? type : "");
+    }
+
+    /**
+     * Builder for BulkExpireJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private String pattern = "*";
+        private String type;
+        private Mode mode = Mode.EXPIRE;
+        private long value;
+        private int jitterPercent = 0;
+        private int batchSize = 1000;
+        private int opsPerSecond = 0;
+        private String startCursor = "0";
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        /**
+         * @param type key type to restrict the scan to (string, hash, list...), or null for all types
+         */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder mode(Mode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        /**
+         * @param value seconds for EXPIRE, unix time in milliseconds for PEXPIREAT, ignored for PERSIST
+         */
+        public Builder value(long value) {
+            this.value = value;
+            return this;
+        }
+
+        public Builder jitterPercent(int jitterPercent) {
+            this.jitterPercent = jitterPercent;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param opsPerSecond maximum keys updated per second, 0 for unlimited
+         */
+        public Builder opsPerSecond(int opsPerSecond) {
+            this.opsPerSecond = opsPerSecond;
+            return this;
+        }
+
+        public Builder startCursor(String startCursor) {
+            this.startCursor = startCursor != null ? startCursor : "0";
+            return this;
+        }
+
+        public BulkExpireJob build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            return new BulkExpireJob(this);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.redis.plugin.service.bulk;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Buffered input over a byte channel, the reading counterpart of {@link ChannelOutput}.
+ * Data is pulled through a fixed buffer and split into lines or length-prefixed
+ * blocks on demand, so files of any size are read with constant memory.
+ * Line numbers are tracked for error reporting.
+ */
+public class ChannelInput implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final FileChannel file;
+    private final ByteBuffer buffer;
+    private byte[] line = new byte[1024];
+    private long lineNumber;
+    private boolean eof;
+
+    public ChannelInput(ReadableByteChannel channel) {
+        this(channel, null, DEFAULT_BUFFER_SIZE);
+    }
+
+    private ChannelInput(ReadableByteChannel channel, FileChannel file, int bufferSize) {
+        this.channel = channel;
+        this.file = file;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    /**
+     * Open a file for reading. Gzip-compressed files are detected by their
+     * magic number and decompressed transparently.
+     * @param path the file to read
+     * @return the input
+     * @throws IOException if the file cannot be opened
+     */
+    public static ChannelInput open(Path path) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && fileChannel.read(magic) >= 0) {
+                // read the first two bytes, if present
+            }
+            fileChannel.position(0);
+
+            ReadableByteChannel channel = fileChannel;
+            if (magic.position() == 2 && (magic.get(0) & 0xff) == 0x1f && (magic.get(1) & 0xff) == 0x8b) {
+                channel = Channels.newChannel(new GZIPInputStream(Channels.newInputStream(fileChannel), 64 * 1024));
+            }
+            return new ChannelInput(channel, fileChannel, DEFAULT_BUFFER_SIZE);
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the next line as UTF-8, without its line terminator
+     * @return the line, or null at end of input
+     * @throws IOException if reading fails
+     */
+    public String readLine() throws IOException {
+        int length = 0;
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (length == 0) {
+                    return null;
+                }
+                break;
+            }
+            byte b = buffer.get();
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        lineNumber++;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read exactly {@code length} bytes followed by CRLF, as in a RESP bulk string
+     * @param length number of bytes to read
+     * @return the bytes
+     * @throws IOException if reading fails, the input ends early or the length is negative
+     */
+    public byte[] readBulk(int length) throws IOException {
+        if (length < 0) {
+            throw new IOException("Malformed RESP at line " + lineNumber + ": bulk string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining() && !fill()) {
+                throw new EOFException("Unexpected end of input");
+            }
+            int count = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, count);
+            for (int i = offset; i < offset + count; i++) {
+                if (bytes[i] == '\n') {
+                    lineNumber++;
+                }
+            }
+            offset += count;
+        }
+        String terminator = readLine();
+        if (terminator == null || !terminator.isEmpty()) {
+            throw new IOException("Bulk string is not terminated by CRLF");
+        }
+        return bytes;
+    }
+
+    /**
+     * Look at the next byte without consuming it
+     * @return the next byte, or -1 at end of input
+     * @throws IOException if reading fails
+     */
+    public int peek() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get(buffer.position()) & 0xff;
+    }
+
+    /**
+     * Get the number of lines read so far, which is the number of the line last returned
+     * @return the current line number
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Get the position in the underlying file. For compressed input this is the compressed position.
+     * @return bytes consumed from the file, or -1 if the input is not a file
+     */
+    public long getPosition() {
+        try {
+            return file != null ? file.position() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return the size of the underlying file, or -1 if the input is not a file
+     */
+    public long getSize() {
+        try {
+            return file != null ? file.size() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        buffer.clear();
+        int read = 0;
+        while (read == 0) {
+            read = channel.read(buffer);
+        }
+        buffer.flip();
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (file != null) {
+                file.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.redis.plugin.service.bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Buffered output over a byte channel.
+ * Text is encoded to UTF-8 straight into a fixed direct buffer which is
+ * drained to the channel when full, so memory use does not depend on the
+ * amount of data written.
+ */
+public class ChannelOutput implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+    private long bytesWritten;
+
+    public ChannelOutput(WritableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ChannelOutput(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Open a file for writing, truncating any existing content
+     * @param path the file to write
+     * @param gzip true to gzip-compress the output
+     * @return the output
+     * @throws IOException if the file cannot be opened
+     */
+    public static ChannelOutput open(Path path, boolean gzip) throws IOException {
+        FileChannel fileChannel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (!gzip) {
+            return new ChannelOutput(fileChannel);
+        }
+        GZIPOutputStream gzipStream = new GZIPOutputStream(Channels.newOutputStream(fileChannel), 64 * 1024);
+        return new ChannelOutput(Channels.newChannel(gzipStream));
+    }
+
+    /**
+     * Write text as UTF-8
+     * @param text the text to write
+     * @return this output
+     * @throws IOException if writing to the channel fails
+     */
+    public ChannelOutput write(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        return this;
+    }
+
+    /**
+     * Write raw bytes
+     * @param bytes the bytes to write
+     * @return this output
+     * @throws IOException if writing to the channel fails
+     */
+    public ChannelOutput write(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+        return this;
+    }
+
+    /**
+     * Write a single byte
+     * @param b the byte to write
+     * @return this output
+     * @throws IOException if writing to the channel fails
+     */
+    public ChannelOutput write(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+        return this;
+    }
+
+    /**
+     * Get the number of bytes handed to the channel so far, excluding buffered bytes.
+     * For gzip output this is the uncompressed size.
+     * @return number of bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Write all buffered bytes to the channel
+     * @throws IOException if writing to the channel fails
+     */
+    public void flush() throws IOException {
+        drain();
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
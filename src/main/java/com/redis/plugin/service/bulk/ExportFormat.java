@@ -0,0 +1,52 @@
+package com.redis.plugin.service.bulk;
+
+/**
+ * File formats supported by keyspace export and import
+ */
+public enum ExportFormat {
+    NDJSON("NDJSON (one JSON record per line)", "ndjson"),
+    RESP("RESP (redis-cli --pipe compatible)", "resp"),
+    CSV("CSV (one row per element)", "csv");
+
+    private final String displayName;
+    private final String extension;
+
+    ExportFormat(String displayName, String extension) {
+        this.displayName = displayName;
+        this.extension = extension;
+    }
+
+    /**
+     * Get the default file extension for this format
+     * @return the extension without the leading dot
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Guess the format from a file name, ignoring a trailing .gz
+     * @param fileName the file name
+     * @return the matching format, or null if the extension is not recognized
+     */
+    public static ExportFormat fromFileName(String fileName) {
+        String name = fileName.toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        for (ExportFormat format : values()) {
+            if (name.endsWith("." + format.extension)) {
+                return format;
+            }
+        }
+        if (name.endsWith(".json") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
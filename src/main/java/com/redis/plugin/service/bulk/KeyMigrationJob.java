@@ -0,0 +1,496 @@
+package com.redis.plugin.service.bulk;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.MigrateParams;
+import redis.clients.jedis.params.RestoreParams;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Copies keys matching a pattern from one connection to another.
+ * <p>
+ * When the source server can reach the target, keys are moved server-side with
+ * {@code MIGRATE ... COPY}, one SCAN page per command. Otherwise the calling thread
+ * scans the source and pipelines {@code DUMP} and {@code PTTL} for each page, and
+ * a writer thread pipelines {@code RESTORE} into the target. A bounded queue
+ * between the two sides keeps a fast reader from buffering the whole keyspace
+ * when the target is slower.
+ */
+public class KeyMigrationJob {
+    private static final Logger LOG = Logger.getInstance(KeyMigrationJob.class);
+
+    /**
+     * Maximum number of error messages kept; further failures are only counted
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    /**
+     * How keys are transferred
+     */
+    public enum Strategy {
+        AUTO("Automatic"),
+        MIGRATE("Server-side MIGRATE"),
+        DUMP_RESTORE("DUMP / RESTORE through this client");
+
+        private final String displayName;
+
+        Strategy(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    /**
+     * One page of dumped keys on its way from the reader to the writer
+     */
+    private static class Batch {
+        static final Batch END = new Batch(0);
+
+        final List<byte[]> keys;
+        final List<byte[]> dumps;
+        final List<Long> expireAt;
+
+        Batch(int size) {
+            keys = new ArrayList<>(size);
+            dumps = new ArrayList<>(size);
+            expireAt = new ArrayList<>(size);
+        }
+    }
+
+    private final RedisConnection source;
+    private final RedisConnection target;
+    private final String pattern;
+    private final String type;
+    private final Strategy strategy;
+    private final boolean replace;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int migrateTimeout;
+
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private volatile Strategy usedStrategy;
+    private volatile long scanned;
+    private volatile long copied;
+    private volatile long skipped;
+    private volatile long failed;
+    private volatile int queued;
+
+    private KeyMigrationJob(Builder builder) {
+        this.source = builder.source;
+        this.target = builder.target;
+        this.pattern = builder.pattern;
+        this.type = builder.type;
+        this.strategy = builder.strategy;
+        this.replace = builder.replace;
+        this.batchSize = builder.batchSize;
+        this.queueCapacity = builder.queueCapacity;
+        this.migrateTimeout = builder.migrateTimeout;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the copy. The source side runs on the calling thread; the target side of a
+     * DUMP/RESTORE copy runs on a pooled thread.
+     * @param indicator progress indicator used for reporting and cancellation
+     */
+    public void run(ProgressIndicator indicator) {
+        try (Jedis jedis = JedisRedisService.createClient(source)) {
+            long total = jedis.dbSize();
+            indicator.setIndeterminate(total == 0);
+            long startTime = System.currentTimeMillis();
+
+            ScanParams params = new ScanParams().match(pattern).count(batchSize);
+            byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+
+            usedStrategy = strategy == Strategy.AUTO
+                    ? (canMigrate() ? Strategy.MIGRATE : Strategy.DUMP_RESTORE)
+                    : strategy;
+
+            if (usedStrategy == Strategy.MIGRATE) {
+                cursor = runMigrate(jedis, params, indicator, total, startTime);
+                if (cursor == null) {
+                    return;
+                }
+                // MIGRATE could not reach the target; continue from the current cursor through this client
+                usedStrategy = Strategy.DUMP_RESTORE;
+            }
+            runDumpRestore(jedis, params, cursor, indicator, total, startTime);
+        }
+    }
+
+    /**
+     * Decide whether the source server is likely to reach the target directly.
+     * MIGRATE opens the connection from the source server, so a loopback target
+     * only works when the source is on the same host, and TLS targets are not supported.
+     * Without REPLACE a multi-key MIGRATE fails as a whole on the first existing key,
+     * so per-key skipping needs DUMP/RESTORE.
+     */
+    private boolean canMigrate() {
+        if (!replace || target.isUseSSL() || source.isUseSSL()) {
+            return false;
+        }
+        if (source.getHost().equalsIgnoreCase(target.getHost()) && source.getPort() == target.getPort()) {
+            // Same server; MIGRATE to itself is rejected
+            return false;
+        }
+        try {
+            boolean targetLoopback = InetAddress.getByName(target.getHost()).isLoopbackAddress();
+            boolean sourceLoopback = InetAddress.getByName(source.getHost()).isLoopbackAddress();
+            return !targetLoopback || sourceLoopback;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copy with server-side MIGRATE
+     * @return null when done, or the cursor to continue from if the target was unreachable
+     */
+    private byte[] runMigrate(Jedis jedis, ScanParams params, ProgressIndicator indicator,
+                              long total, long startTime) {
+        MigrateParams migrateParams = MigrateParams.migrateParams().copy();
+        if (replace) {
+            migrateParams.replace();
+        }
+        if (target.getPassword() != null && !target.getPassword().isEmpty()) {
+            migrateParams.auth(target.getPassword());
+        }
+
+        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+        byte[] typeBytes = type == null ? null : type.getBytes(StandardCharsets.UTF_8);
+        do {
+            indicator.checkCanceled();
+            ScanResult<byte[]> page = typeBytes == null
+                    ? jedis.scan(cursor, params)
+                    : jedis.scan(cursor, params, typeBytes);
+            List<byte[]> keys = page.getResult();
+            if (!keys.isEmpty()) {
+                try {
+                    jedis.migrate(target.getHost(), target.getPort(), target.getDatabase(), migrateTimeout,
+                            migrateParams, keys.toArray(new byte[0][]));
+                    copied += keys.size();
+                } catch (JedisDataException e) {
+                    String message = e.getMessage() == null ? "" : e.getMessage();
+                    if (message.startsWith("IOERR") && copied == 0) {
+                        LOG.info("MIGRATE cannot reach " + target.getHost() + ":" + target.getPort()
+                                + ", falling back to DUMP/RESTORE: " + message);
+                        return cursor;
+                    }
+                    failed += keys.size();
+                    addError(message);
+                }
+                scanned += keys.size();
+            }
+            cursor = page.getCursorAsBytes();
+            report(indicator, total, startTime);
+        } while (!isStart(cursor));
+        return null;
+    }
+
+    private void runDumpRestore(Jedis jedis, ScanParams params, byte[] cursor, ProgressIndicator indicator,
+                                long total, long startTime) {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> writer = AppExecutorUtil.getAppExecutorService().submit(() -> writeBatches(queue));
+        byte[] typeBytes = type == null ? null : type.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            do {
+                indicator.checkCanceled();
+                ScanResult<byte[]> page = typeBytes == null
+                        ? jedis.scan(cursor, params)
+                        : jedis.scan(cursor, params, typeBytes);
+                List<byte[]> keys = page.getResult();
+                if (!keys.isEmpty()) {
+                    enqueue(queue, readBatch(jedis, keys), writer, indicator);
+                    scanned += keys.size();
+                }
+                cursor = page.getCursorAsBytes();
+                report(indicator, total, startTime);
+            } while (!isStart(cursor));
+
+            enqueue(queue, Batch.END, writer, indicator);
+            while (true) {
+                indicator.checkCanceled();
+                try {
+                    writer.get(200, TimeUnit.MILLISECONDS);
+                    report(indicator, total, startTime);
+                    break;
+                } catch (TimeoutException e) {
+                    report(indicator, total, startTime);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Writing to target failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            writer.cancel(true);
+        }
+    }
+
+    /**
+     * DUMP and PTTL every key of a page in one pipelined round trip
+     */
+    private Batch readBatch(Jedis jedis, List<byte[]> keys) {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<byte[]>> dumps = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            dumps.add(pipeline.dump(key));
+            ttls.add(pipeline.pttl(key));
+        }
+        pipeline.sync();
+        long now = System.currentTimeMillis();
+
+        Batch batch = new Batch(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] dump = dumps.get(i).get();
+            long ttl = ttls.get(i).get();
+            if (dump == null || ttl == -2) {
+                // Expired or deleted since SCAN returned it
+                continue;
+            }
+            batch.keys.add(keys.get(i));
+            batch.dumps.add(dump);
+            batch.expireAt.add(ttl > 0 ? now + ttl : 0L);
+        }
+        return batch;
+    }
+
+    /**
+     * Hand a batch to the writer, waiting while the queue is full
+     */
+    private void enqueue(BlockingQueue<Batch> queue, Batch batch, Future<?> writer,
+                         ProgressIndicator indicator) throws InterruptedException, ExecutionException {
+        while (!queue.offer(batch, 200, TimeUnit.MILLISECONDS)) {
+            indicator.checkCanceled();
+            if (writer.isDone()) {
+                // The writer stopped early; get() rethrows its failure
+                writer.get();
+                throw new IllegalStateException("Writer stopped unexpectedly");
+            }
+        }
+        queued = queue.size();
+    }
+
+    /**
+     * Writer side: RESTORE each batch in one pipelined round trip
+     */
+    private void writeBatches(BlockingQueue<Batch> queue) {
+        try (Jedis jedis = JedisRedisService.createClient(target)) {
+            while (true) {
+                Batch batch = queue.take();
+                queued = queue.size();
+                if (batch == Batch.END) {
+                    return;
+                }
+
+                Pipeline pipeline = jedis.pipelined();
+                List<Response<String>> replies = new ArrayList<>(batch.keys.size());
+                for (int i = 0; i < batch.keys.size(); i++) {
+                    RestoreParams restoreParams = RestoreParams.restoreParams();
+                    if (replace) {
+                        restoreParams.replace();
+                    }
+                    long expireAt = batch.expireAt.get(i);
+                    if (expireAt > 0) {
+                        restoreParams.absTtl();
+                    }
+                    replies.add(pipeline.restore(batch.keys.get(i), expireAt, batch.dumps.get(i), restoreParams));
+                }
+                pipeline.sync();
+
+                for (int i = 0; i < replies.size(); i++) {
+                    try {
+                        replies.get(i).get();
+                        copied++;
+                    } catch (JedisDataException e) {
+                        String message = e.getMessage() == null ? "" : e.getMessage();
+                        if (message.startsWith("BUSYKEY")) {
+                            skipped++;
+                        } else {
+                            failed++;
+                            addError(new String(batch.keys.get(i), StandardCharsets.UTF_8) + ": " + message);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (JedisConnectionException e) {
+            throw new IllegalStateException("Lost connection to " + target.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void report(ProgressIndicator indicator, long total, long startTime) {
+        if (total > 0) {
+            indicator.setFraction(Math.min(1.0, (double) scanned / total));
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        String queue = usedStrategy == Strategy.DUMP_RESTORE
+                ? String.format(", queue %d/%d", queued, queueCapacity)
+                : "";
+        indicator.setText2(String.format("%,d scanned, %,d copied, %,d skipped, %,d failed (%,d keys/s%s)",
+                scanned, copied, skipped, failed, copied * 1000 / elapsed, queue));
+    }
+
+    private void addError(String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+        LOG.debug("Key migration error: " + message);
+    }
+
+    private static boolean isStart(byte[] cursor) {
+        return cursor.length == 1 && cursor[0] == '0';
+    }
+
+    /**
+     * @return the strategy actually used, after AUTO resolution and any fallback
+     */
+    public Strategy getUsedStrategy() {
+        return usedStrategy;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getCopied() {
+        return copied;
+    }
+
+    /**
+     * @return number of keys not copied because they already exist on the target
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Get the recorded errors, at most {@link #MAX_ERRORS}
+     * @return error messages
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    /**
+     * Builder for KeyMigrationJob
+     */
+    public static class Builder {
+        private RedisConnection source;
+        private RedisConnection target;
+        private String pattern = "*";
+        private String type;
+        private Strategy strategy = Strategy.AUTO;
+        private boolean replace = true;
+        private int batchSize = 500;
+        private int queueCapacity = 16;
+        private int migrateTimeout = 5000;
+
+        public Builder source(RedisConnection source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder target(RedisConnection target) {
+            this.target = target;
+            return this;
+        }
+
+        public Builder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        /**
+         * @param type key type to restrict the copy to, or null for all types
+         */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder strategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * @param replace true to overwrite keys that already exist on the target
+         */
+        public Builder replace(boolean replace) {
+            this.replace = replace;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param queueCapacity maximum number of dumped pages waiting for the writer
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @param migrateTimeout MIGRATE timeout in milliseconds
+         */
+        public Builder migrateTimeout(int migrateTimeout) {
+            this.migrateTimeout = migrateTimeout;
+            return this;
+        }
+
+        public KeyMigrationJob build() {
+            if (source == null || target == null) {
+                throw new IllegalStateException("Source and target connections are required");
+            }
+            if (queueCapacity < 1) {
+                throw new IllegalStateException("Queue capacity must be positive");
+            }
+            return new KeyMigrationJob(this);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.redis.plugin.service.bulk;
+
+import com.redis.plugin.model.RedisKeyRecord;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Translates a key into the commands that recreate it.
+ * Shared by the RESP export writer and the import job so both produce the same command stream.
+ * A key is given either whole, as a record, or piece by piece between {@link #begin} and
+ * {@link #end}, so a large collection can be translated as it is read. Arguments are bytes,
+ * so binary keys and values pass through unchanged.
+ */
+public final class KeyRecordCommands {
+    /**
+     * Maximum number of elements per generated command,
+     * so very large collections do not turn into a single huge command
+     */
+    static final int CHUNK_SIZE = 512;
+
+    private static final byte[] DEL = bytes("DEL");
+    private static final byte[] PEXPIRE = bytes("PEXPIRE");
+    private static final byte[] SET = bytes("SET");
+    private static final byte[] HSET = bytes("HSET");
+    private static final byte[] RPUSH = bytes("RPUSH");
+    private static final byte[] SADD = bytes("SADD");
+    private static final byte[] ZADD = bytes("ZADD");
+    private static final byte[] XADD = bytes("XADD");
+
+    /**
+     * Receives each generated command
+     */
+    public interface Sink {
+        /**
+         * @param args the command name followed by its arguments; the list is reused after the call returns
+         * @throws IOException if the command cannot be written
+         */
+        void command(List<byte[]> args) throws IOException;
+    }
+
+    private final Sink sink;
+    private final List<byte[]> args = new ArrayList<>();
+    private byte[] key;
+    private byte[] name;
+    private int elementWidth;
+
+    public KeyRecordCommands(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * Emit the commands for one record: an optional DEL, the type-specific writes and PEXPIRE if the key has a TTL.
+     * Keys and values are decoded as written by {@link BinaryText#encode}.
+     * @param record the record
+     * @param replace true to delete any existing key first
+     * @return false if the record type is not supported and nothing was emitted
+     * @throws IOException if the sink fails
+     * @throws IllegalArgumentException if a key or value is not validly encoded
+     */
+    @SuppressWarnings("unchecked")
+    public boolean emit(RedisKeyRecord record, boolean replace) throws IOException {
+        Object value = record.getValue();
+        if (!begin(BinaryText.decode(record.getKey()), record.getType(), replace)) {
+            return false;
+        }
+
+        switch (record.getType()) {
+            case RedisKeyRecord.TYPE_STRING:
+                value(BinaryText.decode((String) value));
+                break;
+            case RedisKeyRecord.TYPE_HASH:
+                for (Map.Entry<String, String> entry : ((Map<String, String>) value).entrySet()) {
+                    field(BinaryText.decode(entry.getKey()), BinaryText.decode(entry.getValue()));
+                }
+                break;
+            case RedisKeyRecord.TYPE_LIST:
+            case RedisKeyRecord.TYPE_SET:
+                for (String element : (Collection<String>) value) {
+                    element(BinaryText.decode(element));
+                }
+                break;
+            case RedisKeyRecord.TYPE_ZSET:
+                for (Map.Entry<String, Double> entry : (List<Map.Entry<String, Double>>) value) {
+                    member(BinaryText.decode(entry.getKey()), entry.getValue());
+                }
+                break;
+            case RedisKeyRecord.TYPE_STREAM: {
+                List<byte[]> fields = new ArrayList<>();
+                for (Map.Entry<String, Map<String, String>> entry : (List<Map.Entry<String, Map<String, String>>>) value) {
+                    fields.clear();
+                    for (Map.Entry<String, String> field : entry.getValue().entrySet()) {
+                        fields.add(BinaryText.decode(field.getKey()));
+                        fields.add(BinaryText.decode(field.getValue()));
+                    }
+                    entry(entry.getKey(), fields);
+                }
+                break;
+            }
+        }
+
+        end(record.getTtlMillis());
+        return true;
+    }
+
+    /**
+     * Start the commands of a key, whose value follows as calls matching its type
+     * @param key the key name
+     * @param type the Redis type name as returned by TYPE
+     * @param replace true to delete any existing key first
+     * @return false if the type is not supported and nothing was emitted
+     * @throws IOException if the sink fails
+     */
+    public boolean begin(byte[] key, String type, boolean replace) throws IOException {
+        switch (type) {
+            case RedisKeyRecord.TYPE_STRING:
+                name = SET;
+                elementWidth = 1;
+                break;
+            case RedisKeyRecord.TYPE_HASH:
+                name = HSET;
+                elementWidth = 2;
+                break;
+            case RedisKeyRecord.TYPE_LIST:
+                name = RPUSH;
+                elementWidth = 1;
+                break;
+            case RedisKeyRecord.TYPE_SET:
+                name = SADD;
+                elementWidth = 1;
+                break;
+            case RedisKeyRecord.TYPE_ZSET:
+                name = ZADD;
+                elementWidth = 2;
+                break;
+            case RedisKeyRecord.TYPE_STREAM:
+                name = XADD;
+                elementWidth = 1;
+                break;
+            default:
+                return false;
+        }
+        this.key = key;
+        args.clear();
+        if (replace) {
+            command(DEL, key);
+        }
+        return true;
+    }
+
+    /**
+     * The value of a string
+     */
+    public void value(byte[] value) throws IOException {
+        add(value);
+        flush();
+    }
+
+    /**
+     * A field of a hash
+     */
+    public void field(byte[] field, byte[] value) throws IOException {
+        add(field);
+        args.add(value);
+        flushChunk();
+    }
+
+    /**
+     * An element of a list, or a member of a set
+     */
+    public void element(byte[] element) throws IOException {
+        add(element);
+        flushChunk();
+    }
+
+    /**
+     * A member of a sorted set
+     */
+    public void member(byte[] member, double score) throws IOException {
+        add(bytes(KeyRecordWriter.formatScore(score)));
+        args.add(member);
+        flushChunk();
+    }
+
+    /**
+     * An entry of a stream
+     * @param id the entry ID
+     * @param fields the field names and values, alternating
+     */
+    public void entry(String id, List<byte[]> fields) throws IOException {
+        add(bytes(id));
+        args.addAll(fields);
+        flush();
+    }
+
+    /**
+     * Finish the commands of the current key
+     * @param ttlMillis remaining time to live in milliseconds, or -1 if the key does not expire
+     */
+    public void end(long ttlMillis) throws IOException {
+        flush();
+        if (ttlMillis > 0) {
+            command(PEXPIRE, key, bytes(String.valueOf(ttlMillis)));
+        }
+        key = null;
+    }
+
+    private void add(byte[] arg) {
+        if (args.isEmpty()) {
+            args.add(name);
+            args.add(key);
+        }
+        args.add(arg);
+    }
+
+    private void flushChunk() throws IOException {
+        if (args.size() - 2 >= CHUNK_SIZE * elementWidth) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (!args.isEmpty()) {
+            sink.command(args);
+            args.clear();
+        }
+    }
+
+    private void command(byte[]... command) throws IOException {
+        args.clear();
+        for (byte[] arg : command) {
+            args.add(arg);
+        }
+        sink.command(args);
+        args.clear();
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
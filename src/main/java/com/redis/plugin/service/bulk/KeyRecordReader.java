@@ -0,0 +1,364 @@
+package com.redis.plugin.service.bulk;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.redis.plugin.model.RedisKeyRecord;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes key records from the NDJSON and CSV export formats, the reading
+ * counterpart of {@link KeyRecordWriter}. Records are read one at a time.
+ */
+public abstract class KeyRecordReader {
+    protected long recordLine;
+
+    /**
+     * Create a reader for the given format
+     * @param format NDJSON or CSV
+     * @return a new reader
+     * @throws IllegalArgumentException for formats that do not contain key records
+     */
+    public static KeyRecordReader forFormat(ExportFormat format) {
+        switch (format) {
+            case NDJSON:
+                return new NdjsonReader();
+            case CSV:
+                return new CsvReader();
+            default:
+                throw new IllegalArgumentException("Format " + format + " does not contain key records");
+        }
+    }
+
+    /**
+     * Read the next record
+     * @param in the input
+     * @return the record, or null at end of input
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the record is malformed; reading can continue with the next record
+     */
+    public abstract RedisKeyRecord read(ChannelInput in) throws IOException;
+
+    /**
+     * @return the line on which the record last read, or rejected, starts
+     */
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * One JSON object per line, as written by {@link KeyRecordWriter.NdjsonWriter}
+     */
+    static class NdjsonReader extends KeyRecordReader {
+        @Override
+        public RedisKeyRecord read(ChannelInput in) throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            recordLine = in.getLineNumber();
+
+            try {
+                JsonObject json = JsonParser.parseString(line).getAsJsonObject();
+                String key = requireString(json, "key");
+                String type = requireString(json, "type");
+                long ttl = json.has("ttl") ? json.get("ttl").getAsLong() : -1;
+                JsonElement value = json.get("value");
+                if (value == null || value.isJsonNull()) {
+                    throw new IllegalArgumentException("Missing value");
+                }
+                return new RedisKeyRecord(key, type, ttl, convertValue(type, value));
+            } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+                throw new IllegalArgumentException("Malformed JSON: " + e.getMessage(), e);
+            }
+        }
+
+        private static String requireString(JsonObject json, String name) {
+            JsonElement element = json.get(name);
+            if (element == null || element.isJsonNull()) {
+                throw new IllegalArgumentException("Missing " + name);
+            }
+            return element.getAsString();
+        }
+
+        private static Object convertValue(String type, JsonElement value) {
+            switch (type) {
+                case RedisKeyRecord.TYPE_STRING:
+                    return value.getAsString();
+                case RedisKeyRecord.TYPE_HASH:
+                    return toStringMap(value.getAsJsonObject());
+                case RedisKeyRecord.TYPE_LIST:
+                case RedisKeyRecord.TYPE_SET: {
+                    JsonArray array = value.getAsJsonArray();
+                    List<String> elements = new ArrayList<>(array.size());
+                    for (JsonElement element : array) {
+                        elements.add(element.getAsString());
+                    }
+                    return elements;
+                }
+                case RedisKeyRecord.TYPE_ZSET: {
+                    JsonArray array = value.getAsJsonArray();
+                    List<Map.Entry<String, Double>> entries = new ArrayList<>(array.size());
+                    for (JsonElement element : array) {
+                        JsonArray pair = element.getAsJsonArray();
+                        entries.add(new AbstractMap.SimpleImmutableEntry<>(
+                                pair.get(0).getAsString(), parseScore(pair.get(1).getAsString())));
+                    }
+                    return entries;
+                }
+                case RedisKeyRecord.TYPE_STREAM: {
+                    JsonArray array = value.getAsJsonArray();
+                    List<Map.Entry<String, Map<String, String>>> entries = new ArrayList<>(array.size());
+                    for (JsonElement element : array) {
+                        JsonObject entry = element.getAsJsonObject();
+                        entries.add(new AbstractMap.SimpleImmutableEntry<>(
+                                requireString(entry, "id"), toStringMap(entry.getAsJsonObject("fields"))));
+                    }
+                    return entries;
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported type: " + type);
+            }
+        }
+    }
+
+    /**
+     * One row per element, as written by {@link KeyRecordWriter.CsvWriter}.
+     * Consecutive rows with the same key and type are combined into one record.
+     */
+    static class CsvReader extends KeyRecordReader {
+        private static final String HEADER = "key,type,ttl,field,value";
+
+        private final StringBuilder row = new StringBuilder();
+        private List<String> pending;
+        private long pendingLine;
+        private IllegalArgumentException pendingError;
+        private long errorLine;
+        private boolean started;
+
+        @Override
+        public RedisKeyRecord read(ChannelInput in) throws IOException {
+            if (!started) {
+                started = true;
+                if (advance(in) && HEADER.equals(String.join(",", pending))) {
+                    advance(in);
+                }
+            }
+            if (pendingError != null) {
+                IllegalArgumentException error = pendingError;
+                recordLine = errorLine;
+                pendingError = null;
+                advance(in);
+                throw error;
+            }
+            if (pending == null) {
+                return null;
+            }
+
+            List<String> first = pending;
+            recordLine = pendingLine;
+            String key = first.get(0);
+            String type = first.get(1);
+            try {
+                long ttl = first.get(2).isEmpty() ? -1 : Long.parseLong(first.get(2));
+                Values values = new Values(type);
+                values.add(first.get(3), first.get(4));
+                while (advance(in) && isSameKey(key, type)) {
+                    values.add(pending.get(3), pending.get(4));
+                }
+                return new RedisKeyRecord(key, type, ttl, values.value);
+            } catch (IllegalArgumentException e) {
+                // Skip the remaining rows of the broken key so reading resumes at the next one
+                while (pending != null && isSameKey(key, type) && advance(in)) {
+                    // discard
+                }
+                if (e instanceof NumberFormatException) {
+                    throw new IllegalArgumentException("Invalid TTL: " + first.get(2));
+                }
+                throw e;
+            }
+        }
+
+        private boolean isSameKey(String key, String type) {
+            return pending.get(0).equals(key) && pending.get(1).equals(type);
+        }
+
+        /**
+         * Move to the next row; a malformed row is held back and reported by the next call to read
+         * @return true if a valid row is pending
+         */
+        private boolean advance(ChannelInput in) throws IOException {
+            try {
+                pending = readRow(in);
+            } catch (IllegalArgumentException e) {
+                pending = null;
+                pendingError = e;
+                errorLine = pendingLine;
+            }
+            return pending != null;
+        }
+
+        /**
+         * Read one CSV row, joining physical lines while inside a quoted field
+         */
+        private List<String> readRow(ChannelInput in) throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isEmpty());
+            pendingLine = in.getLineNumber();
+
+            row.setLength(0);
+            row.append(line);
+            while (!balanced(row)) {
+                String next = in.readLine();
+                if (next == null) {
+                    throw new IllegalArgumentException("Unterminated quoted field");
+                }
+                row.append('\n').append(next);
+            }
+
+            List<String> result = new ArrayList<>(5);
+            parseFields(row, result);
+            if (result.size() != 5) {
+                throw new IllegalArgumentException("Expected 5 columns but found " + result.size());
+            }
+            return result;
+        }
+
+        private static boolean balanced(CharSequence text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes % 2 == 0;
+        }
+
+        private static void parseFields(CharSequence text, List<String> result) {
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (inQuotes) {
+                    if (c == '"') {
+                        if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    result.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            result.add(field.toString());
+        }
+
+        /**
+         * Accumulates the rows of one key into the record value
+         */
+        private static class Values {
+            private final String type;
+            private Object value;
+
+            Values(String type) {
+                this.type = type;
+                switch (type) {
+                    case RedisKeyRecord.TYPE_STRING:
+                        break;
+                    case RedisKeyRecord.TYPE_HASH:
+                        value = new LinkedHashMap<String, String>();
+                        break;
+                    case RedisKeyRecord.TYPE_LIST:
+                    case RedisKeyRecord.TYPE_SET:
+                    case RedisKeyRecord.TYPE_ZSET:
+                    case RedisKeyRecord.TYPE_STREAM:
+                        value = new ArrayList<>();
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported type: " + type);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            void add(String field, String element) {
+                switch (type) {
+                    case RedisKeyRecord.TYPE_STRING:
+                        value = element;
+                        break;
+                    case RedisKeyRecord.TYPE_HASH:
+                        ((Map<String, String>) value).put(field, element);
+                        break;
+                    case RedisKeyRecord.TYPE_LIST:
+                    case RedisKeyRecord.TYPE_SET:
+                        ((List<String>) value).add(element);
+                        break;
+                    case RedisKeyRecord.TYPE_ZSET:
+                        ((List<Map.Entry<String, Double>>) value).add(
+                                new AbstractMap.SimpleImmutableEntry<>(element, parseScore(field)));
+                        break;
+                    case RedisKeyRecord.TYPE_STREAM:
+                        try {
+                            ((List<Map.Entry<String, Map<String, String>>>) value).add(
+                                    new AbstractMap.SimpleImmutableEntry<>(field,
+                                            toStringMap(JsonParser.parseString(element).getAsJsonObject())));
+                        } catch (JsonParseException | IllegalStateException e) {
+                            throw new IllegalArgumentException("Malformed stream entry fields: " + e.getMessage(), e);
+                        }
+                        break;
+                }
+            }
+        }
+    }
+
+    static Map<String, String> toStringMap(JsonObject object) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+            map.put(entry.getKey(), entry.getValue().getAsString());
+        }
+        return map;
+    }
+
+    /**
+     * Parse a score as written by {@link KeyRecordWriter#formatScore}
+     */
+    static double parseScore(String score) {
+        switch (score) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                try {
+                    return Double.parseDouble(score);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid score: " + score);
+                }
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.redis.plugin.service.bulk;
+
+import com.redis.plugin.model.RedisKeyRecord;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Encodes keys into one of the export formats.
+ * A key is written piece by piece: {@link #beginKey}, then its value as calls matching its
+ * type, then {@link #endKey}, so a large collection is encoded page by page as it is read.
+ * Writers keep a single reusable text buffer, so encoding does not allocate per element
+ * beyond what the element itself needs. Keys and values are bytes; the text formats write
+ * those that are not UTF-8 as {@link BinaryText} Base64, while RESP writes them as they are.
+ */
+public abstract class KeyRecordWriter {
+    protected final StringBuilder text = new StringBuilder(4096);
+    protected ChannelOutput out;
+
+    /**
+     * Create a writer for the given format
+     * @param format the export format
+     * @return a new writer
+     */
+    public static KeyRecordWriter forFormat(ExportFormat format) {
+        switch (format) {
+            case RESP:
+                return new RespWriter();
+            case CSV:
+                return new CsvWriter();
+            case NDJSON:
+            default:
+                return new NdjsonWriter();
+        }
+    }
+
+    /**
+     * Write the file header, if the format has one
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void writeHeader(ChannelOutput out) throws IOException {
+    }
+
+    /**
+     * Start a key
+     * @param key the key name
+     * @param type the Redis type name as returned by TYPE, one of those of {@link RedisKeyRecord}
+     * @param ttlMillis remaining time to live in milliseconds, or -1 if the key does not expire
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public abstract void beginKey(byte[] key, String type, long ttlMillis, ChannelOutput out) throws IOException;
+
+    /**
+     * Write the value of a string
+     */
+    public abstract void value(byte[] value) throws IOException;
+
+    /**
+     * Write a field of a hash
+     */
+    public abstract void field(byte[] field, byte[] value) throws IOException;
+
+    /**
+     * Write an element of a list, or a member of a set
+     */
+    public abstract void element(byte[] element) throws IOException;
+
+    /**
+     * Write a member of a sorted set
+     */
+    public abstract void member(byte[] member, double score) throws IOException;
+
+    /**
+     * Write an entry of a stream
+     * @param id the entry ID
+     * @param fields the field names and values, alternating
+     */
+    public abstract void entry(String id, List<byte[]> fields) throws IOException;
+
+    /**
+     * Finish the current key
+     * @throws IOException if writing fails
+     */
+    public abstract void endKey() throws IOException;
+
+    /**
+     * One JSON object per line:
+     * {"key":"k","type":"hash","ttl":-1,"value":{"field":"value"}}
+     */
+    static class NdjsonWriter extends KeyRecordWriter {
+        private String type;
+        private boolean first;
+
+        @Override
+        public void beginKey(byte[] key, String type, long ttlMillis, ChannelOutput out) throws IOException {
+            this.out = out;
+            this.type = type;
+            first = true;
+            text.setLength(0);
+            text.append("{\"key\":");
+            appendJsonString(text, BinaryText.encode(key));
+            text.append(",\"type\":\"").append(type).append("\",\"ttl\":").append(ttlMillis);
+            text.append(",\"value\":");
+            if (RedisKeyRecord.TYPE_HASH.equals(type)) {
+                text.append('{');
+            } else if (!RedisKeyRecord.TYPE_STRING.equals(type)) {
+                text.append('[');
+            }
+            out.write(text);
+        }
+
+        @Override
+        public void value(byte[] value) throws IOException {
+            text.setLength(0);
+            appendJsonString(text, BinaryText.encode(value));
+            out.write(text);
+        }
+
+        @Override
+        public void field(byte[] field, byte[] value) throws IOException {
+            separate();
+            appendJsonString(text, BinaryText.encode(field));
+            text.append(':');
+            appendJsonString(text, BinaryText.encode(value));
+            out.write(text);
+        }
+
+        @Override
+        public void element(byte[] element) throws IOException {
+            separate();
+            appendJsonString(text, BinaryText.encode(element));
+            out.write(text);
+        }
+
+        @Override
+        public void member(byte[] member, double score) throws IOException {
+            separate();
+            text.append('[');
+            appendJsonString(text, BinaryText.encode(member));
+            text.append(',').append(jsonScore(score)).append(']');
+            out.write(text);
+        }
+
+        @Override
+        public void entry(String id, List<byte[]> fields) throws IOException {
+            separate();
+            text.append("{\"id\":");
+            appendJsonString(text, id);
+            text.append(",\"fields\":");
+            appendJsonFields(text, fields);
+            text.append('}');
+            out.write(text);
+        }
+
+        @Override
+        public void endKey() throws IOException {
+            text.setLength(0);
+            if (RedisKeyRecord.TYPE_HASH.equals(type)) {
+                text.append('}');
+            } else if (!RedisKeyRecord.TYPE_STRING.equals(type)) {
+                text.append(']');
+            }
+            text.append("}\n");
+            out.write(text);
+        }
+
+        private void separate() {
+            text.setLength(0);
+            if (!first) {
+                text.append(',');
+            }
+            first = false;
+        }
+    }
+
+    /**
+     * Commands that recreate each key, encoded as RESP arrays.
+     * The file can be replayed with {@code redis-cli --pipe} or the bulk import job.
+     * Arguments are written as the bytes read from the server, so bulk lengths always
+     * match their payload.
+     */
+    static class RespWriter extends KeyRecordWriter {
+        private static final byte[] CRLF = {'\r', '\n'};
+
+        private final KeyRecordCommands commands = new KeyRecordCommands(this::writeCommand);
+        private long ttlMillis;
+
+        @Override
+        public void beginKey(byte[] key, String type, long ttlMillis, ChannelOutput out) throws IOException {
+            this.out = out;
+            this.ttlMillis = ttlMillis;
+            commands.begin(key, type, true);
+        }
+
+        @Override
+        public void value(byte[] value) throws IOException {
+            commands.value(value);
+        }
+
+        @Override
+        public void field(byte[] field, byte[] value) throws IOException {
+            commands.field(field, value);
+        }
+
+        @Override
+        public void element(byte[] element) throws IOException {
+            commands.element(element);
+        }
+
+        @Override
+        public void member(byte[] member, double score) throws IOException {
+            commands.member(member, score);
+        }
+
+        @Override
+        public void entry(String id, List<byte[]> fields) throws IOException {
+            commands.entry(id, fields);
+        }
+
+        @Override
+        public void endKey() throws IOException {
+            commands.end(ttlMillis);
+        }
+
+        private void writeCommand(List<byte[]> command) throws IOException {
+            text.setLength(0);
+            text.append('*').append(command.size()).append("\r\n");
+            out.write(text);
+            for (byte[] arg : command) {
+                text.setLength(0);
+                text.append('$').append(arg.length).append("\r\n");
+                out.write(text);
+                out.write(arg);
+                out.write(CRLF);
+            }
+        }
+    }
+
+    /**
+     * One row per element: key,type,ttl,field,value.
+     * The field column holds the hash field, list index, zset score or stream entry ID;
+     * stream entry fields are stored as a JSON object in the value column.
+     */
+    static class CsvWriter extends KeyRecordWriter {
+        private final StringBuilder json = new StringBuilder();
+        private String key;
+        private String type;
+        private long ttlMillis;
+        private long index;
+
+        @Override
+        public void writeHeader(ChannelOutput out) throws IOException {
+            out.write("key,type,ttl,field,value\n");
+        }
+
+        @Override
+        public void beginKey(byte[] key, String type, long ttlMillis, ChannelOutput out) {
+            this.out = out;
+            this.key = BinaryText.encode(key);
+            this.type = type;
+            this.ttlMillis = ttlMillis;
+            index = 0;
+        }
+
+        @Override
+        public void value(byte[] value) throws IOException {
+            row("", BinaryText.encode(value));
+        }
+
+        @Override
+        public void field(byte[] field, byte[] value) throws IOException {
+            row(BinaryText.encode(field), BinaryText.encode(value));
+        }
+
+        @Override
+        public void element(byte[] element) throws IOException {
+            String position = RedisKeyRecord.TYPE_LIST.equals(type) ? String.valueOf(index++) : "";
+            row(position, BinaryText.encode(element));
+        }
+
+        @Override
+        public void member(byte[] member, double score) throws IOException {
+            row(formatScore(score), BinaryText.encode(member));
+        }
+
+        @Override
+        public void entry(String id, List<byte[]> fields) throws IOException {
+            json.setLength(0);
+            appendJsonFields(json, fields);
+            row(id, json.toString());
+        }
+
+        @Override
+        public void endKey() {
+        }
+
+        private void row(String field, String value) throws IOException {
+            text.setLength(0);
+            appendCsvField(text, key);
+            text.append(',').append(type).append(',').append(ttlMillis).append(',');
+            appendCsvField(text, field);
+            text.append(',');
+            appendCsvField(text, value);
+            text.append('\n');
+            out.write(text);
+        }
+    }
+
+    static void appendJsonString(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                case '\b': sb.append("\\b"); break;
+                case '\f': sb.append("\\f"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Append stream entry fields, given as alternating names and values, as a JSON object
+     */
+    static void appendJsonFields(StringBuilder sb, List<byte[]> fields) {
+        sb.append('{');
+        for (int i = 0; i + 1 < fields.size(); i += 2) {
+            if (i > 0) sb.append(',');
+            appendJsonString(sb, BinaryText.encode(fields.get(i)));
+            sb.append(':');
+            appendJsonString(sb, BinaryText.encode(fields.get(i + 1)));
+        }
+        sb.append('}');
+    }
+
+    static void appendCsvField(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Scores as JSON numbers; infinities have no JSON representation and are written as strings
+     */
+    static String jsonScore(double score) {
+        return Double.isInfinite(score) ? "\"" + formatScore(score) + "\"" : formatScore(score);
+    }
+
+    static String formatScore(double score) {
+        if (score == Double.POSITIVE_INFINITY) {
+            return "inf";
+        } else if (score == Double.NEGATIVE_INFINITY) {
+            return "-inf";
+        } else if (score == Math.rint(score) && Math.abs(score) < 1e15) {
+            return String.valueOf((long) score);
+        }
+        return String.valueOf(score);
+    }
+}
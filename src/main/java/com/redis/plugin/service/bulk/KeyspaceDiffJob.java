@@ -0,0 +1,672 @@
+package com.redis.plugin.service.bulk;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.KeyspaceDiff;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisKeyRecord;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compares the keys matching a pattern on two connections without transferring values.
+ * <p>
+ * Both sides are scanned in parallel. The keys of every SCAN page are sized with TYPE
+ * and a constant-time length, then digested server-side in batches of bounded total
+ * size, with {@code DEBUG DIGEST-VALUE} where available and a Lua script otherwise.
+ * Large keys are digested on their own: with DEBUG, or by reading them in pages and
+ * hashing on the client when using Lua, so no single call blocks the server for long.
+ * The (key, digest) pairs of each side go through an external sort and the two sorted
+ * sequences are merge-joined, so memory is bounded by the sort run size regardless of
+ * keyspace size.
+ */
+public class KeyspaceDiffJob {
+    private static final Logger LOG = Logger.getInstance(KeyspaceDiffJob.class);
+
+    private static final ProtocolCommand DEBUG = () -> "DEBUG".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DIGEST_VALUE = "DIGEST-VALUE".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Canonical value digest for servers without DEBUG. Collections are flattened with
+     * length-prefixed elements; elements of unordered types are hashed and the hashes
+     * sorted, so the digest does not depend on encoding or insertion order and can be
+     * computed a page at a time by {@link #digestInPages}. Like DEBUG DIGEST-VALUE,
+     * whether the key has a TTL is part of the digest but the TTL itself is not. Returns
+     * an empty string for missing keys.
+     */
+    private static final String DIGEST_SCRIPT = String.join("\n",
+            "local out = {}",
+            "for i, key in ipairs(KEYS) do",
+            "  local t = redis.call('TYPE', key)['ok']",
+            "  local parts",
+            "  if t == 'string' then",
+            "    parts = {redis.call('GET', key)}",
+            "  elseif t == 'hash' then",
+            "    local flat = redis.call('HGETALL', key)",
+            "    parts = {}",
+            "    for j = 1, #flat, 2 do",
+            "      parts[#parts + 1] = redis.sha1hex(#flat[j] .. ':' .. flat[j] .. #flat[j + 1] .. ':' .. flat[j + 1])",
+            "    end",
+            "    table.sort(parts)",
+            "  elseif t == 'set' then",
+            "    parts = {}",
+            "    for _, m in ipairs(redis.call('SMEMBERS', key)) do parts[#parts + 1] = redis.sha1hex(m) end",
+            "    table.sort(parts)",
+            "  elseif t == 'list' then",
+            "    parts = redis.call('LRANGE', key, 0, -1)",
+            "  elseif t == 'zset' then",
+            "    parts = redis.call('ZRANGE', key, 0, -1, 'WITHSCORES')",
+            "  elseif t == 'stream' then",
+            "    parts = {}",
+            "    for _, entry in ipairs(redis.call('XRANGE', key, '-', '+')) do",
+            "      parts[#parts + 1] = entry[1]",
+            "      for _, v in ipairs(entry[2]) do parts[#parts + 1] = v end",
+            "    end",
+            "  end",
+            "  if parts then",
+            "    local buf = {t}",
+            "    if redis.call('PTTL', key) >= 0 then buf[#buf + 1] = '!!expire!!' end",
+            "    for _, p in ipairs(parts) do buf[#buf + 1] = #p .. ':' .. p end",
+            "    out[i] = redis.sha1hex(table.concat(buf, ','))",
+            "  else",
+            "    out[i] = ''",
+            "  end",
+            "end",
+            "return out");
+
+    /**
+     * Keys costing more than this are digested on their own rather than in a batch.
+     * Cost is the number of elements, or for strings one per {@link #STRING_BYTES_PER_ELEMENT} bytes.
+     */
+    static final long LARGE_KEY_COST = 1_000;
+
+    /**
+     * Maximum total cost of the keys digested in one server call
+     */
+    static final long MAX_BATCH_COST = 10_000;
+
+    static final long STRING_BYTES_PER_ELEMENT = 1024;
+
+    /**
+     * Bytes read per GETRANGE when a large string is digested in pages
+     */
+    private static final int STRING_PAGE_BYTES = 1024 * 1024;
+
+    private static final ProtocolCommand ZRANGE = () -> "ZRANGE".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] WITHSCORES = "WITHSCORES".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EXPIRE_MARK = ",!!expire!!".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STREAM_START = "-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STREAM_END = "+".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NO_DIGEST = new byte[0];
+
+    /**
+     * How per-key digests are computed. Both sides always use the same method.
+     */
+    public enum DigestMethod {
+        AUTO,
+        DEBUG_DIGEST,
+        LUA
+    }
+
+    private final RedisConnection source;
+    private final RedisConnection target;
+    private final String pattern;
+    private final String type;
+    private final int batchSize;
+    private final int runSize;
+    private final int sampleLimit;
+    private final DigestMethod digestMethod;
+
+    private volatile DigestMethod usedMethod;
+    private volatile long sourceScanned;
+    private volatile long targetScanned;
+
+    private KeyspaceDiffJob(Builder builder) {
+        this.source = builder.source;
+        this.target = builder.target;
+        this.pattern = builder.pattern;
+        this.type = builder.type;
+        this.batchSize = builder.batchSize;
+        this.runSize = builder.runSize;
+        this.sampleLimit = builder.sampleLimit;
+        this.digestMethod = builder.digestMethod;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the comparison. The source is scanned on the calling thread and the target on a pooled thread.
+     * @param indicator progress indicator used for reporting and cancellation
+     * @return the differences between source and target
+     * @throws IOException if the temporary sort files cannot be written or read
+     */
+    public KeyspaceDiff run(ProgressIndicator indicator) throws IOException {
+        try (Jedis sourceJedis = JedisRedisService.createClient(source);
+             Jedis targetJedis = JedisRedisService.createClient(target);
+             SortedDigestRuns sourceRuns = new SortedDigestRuns(runSize);
+             SortedDigestRuns targetRuns = new SortedDigestRuns(runSize)) {
+            long total = sourceJedis.dbSize() + targetJedis.dbSize();
+            indicator.setIndeterminate(total == 0);
+            long startTime = System.currentTimeMillis();
+
+            usedMethod = resolveMethod(sourceJedis, targetJedis);
+            byte[] script = DIGEST_SCRIPT.getBytes(StandardCharsets.UTF_8);
+            byte[] sourceSha = usedMethod == DigestMethod.LUA ? sourceJedis.scriptLoad(script) : null;
+            byte[] targetSha = usedMethod == DigestMethod.LUA ? targetJedis.scriptLoad(script) : null;
+
+            Future<?> targetSide = AppExecutorUtil.getAppExecutorService().submit(() -> {
+                collect(targetJedis, targetSha, targetRuns, indicator, false, () -> { });
+                return null;
+            });
+            try {
+                collect(sourceJedis, sourceSha, sourceRuns, indicator, true,
+                        () -> report(indicator, total, startTime));
+                while (true) {
+                    try {
+                        targetSide.get(200, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        indicator.checkCanceled();
+                        report(indicator, total, startTime);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            } finally {
+                targetSide.cancel(true);
+            }
+
+            indicator.setText2("Comparing sorted digests...");
+            return merge(sourceRuns, targetRuns, indicator);
+        }
+    }
+
+    private DigestMethod resolveMethod(Jedis sourceJedis, Jedis targetJedis) {
+        if (digestMethod != DigestMethod.AUTO) {
+            return digestMethod;
+        }
+        return supportsDebugDigest(sourceJedis) && supportsDebugDigest(targetJedis)
+                ? DigestMethod.DEBUG_DIGEST
+                : DigestMethod.LUA;
+    }
+
+    private static boolean supportsDebugDigest(Jedis jedis) {
+        try {
+            jedis.sendCommand(DEBUG, DIGEST_VALUE, "__redis_plugin_probe__".getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (JedisDataException e) {
+            // DEBUG is disabled (enable-debug-command no), renamed or not permitted
+            LOG.info("DEBUG DIGEST-VALUE unavailable, using Lua digests: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Scan one side and feed every existing key with its digest into the sorter
+     */
+    private void collect(Jedis jedis, byte[] scriptSha, SortedDigestRuns runs, ProgressIndicator indicator,
+                         boolean isSource, Runnable onPage) throws IOException {
+        ScanParams params = new ScanParams().match(pattern).count(batchSize);
+        byte[] typeBytes = type == null ? null : type.getBytes(StandardCharsets.UTF_8);
+        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+        do {
+            indicator.checkCanceled();
+            ScanResult<byte[]> page = typeBytes == null
+                    ? jedis.scan(cursor, params)
+                    : jedis.scan(cursor, params, typeBytes);
+            List<byte[]> keys = page.getResult();
+            if (!keys.isEmpty()) {
+                digestPage(jedis, scriptSha, keys, runs, indicator);
+                if (isSource) {
+                    sourceScanned += keys.size();
+                } else {
+                    targetScanned += keys.size();
+                }
+            }
+            cursor = page.getCursorAsBytes();
+            onPage.run();
+        } while (!(cursor.length == 1 && cursor[0] == '0'));
+    }
+
+    /**
+     * Digest one SCAN page. The keys are sized first, in two pipelined round trips, and
+     * the small ones digested in batches whose total cost stays under {@link #MAX_BATCH_COST};
+     * large keys are digested one at a time.
+     */
+    private void digestPage(Jedis jedis, byte[] scriptSha, List<byte[]> keys, SortedDigestRuns runs,
+                            ProgressIndicator indicator) throws IOException {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            types.add(pipeline.type(key));
+        }
+        pipeline.sync();
+
+        List<Response<Long>> lengths = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            lengths.add(readLength(pipeline, keys.get(i), types.get(i).get()));
+        }
+        pipeline.sync();
+
+        List<byte[]> batch = new ArrayList<>();
+        long batchCost = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] key = keys.get(i);
+            String keyType = types.get(i).get();
+            if ("none".equals(keyType)) {
+                // Expired or deleted since SCAN
+                continue;
+            }
+            long cost = cost(keyType, lengths.get(i));
+            if (cost > LARGE_KEY_COST) {
+                indicator.checkCanceled();
+                byte[] digest = scriptSha == null
+                        ? digest(jedis, null, Collections.singletonList(key)).get(0)
+                        : digestInPages(jedis, key, keyType, indicator);
+                addDigest(runs, key, digest);
+                continue;
+            }
+            if (!batch.isEmpty() && batchCost + cost > MAX_BATCH_COST) {
+                addDigests(runs, batch, digest(jedis, scriptSha, batch));
+                batch.clear();
+                batchCost = 0;
+            }
+            batch.add(key);
+            batchCost += cost;
+        }
+        if (!batch.isEmpty()) {
+            addDigests(runs, batch, digest(jedis, scriptSha, batch));
+        }
+    }
+
+    private static Response<Long> readLength(Pipeline pipeline, byte[] key, String keyType) {
+        switch (keyType) {
+            case RedisKeyRecord.TYPE_STRING:
+                return pipeline.strlen(key);
+            case RedisKeyRecord.TYPE_HASH:
+                return pipeline.hlen(key);
+            case RedisKeyRecord.TYPE_LIST:
+                return pipeline.llen(key);
+            case RedisKeyRecord.TYPE_SET:
+                return pipeline.scard(key);
+            case RedisKeyRecord.TYPE_ZSET:
+                return pipeline.zcard(key);
+            case RedisKeyRecord.TYPE_STREAM:
+                return pipeline.xlen(key);
+            default:
+                return null;
+        }
+    }
+
+    private static long cost(String keyType, Response<Long> length) {
+        if (length == null) {
+            // Module types; only DEBUG can digest them, and it does so cheaply
+            return 1;
+        }
+        long value;
+        try {
+            value = length.get();
+        } catch (JedisDataException e) {
+            // The key changed type between the two round trips; do not let it into a batch
+            return Long.MAX_VALUE;
+        }
+        return RedisKeyRecord.TYPE_STRING.equals(keyType) ? 1 + value / STRING_BYTES_PER_ELEMENT : value;
+    }
+
+    private static void addDigests(SortedDigestRuns runs, List<byte[]> keys, List<byte[]> digests) throws IOException {
+        for (int i = 0; i < keys.size(); i++) {
+            addDigest(runs, keys.get(i), digests.get(i));
+        }
+    }
+
+    private static void addDigest(SortedDigestRuns runs, byte[] key, byte[] digest) throws IOException {
+        if (digest != null && digest.length > 0 && !isZero(digest)) {
+            runs.add(key, digest);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<byte[]> digest(Jedis jedis, byte[] scriptSha, List<byte[]> keys) {
+        if (scriptSha != null) {
+            return (List<byte[]>) jedis.evalsha(scriptSha, keys, Collections.emptyList());
+        }
+        byte[][] args = new byte[keys.size() + 1][];
+        args[0] = DIGEST_VALUE;
+        for (int i = 0; i < keys.size(); i++) {
+            args[i + 1] = keys.get(i);
+        }
+        return (List<byte[]>) jedis.sendCommand(DEBUG, args);
+    }
+
+    /**
+     * Compute the same digest as {@link #DIGEST_SCRIPT} for one key, reading its value in
+     * pages. Hashes and sets are iterated with HSCAN/SSCAN and their element hashes put
+     * through an external sort, which also drops the duplicates a SCAN may return.
+     * @return the digest, or null if the key changed type while it was read
+     */
+    @SuppressWarnings("unchecked")
+    private byte[] digestInPages(Jedis jedis, byte[] key, String keyType, ProgressIndicator indicator)
+            throws IOException {
+        MessageDigest sha1 = sha1();
+        sha1.update(keyType.getBytes(StandardCharsets.US_ASCII));
+        if (jedis.pttl(key) >= 0) {
+            sha1.update(EXPIRE_MARK);
+        }
+        int pageSize = KeyspaceExportJob.VALUE_PAGE_SIZE;
+        try {
+            switch (keyType) {
+                case RedisKeyRecord.TYPE_STRING: {
+                    long length = jedis.strlen(key);
+                    sha1.update(partPrefix(length));
+                    for (long start = 0; start < length; start += STRING_PAGE_BYTES) {
+                        indicator.checkCanceled();
+                        sha1.update(jedis.getrange(key, start, Math.min(length, start + STRING_PAGE_BYTES) - 1));
+                    }
+                    break;
+                }
+                case RedisKeyRecord.TYPE_HASH:
+                case RedisKeyRecord.TYPE_SET: {
+                    boolean hash = RedisKeyRecord.TYPE_HASH.equals(keyType);
+                    ScanParams params = new ScanParams().count(pageSize);
+                    MessageDigest element = sha1();
+                    try (SortedDigestRuns elements = new SortedDigestRuns(runSize)) {
+                        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+                        do {
+                            indicator.checkCanceled();
+                            if (hash) {
+                                ScanResult<Map.Entry<byte[], byte[]>> page = jedis.hscan(key, cursor, params);
+                                for (Map.Entry<byte[], byte[]> entry : page.getResult()) {
+                                    updateLengthPrefixed(element, entry.getKey());
+                                    updateLengthPrefixed(element, entry.getValue());
+                                    elements.add(element.digest(), NO_DIGEST);
+                                }
+                                cursor = page.getCursorAsBytes();
+                            } else {
+                                ScanResult<byte[]> page = jedis.sscan(key, cursor, params);
+                                for (byte[] member : page.getResult()) {
+                                    elements.add(element.digest(member), NO_DIGEST);
+                                }
+                                cursor = page.getCursorAsBytes();
+                            }
+                        } while (!(cursor.length == 1 && cursor[0] == '0'));
+
+                        SortedDigestRuns.Cursor sorted = elements.open();
+                        while (sorted.next()) {
+                            updatePart(sha1, HexFormat.of().formatHex(sorted.key()).getBytes(StandardCharsets.US_ASCII));
+                        }
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    break;
+                }
+                case RedisKeyRecord.TYPE_LIST:
+                    for (long start = 0; ; start += pageSize) {
+                        indicator.checkCanceled();
+                        List<byte[]> page = jedis.lrange(key, start, start + pageSize - 1);
+                        for (byte[] value : page) {
+                            updatePart(sha1, value);
+                        }
+                        if (page.size() < pageSize) {
+                            break;
+                        }
+                    }
+                    break;
+                case RedisKeyRecord.TYPE_ZSET:
+                    for (long start = 0; ; start += pageSize) {
+                        indicator.checkCanceled();
+                        // Raw reply, so scores are hashed exactly as the server formats them
+                        List<byte[]> page = (List<byte[]>) jedis.sendCommand(ZRANGE, key,
+                                String.valueOf(start).getBytes(StandardCharsets.US_ASCII),
+                                String.valueOf(start + pageSize - 1).getBytes(StandardCharsets.US_ASCII),
+                                WITHSCORES);
+                        for (byte[] value : page) {
+                            updatePart(sha1, value);
+                        }
+                        if (page.size() < 2 * pageSize) {
+                            break;
+                        }
+                    }
+                    break;
+                case RedisKeyRecord.TYPE_STREAM: {
+                    byte[] start = STREAM_START;
+                    while (true) {
+                        indicator.checkCanceled();
+                        List<Object> page = jedis.xrange(key, start, STREAM_END, pageSize);
+                        String lastId = null;
+                        for (Object rawEntry : page) {
+                            List<Object> entry = (List<Object>) rawEntry;
+                            byte[] id = (byte[]) entry.get(0);
+                            lastId = new String(id, StandardCharsets.US_ASCII);
+                            updatePart(sha1, id);
+                            for (Object field : (List<Object>) entry.get(1)) {
+                                updatePart(sha1, (byte[]) field);
+                            }
+                        }
+                        if (page.size() < pageSize || lastId == null) {
+                            break;
+                        }
+                        start = KeyspaceExportJob.nextStreamId(lastId);
+                    }
+                    break;
+                }
+                default:
+                    return null;
+            }
+        } catch (JedisDataException e) {
+            LOG.debug("Key " + keyName(key) + " changed while it was digested: " + e.getMessage());
+            return null;
+        }
+        return HexFormat.of().formatHex(sha1.digest()).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the separator and length that precede a part in the script's digest input
+     */
+    private static byte[] partPrefix(long length) {
+        return ("," + length + ":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static void updatePart(MessageDigest digest, byte[] part) {
+        digest.update(partPrefix(part.length));
+        digest.update(part);
+    }
+
+    private static void updateLengthPrefixed(MessageDigest digest, byte[] value) {
+        digest.update((value.length + ":").getBytes(StandardCharsets.US_ASCII));
+        digest.update(value);
+    }
+
+    /**
+     * DEBUG DIGEST-VALUE returns all zeros for keys that no longer exist
+     */
+    private static boolean isZero(byte[] digest) {
+        for (byte b : digest) {
+            if (b != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private KeyspaceDiff merge(SortedDigestRuns sourceRuns, SortedDigestRuns targetRuns,
+                               ProgressIndicator indicator) throws IOException {
+        KeyspaceDiff diff = new KeyspaceDiff(sampleLimit);
+        try {
+            SortedDigestRuns.Cursor left = sourceRuns.open();
+            SortedDigestRuns.Cursor right = targetRuns.open();
+            boolean hasLeft = left.next();
+            boolean hasRight = right.next();
+            long compared = 0;
+
+            while (hasLeft || hasRight) {
+                if (++compared % 10_000 == 0) {
+                    indicator.checkCanceled();
+                }
+                int order = !hasLeft ? 1 : !hasRight ? -1 : Arrays.compareUnsigned(left.key(), right.key());
+                if (order < 0) {
+                    diff.add(keyName(left.key()), KeyspaceDiff.Change.REMOVED);
+                    hasLeft = left.next();
+                } else if (order > 0) {
+                    diff.add(keyName(right.key()), KeyspaceDiff.Change.ADDED);
+                    hasRight = right.next();
+                } else {
+                    if (Arrays.equals(left.digest(), right.digest())) {
+                        diff.addUnchanged();
+                    } else {
+                        diff.add(keyName(left.key()), KeyspaceDiff.Change.CHANGED);
+                    }
+                    hasLeft = left.next();
+                    hasRight = right.next();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return diff;
+    }
+
+    private static String keyName(byte[] key) {
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private void report(ProgressIndicator indicator, long total, long startTime) {
+        long scanned = sourceScanned + targetScanned;
+        if (total > 0) {
+            indicator.setFraction(Math.min(1.0, (double) scanned / total));
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        indicator.setText2(String.format("%,d source and %,d target keys digested (%,d keys/s)",
+                sourceScanned, targetScanned, scanned * 1000 / elapsed));
+    }
+
+    /**
+     * @return the digest method actually used, after AUTO resolution
+     */
+    public DigestMethod getUsedMethod() {
+        return usedMethod;
+    }
+
+    public RedisConnection getSource() {
+        return source;
+    }
+
+    public RedisConnection getTarget() {
+        return target;
+    }
+
+    /**
+     * Builder for KeyspaceDiffJob
+     */
+    public static class Builder {
+        private RedisConnection source;
+        private RedisConnection target;
+        private String pattern = "*";
+        private String type;
+        private int batchSize = 500;
+        private int runSize = 200_000;
+        private int sampleLimit = 1000;
+        private DigestMethod digestMethod = DigestMethod.AUTO;
+
+        public Builder source(RedisConnection source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder target(RedisConnection target) {
+            this.target = target;
+            return this;
+        }
+
+        public Builder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        /**
+         * @param type key type to restrict the comparison to, or null for all types
+         */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * @param runSize number of keys per side sorted in memory before spilling to a temporary file
+         */
+        public Builder runSize(int runSize) {
+            this.runSize = runSize;
+            return this;
+        }
+
+        /**
+         * @param sampleLimit maximum number of differing keys listed in the result
+         */
+        public Builder sampleLimit(int sampleLimit) {
+            this.sampleLimit = sampleLimit;
+            return this;
+        }
+
+        public Builder digestMethod(DigestMethod digestMethod) {
+            this.digestMethod = digestMethod;
+            return this;
+        }
+
+        public KeyspaceDiffJob build() {
+            if (source == null || target == null) {
+                throw new IllegalStateException("Source and target connections are required");
+            }
+            if (runSize < 1) {
+                throw new IllegalStateException("Run size must be positive");
+            }
+            return new KeyspaceDiffJob(this);
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.redis.plugin.service.bulk;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisKeyRecord;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+import redis.clients.jedis.resps.Tuple;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams every key matching a pattern to a file.
+ * Each SCAN page costs two pipelined round trips: one for TYPE and PTTL of all
+ * keys in the page, and one for the first page of each value. Collections longer
+ * than {@link #VALUE_PAGE_SIZE} are then read a page at a time, with HSCAN, SSCAN
+ * and ZSCAN or windows of LRANGE and XRANGE, and every page is encoded straight
+ * into a buffered channel. Memory use is therefore bounded by the batch and page
+ * sizes, whatever the size of the keyspace or of its largest key. Keys and values
+ * are read as bytes, so binary data is exported intact.
+ */
+public class KeyspaceExportJob {
+    private static final Logger LOG = Logger.getInstance(KeyspaceExportJob.class);
+
+    /**
+     * Elements read per round trip from a collection
+     */
+    static final int VALUE_PAGE_SIZE = 256;
+
+    private static final byte[] STREAM_START = "-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STREAM_END = "+".getBytes(StandardCharsets.US_ASCII);
+
+    private final RedisConnection connection;
+    private final String pattern;
+    private final String type;
+    private final ExportFormat format;
+    private final Path target;
+    private final boolean gzip;
+    private final int batchSize;
+    private final ScanParams valueParams = new ScanParams().count(VALUE_PAGE_SIZE);
+
+    private volatile long scanned;
+    private volatile long exported;
+    private volatile long skipped;
+    private volatile long bytesWritten;
+
+    private KeyspaceExportJob(Builder builder) {
+        this.connection = builder.connection;
+        this.pattern = builder.pattern;
+        this.type = builder.type;
+        this.format = builder.format;
+        this.target = builder.target;
+        this.gzip = builder.gzip;
+        this.batchSize = builder.batchSize;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the export on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @throws IOException if writing the file fails
+     */
+    public void run(ProgressIndicator indicator) throws IOException {
+        ScanParams params = new ScanParams().match(pattern).count(batchSize);
+        byte[] typeFilter = type == null ? null : type.getBytes(StandardCharsets.US_ASCII);
+        KeyRecordWriter writer = KeyRecordWriter.forFormat(format);
+        long startTime = System.currentTimeMillis();
+
+        try (Jedis jedis = JedisRedisService.createClient(connection);
+             ChannelOutput out = ChannelOutput.open(target, gzip)) {
+            long total = jedis.dbSize();
+            indicator.setIndeterminate(total == 0);
+            writer.writeHeader(out);
+
+            byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+            ScanResult<byte[]> page;
+            do {
+                indicator.checkCanceled();
+
+                page = typeFilter == null
+                        ? jedis.scan(cursor, params)
+                        : jedis.scan(cursor, params, typeFilter);
+                List<byte[]> keys = page.getResult();
+                if (!keys.isEmpty()) {
+                    exportKeys(jedis, keys, writer, out, indicator);
+                    scanned += keys.size();
+                }
+                cursor = page.getCursorAsBytes();
+                bytesWritten = out.getBytesWritten();
+
+                if (total > 0) {
+                    indicator.setFraction(Math.min(1.0, (double) scanned / total));
+                }
+                long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+                indicator.setText2(String.format("%,d keys exported, %.1f MB (%,d keys/s, %.1f MB/s)",
+                        exported, bytesWritten / 1048576.0,
+                        exported * 1000 / elapsed, bytesWritten / 1048.576 / elapsed));
+            } while (!page.isCompleteIteration());
+
+            out.flush();
+            bytesWritten = out.getBytesWritten();
+        }
+    }
+
+    /**
+     * Export one page of keys: type, TTL and the first page of every value in two pipelined
+     * round trips, then the rest of the larger values a page at a time
+     */
+    private void exportKeys(Jedis jedis, List<byte[]> keys, KeyRecordWriter writer, ChannelOutput out,
+                            ProgressIndicator indicator) throws IOException {
+        Pipeline pipeline = jedis.pipelined();
+        List<Response<String>> types = new ArrayList<>(keys.size());
+        List<Response<Long>> ttls = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            types.add(pipeline.type(key));
+            ttls.add(pipeline.pttl(key));
+        }
+        pipeline.sync();
+
+        List<Response<?>> firstPages = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            firstPages.add(readFirstPage(pipeline, keys.get(i), types.get(i).get()));
+        }
+        pipeline.sync();
+
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] key = keys.get(i);
+            String keyType = types.get(i).get();
+            Response<?> response = firstPages.get(i);
+            if (response == null) {
+                // Key expired between SCAN and TYPE, or a type we cannot export (e.g. module types)
+                skipped++;
+                continue;
+            }
+            Object firstPage;
+            try {
+                firstPage = response.get();
+            } catch (JedisDataException e) {
+                // The key changed type between the two round trips
+                LOG.debug("Skipping key " + BinaryText.encode(key) + ": " + e.getMessage());
+                skipped++;
+                continue;
+            }
+            if (isEmpty(firstPage)) {
+                // Deleted between the two round trips
+                skipped++;
+                continue;
+            }
+
+            writer.beginKey(key, keyType, ttls.get(i).get(), out);
+            try {
+                writeValue(jedis, key, keyType, firstPage, writer, indicator);
+            } catch (JedisDataException e) {
+                // The key changed type while it was paged; keep what was read so far
+                LOG.debug("Key " + BinaryText.encode(key) + " changed during export: " + e.getMessage());
+            }
+            writer.endKey();
+            exported++;
+        }
+    }
+
+    private Response<?> readFirstPage(Pipeline pipeline, byte[] key, String keyType) {
+        switch (keyType) {
+            case RedisKeyRecord.TYPE_STRING:
+                return pipeline.get(key);
+            case RedisKeyRecord.TYPE_HASH:
+                return pipeline.hscan(key, ScanParams.SCAN_POINTER_START_BINARY, valueParams);
+            case RedisKeyRecord.TYPE_LIST:
+                return pipeline.lrange(key, 0, VALUE_PAGE_SIZE - 1);
+            case RedisKeyRecord.TYPE_SET:
+                return pipeline.sscan(key, ScanParams.SCAN_POINTER_START_BINARY, valueParams);
+            case RedisKeyRecord.TYPE_ZSET:
+                return pipeline.zscan(key, ScanParams.SCAN_POINTER_START_BINARY, valueParams);
+            case RedisKeyRecord.TYPE_STREAM:
+                return pipeline.xrange(key, STREAM_START, STREAM_END, VALUE_PAGE_SIZE);
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isEmpty(Object page) {
+        if (page == null) {
+            return true;
+        } else if (page instanceof ScanResult) {
+            ScanResult<?> scan = (ScanResult<?>) page;
+            return scan.getResult().isEmpty() && scan.isCompleteIteration();
+        } else if (page instanceof List) {
+            return ((List<?>) page).isEmpty();
+        }
+        return false;
+    }
+
+    /**
+     * Write a value from its first page, reading and writing the following pages one at a time
+     */
+    @SuppressWarnings("unchecked")
+    private void writeValue(Jedis jedis, byte[] key, String keyType, Object firstPage, KeyRecordWriter writer,
+                            ProgressIndicator indicator) throws IOException {
+        switch (keyType) {
+            case RedisKeyRecord.TYPE_STRING:
+                writer.value((byte[]) firstPage);
+                break;
+            case RedisKeyRecord.TYPE_HASH: {
+                ScanResult<Map.Entry<byte[], byte[]>> page = (ScanResult<Map.Entry<byte[], byte[]>>) firstPage;
+                while (true) {
+                    for (Map.Entry<byte[], byte[]> entry : page.getResult()) {
+                        writer.field(entry.getKey(), entry.getValue());
+                    }
+                    if (page.isCompleteIteration()) {
+                        break;
+                    }
+                    indicator.checkCanceled();
+                    page = jedis.hscan(key, page.getCursorAsBytes(), valueParams);
+                }
+                break;
+            }
+            case RedisKeyRecord.TYPE_SET: {
+                ScanResult<byte[]> page = (ScanResult<byte[]>) firstPage;
+                while (true) {
+                    for (byte[] member : page.getResult()) {
+                        writer.element(member);
+                    }
+                    if (page.isCompleteIteration()) {
+                        break;
+                    }
+                    indicator.checkCanceled();
+                    page = jedis.sscan(key, page.getCursorAsBytes(), valueParams);
+                }
+                break;
+            }
+            case RedisKeyRecord.TYPE_ZSET: {
+                ScanResult<Tuple> page = (ScanResult<Tuple>) firstPage;
+                while (true) {
+                    for (Tuple tuple : page.getResult()) {
+                        writer.member(tuple.getBinaryElement(), tuple.getScore());
+                    }
+                    if (page.isCompleteIteration()) {
+                        break;
+                    }
+                    indicator.checkCanceled();
+                    page = jedis.zscan(key, page.getCursorAsBytes(), valueParams);
+                }
+                break;
+            }
+            case RedisKeyRecord.TYPE_LIST: {
+                List<byte[]> page = (List<byte[]>) firstPage;
+                long start = 0;
+                while (true) {
+                    for (byte[] element : page) {
+                        writer.element(element);
+                    }
+                    if (page.size() < VALUE_PAGE_SIZE) {
+                        break;
+                    }
+                    indicator.checkCanceled();
+                    start += VALUE_PAGE_SIZE;
+                    page = jedis.lrange(key, start, start + VALUE_PAGE_SIZE - 1);
+                }
+                break;
+            }
+            case RedisKeyRecord.TYPE_STREAM: {
+                List<Object> page = (List<Object>) firstPage;
+                List<byte[]> fields = new ArrayList<>();
+                while (true) {
+                    String lastId = null;
+                    for (Object rawEntry : page) {
+                        List<Object> entry = (List<Object>) rawEntry;
+                        lastId = new String((byte[]) entry.get(0), StandardCharsets.US_ASCII);
+                        fields.clear();
+                        for (Object field : (List<Object>) entry.get(1)) {
+                            fields.add((byte[]) field);
+                        }
+                        writer.entry(lastId, fields);
+                    }
+                    if (page.size() < VALUE_PAGE_SIZE || lastId == null) {
+                        break;
+                    }
+                    indicator.checkCanceled();
+                    page = jedis.xrange(key, nextStreamId(lastId), STREAM_END, VALUE_PAGE_SIZE);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return the smallest stream entry ID after the given one, as the start of the next XRANGE window
+     */
+    static byte[] nextStreamId(String id) {
+        int dash = id.indexOf('-');
+        long millis = Long.parseUnsignedLong(id.substring(0, dash));
+        long sequence = Long.parseUnsignedLong(id.substring(dash + 1));
+        String next = sequence == -1L
+                ? Long.toUnsignedString(millis + 1) + "-0"
+                : Long.toUnsignedString(millis) + "-" + Long.toUnsignedString(sequence + 1);
+        return next.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public long getExported() {
+        return exported;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Get the number of bytes written, before compression
+     * @return uncompressed bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Builder for KeyspaceExportJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private String pattern = "*";
+        private String type;
+        private ExportFormat format = ExportFormat.NDJSON;
+        private Path target;
+        private boolean gzip;
+        private int batchSize = 500;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        /**
+         * @param type key type to restrict the export to, or null for all types
+         */
+        public Builder type(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder format(ExportFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        public Builder target(Path target) {
+            this.target = target;
+            return this;
+        }
+
+        public Builder gzip(boolean gzip) {
+            this.gzip = gzip;
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public KeyspaceExportJob build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (target == null) {
+                throw new IllegalStateException("Target file is required");
+            }
+            return new KeyspaceExportJob(this);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.redis.plugin.service.bulk;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisKeyRecord;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.commands.ProtocolCommand;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads keys from a file written by the export job, or any RESP command stream.
+ * The file is parsed incrementally and the resulting commands are written with
+ * a pipeline; after every {@code pipelineDepth} commands the replies are read
+ * back, which bounds both client memory and the amount of unacknowledged work
+ * in flight. Failures are recorded against the line they came from and the
+ * import carries on with the next record.
+ */
+public class KeyspaceImportJob {
+    private static final Logger LOG = Logger.getInstance(KeyspaceImportJob.class);
+
+    /**
+     * Maximum number of error messages kept; further failures are only counted
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    private final RedisConnection connection;
+    private final Path source;
+    private final ExportFormat format;
+    private final boolean replace;
+    private final int pipelineDepth;
+
+    private final KeyRecordReader recordReader;
+    private final KeyRecordCommands recordCommands;
+    private final Map<String, ProtocolCommand> commandCache = new HashMap<>();
+    private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+    private final long[] pendingLines;
+    private int pendingCount;
+    private Pipeline pipeline;
+    private long currentLine;
+
+    private volatile long records;
+    private volatile long commands;
+    private volatile long failed;
+
+    private KeyspaceImportJob(Builder builder) {
+        this.connection = builder.connection;
+        this.source = builder.source;
+        this.format = builder.format;
+        this.replace = builder.replace;
+        this.pipelineDepth = builder.pipelineDepth;
+        this.pendingLines = new long[pipelineDepth];
+        this.recordReader = format == ExportFormat.RESP ? null : KeyRecordReader.forFormat(format);
+        this.recordCommands = new KeyRecordCommands(args -> send(currentLine,
+                new String(args.get(0), StandardCharsets.UTF_8),
+                args.subList(1, args.size()).toArray(new byte[0][])));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Run the import on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     * @throws IOException if reading the file fails
+     */
+    public void run(ProgressIndicator indicator) throws IOException {
+        long startTime = System.currentTimeMillis();
+
+        try (Jedis jedis = JedisRedisService.createClient(connection);
+             ChannelInput in = ChannelInput.open(source)) {
+            long size = in.getSize();
+            indicator.setIndeterminate(size <= 0);
+            pipeline = jedis.pipelined();
+
+            long lastReport = 0;
+            while (format == ExportFormat.RESP ? readCommand(in) : readRecord(in)) {
+                if (commands - lastReport >= 10_000) {
+                    lastReport = commands;
+                    indicator.checkCanceled();
+                    report(indicator, in, size, startTime);
+                }
+            }
+            sync();
+            report(indicator, in, size, startTime);
+        }
+    }
+
+    private void report(ProgressIndicator indicator, ChannelInput in, long size, long startTime) {
+        if (size > 0) {
+            indicator.setFraction(Math.min(1.0, (double) in.getPosition() / size));
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+        indicator.setText2(String.format("Line %,d: %,d commands sent, %,d failed (%,d ops/s)",
+                in.getLineNumber(), commands, failed, commands * 1000 / elapsed));
+    }
+
+    /**
+     * Read one key record and send the commands that recreate it
+     * @return false at end of input
+     */
+    private boolean readRecord(ChannelInput in) throws IOException {
+        RedisKeyRecord record;
+        try {
+            record = recordReader.read(in);
+        } catch (IllegalArgumentException e) {
+            addError(recordReader.getRecordLine(), e.getMessage());
+            return true;
+        }
+        if (record == null) {
+            return false;
+        }
+
+        currentLine = recordReader.getRecordLine();
+        try {
+            if (!recordCommands.emit(record, replace)) {
+                addError(currentLine, "Unsupported type: " + record.getType());
+            } else {
+                records++;
+            }
+        } catch (IllegalArgumentException e) {
+            // A Base64 value that does not decode; commands already sent for the key stay
+            addError(currentLine, e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Read one command, either a RESP array or an inline command line, and send it as is
+     * @return false at end of input
+     */
+    private boolean readCommand(ChannelInput in) throws IOException {
+        int next = in.peek();
+        if (next < 0) {
+            return false;
+        }
+
+        String header = in.readLine();
+        long line = in.getLineNumber();
+        if (next != '*') {
+            String trimmed = header.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                return true;
+            }
+            String[] parts = JedisRedisService.parseCommandLine(trimmed);
+            if (parts.length == 0) {
+                addError(line, "Empty command: " + header);
+                return true;
+            }
+            byte[][] args = new byte[parts.length - 1][];
+            for (int i = 1; i < parts.length; i++) {
+                args[i - 1] = parts[i].getBytes(StandardCharsets.UTF_8);
+            }
+            records++;
+            send(line, parts[0], args);
+            return true;
+        }
+
+        int count;
+        try {
+            count = Integer.parseInt(header.substring(1).trim());
+        } catch (NumberFormatException e) {
+            addError(line, "Invalid array header: " + header);
+            return true;
+        }
+        if (count <= 0) {
+            return true;
+        }
+
+        String name = null;
+        byte[][] args = new byte[count - 1][];
+        for (int i = 0; i < count; i++) {
+            String bulkHeader = in.readLine();
+            if (bulkHeader == null || bulkHeader.isEmpty() || bulkHeader.charAt(0) != '$') {
+                // The stream is out of step; there is no reliable way to find the next command
+                throw new IOException("Malformed RESP at line " + in.getLineNumber() + ": expected bulk string");
+            }
+            int length;
+            try {
+                length = Integer.parseInt(bulkHeader.substring(1).trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed RESP at line " + in.getLineNumber() + ": " + bulkHeader);
+            }
+            if (length < 0) {
+                // A null bulk string cannot be a command argument
+                throw new IOException("Malformed RESP at line " + in.getLineNumber() + ": " + bulkHeader);
+            }
+            byte[] bytes = in.readBulk(length);
+            if (i == 0) {
+                name = new String(bytes, StandardCharsets.UTF_8);
+            } else {
+                args[i - 1] = bytes;
+            }
+        }
+        records++;
+        send(line, name, args);
+        return true;
+    }
+
+    private void send(long line, String name, byte[][] args) {
+        ProtocolCommand command = commandCache.computeIfAbsent(name.toUpperCase(), upper -> {
+            byte[] raw = upper.getBytes(StandardCharsets.UTF_8);
+            return () -> raw;
+        });
+        pipeline.sendCommand(command, args);
+        pendingLines[pendingCount++] = line;
+        commands++;
+        if (pendingCount == pipelineDepth) {
+            sync();
+        }
+    }
+
+    /**
+     * Read all outstanding replies and record the errors against their source lines
+     */
+    private void sync() {
+        if (pendingCount == 0) {
+            return;
+        }
+        List<Object> replies = pipeline.syncAndReturnAll();
+        for (int i = 0; i < replies.size() && i < pendingCount; i++) {
+            if (replies.get(i) instanceof JedisDataException) {
+                addError(pendingLines[i], ((JedisDataException) replies.get(i)).getMessage());
+            }
+        }
+        pendingCount = 0;
+    }
+
+    private void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add("Line " + line + ": " + message);
+        }
+        LOG.debug("Import error at line " + line + ": " + message);
+    }
+
+    /**
+     * @return number of key records, or RESP commands, read from the file
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Get the recorded errors, at most {@link #MAX_ERRORS}
+     * @return error messages prefixed with their line number
+     */
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+
+    public Path getSource() {
+        return source;
+    }
+
+    /**
+     * Builder for KeyspaceImportJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private Path source;
+        private ExportFormat format = ExportFormat.NDJSON;
+        private boolean replace = true;
+        private int pipelineDepth = 1000;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder source(Path source) {
+            this.source = source;
+            return this;
+        }
+
+        public Builder format(ExportFormat format) {
+            this.format = format;
+            return this;
+        }
+
+        /**
+         * @param replace true to delete existing keys before writing key records; ignored for RESP files
+         */
+        public Builder replace(boolean replace) {
+            this.replace = replace;
+            return this;
+        }
+
+        /**
+         * @param pipelineDepth number of commands sent before waiting for their replies
+         */
+        public Builder pipelineDepth(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        public KeyspaceImportJob build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (source == null) {
+                throw new IllegalStateException("Source file is required");
+            }
+            if (pipelineDepth < 1) {
+                throw new IllegalStateException("Pipeline depth must be positive");
+            }
+            return new KeyspaceImportJob(this);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.redis.plugin.service.bulk;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simple pacing rate limiter for bulk jobs.
+ * Each acquired operation reserves a slot on a virtual timeline; callers sleep
+ * until their slot is reached, so a batch of N operations is spread at the
+ * configured rate instead of bursting.
+ */
+public class RateLimiter {
+    private final long nanosPerOp;
+    private long nextFreeNanos;
+
+    /**
+     * Create a rate limiter
+     * @param opsPerSecond maximum operations per second, 0 or less for unlimited
+     */
+    public RateLimiter(int opsPerSecond) {
+        this.nanosPerOp = opsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / opsPerSecond : 0;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Create a rate limiter that never blocks
+     * @return an unlimited rate limiter
+     */
+    public static RateLimiter unlimited() {
+        return new RateLimiter(0);
+    }
+
+    /**
+     * Block until the given number of operations may be sent
+     * @param ops number of operations about to be sent
+     */
+    public synchronized void acquire(int ops) {
+        if (nanosPerOp == 0 || ops <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        // Do not bank unused capacity from idle periods
+        if (nextFreeNanos < now) {
+            nextFreeNanos = now;
+        }
+        long slot = nextFreeNanos;
+        nextFreeNanos += nanosPerOp * ops;
+
+        long waitNanos;
+        while ((waitNanos = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Check whether this limiter enforces a rate
+     * @return true if unlimited
+     */
+    public boolean isUnlimited() {
+        return nanosPerOp == 0;
+    }
+}
@@ -0,0 +1,177 @@
+package com.redis.plugin.service.bulk;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * External sort of (key, digest) pairs.
+ * Pairs are buffered up to a fixed run size, sorted by key and spilled to a
+ * temporary file; reading merges all runs back into a single key-ordered
+ * sequence. Memory use is bounded by the run size, not by the number of keys.
+ */
+class SortedDigestRuns implements Closeable {
+    private static final Comparator<byte[]> KEY_ORDER = Arrays::compareUnsigned;
+
+    private final int runSize;
+    private final List<byte[][]> buffer;
+    private final List<Path> runs = new ArrayList<>();
+    private final List<RunReader> readers = new ArrayList<>();
+
+    /**
+     * @param runSize number of pairs held in memory before spilling a run to disk
+     */
+    SortedDigestRuns(int runSize) {
+        this.runSize = runSize;
+        this.buffer = new ArrayList<>(Math.min(runSize, 16 * 1024));
+    }
+
+    /**
+     * Add a key and its digest
+     * @throws IOException if spilling a run fails
+     */
+    void add(byte[] key, byte[] digest) throws IOException {
+        buffer.add(new byte[][]{key, digest});
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    private void spill() throws IOException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort((a, b) -> KEY_ORDER.compare(a[0], b[0]));
+        Path run = Files.createTempFile("redis-diff-", ".run");
+        runs.add(run);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), 64 * 1024))) {
+            for (byte[][] pair : buffer) {
+                out.writeInt(pair[0].length);
+                out.write(pair[0]);
+                out.writeShort(pair[1].length);
+                out.write(pair[1]);
+            }
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Finish writing and open a key-ordered cursor over everything added.
+     * Duplicate keys, which SCAN may return, are collapsed.
+     * @return the merged cursor
+     * @throws IOException if a run cannot be written or opened
+     */
+    Cursor open() throws IOException {
+        spill();
+        PriorityQueue<RunReader> heads = new PriorityQueue<>((a, b) -> KEY_ORDER.compare(a.key, b.key));
+        for (Path run : runs) {
+            RunReader reader = new RunReader(run);
+            readers.add(reader);
+            if (reader.next()) {
+                heads.add(reader);
+            }
+        }
+        return new Cursor(heads);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (RunReader reader : readers) {
+            reader.in.close();
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        readers.clear();
+        runs.clear();
+        buffer.clear();
+    }
+
+    /**
+     * Key-ordered view over all runs
+     */
+    static class Cursor {
+        private final PriorityQueue<RunReader> heads;
+        private byte[] key;
+        private byte[] digest;
+
+        private Cursor(PriorityQueue<RunReader> heads) {
+            this.heads = heads;
+        }
+
+        /**
+         * Advance to the next distinct key
+         * @return false when all runs are exhausted
+         */
+        boolean next() {
+            byte[] previous = key;
+            while (!heads.isEmpty()) {
+                RunReader head = heads.poll();
+                byte[] headKey = head.key;
+                byte[] headDigest = head.digest;
+                try {
+                    if (head.next()) {
+                        heads.add(head);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (previous == null || !Arrays.equals(previous, headKey)) {
+                    key = headKey;
+                    digest = headDigest;
+                    return true;
+                }
+            }
+            key = null;
+            digest = null;
+            return false;
+        }
+
+        byte[] key() {
+            return key;
+        }
+
+        byte[] digest() {
+            return digest;
+        }
+    }
+
+    private static class RunReader {
+        final DataInputStream in;
+        byte[] key;
+        byte[] digest;
+
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 64 * 1024));
+        }
+
+        boolean next() throws IOException {
+            int keyLength;
+            try {
+                keyLength = in.readInt();
+            } catch (EOFException e) {
+                key = null;
+                digest = null;
+                return false;
+            }
+            key = new byte[keyLength];
+            in.readFully(key);
+            digest = new byte[in.readShort()];
+            in.readFully(digest);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.redis.plugin.service.catalog;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisCommandComplexity;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary cache of the commands read from servers, one file per server version, so a catalog
+ * only has to be fetched once per version and loads in a few milliseconds afterwards.
+ * <p>
+ * A file starts with a magic number and a format version, followed by the commands: their
+ * texts as length-prefixed UTF-8, their complexity by constant name so the enum can change,
+ * their key positions as integers and their flags, ACL categories, key specs and parameters as counted lists. The whole is gzip-compressed. A file
+ * with another format version is ignored and overwritten by the next fetch.
+ */
+public class CommandCatalogCache {
+    private static final int MAGIC = 0x52434D44; // "RCMD"
+    private static final int VERSION = 2;
+
+    private final Path directory;
+
+    public CommandCatalogCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param serverKey what identifies the commands of a server, e.g. "redis-7.2.4"
+     */
+    public Path getFile(String serverKey) {
+        return directory.resolve(serverKey.replaceAll("[^A-Za-z0-9._-]", "_") + ".bin");
+    }
+
+    /**
+     * @return the cached commands by catalog name, or null if the server is not cached
+     */
+    public Map<String, RedisCommand> read(String serverKey) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(getFile(serverKey));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int count = in.readInt();
+            Map<String, RedisCommand> commands = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                RedisCommand command = new RedisCommand(readString(in), readString(in), readString(in));
+                command.setGroup(readString(in));
+                command.setSince(readString(in));
+                command.setComplexityText(readString(in));
+                command.setComplexity(complexity(readString(in)));
+                command.setArity(in.readInt());
+                command.setKeyPositions(in.readInt(), in.readInt(), in.readInt());
+                for (int j = in.readInt(); j > 0; j--) {
+                    command.addFlag(readString(in));
+                }
+                for (int j = in.readInt(); j > 0; j--) {
+                    command.addAclCategory(readString(in));
+                }
+                for (int j = in.readInt(); j > 0; j--) {
+                    command.addKeySpec(readString(in));
+                }
+                for (int j = in.readInt(); j > 0; j--) {
+                    command.addParameter(readString(in));
+                }
+                commands.put(command.getName(), command);
+            }
+            return commands;
+        }
+    }
+
+    /**
+     * Write the commands of a server, replacing its file atomically
+     */
+    public void write(String serverKey, Collection<RedisCommand> commands) throws IOException {
+        Files.createDirectories(directory);
+        Path file = getFile(serverKey);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(commands.size());
+            for (RedisCommand command : commands) {
+                writeString(out, command.getName());
+                writeString(out, command.getSyntax());
+                writeString(out, command.getDescription());
+                writeString(out, command.getGroup());
+                writeString(out, command.getSince());
+                writeString(out, command.getComplexityText());
+                writeString(out, command.getComplexity() == null ? null : command.getComplexity().name());
+                out.writeInt(command.getArity());
+                out.writeInt(command.getFirstKey());
+                out.writeInt(command.getLastKey());
+                out.writeInt(command.getKeyStep());
+                writeStrings(out, command.getFlags());
+                writeStrings(out, command.getAclCategories());
+                writeStrings(out, command.getKeySpecs());
+                writeStrings(out, command.getParameters());
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the complexity of a cached name, or null if it no longer exists
+     */
+    private static RedisCommandComplexity complexity(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return RedisCommandComplexity.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
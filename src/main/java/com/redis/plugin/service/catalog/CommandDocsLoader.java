@@ -0,0 +1,63 @@
+package com.redis.plugin.service.catalog;
+
+import com.redis.plugin.model.RedisCommand;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the commands a server documents, and what identifies them for caching.
+ * <p>
+ * Calls block on the server and must run off the EDT.
+ */
+public final class CommandDocsLoader {
+    private CommandDocsLoader() {
+    }
+
+    /**
+     * Identify the commands of a server by its name and version, plus a hash of its loaded
+     * modules, e.g. "redis-7.2.4" or "redis-7.2.4-5f3a91c2"
+     */
+    public static String serverKey(Jedis jedis) {
+        String name = "redis";
+        String version = "unknown";
+        for (String line : jedis.info("server").split("\r?\n")) {
+            if (line.startsWith("redis_version:")) {
+                version = line.substring("redis_version:".length()).trim();
+            } else if (line.startsWith("server_name:")) {
+                name = line.substring("server_name:".length()).trim();
+            }
+        }
+        List<String> modules = new ArrayList<>();
+        try {
+            for (Object module : CommandDocsParser.list(jedis.sendCommand(Protocol.Command.MODULE, "LIST"))) {
+                Map<String, Object> fields = CommandDocsParser.map(module);
+                modules.add(CommandDocsParser.text(fields.get("name")) + "@" + CommandDocsParser.text(fields.get("ver")));
+            }
+        } catch (JedisDataException e) {
+            // Not allowed to list modules, or a server without them
+        }
+        if (modules.isEmpty()) {
+            return name + "-" + version;
+        }
+        Collections.sort(modules);
+        return name + "-" + version + "-" + Integer.toHexString(String.join(",", modules).hashCode());
+    }
+
+    /**
+     * @return the commands by catalog name, empty if the server does not document them
+     * @throws JedisDataException if the server has no {@code COMMAND DOCS}, before Redis 7
+     */
+    public static Map<String, RedisCommand> fetch(Jedis jedis) {
+        Object docs = jedis.sendCommand(Protocol.Command.COMMAND, "DOCS");
+        if (CommandDocsParser.list(docs).isEmpty() && !(docs instanceof Map)) {
+            return Collections.emptyMap();
+        }
+        return CommandDocsParser.parse(jedis.sendCommand(Protocol.Command.COMMAND), docs);
+    }
+}
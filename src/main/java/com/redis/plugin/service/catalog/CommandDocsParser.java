@@ -0,0 +1,384 @@
+package com.redis.plugin.service.catalog;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisCommandComplexity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds catalog commands from the raw replies of {@code COMMAND DOCS} and {@code COMMAND}.
+ * <p>
+ * The docs give the summary, version, group, complexity and arguments of each command, from
+ * which the syntax is rendered the way the Redis documentation writes it; {@code COMMAND}
+ * adds the arity, flags, key positions, ACL categories and key specs. Subcommands such as
+ * {@code config|get} become commands named "config get". Replies are read in their RESP2
+ * shape, maps being flat arrays of alternating keys and values, though RESP3 maps work too.
+ */
+public final class CommandDocsParser {
+    private static final Map<String, String> GROUP_NAMES = Map.ofEntries(
+            Map.entry("string", "Strings"),
+            Map.entry("list", "Lists"),
+            Map.entry("hash", "Hashes"),
+            Map.entry("set", "Sets"),
+            Map.entry("sorted-set", "Sorted Sets"),
+            Map.entry("generic", "Keys"),
+            Map.entry("server", "Server"),
+            Map.entry("pubsub", "Pub/Sub"),
+            Map.entry("transactions", "Transactions"),
+            Map.entry("connection", "Connection"),
+            Map.entry("scripting", "Scripting"),
+            Map.entry("stream", "Streams"),
+            Map.entry("geo", "Geospatial"),
+            Map.entry("hyperloglog", "HyperLogLog"),
+            Map.entry("bitmap", "Bitmaps"),
+            Map.entry("cluster", "Cluster"));
+
+    private CommandDocsParser() {
+    }
+
+    /**
+     * @param commandInfo reply of {@code COMMAND}
+     * @param commandDocs reply of {@code COMMAND DOCS}
+     * @return the commands by catalog name, in the order of the docs
+     */
+    public static Map<String, RedisCommand> parse(Object commandInfo, Object commandDocs) {
+        Map<String, RedisCommand> commands = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : map(commandDocs).entrySet()) {
+            parseDocs(entry.getKey(), map(entry.getValue()), null, commands);
+        }
+        for (Object entry : list(commandInfo)) {
+            parseInfo(list(entry), commands);
+        }
+        return commands;
+    }
+
+    private static void parseDocs(String serverName, Map<String, Object> docs, String parentGroup,
+                                  Map<String, RedisCommand> commands) {
+        String name = catalogName(serverName);
+        StringBuilder syntax = new StringBuilder(name.toUpperCase(Locale.ROOT));
+        List<Object> arguments = list(docs.get("arguments"));
+        for (Object argument : arguments) {
+            syntax.append(' ').append(render(map(argument)));
+        }
+
+        StringBuilder description = new StringBuilder(nullToEmpty(text(docs.get("summary"))));
+        String deprecatedSince = text(docs.get("deprecated_since"));
+        if (deprecatedSince != null) {
+            description.append(description.length() > 0 ? " " : "").append("Deprecated since ").append(deprecatedSince);
+            String replacedBy = text(docs.get("replaced_by"));
+            if (replacedBy != null) {
+                description.append(", replaced by ").append(replacedBy.replace("`", ""));
+            }
+            description.append('.');
+        }
+
+        RedisCommand command = new RedisCommand(name, syntax.toString(), description.toString());
+        command.setSince(text(docs.get("since")));
+        String complexity = text(docs.get("complexity"));
+        command.setComplexityText(complexity);
+        command.setComplexity(complexity(complexity));
+        command.setGroup(parentGroup != null ? parentGroup : groupName(text(docs.get("group")), text(docs.get("module"))));
+        for (Object flag : list(docs.get("doc_flags"))) {
+            command.addFlag(text(flag));
+        }
+        for (Object argument : arguments) {
+            Map<String, Object> fields = map(argument);
+            command.addParameter(argumentName(fields) + " - " + describe(fields));
+        }
+        commands.put(name, command);
+
+        for (Map.Entry<String, Object> subcommand : map(docs.get("subcommands")).entrySet()) {
+            parseDocs(subcommand.getKey(), map(subcommand.getValue()), command.getGroup(), commands);
+        }
+    }
+
+    private static void parseInfo(List<Object> info, Map<String, RedisCommand> commands) {
+        if (info.size() < 6) {
+            return;
+        }
+        String name = catalogName(text(info.get(0)));
+        RedisCommand command = commands.get(name);
+        if (command == null) {
+            // Commands without docs, such as those of older modules, only get their name
+            command = new RedisCommand(name, name.toUpperCase(Locale.ROOT), "");
+            commands.put(name, command);
+        }
+        command.setArity(integer(info.get(1)));
+        for (Object flag : list(info.get(2))) {
+            command.addFlag(text(flag));
+        }
+        command.setKeyPositions(integer(info.get(3)), integer(info.get(4)), integer(info.get(5)));
+        if (info.size() > 6) {
+            for (Object category : list(info.get(6))) {
+                command.addAclCategory(text(category));
+            }
+        }
+        if (info.size() > 8) {
+            for (Object keySpec : list(info.get(8))) {
+                command.addKeySpec(describeKeySpec(map(keySpec)));
+            }
+        }
+        if (info.size() > 9) {
+            for (Object subcommand : list(info.get(9))) {
+                parseInfo(list(subcommand), commands);
+            }
+        }
+    }
+
+    /**
+     * Render an argument the way the Redis documentation writes syntaxes, e.g.
+     * {@code [NX | XX]} or {@code member [member ...]}
+     */
+    static String render(Map<String, Object> argument) {
+        String type = nullToEmpty(text(argument.get("type")));
+        List<String> flags = texts(argument.get("flags"));
+        boolean optional = flags.contains("optional");
+        String token = text(argument.get("token"));
+        String rendered;
+        switch (type) {
+            case "pure-token":
+                rendered = token;
+                break;
+            case "oneof":
+                rendered = join(argument.get("arguments"), " | ");
+                if (!optional) {
+                    rendered = "<" + rendered + ">";
+                }
+                break;
+            case "block":
+                rendered = join(argument.get("arguments"), " ");
+                break;
+            default:
+                rendered = argumentName(argument);
+                break;
+        }
+        if (token != null && !"pure-token".equals(type)) {
+            rendered = token + " " + rendered;
+        }
+        if (flags.contains("multiple")) {
+            rendered = flags.contains("multiple_token")
+                    ? rendered + " [" + rendered + " ...]"
+                    : rendered + " [" + ("pure-token".equals(type) || token == null ? rendered : rendered.substring(token.length() + 1)) + " ...]";
+        }
+        return optional ? "[" + rendered + "]" : rendered;
+    }
+
+    /**
+     * Map the first complexity of a documented text to the catalog scale, e.g. "O(log(N))
+     * for each item" to {@link RedisCommandComplexity#OLOG_N}
+     *
+     * @return the complexity, or null if the text gives none
+     */
+    static RedisCommandComplexity complexity(String text) {
+        if (text == null) {
+            return null;
+        }
+        int start = text.indexOf("O(");
+        if (start < 0) {
+            return null;
+        }
+        int depth = 0;
+        int end = start + 1;
+        for (; end < text.length(); end++) {
+            char c = text.charAt(end);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                break;
+            }
+        }
+        String bound = text.substring(start + 2, Math.min(end, text.length())).replace(" ", "");
+        if (bound.equals("1")) {
+            return RedisCommandComplexity.O1;
+        }
+        if (bound.startsWith("log")) {
+            return RedisCommandComplexity.OLOG_N;
+        }
+        if (bound.contains("^2") || bound.contains("²")) {
+            return RedisCommandComplexity.ON_SQUARE;
+        }
+        if (bound.contains("+")) {
+            return RedisCommandComplexity.OM_PLUS_N;
+        }
+        return RedisCommandComplexity.ON;
+    }
+
+    /**
+     * @return the catalog category of a documented group, e.g. "Sorted Sets" for sorted-set
+     */
+    static String groupName(String group, String module) {
+        if (module != null && (group == null || "module".equals(group))) {
+            return "Module " + module;
+        }
+        if (group == null) {
+            return "Other";
+        }
+        String name = GROUP_NAMES.get(group);
+        if (name != null) {
+            return name;
+        }
+        return Character.toUpperCase(group.charAt(0)) + group.substring(1);
+    }
+
+    private static String catalogName(String serverName) {
+        return serverName.toLowerCase(Locale.ROOT).replace('|', ' ');
+    }
+
+    private static String argumentName(Map<String, Object> argument) {
+        String display = text(argument.get("display_text"));
+        return display != null ? display : nullToEmpty(text(argument.get("name")));
+    }
+
+    private static String describe(Map<String, Object> argument) {
+        String summary = text(argument.get("summary"));
+        StringBuilder description = new StringBuilder();
+        if (summary != null) {
+            description.append(summary);
+        } else {
+            switch (nullToEmpty(text(argument.get("type")))) {
+                case "key":
+                    description.append("key name");
+                    break;
+                case "pattern":
+                    description.append("glob-style pattern");
+                    break;
+                case "integer":
+                    description.append("integer");
+                    break;
+                case "double":
+                    description.append("floating point number");
+                    break;
+                case "unix-time":
+                    description.append("Unix time");
+                    break;
+                case "pure-token":
+                    description.append(text(argument.get("token"))).append(" flag");
+                    break;
+                case "oneof":
+                    description.append("one of ").append(join(argument.get("arguments"), " | "));
+                    break;
+                case "block":
+                    description.append(join(argument.get("arguments"), " "));
+                    break;
+                default:
+                    description.append("string");
+                    break;
+            }
+        }
+        if (texts(argument.get("flags")).contains("optional")) {
+            description.append(" (optional)");
+        }
+        String since = text(argument.get("since"));
+        if (since != null) {
+            description.append(" (since ").append(since).append(')');
+        }
+        return description.toString();
+    }
+
+    /**
+     * Describe a key spec, e.g. "RW UPDATE: index 1, range to 0 step 1"
+     */
+    private static String describeKeySpec(Map<String, Object> keySpec) {
+        StringBuilder description = new StringBuilder(String.join(" ", texts(keySpec.get("flags"))));
+        Map<String, Object> beginSearch = map(keySpec.get("begin_search"));
+        Map<String, Object> begin = map(beginSearch.get("spec"));
+        description.append(description.length() > 0 ? ": " : "");
+        switch (nullToEmpty(text(beginSearch.get("type")))) {
+            case "index":
+                description.append("index ").append(text(begin.get("index")));
+                break;
+            case "keyword":
+                description.append("after ").append(text(begin.get("keyword")))
+                        .append(" from ").append(text(begin.get("startfrom")));
+                break;
+            default:
+                description.append("unknown start");
+                break;
+        }
+        Map<String, Object> findKeys = map(keySpec.get("find_keys"));
+        Map<String, Object> find = map(findKeys.get("spec"));
+        switch (nullToEmpty(text(findKeys.get("type")))) {
+            case "range":
+                description.append(", range to ").append(text(find.get("lastkey")))
+                        .append(" step ").append(text(find.get("keystep")));
+                String limit = text(find.get("limit"));
+                if (limit != null && !"0".equals(limit)) {
+                    description.append(" limit ").append(limit);
+                }
+                break;
+            case "keynum":
+                description.append(", count at ").append(text(find.get("keynumidx")))
+                        .append(" first ").append(text(find.get("firstkey")))
+                        .append(" step ").append(text(find.get("keystep")));
+                break;
+            default:
+                description.append(", unknown keys");
+                break;
+        }
+        return description.toString();
+    }
+
+    private static String join(Object arguments, String separator) {
+        List<String> rendered = new ArrayList<>();
+        for (Object argument : list(arguments)) {
+            rendered.add(render(map(argument)));
+        }
+        return String.join(separator, rendered);
+    }
+
+    private static String nullToEmpty(String text) {
+        return text == null ? "" : text;
+    }
+
+    static String text(Object reply) {
+        if (reply == null) {
+            return null;
+        }
+        if (reply instanceof byte[]) {
+            return new String((byte[]) reply, StandardCharsets.UTF_8);
+        }
+        return reply.toString();
+    }
+
+    static int integer(Object reply) {
+        if (reply instanceof Number) {
+            return ((Number) reply).intValue();
+        }
+        String text = text(reply);
+        return text == null ? 0 : Integer.parseInt(text);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Object> list(Object reply) {
+        return reply instanceof List ? (List<Object>) reply : Collections.emptyList();
+    }
+
+    static List<String> texts(Object reply) {
+        List<String> texts = new ArrayList<>();
+        for (Object element : list(reply)) {
+            texts.add(text(element));
+        }
+        return texts;
+    }
+
+    static Map<String, Object> map(Object reply) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (reply instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) reply).entrySet()) {
+                map.put(text(entry.getKey()), entry.getValue());
+            }
+            return map;
+        }
+        List<Object> list = list(reply);
+        for (int i = 0; i + 1 < list.size(); i += 2) {
+            map.put(text(list.get(i)), list.get(i + 1));
+        }
+        return map;
+    }
+}
@@ -0,0 +1,94 @@
+package com.redis.plugin.service.catalog;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.service.util.Trigrams;
+import com.redis.plugin.service.util.Trigrams.Postings;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Index of the text of catalog commands, to find those whose name, description or syntax
+ * contains a search.
+ * <p>
+ * The text of each command is lowercased once, and every three-character sequence in it
+ * maps to the sorted ids of the commands containing it. A search of three characters or more
+ * intersects the lists of its own sequences, rarest first, and checks the few remaining
+ * commands with {@link String#contains}; shorter searches scan the lowercased texts.
+ * Trigrams and posting lists are the shared {@link Trigrams} ones, as in the command history.
+ * Immutable once built, so it can be searched from any thread.
+ */
+public class CommandSearchIndex {
+    private final String[] texts;
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+
+    /**
+     * @param commands the commands to index, a command's id being its position in the list
+     */
+    public CommandSearchIndex(List<RedisCommand> commands) {
+        texts = new String[commands.size()];
+        for (int id = 0; id < texts.length; id++) {
+            RedisCommand command = commands.get(id);
+            // Line breaks keep a search from matching across two fields
+            String text = (command.getName() + "\n" + command.getDescription() + "\n" + command.getSyntax()).toLowerCase(Locale.ROOT);
+            texts[id] = text;
+            for (long trigram : Trigrams.of(text)) {
+                trigrams.computeIfAbsent(trigram, t -> new Postings()).add(id);
+            }
+        }
+        for (Postings ids : trigrams.values()) {
+            ids.trim();
+        }
+    }
+
+    public int size() {
+        return texts.length;
+    }
+
+    /**
+     * @param search the text to look for, in any case; blank matches every command
+     * @return the ids of the commands containing it
+     */
+    public BitSet search(String search) {
+        String query = search == null ? "" : search.trim().toLowerCase(Locale.ROOT);
+        BitSet matches = new BitSet(texts.length);
+        if (query.isEmpty()) {
+            matches.set(0, texts.length);
+            return matches;
+        }
+        if (query.length() < 3) {
+            for (int id = 0; id < texts.length; id++) {
+                if (texts[id].contains(query)) {
+                    matches.set(id);
+                }
+            }
+            return matches;
+        }
+
+        List<Postings> lists = new ArrayList<>();
+        for (long trigram : Trigrams.of(query)) {
+            Postings ids = trigrams.get(trigram);
+            if (ids == null) {
+                return matches;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Postings::size));
+        int[] candidates = lists.get(0).toArray();
+        int count = candidates.length;
+        for (int l = 1; l < lists.size() && count > 0; l++) {
+            count = Trigrams.intersect(candidates, count, lists.get(l));
+        }
+        for (int i = 0; i < count; i++) {
+            if (texts[candidates[i]].contains(query)) {
+                matches.set(candidates[i]);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,254 @@
+package com.redis.plugin.service.completion;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisCommandCategory;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Completes the word being typed in the command editor from the command catalog and a key
+ * sample.
+ * <p>
+ * Command names, including two-word ones such as {@code CONFIG GET}, come from a
+ * {@link CompletionTrie} built once from the catalog. Once the command is known, its syntax
+ * tells which arguments are keys, completed from a {@link KeySampler}, and which option
+ * keywords it takes, each command having its own trie of them. The key positions reported by
+ * the server take precedence over the syntax when the catalog was read from it. Candidates are ranked by how
+ * often they appear in the command history, then alphabetically.
+ */
+public class CommandCompleter {
+    /**
+     * Candidates looked up per kind before ranking
+     */
+    private static final int CANDIDATES = 200;
+
+    /**
+     * Upper case words of a syntax, which are the literal keywords of a command
+     */
+    private static final Pattern KEYWORD = Pattern.compile("(?<![\\w-])[A-Z][A-Z0-9_-]*(?![\\w-])");
+
+    private static final Set<String> KEY_PARAMETERS = Set.of("key", "source", "destination", "newkey");
+
+    private final CompletionTrie names = new CompletionTrie(true);
+    private final Map<String, Syntax> syntaxes = new HashMap<>();
+
+    public CommandCompleter(List<RedisCommandCategory> categories) {
+        for (RedisCommandCategory category : categories) {
+            for (RedisCommand command : category.getCommands()) {
+                String name = command.getName().toUpperCase(Locale.ROOT);
+                names.add(name);
+                syntaxes.put(name, new Syntax(name, command));
+            }
+        }
+    }
+
+    /**
+     * @param text the text of the editor
+     * @param caret the caret offset, where the word being completed ends
+     * @param keys sample to complete key names from, or null when not connected
+     * @param usage how often words appear in the command history
+     * @param limit maximum number of completions returned
+     * @return completions, most used first
+     */
+    public List<Completion> complete(String text, int caret, @Nullable KeySampler keys, Usage usage, int limit) {
+        int lineStart = text.lastIndexOf('\n', caret - 1) + 1;
+        String line = text.substring(lineStart, caret);
+        int tokenStart = lastWhitespace(line) + 1;
+        String prefix = line.substring(tokenStart);
+        int start = lineStart + tokenStart;
+        List<String> words = split(line.substring(0, tokenStart));
+
+        List<Ranked> ranked = new ArrayList<>();
+        if (words.isEmpty()) {
+            for (String name : names.startingWith(prefix, CANDIDATES)) {
+                ranked.add(new Ranked(new Completion(matchCase(name, prefix), Completion.Kind.COMMAND, syntaxes.get(name).text, start),
+                        count(usage.commands, name)));
+            }
+            return best(ranked, limit);
+        }
+
+        if (words.size() == 1) {
+            // Second word of a command such as CONFIG GET
+            String first = words.get(0).toUpperCase(Locale.ROOT);
+            for (String name : names.startingWith(first + " " + prefix, CANDIDATES)) {
+                ranked.add(new Ranked(new Completion(matchCase(name.substring(first.length() + 1), prefix), Completion.Kind.COMMAND,
+                        syntaxes.get(name).text, start), count(usage.commands, name)));
+            }
+        }
+        String name = resolve(words);
+        if (name != null) {
+            Syntax syntax = syntaxes.get(name);
+            int argument = words.size() - syntax.nameWords;
+            if (keys != null && syntax.isKey(argument)) {
+                for (String key : keys.complete(prefix, CANDIDATES)) {
+                    ranked.add(new Ranked(new Completion(key, Completion.Kind.KEY, null, start), count(usage.keys, key)));
+                }
+            }
+            if (argument >= syntax.positional.size()) {
+                Set<String> typed = new HashSet<>();
+                for (String word : words) {
+                    typed.add(word.toUpperCase(Locale.ROOT));
+                }
+                for (String option : syntax.options.startingWith(prefix, CANDIDATES)) {
+                    if (!typed.contains(option)) {
+                        ranked.add(new Ranked(new Completion(matchCase(option, prefix), Completion.Kind.OPTION, null, start),
+                                count(usage.options, option)));
+                    }
+                }
+            }
+        }
+        return best(ranked, limit);
+    }
+
+    /**
+     * Count how often command names, option keywords and keys appear in the history
+     *
+     * @param history commands, most recent first
+     */
+    public Usage usage(List<String> history) {
+        Usage usage = new Usage();
+        for (String command : history) {
+            List<String> words = split(command);
+            String name = resolve(words);
+            int nameWords = name == null ? Math.min(1, words.size()) : syntaxes.get(name).nameWords;
+            if (name != null) {
+                usage.commands.merge(name, 1, Integer::sum);
+            }
+            for (int i = nameWords; i < words.size(); i++) {
+                usage.keys.merge(words.get(i), 1, Integer::sum);
+                usage.options.merge(words.get(i).toUpperCase(Locale.ROOT), 1, Integer::sum);
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * @return the catalog name of the command the words start with, or null
+     */
+    private String resolve(List<String> words) {
+        if (words.isEmpty()) {
+            return null;
+        }
+        String first = words.get(0).toUpperCase(Locale.ROOT);
+        if (words.size() > 1) {
+            String both = first + " " + words.get(1).toUpperCase(Locale.ROOT);
+            if (syntaxes.containsKey(both)) {
+                return both;
+            }
+        }
+        return syntaxes.containsKey(first) ? first : null;
+    }
+
+    private static List<Completion> best(List<Ranked> ranked, int limit) {
+        // Stable, so equally used words stay in alphabetical order
+        ranked.sort(Comparator.comparingInt((Ranked r) -> r.count).reversed());
+        List<Completion> completions = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && completions.size() < limit; i++) {
+            completions.add(ranked.get(i).completion);
+        }
+        return completions;
+    }
+
+    /**
+     * @return the keyword in lower case if that is how the user is typing it
+     */
+    private static String matchCase(String keyword, String prefix) {
+        return !prefix.isEmpty() && prefix.equals(prefix.toLowerCase(Locale.ROOT)) ? keyword.toLowerCase(Locale.ROOT) : keyword;
+    }
+
+    private static int count(Map<String, Integer> counts, String word) {
+        return counts.getOrDefault(word, 0);
+    }
+
+    private static int lastWhitespace(String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> split(String text) {
+        String trimmed = text.trim();
+        return trimmed.isEmpty() ? Collections.emptyList() : Arrays.asList(trimmed.split("\\s+"));
+    }
+
+    /**
+     * How often words appear in the command history
+     */
+    public static class Usage {
+        public static final Usage NONE = new Usage();
+
+        private final Map<String, Integer> commands = new HashMap<>();
+        private final Map<String, Integer> options = new HashMap<>();
+        private final Map<String, Integer> keys = new HashMap<>();
+    }
+
+    /**
+     * Arguments of a command, from its syntax in the catalog
+     */
+    private static class Syntax {
+        final String text;
+        final int nameWords;
+        final List<String> positional;
+        final boolean repeatedKeys;
+        final int firstKey;
+        final int lastKey;
+        final int keyStep;
+        final CompletionTrie options = new CompletionTrie(true);
+
+        Syntax(String name, RedisCommand command) {
+            String text = command.getSyntax();
+            this.text = text;
+            this.firstKey = command.getFirstKey();
+            this.lastKey = command.getLastKey();
+            this.keyStep = Math.max(1, command.getKeyStep());
+            this.nameWords = name.split(" ").length;
+            String arguments = text.regionMatches(true, 0, name, 0, name.length()) ? text.substring(name.length()) : text;
+            int optional = arguments.indexOf('[');
+            this.positional = split(optional < 0 ? arguments : arguments.substring(0, optional));
+            this.repeatedKeys = arguments.contains("[key ...]");
+            Matcher matcher = KEYWORD.matcher(arguments);
+            while (matcher.find()) {
+                options.add(matcher.group());
+            }
+        }
+
+        boolean isKey(int argument) {
+            if (firstKey > 0) {
+                // Positions count the command name words, which arguments do not
+                int position = argument + nameWords;
+                return position >= firstKey
+                        && (lastKey < 0 || position <= lastKey)
+                        && (position - firstKey) % keyStep == 0;
+            }
+            if (argument < positional.size()) {
+                return KEY_PARAMETERS.contains(positional.get(argument));
+            }
+            return repeatedKeys;
+        }
+    }
+
+    private static class Ranked {
+        final Completion completion;
+        final int count;
+
+        Ranked(Completion completion, int count) {
+            this.completion = completion;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.redis.plugin.service.completion;
+
+/**
+ * A completion proposed for the word being typed
+ */
+public class Completion {
+    public enum Kind {
+        COMMAND,
+        OPTION,
+        KEY
+    }
+
+    private final String text;
+    private final Kind kind;
+    private final String hint;
+    private final int start;
+
+    /**
+     * @param text the word to insert
+     * @param kind what the word is
+     * @param hint short description shown next to it, or null
+     * @param start offset of the word being typed, replaced up to the caret
+     */
+    public Completion(String text, Kind kind, String hint, int start) {
+        this.text = text;
+        this.kind = kind;
+        this.hint = hint;
+        this.start = start;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getHint() {
+        return hint;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
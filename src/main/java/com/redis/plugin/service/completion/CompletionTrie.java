@@ -0,0 +1,120 @@
+package com.redis.plugin.service.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prefix tree of words to complete.
+ * <p>
+ * Children are kept in sorted parallel arrays, which is compact for the few thousand short
+ * words of a catalog or a key sample, and makes the words come out in alphabetical order.
+ * Not thread-safe; build it on one thread and publish it before reading it on another.
+ */
+public class CompletionTrie {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final boolean ignoreCase;
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * @param ignoreCase whether prefixes match words in any case, as for command names
+     */
+    public CompletionTrie(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    /**
+     * @return whether the word was new
+     */
+    public boolean add(String word) {
+        String path = normalize(word);
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.childOrCreate(path.charAt(i));
+        }
+        if (node.word != null) {
+            return false;
+        }
+        node.word = word;
+        size++;
+        return true;
+    }
+
+    public boolean contains(String word) {
+        Node node = find(word);
+        return node != null && node.word != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param limit maximum number of words returned
+     * @return words starting with the prefix, in alphabetical order
+     */
+    public List<String> startingWith(String prefix, int limit) {
+        List<String> words = new ArrayList<>();
+        Node node = find(prefix);
+        if (node != null && limit > 0) {
+            collect(node, limit, words);
+        }
+        return words;
+    }
+
+    private Node find(String prefix) {
+        String path = normalize(prefix);
+        Node node = root;
+        for (int i = 0; i < path.length() && node != null; i++) {
+            node = node.child(path.charAt(i));
+        }
+        return node;
+    }
+
+    private static void collect(Node node, int limit, List<String> words) {
+        if (node.word != null) {
+            words.add(node.word);
+        }
+        for (int i = 0; i < node.keys.length && words.size() < limit; i++) {
+            collect(node.children[i], limit, words);
+        }
+    }
+
+    private String normalize(String word) {
+        return ignoreCase ? word.toUpperCase(Locale.ROOT) : word;
+    }
+
+    private static class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        String word;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int at = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, keys.length - at);
+            newKeys[at] = c;
+            newChildren[at] = new Node();
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[at];
+        }
+    }
+}
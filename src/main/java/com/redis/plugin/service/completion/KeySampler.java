@@ -0,0 +1,191 @@
+package com.redis.plugin.service.completion;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sample of the key names of the current database, for completion.
+ * <p>
+ * The sample is filled by {@code SCAN} on a dedicated connection, one page at a time: a page
+ * is fetched when completing if the last one is older than {@link #REFRESH_INTERVAL_MILLIS},
+ * so the sample follows the keyspace without polling it. Once a pass over the keyspace ends,
+ * or has seen {@link #MAX_KEYS} keys, the sample is rebuilt from the keys seen in that pass,
+ * which drops deleted keys; on larger keyspaces the cursor carries on, so successive samples
+ * cover different keys. When the sample has fewer completions than asked for a prefix,
+ * {@code SCAN MATCH prefix*} looks for more keys starting with it for a bounded time.
+ * <p>
+ * Calls block on the server and must run off the EDT.
+ */
+public class KeySampler implements Closeable {
+    private static final Logger LOG = Logger.getInstance(KeySampler.class);
+
+    /**
+     * Keys kept in the sample
+     */
+    public static final int MAX_KEYS = 20_000;
+
+    /**
+     * Minimum time between two pages of the sampling scan
+     */
+    public static final long REFRESH_INTERVAL_MILLIS = 2_000;
+
+    /**
+     * Time spent filling an empty sample before the first completion
+     */
+    private static final long INITIAL_SCAN_MILLIS = 50;
+    private static final int SCAN_COUNT = 1000;
+
+    /**
+     * Time spent looking for the keys starting with a prefix missing from the sample
+     */
+    private static final long PREFIX_SCAN_MILLIS = 200;
+    private static final int MAX_SCANNED_PREFIXES = 64;
+
+    private final RedisConnection connection;
+    private final Map<String, Boolean> scannedPrefixes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_SCANNED_PREFIXES;
+        }
+    };
+    private Jedis jedis;
+    private CompletionTrie sample = new CompletionTrie(false);
+    private Set<String> pass = new HashSet<>();
+    private String cursor = ScanParams.SCAN_POINTER_START;
+    private boolean passFromStart = true;
+    private boolean complete;
+    private long lastPage;
+    private boolean closed;
+
+    public KeySampler(RedisConnection connection) {
+        this.connection = connection;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * @param limit maximum number of keys returned
+     * @return sampled keys starting with the prefix, in alphabetical order
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        if (closed) {
+            return List.of();
+        }
+        try {
+            if (lastPage == 0) {
+                long deadline = System.currentTimeMillis() + INITIAL_SCAN_MILLIS;
+                do {
+                    nextPage();
+                } while (!complete && pass.size() < MAX_KEYS && System.currentTimeMillis() < deadline);
+            } else if (System.currentTimeMillis() - lastPage >= REFRESH_INTERVAL_MILLIS) {
+                nextPage();
+            }
+            List<String> keys = sample.startingWith(prefix, limit);
+            if (keys.size() < limit && !complete && !prefix.isEmpty() && scannedPrefixes.put(prefix, Boolean.TRUE) == null) {
+                scanPrefix(prefix, limit);
+                keys = sample.startingWith(prefix, limit);
+            }
+            return keys;
+        } catch (JedisException e) {
+            LOG.debug("Could not sample keys of " + connection.getName(), e);
+            disconnect();
+            return sample.startingWith(prefix, limit);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        disconnect();
+    }
+
+    private void nextPage() {
+        ScanResult<String> page = client().scan(cursor, new ScanParams().count(SCAN_COUNT));
+        lastPage = System.currentTimeMillis();
+        for (String key : page.getResult()) {
+            if (pass.size() < MAX_KEYS && pass.add(key)) {
+                sample.add(key);
+            }
+        }
+        cursor = page.getCursor();
+        boolean passEnded = ScanParams.SCAN_POINTER_START.equals(cursor);
+        if (passEnded || pass.size() >= MAX_KEYS) {
+            // Only a pass from the start of the keyspace to its end has seen every key
+            complete = passEnded && passFromStart && pass.size() < MAX_KEYS;
+            passFromStart = passEnded;
+            CompletionTrie rebuilt = new CompletionTrie(false);
+            for (String key : pass) {
+                rebuilt.add(key);
+            }
+            sample = rebuilt;
+            pass = new HashSet<>();
+            scannedPrefixes.clear();
+        }
+    }
+
+    private void scanPrefix(String prefix, int limit) {
+        ScanParams params = new ScanParams().match(escapeGlob(prefix) + "*").count(SCAN_COUNT);
+        String prefixCursor = ScanParams.SCAN_POINTER_START;
+        int found = 0;
+        long deadline = System.currentTimeMillis() + PREFIX_SCAN_MILLIS;
+        while (found < limit && System.currentTimeMillis() < deadline) {
+            ScanResult<String> page = client().scan(prefixCursor, params);
+            for (String key : page.getResult()) {
+                if (sample.add(key)) {
+                    found++;
+                }
+            }
+            prefixCursor = page.getCursor();
+            if (ScanParams.SCAN_POINTER_START.equals(prefixCursor)) {
+                break;
+            }
+        }
+    }
+
+    private Jedis client() {
+        if (jedis == null) {
+            jedis = JedisRedisService.createClient(connection);
+        }
+        return jedis;
+    }
+
+    private void disconnect() {
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing key sampling connection", e);
+            }
+            jedis = null;
+        }
+    }
+
+    /**
+     * @return the text matching itself literally in a {@code SCAN MATCH} pattern
+     */
+    static String escapeGlob(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 4);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package com.redis.plugin.service.embedded;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * State of one connection to the embedded server. Only touched by the server thread.
+ * <p>
+ * Replies are encoded into {@link #encoder} while commands run, then moved to the output
+ * queue stamped with the time they may be sent, which is how the artificial latency delays
+ * them without holding up other clients.
+ */
+class EmbeddedClient {
+    final long id;
+    final SocketChannel channel;
+    final SelectionKey selectionKey;
+    final String address;
+    final long createdMillis = System.currentTimeMillis();
+    final RespDecoder decoder = new RespDecoder();
+    final RespEncoder encoder = new RespEncoder();
+    final Set<String> channels = new HashSet<>();
+    final Set<String> patterns = new HashSet<>();
+
+    int database;
+    String name = "";
+    boolean authenticated;
+    boolean closeAfterWrite;
+    long lastCommandMillis = createdMillis;
+    String lastCommand = "NULL";
+
+    private final ArrayDeque<Pending> output = new ArrayDeque<>();
+    private long pendingBytes;
+
+    EmbeddedClient(long id, SocketChannel channel, SelectionKey selectionKey, String address) {
+        this.id = id;
+        this.channel = channel;
+        this.selectionKey = selectionKey;
+        this.address = address;
+    }
+
+    boolean isSubscribed() {
+        return !channels.isEmpty() || !patterns.isEmpty();
+    }
+
+    int subscriptions() {
+        return channels.size() + patterns.size();
+    }
+
+    /**
+     * Move what the last commands encoded to the output queue
+     * @param dueNanos when the replies may be written, in {@link System#nanoTime()} terms
+     */
+    void queueReplies(long dueNanos) {
+        if (encoder.isEmpty()) {
+            return;
+        }
+        ByteBuffer bytes = encoder.drain();
+        pendingBytes += bytes.remaining();
+        output.add(new Pending(bytes, dueNanos));
+    }
+
+    boolean hasOutput() {
+        return !output.isEmpty();
+    }
+
+    long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * @return when the next queued reply may be written, or Long.MAX_VALUE if none is queued
+     */
+    long nextDueNanos() {
+        Pending head = output.peek();
+        return head == null ? Long.MAX_VALUE : head.dueNanos;
+    }
+
+    /**
+     * Write the queued replies that are due, as far as the socket accepts them
+     * @return true if everything due was written, false if the socket is full
+     */
+    boolean writeDue(long nowNanos) throws IOException {
+        Pending head;
+        while ((head = output.peek()) != null && head.dueNanos - nowNanos <= 0) {
+            int written = channel.write(head.bytes);
+            pendingBytes -= written;
+            if (head.bytes.hasRemaining()) {
+                return false;
+            }
+            output.poll();
+        }
+        return true;
+    }
+
+    private static class Pending {
+        final ByteBuffer bytes;
+        final long dueNanos;
+
+        Pending(ByteBuffer bytes, long dueNanos) {
+            this.bytes = bytes;
+            this.dueNanos = dueNanos;
+        }
+    }
+}
@@ -0,0 +1,1447 @@
+package com.redis.plugin.service.embedded;
+
+import com.redis.plugin.service.monitor.MonitorFilter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Commands of the embedded server. Each runs on the server thread against the client's
+ * database and encodes its reply, with the same replies and error messages as Redis.
+ * <p>
+ * Supported:
+ * <ul>
+ *     <li>Connection and server: PING, ECHO, HELLO, AUTH, SELECT, QUIT, RESET, CLIENT, INFO,
+ *     DBSIZE, FLUSHDB, FLUSHALL, TIME, COMMAND, CONFIG GET, SLOWLOG, MEMORY USAGE,
+ *     OBJECT ENCODING, DEBUG SLEEP and DEBUG POPULATE</li>
+ *     <li>Keys: TYPE, DEL, UNLINK, EXISTS, EXPIRE, PEXPIRE, EXPIREAT, PEXPIREAT, TTL, PTTL,
+ *     PERSIST, KEYS, SCAN, RANDOMKEY, RENAME</li>
+ *     <li>Strings: GET, SET, SETEX, PSETEX, GETDEL, MGET, MSET, INCR, INCRBY, DECR, DECRBY, APPEND, STRLEN</li>
+ *     <li>Hashes: HSET, HMSET, HGET, HMGET, HGETALL, HDEL, HLEN, HKEYS, HVALS, HEXISTS, HINCRBY, HSCAN</li>
+ *     <li>Lists: LPUSH, RPUSH, LPOP, RPOP, LRANGE, LLEN, LINDEX</li>
+ *     <li>Sets: SADD, SREM, SMEMBERS, SISMEMBER, SCARD, SSCAN</li>
+ *     <li>Sorted sets: ZADD, ZREM, ZSCORE, ZCARD, ZRANGE, ZREVRANGE, ZRANGEBYSCORE, ZINCRBY, ZSCAN</li>
+ *     <li>Pub/Sub: SUBSCRIBE, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, PUBLISH, PUBSUB</li>
+ * </ul>
+ * Blocking commands, transactions, scripting, streams and replication are not.
+ */
+class EmbeddedCommands {
+    static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+    static final String NOT_INTEGER = "value is not an integer or out of range";
+    static final String NOT_FLOAT = "value is not a valid float";
+    static final String SYNTAX = "syntax error";
+
+    /**
+     * Commands still allowed on a RESP2 connection once it has subscribed
+     */
+    private static final Set<String> SUBSCRIBED_COMMANDS = Set.of(
+            "SUBSCRIBE", "UNSUBSCRIBE", "PSUBSCRIBE", "PUNSUBSCRIBE", "PING", "QUIT", "RESET");
+
+    /**
+     * Commands that can run before AUTH when a password is required
+     */
+    private static final Set<String> NO_AUTH_COMMANDS = Set.of("AUTH", "HELLO", "QUIT", "RESET");
+
+    private final EmbeddedRedisServer server;
+    private final Map<String, Command> commands = new HashMap<>();
+
+    private long totalCommands;
+    private long keyspaceHits;
+    private long keyspaceMisses;
+    private long opsPerSecond;
+    private long lastSampleCommands;
+    private long lastSampleNanos = System.nanoTime();
+
+    EmbeddedCommands(EmbeddedRedisServer server) {
+        this.server = server;
+        registerConnectionCommands();
+        registerKeyCommands();
+        registerStringCommands();
+        registerHashCommands();
+        registerListCommands();
+        registerSetCommands();
+        registerSortedSetCommands();
+        registerPubSubCommands();
+    }
+
+    /**
+     * Run one command and encode its reply into the client's encoder
+     */
+    void execute(EmbeddedClient client, String[] args) {
+        String name = args[0].toUpperCase(Locale.ROOT);
+        RespEncoder out = client.encoder;
+        client.lastCommandMillis = System.currentTimeMillis();
+        client.lastCommand = name.toLowerCase(Locale.ROOT);
+        Command command = commands.get(name);
+        if (command == null) {
+            StringBuilder message = new StringBuilder("unknown command '").append(args[0])
+                    .append("', with args beginning with: ");
+            for (int i = 1; i < args.length; i++) {
+                message.append('\'').append(args[i]).append("' ");
+            }
+            out.error(message.toString());
+            return;
+        }
+        if (command.arity > 0 ? args.length != command.arity : args.length < -command.arity) {
+            out.error("wrong number of arguments for '" + args[0].toLowerCase(Locale.ROOT) + "' command");
+            return;
+        }
+        if (!client.authenticated && !NO_AUTH_COMMANDS.contains(name)) {
+            out.error("NOAUTH Authentication required.");
+            return;
+        }
+        if (client.isSubscribed() && out.getProtocol() < 3 && !SUBSCRIBED_COMMANDS.contains(name)) {
+            out.error("Can't execute '" + args[0].toLowerCase(Locale.ROOT) + "': only (P|S)SUBSCRIBE / "
+                    + "(P|S)UNSUBSCRIBE / PING / QUIT / RESET are allowed in this context");
+            return;
+        }
+        totalCommands++;
+        try {
+            command.handler.run(client, args);
+        } catch (CommandException e) {
+            out.error(e.getMessage());
+        }
+    }
+
+    /**
+     * Sample the command counter for instantaneous_ops_per_sec
+     */
+    void cron(long nowNanos) {
+        long elapsed = nowNanos - lastSampleNanos;
+        if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+            opsPerSecond = (totalCommands - lastSampleCommands) * TimeUnit.SECONDS.toNanos(1) / elapsed;
+            lastSampleCommands = totalCommands;
+            lastSampleNanos = nowNanos;
+        }
+    }
+
+    /**
+     * Create string keys prefix:0 to prefix:N-1, leaving existing keys alone, as DEBUG POPULATE does
+     */
+    void populate(EmbeddedKeyspace database, long count, String prefix, int valueSize) {
+        for (long i = 0; i < count; i++) {
+            String key = prefix + ":" + i;
+            if (database.exists(key)) {
+                continue;
+            }
+            String value = "value:" + i;
+            if (valueSize > 0) {
+                char[] padded = Arrays.copyOf(value.toCharArray(), valueSize);
+                value = new String(padded);
+            }
+            database.put(key, value);
+        }
+    }
+
+    private void register(String name, int arity, Handler handler) {
+        commands.put(name, new Command(arity, handler));
+    }
+
+    // Connection and server
+
+    private void registerConnectionCommands() {
+        register("PING", -1, (client, args) -> {
+            if (args.length > 2) {
+                throw new CommandException("wrong number of arguments for 'ping' command");
+            }
+            RespEncoder out = client.encoder;
+            if (client.isSubscribed() && out.getProtocol() < 3) {
+                out.arrayHeader(2).bulk("pong").bulk(args.length == 2 ? args[1] : "");
+            } else if (args.length == 2) {
+                out.bulk(args[1]);
+            } else {
+                out.simple("PONG");
+            }
+        });
+        register("ECHO", 2, (client, args) -> client.encoder.bulk(args[1]));
+        register("QUIT", -1, (client, args) -> {
+            client.encoder.ok();
+            client.closeAfterWrite = true;
+        });
+        register("RESET", 1, (client, args) -> {
+            unsubscribe(client, new String[]{"UNSUBSCRIBE"}, false, false);
+            unsubscribe(client, new String[]{"PUNSUBSCRIBE"}, true, false);
+            client.encoder.setProtocol(2);
+            client.database = 0;
+            client.name = "";
+            client.authenticated = server.getPassword() == null;
+            client.encoder.simple("RESET");
+        });
+        register("AUTH", -2, (client, args) -> {
+            if (args.length > 3) {
+                throw new CommandException(SYNTAX);
+            }
+            authenticate(client, args[args.length - 1]);
+            client.encoder.ok();
+        });
+        register("HELLO", -1, this::hello);
+        register("SELECT", 2, (client, args) -> {
+            int index = parseInt(args[1]);
+            if (index < 0 || index >= EmbeddedRedisServer.DATABASES) {
+                throw new CommandException("DB index is out of range");
+            }
+            client.database = index;
+            client.encoder.ok();
+        });
+        register("CLIENT", -2, this::client);
+        register("INFO", -1, (client, args) -> client.encoder.bulk(info(args)));
+        register("DBSIZE", 1, (client, args) -> client.encoder.integer(db(client).size()));
+        register("FLUSHDB", -1, (client, args) -> {
+            db(client).clear();
+            client.encoder.ok();
+        });
+        register("FLUSHALL", -1, (client, args) -> {
+            for (EmbeddedKeyspace database : server.databases()) {
+                database.clear();
+            }
+            client.encoder.ok();
+        });
+        register("TIME", 1, (client, args) -> {
+            long micros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+            client.encoder.arrayHeader(2).bulk(Long.toString(micros / 1_000_000)).bulk(Long.toString(micros % 1_000_000));
+        });
+        register("COMMAND", -1, (client, args) -> {
+            String sub = args.length > 1 ? args[1].toUpperCase(Locale.ROOT) : "";
+            switch (sub) {
+                case "COUNT":
+                    client.encoder.integer(commands.size());
+                    break;
+                case "DOCS":
+                    client.encoder.mapHeader(0);
+                    break;
+                default:
+                    client.encoder.arrayHeader(0);
+            }
+        });
+        register("CONFIG", -2, (client, args) -> {
+            if (!args[1].equalsIgnoreCase("GET")) {
+                throw new CommandException("CONFIG " + args[1] + " is not supported by the embedded server");
+            }
+            client.encoder.mapHeader(0);
+        });
+        register("SLOWLOG", -2, (client, args) -> {
+            switch (args[1].toUpperCase(Locale.ROOT)) {
+                case "GET":
+                    client.encoder.arrayHeader(0);
+                    break;
+                case "LEN":
+                    client.encoder.integer(0);
+                    break;
+                case "RESET":
+                    client.encoder.ok();
+                    break;
+                default:
+                    throw new CommandException("unknown subcommand '" + args[1] + "'. Try SLOWLOG HELP.");
+            }
+        });
+        register("MEMORY", -2, (client, args) -> {
+            if (!args[1].equalsIgnoreCase("USAGE") || args.length < 3) {
+                throw new CommandException("unknown subcommand '" + args[1] + "'. Try MEMORY HELP.");
+            }
+            Object value = db(client).get(args[2]);
+            if (value == null) {
+                client.encoder.nullValue();
+            } else {
+                client.encoder.integer(EmbeddedKeyspace.estimateSize(args[2], value));
+            }
+        });
+        register("OBJECT", -2, (client, args) -> {
+            if (!args[1].equalsIgnoreCase("ENCODING") || args.length != 3) {
+                throw new CommandException("unknown subcommand '" + args[1] + "'. Try OBJECT HELP.");
+            }
+            Object value = db(client).get(args[2]);
+            client.encoder.bulk(value == null ? null : encodingOf(value));
+        });
+        register("DEBUG", -2, this::debug);
+    }
+
+    private void authenticate(EmbeddedClient client, String password) throws CommandException {
+        String required = server.getPassword();
+        if (required != null && !required.equals(password)) {
+            throw new CommandException("WRONGPASS invalid username-password pair or user is disabled.");
+        }
+        client.authenticated = true;
+    }
+
+    private void hello(EmbeddedClient client, String[] args) throws CommandException {
+        int protocol = client.encoder.getProtocol();
+        if (args.length > 1) {
+            protocol = parseInt(args[1]);
+            if (protocol < 2 || protocol > 3) {
+                throw new CommandException("NOPROTO unsupported protocol version");
+            }
+        }
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals("AUTH") && i + 2 < args.length) {
+                authenticate(client, args[i + 2]);
+                i += 2;
+            } else if (option.equals("SETNAME") && i + 1 < args.length) {
+                client.name = args[++i];
+            } else {
+                throw new CommandException("Syntax error in HELLO option '" + args[i] + "'");
+            }
+        }
+        if (!client.authenticated) {
+            throw new CommandException("NOAUTH HELLO must be called with the client already authenticated, "
+                    + "otherwise the HELLO <proto> AUTH <user> <pass> option can be used to authenticate "
+                    + "the client and select the RESP protocol version at the same time");
+        }
+        RespEncoder out = client.encoder;
+        out.setProtocol(protocol);
+        out.mapHeader(7);
+        out.bulk("server").bulk("redis");
+        out.bulk("version").bulk(EmbeddedInfo.VERSION);
+        out.bulk("proto").integer(protocol);
+        out.bulk("id").integer(client.id);
+        out.bulk("mode").bulk("standalone");
+        out.bulk("role").bulk("master");
+        out.bulk("modules").arrayHeader(0);
+    }
+
+    private void client(EmbeddedClient client, String[] args) throws CommandException {
+        RespEncoder out = client.encoder;
+        switch (args[1].toUpperCase(Locale.ROOT)) {
+            case "SETNAME":
+                arity(args, 3);
+                client.name = args[2];
+                out.ok();
+                break;
+            case "GETNAME":
+                out.bulk(client.name.isEmpty() ? null : client.name);
+                break;
+            case "ID":
+                out.integer(client.id);
+                break;
+            case "SETINFO":
+                arity(args, 4);
+                out.ok();
+                break;
+            case "LIST":
+                StringBuilder list = new StringBuilder();
+                for (EmbeddedClient other : server.clients()) {
+                    list.append(EmbeddedInfo.describe(other)).append('\n');
+                }
+                out.bulk(list.toString());
+                break;
+            case "INFO":
+                out.bulk(EmbeddedInfo.describe(client) + "\n");
+                break;
+            case "KILL":
+                int killed = 0;
+                for (EmbeddedClient other : new ArrayList<>(server.clients())) {
+                    if (args.length == 3 ? other.address.equals(args[2])
+                            : args.length == 4 && args[2].equalsIgnoreCase("ID") && Long.toString(other.id).equals(args[3])) {
+                        server.kill(other);
+                        killed++;
+                    }
+                }
+                if (args.length == 3) {
+                    if (killed == 0) {
+                        throw new CommandException("No such client");
+                    }
+                    out.ok();
+                } else {
+                    out.integer(killed);
+                }
+                break;
+            default:
+                throw new CommandException("unknown subcommand '" + args[1] + "'. Try CLIENT HELP.");
+        }
+    }
+
+    private String info(String[] args) {
+        return EmbeddedInfo.build(server, this, Arrays.asList(args).subList(1, args.length));
+    }
+
+    private void debug(EmbeddedClient client, String[] args) throws CommandException {
+        switch (args[1].toUpperCase(Locale.ROOT)) {
+            case "SLEEP":
+                arity(args, 3);
+                double seconds = parseDouble(args[2], NOT_FLOAT);
+                try {
+                    // Blocks every client, which is the point: it simulates a slow command
+                    Thread.sleep((long) (seconds * 1000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                client.encoder.ok();
+                break;
+            case "POPULATE":
+                if (args.length < 3 || args.length > 5) {
+                    throw new CommandException("wrong number of arguments for 'debug|populate' command");
+                }
+                long count = parseLong(args[2]);
+                String prefix = args.length > 3 ? args[3] : "key";
+                int size = args.length > 4 ? parseInt(args[4]) : 0;
+                if (count < 0 || size < 0) {
+                    throw new CommandException(NOT_INTEGER);
+                }
+                populate(db(client), count, prefix, size);
+                client.encoder.ok();
+                break;
+            default:
+                throw new CommandException("DEBUG " + args[1] + " is not supported by the embedded server");
+        }
+    }
+
+    // Keys
+
+    private void registerKeyCommands() {
+        register("TYPE", 2, (client, args) -> {
+            Object value = db(client).get(args[1]);
+            client.encoder.simple(EmbeddedKeyspace.typeOf(value));
+        });
+        Handler delete = (client, args) -> {
+            int deleted = 0;
+            for (int i = 1; i < args.length; i++) {
+                if (db(client).get(args[i]) != null && db(client).delete(args[i])) {
+                    deleted++;
+                }
+            }
+            client.encoder.integer(deleted);
+        };
+        register("DEL", -2, delete);
+        register("UNLINK", -2, delete);
+        register("EXISTS", -2, (client, args) -> {
+            int found = 0;
+            for (int i = 1; i < args.length; i++) {
+                if (db(client).exists(args[i])) {
+                    found++;
+                }
+            }
+            client.encoder.integer(found);
+        });
+        register("EXPIRE", -3, (client, args) -> expire(client, args, TimeUnit.SECONDS, false));
+        register("PEXPIRE", -3, (client, args) -> expire(client, args, TimeUnit.MILLISECONDS, false));
+        register("EXPIREAT", -3, (client, args) -> expire(client, args, TimeUnit.SECONDS, true));
+        register("PEXPIREAT", -3, (client, args) -> expire(client, args, TimeUnit.MILLISECONDS, true));
+        register("TTL", 2, (client, args) -> ttl(client, args[1], TimeUnit.SECONDS));
+        register("PTTL", 2, (client, args) -> ttl(client, args[1], TimeUnit.MILLISECONDS));
+        register("PERSIST", 2, (client, args) ->
+                client.encoder.integer(db(client).exists(args[1]) && db(client).persist(args[1]) ? 1 : 0));
+        register("KEYS", 2, (client, args) -> {
+            Pattern pattern = glob(args[1]);
+            List<String> keys = new ArrayList<>();
+            for (String key : db(client).keys()) {
+                if (pattern == null || pattern.matcher(key).matches()) {
+                    keys.add(key);
+                }
+            }
+            client.encoder.array(keys);
+        });
+        register("SCAN", -2, (client, args) -> scan(client, args, 1, null, db(client).keys()));
+        register("RANDOMKEY", 1, (client, args) -> client.encoder.bulk(db(client).randomKey()));
+        register("RENAME", 3, (client, args) -> {
+            EmbeddedKeyspace database = db(client);
+            Object value = database.get(args[1]);
+            if (value == null) {
+                throw new CommandException("no such key");
+            }
+            long deadline = database.deadline(args[1]);
+            database.delete(args[1]);
+            database.put(args[2], value);
+            if (deadline >= 0) {
+                database.expireAt(args[2], deadline);
+            }
+            client.encoder.ok();
+        });
+    }
+
+    private void expire(EmbeddedClient client, String[] args, TimeUnit unit, boolean absolute) throws CommandException {
+        long amount = parseLong(args[2]);
+        String condition = args.length > 3 ? args[3].toUpperCase(Locale.ROOT) : "";
+        if (args.length > 4 || !(condition.isEmpty() || condition.equals("NX") || condition.equals("XX")
+                || condition.equals("GT") || condition.equals("LT"))) {
+            throw new CommandException("Unsupported option " + args[args.length - 1]);
+        }
+        EmbeddedKeyspace database = db(client);
+        if (!database.exists(args[1])) {
+            client.encoder.integer(0);
+            return;
+        }
+        long deadline = absolute ? unit.toMillis(amount) : System.currentTimeMillis() + unit.toMillis(amount);
+        long current = database.deadline(args[1]);
+        boolean skip;
+        switch (condition) {
+            case "NX":
+                skip = current >= 0;
+                break;
+            case "XX":
+                skip = current < 0;
+                break;
+            case "GT":
+                skip = current < 0 || deadline <= current;
+                break;
+            case "LT":
+                skip = current >= 0 && deadline >= current;
+                break;
+            default:
+                skip = false;
+        }
+        if (skip) {
+            client.encoder.integer(0);
+            return;
+        }
+        if (deadline <= System.currentTimeMillis()) {
+            database.delete(args[1]);
+        } else {
+            database.expireAt(args[1], deadline);
+        }
+        client.encoder.integer(1);
+    }
+
+    private void ttl(EmbeddedClient client, String key, TimeUnit unit) {
+        EmbeddedKeyspace database = db(client);
+        if (!database.exists(key)) {
+            client.encoder.integer(-2);
+            return;
+        }
+        long deadline = database.deadline(key);
+        if (deadline < 0) {
+            client.encoder.integer(-1);
+            return;
+        }
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        client.encoder.integer(unit == TimeUnit.SECONDS ? (remaining + 500) / 1000 : remaining);
+    }
+
+    /**
+     * SCAN and its HSCAN, SSCAN and ZSCAN variants over a snapshot of the elements
+     * @param cursorIndex index of the cursor argument
+     * @param key the collection scanned, or null for the keyspace
+     * @param elements what to take the snapshot of when the scan starts
+     */
+    private void scan(EmbeddedClient client, String[] args, int cursorIndex, String key, Collection<String> elements)
+            throws CommandException {
+        long cursorId;
+        try {
+            cursorId = Long.parseUnsignedLong(args[cursorIndex]);
+        } catch (NumberFormatException e) {
+            throw new CommandException("invalid cursor");
+        }
+        Pattern pattern = null;
+        int count = 10;
+        String type = null;
+        for (int i = cursorIndex + 1; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (i + 1 >= args.length) {
+                throw new CommandException(SYNTAX);
+            }
+            if (option.equals("MATCH")) {
+                pattern = glob(args[++i]);
+            } else if (option.equals("COUNT")) {
+                count = parseInt(args[++i]);
+                if (count < 1) {
+                    throw new CommandException(SYNTAX);
+                }
+            } else if (option.equals("TYPE") && key == null) {
+                type = args[++i].toLowerCase(Locale.ROOT);
+            } else {
+                throw new CommandException(SYNTAX);
+            }
+        }
+
+        EmbeddedKeyspace database = db(client);
+        Object collection = key == null ? null : database.get(key);
+        EmbeddedKeyspace.Cursor cursor;
+        if (cursorId == 0) {
+            if (elements.size() <= count) {
+                cursor = new EmbeddedKeyspace.Cursor(new ArrayList<>(elements));
+            } else {
+                cursorId = database.openCursor(elements);
+                cursor = database.cursor(cursorId);
+            }
+        } else {
+            cursor = database.cursor(cursorId);
+            if (cursor == null) {
+                cursor = new EmbeddedKeyspace.Cursor(new ArrayList<>());
+            }
+        }
+
+        List<String> found = new ArrayList<>();
+        int end = Math.min(cursor.elements.size(), cursor.position + count);
+        for (; cursor.position < end; cursor.position++) {
+            String element = cursor.elements.get(cursor.position);
+            if (pattern != null && !pattern.matcher(element).matches()) {
+                continue;
+            }
+            if (key == null) {
+                Object value = database.get(element);
+                if (value != null && (type == null || type.equals(EmbeddedKeyspace.typeOf(value)))) {
+                    found.add(element);
+                }
+            } else if (collection != null) {
+                addScanned(collection, element, found);
+            }
+        }
+        if (cursor.position >= cursor.elements.size()) {
+            database.closeCursor(cursorId);
+            cursorId = 0;
+        }
+
+        RespEncoder out = client.encoder;
+        out.arrayHeader(2).bulk(Long.toUnsignedString(cursorId));
+        out.array(found);
+    }
+
+    private static void addScanned(Object collection, String element, List<String> found) {
+        if (collection instanceof Map) {
+            String value = ((Map<?, ?>) collection).get(element) instanceof String
+                    ? (String) ((Map<?, ?>) collection).get(element) : null;
+            if (value != null) {
+                found.add(element);
+                found.add(value);
+            }
+        } else if (collection instanceof EmbeddedSortedSet) {
+            Double score = ((EmbeddedSortedSet) collection).score(element);
+            if (score != null) {
+                found.add(element);
+                found.add(RespEncoder.formatDouble(score));
+            }
+        } else if (((Set<?>) collection).contains(element)) {
+            found.add(element);
+        }
+    }
+
+    // Strings
+
+    private void registerStringCommands() {
+        register("GET", 2, (client, args) -> client.encoder.bulk(read(client, args[1], String.class)));
+        register("GETDEL", 2, (client, args) -> {
+            String value = read(client, args[1], String.class);
+            if (value != null) {
+                db(client).delete(args[1]);
+            }
+            client.encoder.bulk(value);
+        });
+        register("SET", -3, this::set);
+        Handler setex = (client, args) -> {
+            long amount = parseLong(args[2]);
+            if (amount <= 0) {
+                throw new CommandException("invalid expire time in '" + args[0].toLowerCase(Locale.ROOT) + "' command");
+            }
+            TimeUnit unit = args[0].equalsIgnoreCase("PSETEX") ? TimeUnit.MILLISECONDS : TimeUnit.SECONDS;
+            db(client).put(args[1], args[3]);
+            db(client).expireAt(args[1], System.currentTimeMillis() + unit.toMillis(amount));
+            client.encoder.ok();
+        };
+        register("SETEX", 4, setex);
+        register("PSETEX", 4, setex);
+        register("MGET", -2, (client, args) -> {
+            client.encoder.arrayHeader(args.length - 1);
+            for (int i = 1; i < args.length; i++) {
+                Object value = db(client).get(args[i]);
+                client.encoder.bulk(value instanceof String ? (String) value : null);
+            }
+        });
+        register("MSET", -3, (client, args) -> {
+            if (args.length % 2 == 0) {
+                throw new CommandException("wrong number of arguments for 'mset' command");
+            }
+            for (int i = 1; i < args.length; i += 2) {
+                db(client).put(args[i], args[i + 1]);
+            }
+            client.encoder.ok();
+        });
+        register("INCR", 2, (client, args) -> incrementBy(client, args[1], 1));
+        register("DECR", 2, (client, args) -> incrementBy(client, args[1], -1));
+        register("INCRBY", 3, (client, args) -> incrementBy(client, args[1], parseLong(args[2])));
+        register("DECRBY", 3, (client, args) -> incrementBy(client, args[1], -parseLong(args[2])));
+        register("APPEND", 3, (client, args) -> {
+            String value = lookup(client, args[1], String.class);
+            String appended = value == null ? args[2] : value + args[2];
+            long deadline = db(client).deadline(args[1]);
+            db(client).put(args[1], appended);
+            if (deadline >= 0) {
+                db(client).expireAt(args[1], deadline);
+            }
+            client.encoder.integer(appended.length());
+        });
+        register("STRLEN", 2, (client, args) -> {
+            String value = lookup(client, args[1], String.class);
+            client.encoder.integer(value == null ? 0 : value.length());
+        });
+    }
+
+    private void set(EmbeddedClient client, String[] args) throws CommandException {
+        long deadline = -1;
+        boolean nx = false;
+        boolean xx = false;
+        boolean keepTtl = false;
+        boolean get = false;
+        for (int i = 3; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "NX":
+                    nx = true;
+                    break;
+                case "XX":
+                    xx = true;
+                    break;
+                case "KEEPTTL":
+                    keepTtl = true;
+                    break;
+                case "GET":
+                    get = true;
+                    break;
+                case "EX":
+                case "PX":
+                case "EXAT":
+                case "PXAT":
+                    if (i + 1 >= args.length || deadline >= 0) {
+                        throw new CommandException(SYNTAX);
+                    }
+                    long amount = parseLong(args[++i]);
+                    if (amount <= 0) {
+                        throw new CommandException("invalid expire time in 'set' command");
+                    }
+                    long now = System.currentTimeMillis();
+                    deadline = option.equals("EX") ? now + TimeUnit.SECONDS.toMillis(amount)
+                            : option.equals("PX") ? now + amount
+                            : option.equals("EXAT") ? TimeUnit.SECONDS.toMillis(amount) : amount;
+                    break;
+                default:
+                    throw new CommandException(SYNTAX);
+            }
+        }
+        if ((nx && xx) || (keepTtl && deadline >= 0)) {
+            throw new CommandException(SYNTAX);
+        }
+        EmbeddedKeyspace database = db(client);
+        Object previous = database.get(args[1]);
+        if (get && previous != null && !(previous instanceof String)) {
+            throw new CommandException(WRONG_TYPE);
+        }
+        if ((nx && previous != null) || (xx && previous == null)) {
+            if (get) {
+                client.encoder.bulk((String) previous);
+            } else {
+                client.encoder.nullValue();
+            }
+            return;
+        }
+        long previousDeadline = database.deadline(args[1]);
+        database.put(args[1], args[2]);
+        if (deadline >= 0) {
+            database.expireAt(args[1], deadline);
+        } else if (keepTtl && previousDeadline >= 0) {
+            database.expireAt(args[1], previousDeadline);
+        }
+        if (get) {
+            client.encoder.bulk((String) previous);
+        } else {
+            client.encoder.ok();
+        }
+    }
+
+    private void incrementBy(EmbeddedClient client, String key, long increment) throws CommandException {
+        String value = lookup(client, key, String.class);
+        long current = value == null ? 0 : parseLong(value);
+        long result;
+        try {
+            result = Math.addExact(current, increment);
+        } catch (ArithmeticException e) {
+            throw new CommandException("increment or decrement would overflow");
+        }
+        long deadline = db(client).deadline(key);
+        db(client).put(key, Long.toString(result));
+        if (deadline >= 0) {
+            db(client).expireAt(key, deadline);
+        }
+        client.encoder.integer(result);
+    }
+
+    // Hashes
+
+    private void registerHashCommands() {
+        Handler hset = (client, args) -> {
+            if (args.length % 2 != 0) {
+                throw new CommandException("wrong number of arguments for '" + args[0].toLowerCase(Locale.ROOT) + "' command");
+            }
+            Map<String, String> hash = lookupOrCreate(client, args[1], Map.class, HashMap::new);
+            int added = 0;
+            for (int i = 2; i < args.length; i += 2) {
+                if (hash.put(args[i], args[i + 1]) == null) {
+                    added++;
+                }
+            }
+            if (args[0].equalsIgnoreCase("HMSET")) {
+                client.encoder.ok();
+            } else {
+                client.encoder.integer(added);
+            }
+        };
+        register("HSET", -4, hset);
+        register("HMSET", -4, hset);
+        register("HGET", 3, (client, args) -> {
+            Map<String, String> hash = read(client, args[1], Map.class);
+            client.encoder.bulk(hash == null ? null : hash.get(args[2]));
+        });
+        register("HMGET", -3, (client, args) -> {
+            Map<String, String> hash = read(client, args[1], Map.class);
+            client.encoder.arrayHeader(args.length - 2);
+            for (int i = 2; i < args.length; i++) {
+                client.encoder.bulk(hash == null ? null : hash.get(args[i]));
+            }
+        });
+        register("HGETALL", 2, (client, args) -> {
+            Map<String, String> hash = read(client, args[1], Map.class);
+            if (hash == null) {
+                client.encoder.mapHeader(0);
+                return;
+            }
+            client.encoder.mapHeader(hash.size());
+            for (Map.Entry<String, String> entry : hash.entrySet()) {
+                client.encoder.bulk(entry.getKey()).bulk(entry.getValue());
+            }
+        });
+        register("HDEL", -3, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            int removed = 0;
+            if (hash != null) {
+                for (int i = 2; i < args.length; i++) {
+                    if (hash.remove(args[i]) != null) {
+                        removed++;
+                    }
+                }
+                db(client).deleteIfEmpty(args[1], hash);
+            }
+            client.encoder.integer(removed);
+        });
+        register("HLEN", 2, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            client.encoder.integer(hash == null ? 0 : hash.size());
+        });
+        register("HKEYS", 2, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            client.encoder.array(hash == null ? List.of() : hash.keySet());
+        });
+        register("HVALS", 2, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            client.encoder.array(hash == null ? List.of() : hash.values());
+        });
+        register("HEXISTS", 3, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            client.encoder.integer(hash != null && hash.containsKey(args[2]) ? 1 : 0);
+        });
+        register("HINCRBY", 4, (client, args) -> {
+            long increment = parseLong(args[3]);
+            Map<String, String> hash = lookupOrCreate(client, args[1], Map.class, HashMap::new);
+            String value = hash.get(args[2]);
+            long current;
+            try {
+                current = value == null ? 0 : Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new CommandException("hash value is not an integer");
+            }
+            long result;
+            try {
+                result = Math.addExact(current, increment);
+            } catch (ArithmeticException e) {
+                throw new CommandException("increment or decrement would overflow");
+            }
+            hash.put(args[2], Long.toString(result));
+            client.encoder.integer(result);
+        });
+        register("HSCAN", -3, (client, args) -> {
+            Map<String, String> hash = lookup(client, args[1], Map.class);
+            scan(client, args, 2, args[1], hash == null ? List.of() : hash.keySet());
+        });
+    }
+
+    // Lists
+
+    private void registerListCommands() {
+        register("LPUSH", -3, (client, args) -> push(client, args, true));
+        register("RPUSH", -3, (client, args) -> push(client, args, false));
+        register("LPOP", -2, (client, args) -> pop(client, args, true));
+        register("RPOP", -2, (client, args) -> pop(client, args, false));
+        register("LLEN", 2, (client, args) -> {
+            ArrayDeque<String> list = lookup(client, args[1], ArrayDeque.class);
+            client.encoder.integer(list == null ? 0 : list.size());
+        });
+        register("LRANGE", 4, (client, args) -> {
+            ArrayDeque<String> list = read(client, args[1], ArrayDeque.class);
+            long start = parseLong(args[2]);
+            long stop = parseLong(args[3]);
+            if (list == null) {
+                client.encoder.arrayHeader(0);
+                return;
+            }
+            int size = list.size();
+            int from = (int) Math.max(0, start < 0 ? size + start : start);
+            int to = (int) Math.min(size - 1, stop < 0 ? size + stop : stop);
+            if (from > to) {
+                client.encoder.arrayHeader(0);
+                return;
+            }
+            client.encoder.arrayHeader(to - from + 1);
+            Iterator<String> iterator = list.iterator();
+            for (int i = 0; i <= to; i++) {
+                String element = iterator.next();
+                if (i >= from) {
+                    client.encoder.bulk(element);
+                }
+            }
+        });
+        register("LINDEX", 3, (client, args) -> {
+            ArrayDeque<String> list = read(client, args[1], ArrayDeque.class);
+            long index = parseLong(args[2]);
+            if (list == null) {
+                client.encoder.nullValue();
+                return;
+            }
+            long position = index < 0 ? list.size() + index : index;
+            if (position < 0 || position >= list.size()) {
+                client.encoder.nullValue();
+                return;
+            }
+            Iterator<String> iterator = position < list.size() / 2 ? list.iterator() : list.descendingIterator();
+            long steps = position < list.size() / 2 ? position : list.size() - 1 - position;
+            for (long i = 0; i < steps; i++) {
+                iterator.next();
+            }
+            client.encoder.bulk(iterator.next());
+        });
+    }
+
+    private void push(EmbeddedClient client, String[] args, boolean head) throws CommandException {
+        ArrayDeque<String> list = lookupOrCreate(client, args[1], ArrayDeque.class, ArrayDeque::new);
+        for (int i = 2; i < args.length; i++) {
+            if (head) {
+                list.addFirst(args[i]);
+            } else {
+                list.addLast(args[i]);
+            }
+        }
+        client.encoder.integer(list.size());
+    }
+
+    private void pop(EmbeddedClient client, String[] args, boolean head) throws CommandException {
+        if (args.length > 3) {
+            throw new CommandException("wrong number of arguments for '" + args[0].toLowerCase(Locale.ROOT) + "' command");
+        }
+        long count = args.length == 3 ? parseLong(args[2]) : -1;
+        if (args.length == 3 && count < 0) {
+            throw new CommandException("value is out of range, must be positive");
+        }
+        ArrayDeque<String> list = lookup(client, args[1], ArrayDeque.class);
+        if (list == null) {
+            if (count < 0) {
+                client.encoder.nullValue();
+            } else {
+                client.encoder.nullArray();
+            }
+            return;
+        }
+        if (count < 0) {
+            client.encoder.bulk(head ? list.pollFirst() : list.pollLast());
+        } else {
+            List<String> popped = new ArrayList<>();
+            for (long i = 0; i < count && !list.isEmpty(); i++) {
+                popped.add(head ? list.pollFirst() : list.pollLast());
+            }
+            client.encoder.array(popped);
+        }
+        db(client).deleteIfEmpty(args[1], list);
+    }
+
+    // Sets
+
+    private void registerSetCommands() {
+        register("SADD", -3, (client, args) -> {
+            Set<String> set = lookupOrCreate(client, args[1], Set.class, HashSet::new);
+            int added = 0;
+            for (int i = 2; i < args.length; i++) {
+                if (set.add(args[i])) {
+                    added++;
+                }
+            }
+            client.encoder.integer(added);
+        });
+        register("SREM", -3, (client, args) -> {
+            Set<String> set = lookup(client, args[1], Set.class);
+            int removed = 0;
+            if (set != null) {
+                for (int i = 2; i < args.length; i++) {
+                    if (set.remove(args[i])) {
+                        removed++;
+                    }
+                }
+                db(client).deleteIfEmpty(args[1], set);
+            }
+            client.encoder.integer(removed);
+        });
+        register("SMEMBERS", 2, (client, args) -> {
+            Set<String> set = read(client, args[1], Set.class);
+            if (set == null) {
+                client.encoder.setHeader(0);
+                return;
+            }
+            client.encoder.setHeader(set.size());
+            for (String member : set) {
+                client.encoder.bulk(member);
+            }
+        });
+        register("SISMEMBER", 3, (client, args) -> {
+            Set<String> set = read(client, args[1], Set.class);
+            client.encoder.integer(set != null && set.contains(args[2]) ? 1 : 0);
+        });
+        register("SCARD", 2, (client, args) -> {
+            Set<String> set = lookup(client, args[1], Set.class);
+            client.encoder.integer(set == null ? 0 : set.size());
+        });
+        register("SSCAN", -3, (client, args) -> {
+            Set<String> set = lookup(client, args[1], Set.class);
+            scan(client, args, 2, args[1], set == null ? List.of() : set);
+        });
+    }
+
+    // Sorted sets
+
+    private void registerSortedSetCommands() {
+        register("ZADD", -4, this::zadd);
+        register("ZINCRBY", 4, (client, args) -> {
+            double increment = parseDouble(args[2], NOT_FLOAT);
+            EmbeddedSortedSet zset = lookupOrCreate(client, args[1], EmbeddedSortedSet.class, EmbeddedSortedSet::new);
+            Double current = zset.score(args[3]);
+            double score = (current == null ? 0 : current) + increment;
+            if (Double.isNaN(score)) {
+                throw new CommandException("resulting score is not a number (NaN)");
+            }
+            zset.put(args[3], score);
+            client.encoder.doubleValue(score);
+        });
+        register("ZREM", -3, (client, args) -> {
+            EmbeddedSortedSet zset = lookup(client, args[1], EmbeddedSortedSet.class);
+            int removed = 0;
+            if (zset != null) {
+                for (int i = 2; i < args.length; i++) {
+                    if (zset.remove(args[i])) {
+                        removed++;
+                    }
+                }
+                db(client).deleteIfEmpty(args[1], zset);
+            }
+            client.encoder.integer(removed);
+        });
+        register("ZSCORE", 3, (client, args) -> {
+            EmbeddedSortedSet zset = read(client, args[1], EmbeddedSortedSet.class);
+            Double score = zset == null ? null : zset.score(args[2]);
+            if (score == null) {
+                client.encoder.nullValue();
+            } else {
+                client.encoder.doubleValue(score);
+            }
+        });
+        register("ZCARD", 2, (client, args) -> {
+            EmbeddedSortedSet zset = lookup(client, args[1], EmbeddedSortedSet.class);
+            client.encoder.integer(zset == null ? 0 : zset.size());
+        });
+        register("ZRANGE", -4, (client, args) -> zrange(client, args, false));
+        register("ZREVRANGE", -4, (client, args) -> zrange(client, args, true));
+        register("ZRANGEBYSCORE", -4, this::zrangeByScore);
+        register("ZSCAN", -3, (client, args) -> {
+            EmbeddedSortedSet zset = lookup(client, args[1], EmbeddedSortedSet.class);
+            List<String> members = new ArrayList<>();
+            if (zset != null) {
+                zset.members().forEach(members::add);
+            }
+            scan(client, args, 2, args[1], members);
+        });
+    }
+
+    private void zadd(EmbeddedClient client, String[] args) throws CommandException {
+        boolean nx = false;
+        boolean xx = false;
+        boolean ch = false;
+        int i = 2;
+        for (; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals("NX")) {
+                nx = true;
+            } else if (option.equals("XX")) {
+                xx = true;
+            } else if (option.equals("CH")) {
+                ch = true;
+            } else {
+                break;
+            }
+        }
+        if ((args.length - i) % 2 != 0 || i == args.length) {
+            throw new CommandException(SYNTAX);
+        }
+        if (nx && xx) {
+            throw new CommandException("XX and NX options at the same time are not compatible");
+        }
+        Map<String, Double> updates = new LinkedHashMap<>();
+        for (int j = i; j < args.length; j += 2) {
+            updates.put(args[j + 1], parseDouble(args[j], NOT_FLOAT));
+        }
+        EmbeddedSortedSet zset = lookup(client, args[1], EmbeddedSortedSet.class);
+        if (zset == null) {
+            if (xx) {
+                client.encoder.integer(0);
+                return;
+            }
+            zset = new EmbeddedSortedSet();
+            db(client).put(args[1], zset);
+        }
+        int added = 0;
+        int changed = 0;
+        for (Map.Entry<String, Double> update : updates.entrySet()) {
+            Double current = zset.score(update.getKey());
+            if ((nx && current != null) || (xx && current == null)) {
+                continue;
+            }
+            if (current == null) {
+                added++;
+            } else if (current.doubleValue() != update.getValue()) {
+                changed++;
+            }
+            zset.put(update.getKey(), update.getValue());
+        }
+        db(client).deleteIfEmpty(args[1], zset);
+        client.encoder.integer(ch ? added + changed : added);
+    }
+
+    private void zrange(EmbeddedClient client, String[] args, boolean reverse) throws CommandException {
+        boolean withScores = false;
+        for (int i = 4; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals("WITHSCORES")) {
+                withScores = true;
+            } else if (option.equals("REV") && !reverse) {
+                reverse = true;
+            } else if (option.equals("BYSCORE") && args[0].equalsIgnoreCase("ZRANGE")) {
+                throw new CommandException("ZRANGE BYSCORE is not supported by the embedded server, use ZRANGEBYSCORE");
+            } else {
+                throw new CommandException(SYNTAX);
+            }
+        }
+        long start = parseLong(args[2]);
+        long stop = parseLong(args[3]);
+        EmbeddedSortedSet zset = read(client, args[1], EmbeddedSortedSet.class);
+        if (zset == null) {
+            client.encoder.arrayHeader(0);
+            return;
+        }
+        int size = zset.size();
+        int from = (int) Math.max(0, start < 0 ? size + start : start);
+        int to = (int) Math.min(size - 1, stop < 0 ? size + stop : stop);
+        writeRange(client, from > to ? List.of() : zset.range(from, to, reverse), withScores);
+    }
+
+    private void zrangeByScore(EmbeddedClient client, String[] args) throws CommandException {
+        boolean withScores = false;
+        int offset = 0;
+        int count = -1;
+        for (int i = 4; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals("WITHSCORES")) {
+                withScores = true;
+            } else if (option.equals("LIMIT") && i + 2 < args.length) {
+                offset = parseInt(args[++i]);
+                count = parseInt(args[++i]);
+            } else {
+                throw new CommandException(SYNTAX);
+            }
+        }
+        boolean minExclusive = args[2].startsWith("(");
+        boolean maxExclusive = args[3].startsWith("(");
+        double min = parseDouble(minExclusive ? args[2].substring(1) : args[2], "min or max is not a float");
+        double max = parseDouble(maxExclusive ? args[3].substring(1) : args[3], "min or max is not a float");
+        EmbeddedSortedSet zset = read(client, args[1], EmbeddedSortedSet.class);
+        if (zset == null || offset < 0) {
+            client.encoder.arrayHeader(0);
+            return;
+        }
+        writeRange(client, zset.rangeByScore(min, minExclusive, max, maxExclusive, offset, count), withScores);
+    }
+
+    private static void writeRange(EmbeddedClient client, List<Map.Entry<String, Double>> entries, boolean withScores) {
+        RespEncoder out = client.encoder;
+        if (withScores && out.getProtocol() >= 3) {
+            out.arrayHeader(entries.size());
+            for (Map.Entry<String, Double> entry : entries) {
+                out.arrayHeader(2).bulk(entry.getKey()).doubleValue(entry.getValue());
+            }
+            return;
+        }
+        out.arrayHeader(withScores ? entries.size() * 2 : entries.size());
+        for (Map.Entry<String, Double> entry : entries) {
+            out.bulk(entry.getKey());
+            if (withScores) {
+                out.bulk(RespEncoder.formatDouble(entry.getValue()));
+            }
+        }
+    }
+
+    // Pub/Sub
+
+    private void registerPubSubCommands() {
+        register("SUBSCRIBE", -2, (client, args) -> {
+            for (int i = 1; i < args.length; i++) {
+                server.subscribe(client, args[i]);
+                client.encoder.pushHeader(3).bulk("subscribe").bulk(args[i]).integer(client.subscriptions());
+            }
+        });
+        register("PSUBSCRIBE", -2, (client, args) -> {
+            for (int i = 1; i < args.length; i++) {
+                server.psubscribe(client, args[i]);
+                client.encoder.pushHeader(3).bulk("psubscribe").bulk(args[i]).integer(client.subscriptions());
+            }
+        });
+        register("UNSUBSCRIBE", -1, (client, args) -> unsubscribe(client, args, false, true));
+        register("PUNSUBSCRIBE", -1, (client, args) -> unsubscribe(client, args, true, true));
+        register("PUBLISH", 3, (client, args) -> client.encoder.integer(publish(args[1], args[2])));
+        register("PUBSUB", -2, this::pubsub);
+    }
+
+    private void unsubscribe(EmbeddedClient client, String[] args, boolean patterns, boolean reply) {
+        String kind = patterns ? "punsubscribe" : "unsubscribe";
+        List<String> names = new ArrayList<>();
+        if (args.length > 1) {
+            names.addAll(Arrays.asList(args).subList(1, args.length));
+        } else {
+            names.addAll(patterns ? client.patterns : client.channels);
+        }
+        if (names.isEmpty() && reply) {
+            client.encoder.pushHeader(3).bulk(kind).nullValue().integer(client.subscriptions());
+        }
+        for (String name : names) {
+            if (patterns) {
+                server.punsubscribe(client, name);
+            } else {
+                server.unsubscribe(client, name);
+            }
+            if (reply) {
+                client.encoder.pushHeader(3).bulk(kind).bulk(name).integer(client.subscriptions());
+            }
+        }
+    }
+
+    /**
+     * Deliver a message to the subscribers of the channel and of matching patterns
+     * @return the number of clients that received it
+     */
+    private int publish(String channel, String message) {
+        int receivers = 0;
+        Set<EmbeddedClient> subscribers = server.getChannelSubscribers().get(channel);
+        if (subscribers != null) {
+            for (EmbeddedClient subscriber : subscribers) {
+                subscriber.encoder.pushHeader(3).bulk("message").bulk(channel).bulk(message);
+                server.markDirty(subscriber);
+                receivers++;
+            }
+        }
+        for (Map.Entry<String, Set<EmbeddedClient>> entry : server.getPatternSubscribers().entrySet()) {
+            Pattern pattern = glob(entry.getKey());
+            if (pattern != null && !pattern.matcher(channel).matches()) {
+                continue;
+            }
+            for (EmbeddedClient subscriber : entry.getValue()) {
+                subscriber.encoder.pushHeader(4).bulk("pmessage").bulk(entry.getKey()).bulk(channel).bulk(message);
+                server.markDirty(subscriber);
+                receivers++;
+            }
+        }
+        return receivers;
+    }
+
+    private void pubsub(EmbeddedClient client, String[] args) throws CommandException {
+        RespEncoder out = client.encoder;
+        switch (args[1].toUpperCase(Locale.ROOT)) {
+            case "CHANNELS":
+                Pattern pattern = args.length > 2 ? glob(args[2]) : null;
+                List<String> channels = new ArrayList<>();
+                for (String channel : server.getChannelSubscribers().keySet()) {
+                    if (pattern == null || pattern.matcher(channel).matches()) {
+                        channels.add(channel);
+                    }
+                }
+                out.array(channels);
+                break;
+            case "NUMSUB":
+                out.mapHeader(args.length - 2);
+                for (int i = 2; i < args.length; i++) {
+                    Set<EmbeddedClient> subscribers = server.getChannelSubscribers().get(args[i]);
+                    out.bulk(args[i]).integer(subscribers == null ? 0 : subscribers.size());
+                }
+                break;
+            case "NUMPAT":
+                out.integer(server.getPatternSubscribers().size());
+                break;
+            default:
+                throw new CommandException("unknown subcommand '" + args[1] + "'. Try PUBSUB HELP.");
+        }
+    }
+
+    // Lookups
+
+    private EmbeddedKeyspace db(EmbeddedClient client) {
+        return server.database(client.database);
+    }
+
+    /**
+     * Look a key up for a command that reads it, counting keyspace hits and misses as Redis does
+     */
+    private <T> T read(EmbeddedClient client, String key, Class<? super T> type) throws CommandException {
+        T value = lookup(client, key, type);
+        if (value == null) {
+            keyspaceMisses++;
+        } else {
+            keyspaceHits++;
+        }
+        return value;
+    }
+
+    /**
+     * @return the value of a key, or null if it does not exist
+     * @throws CommandException with WRONGTYPE if it holds another type
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(EmbeddedClient client, String key, Class<? super T> type) throws CommandException {
+        Object value = db(client).get(key);
+        if (value == null) {
+            return null;
+        }
+        if (!type.isInstance(value)) {
+            throw new CommandException(WRONG_TYPE);
+        }
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookupOrCreate(EmbeddedClient client, String key, Class<? super T> type,
+                                 Supplier<?> factory) throws CommandException {
+        T value = lookup(client, key, type);
+        if (value == null) {
+            value = (T) factory.get();
+            db(client).putNew(key, value);
+        }
+        return value;
+    }
+
+    private static Pattern glob(String pattern) {
+        if (pattern.equals("*")) {
+            return null;
+        }
+        return Pattern.compile(MonitorFilter.globToRegex(pattern), Pattern.DOTALL);
+    }
+
+    private static String encodingOf(Object value) {
+        if (value instanceof String) {
+            String string = (String) value;
+            try {
+                Long.parseLong(string);
+                return "int";
+            } catch (NumberFormatException e) {
+                return string.length() <= 44 ? "embstr" : "raw";
+            }
+        } else if (value instanceof ArrayDeque) {
+            return "quicklist";
+        } else if (value instanceof EmbeddedSortedSet) {
+            return ((EmbeddedSortedSet) value).size() <= 128 ? "listpack" : "skiplist";
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).size() <= 128 ? "listpack" : "hashtable";
+        }
+        return "hashtable";
+    }
+
+    private static void arity(String[] args, int expected) throws CommandException {
+        if (args.length != expected) {
+            throw new CommandException("wrong number of arguments for '" + args[0].toLowerCase(Locale.ROOT)
+                    + "|" + args[1].toLowerCase(Locale.ROOT) + "' command");
+        }
+    }
+
+    private static long parseLong(String value) throws CommandException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new CommandException(NOT_INTEGER);
+        }
+    }
+
+    private static int parseInt(String value) throws CommandException {
+        long parsed = parseLong(value);
+        if (parsed < Integer.MIN_VALUE || parsed > Integer.MAX_VALUE) {
+            throw new CommandException(NOT_INTEGER);
+        }
+        return (int) parsed;
+    }
+
+    private static double parseDouble(String value, String error) throws CommandException {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                try {
+                    double parsed = Double.parseDouble(value);
+                    if (Double.isNaN(parsed)) {
+                        throw new CommandException(error);
+                    }
+                    return parsed;
+                } catch (NumberFormatException e) {
+                    throw new CommandException(error);
+                }
+        }
+    }
+
+    long getTotalCommands() {
+        return totalCommands;
+    }
+
+    long getKeyspaceHits() {
+        return keyspaceHits;
+    }
+
+    long getKeyspaceMisses() {
+        return keyspaceMisses;
+    }
+
+    long getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    private interface Handler {
+        void run(EmbeddedClient client, String[] args) throws CommandException;
+    }
+
+    private static class Command {
+        final int arity;
+        final Handler handler;
+
+        Command(int arity, Handler handler) {
+            this.arity = arity;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * A command failed; the message is sent to the client as an error reply
+     */
+    static class CommandException extends Exception {
+        CommandException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.redis.plugin.service.embedded;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * INFO and CLIENT LIST output of the embedded server, with the fields the plugin's panels
+ * read laid out as Redis lays them out
+ */
+final class EmbeddedInfo {
+    /**
+     * Version reported to clients; commands up to this version behave as in Redis
+     */
+    static final String VERSION = "7.2.0";
+
+    private static final List<String> DEFAULT_SECTIONS =
+            List.of("server", "clients", "memory", "stats", "replication", "keyspace");
+
+    private EmbeddedInfo() {
+    }
+
+    /**
+     * @param sections requested sections; empty, "default", "all" or "everything" for all of them
+     */
+    static String build(EmbeddedRedisServer server, EmbeddedCommands commands, Collection<String> sections) {
+        boolean all = sections.isEmpty();
+        for (String section : sections) {
+            String name = section.toLowerCase(Locale.ROOT);
+            all |= name.equals("default") || name.equals("all") || name.equals("everything");
+        }
+        StringBuilder info = new StringBuilder();
+        for (String section : DEFAULT_SECTIONS) {
+            if (!all && sections.stream().noneMatch(section::equalsIgnoreCase)) {
+                continue;
+            }
+            if (info.length() > 0) {
+                info.append("\r\n");
+            }
+            info.append("# ").append(Character.toUpperCase(section.charAt(0))).append(section.substring(1)).append("\r\n");
+            switch (section) {
+                case "server":
+                    long uptime = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - server.getStartedMillis());
+                    field(info, "redis_version", VERSION);
+                    field(info, "redis_mode", "standalone");
+                    field(info, "os", System.getProperty("os.name") + " (embedded)");
+                    field(info, "arch_bits", "64");
+                    field(info, "process_id", ProcessHandle.current().pid());
+                    field(info, "tcp_port", server.getPort());
+                    field(info, "uptime_in_seconds", uptime);
+                    field(info, "uptime_in_days", TimeUnit.SECONDS.toDays(uptime));
+                    break;
+                case "clients":
+                    field(info, "connected_clients", server.clients().size());
+                    field(info, "blocked_clients", 0);
+                    field(info, "pubsub_clients", server.clients().stream().filter(EmbeddedClient::isSubscribed).count());
+                    break;
+                case "memory":
+                    long used = 0;
+                    for (EmbeddedKeyspace database : server.databases()) {
+                        used += database.estimateSize();
+                    }
+                    field(info, "used_memory", used);
+                    field(info, "used_memory_human", humanBytes(used));
+                    field(info, "maxmemory", 0);
+                    field(info, "maxmemory_policy", "noeviction");
+                    break;
+                case "stats":
+                    field(info, "total_connections_received", server.getTotalConnections());
+                    field(info, "total_commands_processed", commands.getTotalCommands());
+                    field(info, "instantaneous_ops_per_sec", commands.getOpsPerSecond());
+                    field(info, "evicted_keys", 0);
+                    field(info, "keyspace_hits", commands.getKeyspaceHits());
+                    field(info, "keyspace_misses", commands.getKeyspaceMisses());
+                    field(info, "pubsub_channels", server.getChannelSubscribers().size());
+                    field(info, "pubsub_patterns", server.getPatternSubscribers().size());
+                    break;
+                case "replication":
+                    field(info, "role", "master");
+                    field(info, "connected_slaves", 0);
+                    field(info, "master_repl_offset", 0);
+                    break;
+                default:
+                    EmbeddedKeyspace[] databases = server.databases();
+                    for (int i = 0; i < databases.length; i++) {
+                        int keys = databases[i].size();
+                        if (keys > 0) {
+                            field(info, "db" + i, "keys=" + keys + ",expires=" + databases[i].expiring() + ",avg_ttl=0");
+                        }
+                    }
+            }
+        }
+        return info.toString();
+    }
+
+    /**
+     * @return one line of CLIENT LIST for a client
+     */
+    static String describe(EmbeddedClient client) {
+        long now = System.currentTimeMillis();
+        return "id=" + client.id
+                + " addr=" + client.address
+                + " name=" + client.name
+                + " age=" + TimeUnit.MILLISECONDS.toSeconds(now - client.createdMillis)
+                + " idle=" + TimeUnit.MILLISECONDS.toSeconds(now - client.lastCommandMillis)
+                + " flags=" + (client.isSubscribed() ? "P" : "N")
+                + " db=" + client.database
+                + " sub=" + client.channels.size()
+                + " psub=" + client.patterns.size()
+                + " omem=" + client.getPendingBytes()
+                + " resp=" + client.encoder.getProtocol()
+                + " cmd=" + client.lastCommand;
+    }
+
+    private static void field(StringBuilder info, String name, Object value) {
+        info.append(name).append(':').append(value).append("\r\n");
+    }
+
+    private static String humanBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        int unit = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        return String.format(Locale.ROOT, "%.2f%s", bytes / (double) (1L << (unit * 10)), " KMGTPE".charAt(unit));
+    }
+}
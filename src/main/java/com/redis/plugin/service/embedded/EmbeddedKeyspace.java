@@ -0,0 +1,254 @@
+package com.redis.plugin.service.embedded;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One numbered database of the embedded server.
+ * <p>
+ * Values are plain Java collections: a String for strings, a HashMap for hashes, an
+ * ArrayDeque for lists, a HashSet for sets and an {@link EmbeddedSortedSet}. Keys with a TTL
+ * are also in a deadline map; they are removed when read after their deadline and by a
+ * periodic sweep, like Redis' lazy and active expiry.
+ * <p>
+ * SCAN cursors refer to a snapshot of the keys (or members) taken when the scan starts, so a
+ * key present for the whole scan is returned exactly once, which is the guarantee Redis gives.
+ * Only the most recent snapshots are kept.
+ */
+class EmbeddedKeyspace {
+    /**
+     * Number of scans that can be in progress at once
+     */
+    static final int MAX_CURSORS = 256;
+
+    /**
+     * Number of keys looked at to estimate the size of a database
+     */
+    static final int SIZE_SAMPLE = 1000;
+
+    private final Map<String, Object> values = new HashMap<>();
+    private final Map<String, Long> deadlines = new HashMap<>();
+    private final Map<Long, Cursor> cursors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Cursor> eldest) {
+            return size() > MAX_CURSORS;
+        }
+    };
+    private long nextCursor = 1;
+
+    /**
+     * @return the live value of a key, or null if it does not exist or has expired
+     */
+    Object get(String key) {
+        Object value = values.get(key);
+        if (value != null && isExpired(key)) {
+            delete(key);
+            return null;
+        }
+        return value;
+    }
+
+    boolean exists(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Set a value, clearing any TTL as SET does
+     */
+    void put(String key, Object value) {
+        values.put(key, value);
+        deadlines.remove(key);
+    }
+
+    /**
+     * Store a collection that was created empty and has just been filled, keeping the TTL
+     */
+    void putNew(String key, Object value) {
+        values.put(key, value);
+    }
+
+    boolean delete(String key) {
+        deadlines.remove(key);
+        return values.remove(key) != null;
+    }
+
+    /**
+     * Remove a collection that the last command emptied, as Redis never keeps empty keys
+     */
+    void deleteIfEmpty(String key, Object value) {
+        boolean empty = value instanceof Collection ? ((Collection<?>) value).isEmpty()
+                : value instanceof Map ? ((Map<?, ?>) value).isEmpty()
+                : value instanceof EmbeddedSortedSet && ((EmbeddedSortedSet) value).isEmpty();
+        if (empty) {
+            delete(key);
+        }
+    }
+
+    void expireAt(String key, long deadlineMillis) {
+        deadlines.put(key, deadlineMillis);
+    }
+
+    boolean persist(String key) {
+        return deadlines.remove(key) != null;
+    }
+
+    /**
+     * @return the deadline of a key in epoch milliseconds, or -1 if it has no TTL
+     */
+    long deadline(String key) {
+        Long deadline = deadlines.get(key);
+        return deadline == null ? -1 : deadline;
+    }
+
+    int size() {
+        sweep();
+        return values.size();
+    }
+
+    int expiring() {
+        return deadlines.size();
+    }
+
+    void clear() {
+        values.clear();
+        deadlines.clear();
+        cursors.clear();
+    }
+
+    /**
+     * Remove every key past its deadline
+     */
+    void sweep() {
+        if (deadlines.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> iterator = deadlines.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            if (entry.getValue() <= now) {
+                values.remove(entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    Collection<String> keys() {
+        sweep();
+        return values.keySet();
+    }
+
+    String randomKey() {
+        sweep();
+        if (values.isEmpty()) {
+            return null;
+        }
+        int skip = (int) (Math.random() * values.size());
+        Iterator<String> iterator = values.keySet().iterator();
+        for (int i = 0; i < skip; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * Start a scan over a snapshot of the given elements
+     * @return the cursor to continue from, never 0
+     */
+    long openCursor(Collection<String> elements) {
+        long id = nextCursor++;
+        cursors.put(id, new Cursor(new ArrayList<>(elements)));
+        return id;
+    }
+
+    /**
+     * @return the scan a cursor refers to, or null if it is unknown or was evicted
+     */
+    Cursor cursor(long id) {
+        return cursors.get(id);
+    }
+
+    void closeCursor(long id) {
+        cursors.remove(id);
+    }
+
+    /**
+     * @return a rough estimate of the memory a value takes, for INFO and MEMORY USAGE
+     */
+    static long estimateSize(String key, Object value) {
+        long bytes = 56 + key.length();
+        if (value instanceof String) {
+            bytes += ((String) value).length() + 16;
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                bytes += entry.getKey().toString().length() + entry.getValue().toString().length() + 48;
+            }
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                bytes += element.toString().length() + 32;
+            }
+        } else if (value instanceof EmbeddedSortedSet) {
+            bytes += ((EmbeddedSortedSet) value).estimatedSize();
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the memory of the whole database from a sample of its keys, so INFO stays
+     * cheap however many keys there are
+     */
+    long estimateSize() {
+        int sampled = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (sampled == SIZE_SAMPLE) {
+                break;
+            }
+            bytes += estimateSize(entry.getKey(), entry.getValue());
+            sampled++;
+        }
+        return sampled == 0 ? 0 : bytes * values.size() / sampled;
+    }
+
+    /**
+     * @return the type name TYPE reports for a value
+     */
+    static String typeOf(Object value) {
+        if (value instanceof String) {
+            return "string";
+        } else if (value instanceof Map) {
+            return "hash";
+        } else if (value instanceof ArrayDeque) {
+            return "list";
+        } else if (value instanceof HashSet) {
+            return "set";
+        } else if (value instanceof EmbeddedSortedSet) {
+            return "zset";
+        }
+        return "none";
+    }
+
+    private boolean isExpired(String key) {
+        Long deadline = deadlines.get(key);
+        return deadline != null && deadline <= System.currentTimeMillis();
+    }
+
+    /**
+     * A scan in progress: the snapshot and how far the client has got through it
+     */
+    static class Cursor {
+        final List<String> elements;
+        int position;
+
+        Cursor(List<String> elements) {
+            this.elements = elements;
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.redis.plugin.service.embedded;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A small Redis-compatible server running inside the IDE, for trying the plugin, testing it
+ * and benchmarking it without a real Redis.
+ * <p>
+ * Like Redis it runs every client on one thread around a NIO selector, so commands are
+ * atomic without any locking. It speaks RESP2 and, after HELLO 3, RESP3, and implements the
+ * core string, hash, list, set, sorted set, keyspace, SCAN and Pub/Sub commands with Redis'
+ * replies and error messages; see {@link EmbeddedCommands} for the list. Data lives in memory
+ * only and is lost when the server stops.
+ * <p>
+ * Two knobs make it useful for performance work: an artificial latency added to every reply
+ * (other clients keep being served meanwhile, as with a real network delay), and
+ * pre-populated keys whose size sets the size of the replies. DEBUG SLEEP and
+ * DEBUG POPULATE are supported as well, for stalls and bigger datasets at run time.
+ */
+public class EmbeddedRedisServer implements AutoCloseable {
+    private static final Logger LOG = Logger.getInstance(EmbeddedRedisServer.class);
+
+    /**
+     * Number of databases, as in the default Redis configuration
+     */
+    static final int DATABASES = 16;
+
+    /**
+     * Interval of the background housekeeping: expiry sweep and ops/sec sampling
+     */
+    static final long CRON_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Pending output at which a subscriber that does not keep up is disconnected, the hard
+     * pubsub client-output-buffer-limit of Redis
+     */
+    static final long SUBSCRIBER_OUTPUT_LIMIT = 32L * 1024 * 1024;
+
+    private final String host;
+    private final int requestedPort;
+    private final String password;
+    private final int populateCount;
+    private final int populateValueSize;
+    private final EmbeddedKeyspace[] databases = new EmbeddedKeyspace[DATABASES];
+    private final Map<Long, EmbeddedClient> clients = new LinkedHashMap<>();
+    private final Map<String, Set<EmbeddedClient>> channelSubscribers = new HashMap<>();
+    private final Map<String, Set<EmbeddedClient>> patternSubscribers = new HashMap<>();
+    private final Set<EmbeddedClient> dirty = new LinkedHashSet<>();
+    private final Set<EmbeddedClient> writers = new LinkedHashSet<>();
+    private final EmbeddedCommands commands;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private volatile long latencyNanos;
+    private volatile boolean running;
+    private volatile int port;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private long nextClientId = 1;
+    private long totalConnections;
+    private long startedMillis;
+
+    private EmbeddedRedisServer(Builder builder) {
+        this.host = builder.host;
+        this.requestedPort = builder.port;
+        this.password = builder.password;
+        this.latencyNanos = builder.latency.toNanos();
+        this.populateCount = builder.populateCount;
+        this.populateValueSize = builder.populateValueSize;
+        for (int i = 0; i < DATABASES; i++) {
+            databases[i] = new EmbeddedKeyspace();
+        }
+        this.commands = new EmbeddedCommands(this);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bind the port, load the initial keys and start serving on a background thread
+     * @return the port the server listens on, useful when an ephemeral port was requested
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized int start() throws IOException {
+        if (running) {
+            return port;
+        }
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(host, requestedPort), 128);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        port = ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        startedMillis = System.currentTimeMillis();
+        if (populateCount > 0) {
+            commands.populate(databases[0], populateCount, "key", populateValueSize);
+        }
+        running = true;
+        thread = new Thread(this::run, "Embedded Redis " + host + ":" + port);
+        thread.setDaemon(true);
+        thread.start();
+        LOG.info("Embedded Redis server listening on " + host + ":" + port);
+        return port;
+    }
+
+    /**
+     * Close every connection and stop the server; the data is discarded
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Embedded Redis server on " + host + ":" + port + " stopped");
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * @return the port the server listens on, once started
+     */
+    public int getPort() {
+        return port;
+    }
+
+    public Duration getLatency() {
+        return Duration.ofNanos(latencyNanos);
+    }
+
+    /**
+     * Change the delay added to every reply; applies to commands received from now on
+     */
+    public void setLatency(Duration latency) {
+        this.latencyNanos = Math.max(0, latency.toNanos());
+    }
+
+    private void run() {
+        long nextCron = System.nanoTime() + CRON_INTERVAL_NANOS;
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                long wakeUp = nextCron;
+                for (EmbeddedClient client : writers) {
+                    // A client waiting for its socket to drain is woken up by OP_WRITE instead
+                    if (client.selectionKey.isValid()
+                            && (client.selectionKey.interestOps() & SelectionKey.OP_WRITE) == 0) {
+                        wakeUp = Math.min(wakeUp, client.nextDueNanos());
+                    }
+                }
+                long timeoutMillis = (wakeUp - now + 999_999) / 1_000_000;
+                if (timeoutMillis > 0) {
+                    selector.select(timeoutMillis);
+                } else {
+                    selector.selectNow();
+                }
+
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        EmbeddedClient client = (EmbeddedClient) key.attachment();
+                        if (key.isReadable()) {
+                            read(client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            writers.add(client);
+                        }
+                    }
+                }
+
+                now = System.nanoTime();
+                queueReplies(now);
+                flush(now);
+                if (now - nextCron >= 0) {
+                    for (EmbeddedKeyspace database : databases) {
+                        database.sweep();
+                    }
+                    commands.cron(now);
+                    nextCron = now + CRON_INTERVAL_NANOS;
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                LOG.warn("Embedded Redis server failed", e);
+            }
+        } finally {
+            running = false;
+            for (EmbeddedClient client : new ArrayList<>(clients.values())) {
+                closeClient(client);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                LOG.debug("Error closing embedded Redis server", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            EmbeddedClient client = new EmbeddedClient(nextClientId++, channel, key,
+                    String.valueOf(channel.getRemoteAddress()).replaceFirst("^/", ""));
+            client.authenticated = password == null;
+            key.attach(client);
+            clients.put(client.id, client);
+            totalConnections++;
+        }
+    }
+
+    private void read(EmbeddedClient client) {
+        try {
+            readBuffer.clear();
+            int read = client.channel.read(readBuffer);
+            if (read < 0) {
+                closeClient(client);
+                return;
+            }
+            readBuffer.flip();
+            client.decoder.feed(readBuffer);
+            String[] command;
+            while (!client.closeAfterWrite && (command = client.decoder.next()) != null) {
+                if (command.length > 0) {
+                    commands.execute(client, command);
+                }
+            }
+        } catch (RespDecoder.ProtocolException e) {
+            client.encoder.error(e.getMessage());
+            client.closeAfterWrite = true;
+        } catch (IOException e) {
+            closeClient(client);
+            return;
+        }
+        markDirty(client);
+    }
+
+    /**
+     * Note that a client has replies or messages to send
+     */
+    void markDirty(EmbeddedClient client) {
+        dirty.add(client);
+    }
+
+    private void queueReplies(long now) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        long due = now + latencyNanos;
+        for (EmbeddedClient client : dirty) {
+            if (!client.channel.isOpen()) {
+                continue;
+            }
+            client.queueReplies(due);
+            if (client.isSubscribed() && client.getPendingBytes() > SUBSCRIBER_OUTPUT_LIMIT) {
+                LOG.info("Disconnecting embedded Redis subscriber " + client.address
+                        + " for overcoming the output buffer limit");
+                closeClient(client);
+                continue;
+            }
+            if (client.hasOutput() || client.closeAfterWrite) {
+                writers.add(client);
+            }
+        }
+        dirty.clear();
+    }
+
+    private void flush(long now) {
+        Iterator<EmbeddedClient> iterator = writers.iterator();
+        while (iterator.hasNext()) {
+            EmbeddedClient client = iterator.next();
+            if (!client.channel.isOpen()) {
+                iterator.remove();
+                continue;
+            }
+            try {
+                if (!client.writeDue(now)) {
+                    client.selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    continue;
+                }
+            } catch (IOException e) {
+                iterator.remove();
+                closeClient(client);
+                continue;
+            }
+            if (!client.hasOutput()) {
+                iterator.remove();
+                if (client.closeAfterWrite) {
+                    closeClient(client);
+                    continue;
+                }
+            }
+            client.selectionKey.interestOps(client.closeAfterWrite ? 0 : SelectionKey.OP_READ);
+        }
+    }
+
+    private void closeClient(EmbeddedClient client) {
+        unsubscribeAll(client);
+        clients.remove(client.id);
+        client.selectionKey.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            LOG.debug("Error closing embedded Redis client", e);
+        }
+    }
+
+    EmbeddedKeyspace database(int index) {
+        return databases[index];
+    }
+
+    EmbeddedKeyspace[] databases() {
+        return databases;
+    }
+
+    Collection<EmbeddedClient> clients() {
+        return clients.values();
+    }
+
+    /**
+     * Close a client once the replies it has been sent so far are written, for CLIENT KILL
+     */
+    void kill(EmbeddedClient client) {
+        client.closeAfterWrite = true;
+        markDirty(client);
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    long getTotalConnections() {
+        return totalConnections;
+    }
+
+    long getStartedMillis() {
+        return startedMillis;
+    }
+
+    // Pub/Sub registry
+
+    boolean subscribe(EmbeddedClient client, String channel) {
+        channelSubscribers.computeIfAbsent(channel, c -> new LinkedHashSet<>()).add(client);
+        return client.channels.add(channel);
+    }
+
+    boolean unsubscribe(EmbeddedClient client, String channel) {
+        remove(channelSubscribers, channel, client);
+        return client.channels.remove(channel);
+    }
+
+    boolean psubscribe(EmbeddedClient client, String pattern) {
+        patternSubscribers.computeIfAbsent(pattern, p -> new LinkedHashSet<>()).add(client);
+        return client.patterns.add(pattern);
+    }
+
+    boolean punsubscribe(EmbeddedClient client, String pattern) {
+        remove(patternSubscribers, pattern, client);
+        return client.patterns.remove(pattern);
+    }
+
+    Map<String, Set<EmbeddedClient>> getChannelSubscribers() {
+        return channelSubscribers;
+    }
+
+    Map<String, Set<EmbeddedClient>> getPatternSubscribers() {
+        return patternSubscribers;
+    }
+
+    private void unsubscribeAll(EmbeddedClient client) {
+        for (String channel : client.channels) {
+            remove(channelSubscribers, channel, client);
+        }
+        for (String pattern : client.patterns) {
+            remove(patternSubscribers, pattern, client);
+        }
+        client.channels.clear();
+        client.patterns.clear();
+    }
+
+    private static void remove(Map<String, Set<EmbeddedClient>> subscribers, String name, EmbeddedClient client) {
+        Set<EmbeddedClient> set = subscribers.get(name);
+        if (set != null && set.remove(client) && set.isEmpty()) {
+            subscribers.remove(name);
+        }
+    }
+
+    /**
+     * Builder for EmbeddedRedisServer
+     */
+    public static class Builder {
+        private String host = "127.0.0.1";
+        private int port;
+        private String password;
+        private Duration latency = Duration.ZERO;
+        private int populateCount;
+        private int populateValueSize;
+
+        /**
+         * Address to listen on, the loopback address by default
+         */
+        public Builder host(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Port to listen on; 0, the default, picks a free one
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Require AUTH with this password; without one any password is accepted
+         */
+        public Builder password(String password) {
+            this.password = password == null || password.isEmpty() ? null : password;
+            return this;
+        }
+
+        /**
+         * Delay added to every reply, to behave like a server across a network
+         */
+        public Builder latency(Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * Create {@code count} string keys key:0 to key:N-1 in database 0 when starting, as
+         * DEBUG POPULATE does
+         * @param valueSize size of each value in bytes, or 0 for the short default value
+         */
+        public Builder populate(int count, int valueSize) {
+            this.populateCount = count;
+            this.populateValueSize = valueSize;
+            return this;
+        }
+
+        public EmbeddedRedisServer build() {
+            if (host == null || host.isEmpty()) {
+                throw new IllegalStateException("Host is required");
+            }
+            if (port < 0 || port > 65535) {
+                throw new IllegalStateException("Port must be between 0 and 65535");
+            }
+            if (latency == null || latency.isNegative()) {
+                throw new IllegalStateException("Latency must not be negative");
+            }
+            if (populateCount < 0 || populateValueSize < 0) {
+                throw new IllegalStateException("Populate count and value size must not be negative");
+            }
+            return new EmbeddedRedisServer(this);
+        }
+    }
+}
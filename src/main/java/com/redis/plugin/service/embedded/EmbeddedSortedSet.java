@@ -0,0 +1,109 @@
+package com.redis.plugin.service.embedded;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Sorted set value: a member to score map for lookups and a tree ordered by score, then
+ * member, for ranges. Both are kept in step by every update.
+ */
+class EmbeddedSortedSet {
+    private static final Comparator<Map.Entry<String, Double>> ORDER =
+            Comparator.<Map.Entry<String, Double>>comparingDouble(Map.Entry::getValue)
+                    .thenComparing(Map.Entry::getKey);
+
+    private final Map<String, Double> scores = new HashMap<>();
+    private final TreeSet<Map.Entry<String, Double>> ordered = new TreeSet<>(ORDER);
+
+    /**
+     * Add a member or change its score
+     * @return true if the member is new
+     */
+    boolean put(String member, double score) {
+        Double previous = scores.put(member, score);
+        if (previous != null) {
+            ordered.remove(Map.entry(member, previous));
+        }
+        ordered.add(Map.entry(member, score));
+        return previous == null;
+    }
+
+    boolean remove(String member) {
+        Double previous = scores.remove(member);
+        if (previous == null) {
+            return false;
+        }
+        ordered.remove(Map.entry(member, previous));
+        return true;
+    }
+
+    Double score(String member) {
+        return scores.get(member);
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    boolean isEmpty() {
+        return scores.isEmpty();
+    }
+
+    Iterable<String> members() {
+        return scores.keySet();
+    }
+
+    /**
+     * Entries by rank, both ends inclusive and already clamped to the set
+     */
+    List<Map.Entry<String, Double>> range(int from, int to, boolean reverse) {
+        List<Map.Entry<String, Double>> result = new ArrayList<>(Math.max(0, to - from + 1));
+        Iterator<Map.Entry<String, Double>> iterator = reverse ? ordered.descendingIterator() : ordered.iterator();
+        for (int rank = 0; rank <= to && iterator.hasNext(); rank++) {
+            Map.Entry<String, Double> entry = iterator.next();
+            if (rank >= from) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Entries with a score between the bounds, in score order
+     */
+    List<Map.Entry<String, Double>> rangeByScore(double min, boolean minExclusive, double max, boolean maxExclusive,
+                                                 int offset, int count) {
+        List<Map.Entry<String, Double>> result = new ArrayList<>();
+        int skipped = 0;
+        for (Map.Entry<String, Double> entry : ordered.tailSet(Map.entry("", min), true)) {
+            double score = entry.getValue();
+            if (score > max || (maxExclusive && score == max)) {
+                break;
+            }
+            if (minExclusive && score == min) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (count >= 0 && result.size() >= count) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    long estimatedSize() {
+        long bytes = 64;
+        for (String member : scores.keySet()) {
+            bytes += member.length() + 64;
+        }
+        return bytes;
+    }
+}
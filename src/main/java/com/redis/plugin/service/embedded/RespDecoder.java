@@ -0,0 +1,176 @@
+package com.redis.plugin.service.embedded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental decoder for commands sent by a client, in both the multi-bulk form used by
+ * client libraries and the inline form typed into telnet.
+ * <p>
+ * Bytes are appended as they arrive and complete commands are taken off the front; a command
+ * split across reads is simply left in the buffer until the rest arrives. Arguments are
+ * decoded as ISO-8859-1, which maps every byte to one char and so keeps binary values intact.
+ */
+class RespDecoder {
+    /**
+     * Largest accepted bulk argument, the default proto-max-bulk-len of Redis
+     */
+    static final int MAX_BULK_LENGTH = 512 * 1024 * 1024;
+
+    /**
+     * Largest inline command, as in Redis
+     */
+    static final int MAX_INLINE_LENGTH = 64 * 1024;
+
+    private byte[] buffer = new byte[16 * 1024];
+    private int start;
+    private int end;
+
+    /**
+     * Append bytes read from the channel
+     */
+    void feed(ByteBuffer bytes) {
+        int length = bytes.remaining();
+        if (end + length > buffer.length) {
+            int live = end - start;
+            if (live + length > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length * 2, live + length)];
+                System.arraycopy(buffer, start, grown, 0, live);
+                buffer = grown;
+            } else {
+                System.arraycopy(buffer, start, buffer, 0, live);
+            }
+            start = 0;
+            end = live;
+        }
+        bytes.get(buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Take the next complete command off the buffer
+     * @return the command name followed by its arguments, an empty array for a blank inline
+     *         line, or null if no complete command has been received yet
+     * @throws ProtocolException if the client sent something that is not RESP
+     */
+    String[] next() throws ProtocolException {
+        if (start == end) {
+            return null;
+        }
+        String[] command = buffer[start] == '*' ? nextMultiBulk() : nextInline();
+        if (start == end) {
+            start = 0;
+            end = 0;
+        }
+        return command;
+    }
+
+    private String[] nextMultiBulk() throws ProtocolException {
+        int position = start;
+        int lineEnd = lineEnd(position);
+        if (lineEnd < 0) {
+            checkLineLength(position, "multibulk count");
+            return null;
+        }
+        long count = parseLong(position + 1, lineEnd, "multibulk length");
+        if (count > 1024 * 1024) {
+            throw new ProtocolException("invalid multibulk length");
+        }
+        position = lineEnd + 2;
+        String[] arguments = new String[(int) Math.max(count, 0)];
+        for (int i = 0; i < arguments.length; i++) {
+            if (position >= end) {
+                return null;
+            }
+            if (buffer[position] != '$') {
+                throw new ProtocolException("expected '$', got '" + (char) buffer[position] + "'");
+            }
+            lineEnd = lineEnd(position);
+            if (lineEnd < 0) {
+                checkLineLength(position, "bulk length");
+                return null;
+            }
+            long length = parseLong(position + 1, lineEnd, "bulk length");
+            if (length < 0 || length > MAX_BULK_LENGTH) {
+                throw new ProtocolException("invalid bulk length");
+            }
+            position = lineEnd + 2;
+            if (position + length + 2 > end) {
+                return null;
+            }
+            arguments[i] = new String(buffer, position, (int) length, StandardCharsets.ISO_8859_1);
+            position += (int) length + 2;
+        }
+        start = position;
+        return arguments;
+    }
+
+    private String[] nextInline() throws ProtocolException {
+        int newline = -1;
+        for (int i = start; i < end; i++) {
+            if (buffer[i] == '\n') {
+                newline = i;
+                break;
+            }
+        }
+        if (newline < 0) {
+            if (end - start > MAX_INLINE_LENGTH) {
+                throw new ProtocolException("too big inline request");
+            }
+            return null;
+        }
+        int lineEnd = newline > start && buffer[newline - 1] == '\r' ? newline - 1 : newline;
+        String line = new String(buffer, start, lineEnd - start, StandardCharsets.ISO_8859_1);
+        start = newline + 1;
+        List<String> arguments = new ArrayList<>();
+        for (String part : line.trim().split("\\s+")) {
+            if (!part.isEmpty()) {
+                arguments.add(part);
+            }
+        }
+        return arguments.toArray(new String[0]);
+    }
+
+    private int lineEnd(int from) {
+        for (int i = from; i < end - 1; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void checkLineLength(int from, String what) throws ProtocolException {
+        if (end - from > MAX_INLINE_LENGTH) {
+            throw new ProtocolException("too big " + what);
+        }
+    }
+
+    private long parseLong(int from, int to, String what) throws ProtocolException {
+        if (from == to) {
+            throw new ProtocolException("invalid " + what);
+        }
+        boolean negative = buffer[from] == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            byte b = buffer[i];
+            if (b < '0' || b > '9' || value > Integer.MAX_VALUE) {
+                throw new ProtocolException("invalid " + what);
+            }
+            value = value * 10 + (b - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Raised when a client sends bytes that cannot be decoded; the connection is closed after
+     * the error is written, as Redis does
+     */
+    static class ProtocolException extends Exception {
+        ProtocolException(String message) {
+            super("Protocol error: " + message);
+        }
+    }
+}
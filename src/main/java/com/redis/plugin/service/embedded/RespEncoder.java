@@ -0,0 +1,169 @@
+package com.redis.plugin.service.embedded;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Encodes replies into a growable buffer, in RESP2 or RESP3 depending on what the client
+ * negotiated with HELLO.
+ * <p>
+ * The RESP3-only types (maps, sets, doubles, nulls and pushes) are written as their RESP2
+ * equivalents when the client speaks RESP2, the same way Redis downgrades them.
+ */
+class RespEncoder {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private byte[] buffer = new byte[4096];
+    private int size;
+    private int protocol = 2;
+
+    void setProtocol(int protocol) {
+        this.protocol = protocol;
+    }
+
+    int getProtocol() {
+        return protocol;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copy out the encoded replies and reset the buffer
+     */
+    ByteBuffer drain() {
+        ByteBuffer bytes = ByteBuffer.wrap(Arrays.copyOf(buffer, size));
+        size = 0;
+        if (buffer.length > 1024 * 1024) {
+            buffer = new byte[4096];
+        }
+        return bytes;
+    }
+
+    RespEncoder simple(String value) {
+        return line('+', value);
+    }
+
+    /**
+     * Write an error; a message without an upper-case code is prefixed with ERR
+     */
+    RespEncoder error(String message) {
+        int space = message.indexOf(' ');
+        String code = space > 0 ? message.substring(0, space) : message;
+        boolean hasCode = !code.isEmpty() && code.equals(code.toUpperCase()) && Character.isLetter(code.charAt(0));
+        return line('-', hasCode ? message : "ERR " + message);
+    }
+
+    RespEncoder ok() {
+        return simple("OK");
+    }
+
+    RespEncoder integer(long value) {
+        return line(':', Long.toString(value));
+    }
+
+    RespEncoder bulk(String value) {
+        if (value == null) {
+            return nullValue();
+        }
+        int length = value.length();
+        header('$', length);
+        ensure(length + 2);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+        return raw(CRLF);
+    }
+
+    RespEncoder arrayHeader(int count) {
+        return header('*', count);
+    }
+
+    RespEncoder array(Collection<String> values) {
+        arrayHeader(values.size());
+        for (String value : values) {
+            bulk(value);
+        }
+        return this;
+    }
+
+    /**
+     * Header of a map of {@code count} pairs, a flat array of twice the size in RESP2
+     */
+    RespEncoder mapHeader(int count) {
+        return protocol >= 3 ? header('%', count) : header('*', count * 2);
+    }
+
+    RespEncoder setHeader(int count) {
+        return protocol >= 3 ? header('~', count) : header('*', count);
+    }
+
+    /**
+     * Header of an out-of-band message such as a pub/sub delivery, a plain array in RESP2
+     */
+    RespEncoder pushHeader(int count) {
+        return protocol >= 3 ? header('>', count) : header('*', count);
+    }
+
+    RespEncoder doubleValue(double value) {
+        String formatted = formatDouble(value);
+        return protocol >= 3 ? line(',', formatted) : bulk(formatted);
+    }
+
+    RespEncoder nullValue() {
+        return protocol >= 3 ? raw(new byte[]{'_', '\r', '\n'}) : line('$', "-1");
+    }
+
+    RespEncoder nullArray() {
+        return protocol >= 3 ? raw(new byte[]{'_', '\r', '\n'}) : line('*', "-1");
+    }
+
+    /**
+     * Format a score the way Redis does: integral values without a fraction, infinities as inf
+     */
+    static String formatDouble(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "inf" : "-inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e17) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private RespEncoder header(char type, long count) {
+        return line(type, Long.toString(count));
+    }
+
+    private RespEncoder line(char type, String value) {
+        int length = value.length();
+        ensure(length + 3);
+        buffer[size++] = (byte) type;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer[size++] = c == '\r' || c == '\n' ? (byte) ' ' : (byte) c;
+        }
+        buffer[size++] = '\r';
+        buffer[size++] = '\n';
+        return this;
+    }
+
+    private RespEncoder raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+}
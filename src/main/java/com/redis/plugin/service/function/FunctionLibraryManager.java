@@ -0,0 +1,155 @@
+package com.redis.plugin.service.function;
+
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisFunction;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisService;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.resps.LibraryInfo;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manages the Redis 7 function libraries of one connection: lists them, loads or updates
+ * them from files and calls their functions.
+ * <p>
+ * Libraries are always loaded with {@code FUNCTION LOAD REPLACE}, so loading a file again
+ * updates its library in place, and the file each library came from is remembered for that.
+ * Calls go through {@link RedisService#executeArgs} like any other command, with
+ * {@code FCALL_RO} for read-only functions so they may be served by a replica, and the
+ * round trip of every call is recorded per function. Methods block on the server and must
+ * run off the EDT.
+ */
+public class FunctionLibraryManager {
+    private final RedisConnection connection;
+    private final RedisService service;
+    private final Map<String, Path> libraryFiles = new ConcurrentHashMap<>();
+    private final Map<String, FunctionStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param connection the connection the libraries are listed on
+     * @param service the service calls and loads go through, connected to the same server
+     */
+    public FunctionLibraryManager(RedisConnection connection, RedisService service) {
+        this.connection = connection;
+        this.service = service;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * @return the functions of every library, by library then function name
+     * @throws redis.clients.jedis.exceptions.JedisException if the server has no functions, before Redis 7
+     */
+    public List<RedisFunction> list() {
+        List<RedisFunction> functions = new ArrayList<>();
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            for (LibraryInfo library : jedis.functionList()) {
+                for (Map<String, Object> function : library.getFunctions()) {
+                    Object description = function.get("description");
+                    functions.add(new RedisFunction(library.getLibraryName(), text(function.get("name")),
+                            description == null ? null : text(description), flags(function.get("flags"))));
+                }
+            }
+        }
+        functions.sort((a, b) -> a.getLibrary().equals(b.getLibrary())
+                ? a.getName().compareTo(b.getName())
+                : a.getLibrary().compareTo(b.getLibrary()));
+        return functions;
+    }
+
+    /**
+     * Load a library from a file, replacing the library of the same name if there is one
+     *
+     * @param file a file whose first line names the engine and library, e.g.
+     *             {@code #!lua name=mylib}
+     * @return the name of the library, or the error of the server
+     */
+    public RedisResult load(Path file) throws IOException {
+        String code = Files.readString(file, StandardCharsets.UTF_8);
+        RedisResult result = service.executeArgs("FUNCTION", "LOAD", "REPLACE", code);
+        if (!result.isError() && result.getValue() != null) {
+            libraryFiles.put(result.getValue().toString(), file);
+        }
+        return result;
+    }
+
+    /**
+     * @return the file the library was last loaded from, or null if it was not loaded here
+     */
+    public Path getFile(String library) {
+        return libraryFiles.get(library);
+    }
+
+    public RedisResult delete(String library) {
+        RedisResult result = service.executeArgs("FUNCTION", "DELETE", library);
+        if (!result.isError()) {
+            libraryFiles.remove(library);
+        }
+        return result;
+    }
+
+    /**
+     * Call a function and record its round trip
+     *
+     * @param function the function to call
+     * @param readOnly whether to call it with {@code FCALL_RO}, which the server refuses for
+     *                 functions not flagged {@code no-writes}
+     * @param keys the key names, as {@code keys} in the function
+     * @param args the other arguments, as {@code args} in the function
+     * @return the reply or error of the function
+     */
+    public RedisResult call(RedisFunction function, boolean readOnly, List<String> keys, List<String> args) {
+        List<String> command = new ArrayList<>(keys.size() + args.size() + 3);
+        command.add(readOnly ? "FCALL_RO" : "FCALL");
+        command.add(function.getName());
+        command.add(String.valueOf(keys.size()));
+        command.addAll(keys);
+        command.addAll(args);
+        long start = System.nanoTime();
+        RedisResult result = service.executeArgs(command.toArray(new String[0]));
+        long micros = (System.nanoTime() - start) / 1000;
+        stats.computeIfAbsent(function.getName(), name -> new FunctionStats()).record(micros, result.isError());
+        return result;
+    }
+
+    /**
+     * @return the calls made to the function so far, or null if it was not called
+     */
+    public FunctionStats getStats(String function) {
+        return stats.get(function);
+    }
+
+    public void resetStats() {
+        stats.clear();
+    }
+
+    private static Set<String> flags(Object reply) {
+        if (!(reply instanceof Collection)) {
+            return Collections.emptySet();
+        }
+        Set<String> flags = new LinkedHashSet<>();
+        for (Object flag : (Collection<?>) reply) {
+            flags.add(text(flag));
+        }
+        return flags;
+    }
+
+    private static String text(Object reply) {
+        return reply instanceof byte[] ? new String((byte[]) reply, StandardCharsets.UTF_8) : String.valueOf(reply);
+    }
+}
@@ -0,0 +1,49 @@
+package com.redis.plugin.service.function;
+
+import com.redis.plugin.service.benchmark.LatencyHistogram;
+
+/**
+ * Latency of the calls made to one function, as seen from the client.
+ * <p>
+ * Calls are recorded from background threads and read from the EDT, so access is
+ * synchronized; the histogram keeps a few kilobytes however many calls are recorded.
+ */
+public class FunctionStats {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long errors;
+
+    /**
+     * @param micros the round trip of the call
+     * @param error whether the call replied with an error
+     */
+    public synchronized void record(long micros, boolean error) {
+        histogram.record(micros);
+        if (error) {
+            errors++;
+        }
+    }
+
+    public synchronized long getCalls() {
+        return histogram.getCount();
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the latency below which the given percentage of calls fall, in microseconds
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    public synchronized long getMax() {
+        return histogram.getMax();
+    }
+
+    public synchronized void reset() {
+        histogram.reset();
+        errors = 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.redis.plugin.service.guard;
+
+import com.redis.plugin.model.RedisConnection;
+
+/**
+ * Estimated cost of running a command, in elements it touches, from the live size of what
+ * it runs on
+ */
+public class CostEstimate {
+    /**
+     * What to do with a command on a production server
+     */
+    public enum Verdict {
+        ALLOW,
+        WARN,
+        BLOCK
+    }
+
+    private final String command;
+    private final long elements;
+    private final String basis;
+    private final String rewrite;
+
+    /**
+     * @param command the command name, e.g. "HGETALL"
+     * @param elements the estimated number of elements touched
+     * @param basis how the estimate was obtained, e.g. "HLEN user:1"
+     * @param rewrite a paged equivalent of the command, or null if it has none
+     */
+    public CostEstimate(String command, long elements, String basis, String rewrite) {
+        this.command = command;
+        this.elements = elements;
+        this.basis = basis;
+        this.rewrite = rewrite;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getElements() {
+        return elements;
+    }
+
+    public String getBasis() {
+        return basis;
+    }
+
+    public String getRewrite() {
+        return rewrite;
+    }
+
+    /**
+     * @return whether the command may run on the connection, given its thresholds
+     */
+    public Verdict verdict(RedisConnection connection) {
+        if (!connection.isProduction() || elements < connection.getWarnCost()) {
+            return Verdict.ALLOW;
+        }
+        return elements < connection.getBlockCost() ? Verdict.WARN : Verdict.BLOCK;
+    }
+
+    /**
+     * @return a one-line description, e.g. "HGETALL touches about 250,000 elements (HLEN user:1)"
+     */
+    public String describe() {
+        return String.format("%s touches about %,d elements (%s)", command, elements, basis);
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+}
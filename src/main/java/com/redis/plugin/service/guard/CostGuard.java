@@ -0,0 +1,286 @@
+package com.redis.plugin.service.guard;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisCommandComplexity;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.RedisService;
+import com.redis.plugin.service.slowlog.CommandTemplates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Estimates what a command will cost before it runs, from the complexity the catalog gives
+ * it and the live size of what it runs on.
+ * <p>
+ * Commands that scan the keyspace ({@code KEYS}, {@code FLUSHDB}) are sized with
+ * {@code DBSIZE}, and commands reading a whole collection with its O(1) length
+ * ({@code HLEN}, {@code SCARD}, {@code LLEN}, {@code ZCARD}); ranges are narrowed to the
+ * elements they select. These commands also get a paged equivalent: a {@code SCAN} family
+ * cursor or a range of {@link #PAGE_SIZE} elements. Any other command the catalog lists as
+ * O(N) or worse is sized by the collection at its first key. Each estimate costs one or two
+ * constant-time round trips.
+ */
+public class CostGuard {
+    /**
+     * Elements returned by a paged rewrite
+     */
+    public static final int PAGE_SIZE = 1000;
+
+    private final RedisService service;
+    private final RedisCommandCatalog catalog;
+
+    /**
+     * @param service the connection to size commands on
+     * @param catalog catalog giving the complexity of commands without a dedicated estimate
+     */
+    public CostGuard(RedisService service, RedisCommandCatalog catalog) {
+        this.service = service;
+        this.catalog = catalog;
+    }
+
+    /**
+     * @param args the command and its arguments
+     * @return the estimated cost, or null if the command is constant time or cannot be sized
+     */
+    public CostEstimate estimate(String[] args) {
+        if (args.length == 0) {
+            return null;
+        }
+        String name = args[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (name) {
+                case "KEYS":
+                    return args.length == 2
+                            ? keyspace(name, "SCAN 0 MATCH " + quote(args[1]) + " COUNT " + PAGE_SIZE)
+                            : null;
+                case "FLUSHDB":
+                    return keyspace(name, null);
+                case "FLUSHALL":
+                    return new CostEstimate(name, allKeys(), "INFO keyspace", null);
+                case "HGETALL":
+                case "HKEYS":
+                case "HVALS":
+                    return args.length == 2 ? collection(name, "HLEN", args[1], "HSCAN") : null;
+                case "SMEMBERS":
+                    return args.length == 2 ? collection(name, "SCARD", args[1], "SSCAN") : null;
+                case "SINTER":
+                case "SUNION":
+                case "SDIFF":
+                    return sets(name, Arrays.copyOfRange(args, 1, args.length));
+                case "LRANGE":
+                    return args.length == 4 ? range(name, "LLEN", args) : null;
+                case "ZRANGE":
+                    return args.length >= 4 ? zrange(name, args) : null;
+                case "ZREVRANGE":
+                    return args.length >= 4 ? range(name, "ZCARD", args) : null;
+                case "ZRANGEBYSCORE":
+                case "ZREVRANGEBYSCORE":
+                case "ZRANGEBYLEX":
+                case "ZREVRANGEBYLEX":
+                    return args.length >= 4 ? limited(name, args) : null;
+                default:
+                    return fromCatalog(name, args);
+            }
+        } catch (NumberFormatException e) {
+            // Malformed ranges are left for the server to report
+            return null;
+        }
+    }
+
+    private CostEstimate keyspace(String name, String rewrite) {
+        long keys = integer("DBSIZE");
+        return keys < 0 ? null : new CostEstimate(name, keys, "DBSIZE", rewrite);
+    }
+
+    private long allKeys() {
+        RedisResult info = service.executeArgs("INFO", "keyspace");
+        if (info.isError() || info.getValue() == null) {
+            return integer("DBSIZE");
+        }
+        long keys = 0;
+        // Lines such as db0:keys=123,expires=4,avg_ttl=0
+        for (String line : info.getValue().toString().split("\r?\n")) {
+            int start = line.indexOf("keys=");
+            if (line.startsWith("db") && start >= 0) {
+                int end = line.indexOf(',', start);
+                keys += Long.parseLong(line.substring(start + 5, end < 0 ? line.length() : end));
+            }
+        }
+        return keys;
+    }
+
+    private CostEstimate collection(String name, String length, String key, String scan) {
+        long elements = integer(length, key);
+        if (elements < 0) {
+            return null;
+        }
+        return new CostEstimate(name, elements, length + " " + key, scan + " " + quote(key) + " 0 COUNT " + PAGE_SIZE);
+    }
+
+    private CostEstimate sets(String name, String[] keys) {
+        long elements = 0;
+        for (String key : keys) {
+            long cardinality = integer("SCARD", key);
+            if (cardinality < 0) {
+                return null;
+            }
+            elements += cardinality;
+        }
+        return new CostEstimate(name, elements, "SCARD of " + keys.length + " sets", null);
+    }
+
+    /**
+     * Size an index range such as {@code LRANGE key 0 -1}, and page it from its start
+     */
+    private CostEstimate range(String name, String length, String[] args) {
+        long size = integer(length, args[1]);
+        if (size < 0) {
+            return null;
+        }
+        long start = Long.parseLong(args[2]);
+        long stop = Long.parseLong(args[3]);
+        start = start < 0 ? Math.max(0, size + start) : start;
+        stop = stop < 0 ? size + stop : Math.min(stop, size - 1);
+        long elements = Math.max(0, stop - start + 1);
+        String rewrite = null;
+        if (elements > PAGE_SIZE) {
+            String[] paged = args.clone();
+            paged[2] = String.valueOf(start);
+            paged[3] = String.valueOf(start + PAGE_SIZE - 1);
+            rewrite = join(paged);
+        }
+        return new CostEstimate(name, elements, length + " " + args[1], rewrite);
+    }
+
+    private CostEstimate zrange(String name, String[] args) {
+        for (int i = 4; i < args.length; i++) {
+            String option = args[i].toUpperCase(Locale.ROOT);
+            if (option.equals("BYSCORE") || option.equals("BYLEX")) {
+                return limited(name, args);
+            }
+        }
+        return range(name, "ZCARD", args);
+    }
+
+    /**
+     * Size a score or lexicographical range by its limit, or else by the whole sorted set, and
+     * page it with a limit
+     */
+    private CostEstimate limited(String name, String[] args) {
+        long size = integer("ZCARD", args[1]);
+        if (size < 0) {
+            return null;
+        }
+        for (int i = 4; i + 2 < args.length; i++) {
+            if (args[i].equalsIgnoreCase("LIMIT")) {
+                long count = Long.parseLong(args[i + 2]);
+                return new CostEstimate(name, count < 0 ? size : Math.min(count, size), "ZCARD " + args[1], null);
+            }
+        }
+        return new CostEstimate(name, size, "ZCARD " + args[1], join(args) + " LIMIT 0 " + PAGE_SIZE);
+    }
+
+    /**
+     * Size a linear command the catalog knows by the collection at its first key
+     */
+    private CostEstimate fromCatalog(String name, String[] args) {
+        if (catalog == null) {
+            return null;
+        }
+        List<String> argList = Arrays.asList(args);
+        RedisCommand command = catalog.getCommand(CommandTemplates.commandName(argList));
+        if (command == null) {
+            command = catalog.getCommand(args[0]);
+        }
+        if (command == null || !isLinear(command.getComplexity())) {
+            return null;
+        }
+        int keyIndex = command.getFirstKey() > 0 ? command.getFirstKey() : syntaxKeyIndex(command);
+        if (keyIndex <= 0 || keyIndex >= args.length) {
+            return null;
+        }
+        String key = args[keyIndex];
+        String length = lengthCommand(key);
+        if (length == null) {
+            return null;
+        }
+        long elements = integer(length, key);
+        return elements < 0 ? null : new CostEstimate(name, elements, length + " " + key, null);
+    }
+
+    /**
+     * @return the position of the key in the arguments, if the syntax starts with one
+     */
+    private static int syntaxKeyIndex(RedisCommand command) {
+        String[] words = command.getSyntax().split("\\s+");
+        int nameWords = command.getName().split(" ").length;
+        return words.length > nameWords && words[nameWords].equals("key") ? nameWords : -1;
+    }
+
+    /**
+     * @return the constant-time command giving the size of the value at a key, or null
+     */
+    private String lengthCommand(String key) {
+        RedisResult type = service.executeArgs("TYPE", key);
+        if (type.isError() || type.getValue() == null) {
+            return null;
+        }
+        switch (type.getValue().toString()) {
+            case "string":
+                return "STRLEN";
+            case "list":
+                return "LLEN";
+            case "set":
+                return "SCARD";
+            case "zset":
+                return "ZCARD";
+            case "hash":
+                return "HLEN";
+            case "stream":
+                return "XLEN";
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isLinear(RedisCommandComplexity complexity) {
+        return complexity == RedisCommandComplexity.ON
+                || complexity == RedisCommandComplexity.OM_PLUS_N
+                || complexity == RedisCommandComplexity.ON_SQUARE;
+    }
+
+    /**
+     * @return the integer reply of the command, or -1 if it failed
+     */
+    private long integer(String... args) {
+        RedisResult result = service.executeArgs(args);
+        if (result.isError() || !(result.getValue() instanceof Long)) {
+            return -1;
+        }
+        return (Long) result.getValue();
+    }
+
+    private static String join(String[] args) {
+        List<String> quoted = new ArrayList<>(args.length);
+        for (String arg : args) {
+            quoted.add(quote(arg));
+        }
+        return String.join(" ", quoted);
+    }
+
+    /**
+     * @return the argument as typed in the command editor, quoted if it has spaces
+     */
+    static String quote(String arg) {
+        for (int i = 0; i < arg.length(); i++) {
+            if (Character.isWhitespace(arg.charAt(i))) {
+                return "\"" + arg + "\"";
+            }
+        }
+        return arg.isEmpty() ? "\"\"" : arg;
+    }
+}
@@ -0,0 +1,235 @@
+package com.redis.plugin.service.history;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Commands of one connection and database, most recent first, without duplicates.
+ * <p>
+ * A hash map from command to node of a doubly linked list makes adding, re-running (moving
+ * to the front) and evicting the oldest command O(1) whatever the size, so a history of
+ * 100,000 commands costs no more per command than one of 100. Not thread-safe; callers
+ * synchronize.
+ * <p>
+ * The first {@link #search} builds a {@link HistoryIndex}, which is then kept up to date as
+ * commands are added and evicted.
+ */
+public class CommandHistory {
+    private final Map<String, Node> nodes = new HashMap<>();
+    private Node newest;
+    private Node oldest;
+    private int maxSize;
+    private long sequence;
+    private HistoryIndex index;
+
+    /**
+     * @param maxSize number of commands kept; the oldest are evicted beyond it
+     */
+    public CommandHistory(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Add a command as the most recent, moving it to the front if it is already known
+     * @return the command evicted to stay within the size limit, or null
+     */
+    public String add(String command) {
+        return add(HistoryEntry.of(command));
+    }
+
+    /**
+     * Add a command run as the most recent, moving it to the front if it is already known
+     * @return the command evicted to stay within the size limit, or null
+     */
+    public String add(HistoryEntry entry) {
+        Node node = nodes.get(entry.getCommand());
+        if (node != null) {
+            unlink(node);
+        } else {
+            node = newNode(entry.getCommand());
+        }
+        node.entry = entry;
+        node.sequence = ++sequence;
+        linkFirst(node);
+        return nodes.size() > maxSize ? removeOldest() : null;
+    }
+
+    /**
+     * Append a command as the oldest, unless already present; for loading saved history
+     * that is stored most recent first
+     */
+    public void addOldest(String command) {
+        addOldest(HistoryEntry.of(command));
+    }
+
+    /**
+     * Append a command run as the oldest, unless already present
+     */
+    public void addOldest(HistoryEntry entry) {
+        if (nodes.size() >= maxSize || nodes.containsKey(entry.getCommand())) {
+            return;
+        }
+        Node node = newNode(entry.getCommand());
+        node.entry = entry;
+        node.sequence = -nodes.size();
+        node.newer = oldest;
+        if (oldest != null) {
+            oldest.older = node;
+        } else {
+            newest = node;
+        }
+        oldest = node;
+    }
+
+    public boolean remove(String command) {
+        Node node = nodes.remove(command);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        if (index != null) {
+            index.remove(node);
+        }
+        return true;
+    }
+
+    public boolean contains(String command) {
+        return nodes.containsKey(command);
+    }
+
+    /**
+     * @param limit maximum number of commands returned
+     * @return the most recent commands, most recent first
+     */
+    public List<String> recent(int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, nodes.size()));
+        for (Node node = newest; node != null && result.size() < limit; node = node.older) {
+            result.add(node.command);
+        }
+        return result;
+    }
+
+    /**
+     * Find commands containing the query, ignoring case, then commands similar to it
+     * @param limit maximum number of commands returned
+     * @return matching commands, those containing the query first, most recent first
+     */
+    public List<String> search(String query, int limit) {
+        if (index == null) {
+            index = new HistoryIndex();
+            for (Node node = oldest; node != null; node = node.newer) {
+                index.add(node);
+            }
+        }
+        return index.search(query, limit, newest, nodes.size());
+    }
+
+    /**
+     * @return every command, most recent first
+     */
+    public List<String> toList() {
+        return recent(nodes.size());
+    }
+
+    /**
+     * @return every command with when and how it last ran, most recent first
+     */
+    public List<HistoryEntry> entries() {
+        List<HistoryEntry> result = new ArrayList<>(nodes.size());
+        for (Node node = newest; node != null; node = node.older) {
+            result.add(node.entry);
+        }
+        return result;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Change the size limit, evicting the oldest commands if it shrinks
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        while (nodes.size() > this.maxSize) {
+            removeOldest();
+        }
+    }
+
+    public void clear() {
+        nodes.clear();
+        newest = null;
+        oldest = null;
+        index = null;
+    }
+
+    private String removeOldest() {
+        Node node = oldest;
+        nodes.remove(node.command);
+        unlink(node);
+        if (index != null) {
+            index.remove(node);
+        }
+        return node.command;
+    }
+
+    private Node newNode(String command) {
+        Node node = new Node(command);
+        nodes.put(command, node);
+        if (index != null) {
+            index.add(node);
+        }
+        return node;
+    }
+
+    private void linkFirst(Node node) {
+        node.older = newest;
+        node.newer = null;
+        if (newest != null) {
+            newest.newer = node;
+        } else {
+            oldest = node;
+        }
+        newest = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.newer != null) {
+            node.newer.older = node.older;
+        } else {
+            newest = node.older;
+        }
+        if (node.older != null) {
+            node.older.newer = node.newer;
+        } else {
+            oldest = node.newer;
+        }
+        node.newer = null;
+        node.older = null;
+    }
+
+    /**
+     * A command in the recency list; {@link #sequence} grows each time it is run
+     */
+    static class Node {
+        final String command;
+        final String lower;
+        HistoryEntry entry;
+        Node newer;
+        Node older;
+        long sequence;
+        int id;
+
+        Node(String command) {
+            this.command = command;
+            this.lower = command.toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.redis.plugin.service.history;
+
+/**
+ * A command in the history, with when and how it last ran
+ */
+public class HistoryEntry {
+    /**
+     * Latency of commands whose execution was not timed, such as imported history
+     */
+    public static final long UNKNOWN_LATENCY = -1;
+
+    private final String command;
+    private final long timestamp;
+    private final long latencyMillis;
+    private final boolean error;
+
+    /**
+     * @param command the command as typed
+     * @param timestamp when the command ran, in milliseconds since the epoch, or 0 if unknown
+     * @param latencyMillis execution time, or {@link #UNKNOWN_LATENCY}
+     * @param error whether the command failed
+     */
+    public HistoryEntry(String command, long timestamp, long latencyMillis, boolean error) {
+        this.command = command;
+        this.timestamp = timestamp;
+        this.latencyMillis = latencyMillis;
+        this.error = error;
+    }
+
+    /**
+     * @return an entry for a command whose execution is not known, run now
+     */
+    public static HistoryEntry of(String command) {
+        return new HistoryEntry(command, System.currentTimeMillis(), UNKNOWN_LATENCY, false);
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+}
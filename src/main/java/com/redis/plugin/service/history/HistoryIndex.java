@@ -0,0 +1,215 @@
+package com.redis.plugin.service.history;
+
+import com.redis.plugin.service.util.Trigrams;
+import com.redis.plugin.service.util.Trigrams.Postings;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Trigram index over the commands of a {@link CommandHistory}, for search as you type.
+ * <p>
+ * Every distinct command gets an id, and every lower-cased trigram of it points to a sorted
+ * posting list of ids. A query first looks for commands containing it: the posting lists of
+ * its trigrams are intersected, starting with the shortest, and candidates are verified.
+ * When the query is so common that the intersection would be huge, the recency list is
+ * scanned instead, which finds enough matches almost immediately. If fewer than the
+ * requested number contain the query, commands sharing at least half of its trigrams fill the
+ * rest, best match first, which tolerates typos and reordered words. Only the most recently
+ * added commands of a trigram shared by very many commands are counted for those, which bounds
+ * the work per keystroke at the cost of missing some old near-matches.
+ * <p>
+ * Re-running a command only updates its recency; the index changes when a command is first
+ * added. Evicted commands are marked dead and dropped from the posting lists once they
+ * outnumber the live ones, so maintenance stays amortized O(length of the command).
+ * Trigrams and posting lists are the shared {@link Trigrams} ones.
+ */
+class HistoryIndex {
+    /**
+     * Share of the query trigrams a command must contain to be a fuzzy match
+     */
+    static final double FUZZY_THRESHOLD = 0.5;
+
+    /**
+     * Number of ids, the most recent, counted per trigram when looking for similar commands
+     */
+    static final int FUZZY_SCAN_LIMIT = 2048;
+
+    /**
+     * Dead ids tolerated before the posting lists are compacted
+     */
+    static final int MIN_DEAD_BEFORE_COMPACTION = 1024;
+
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private CommandHistory.Node[] nodes = new CommandHistory.Node[1024];
+    private int nextId;
+    private int dead;
+    private int[] counts = new int[0];
+
+    void add(CommandHistory.Node node) {
+        if (nextId == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+        node.id = nextId++;
+        nodes[node.id] = node;
+        index(node);
+    }
+
+    void remove(CommandHistory.Node node) {
+        nodes[node.id] = null;
+        dead++;
+        if (dead >= MIN_DEAD_BEFORE_COMPACTION && dead > nextId - dead) {
+            compact();
+        }
+    }
+
+    /**
+     * @param newest the most recent command, to scan from when the query is very common
+     * @param size number of live commands
+     * @return up to {@code limit} commands containing the query, most recent first, then
+     *         commands similar to it, most similar first
+     */
+    List<String> search(String query, int limit, CommandHistory.Node newest, int size) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<CommandHistory.Node> found = new ArrayList<>();
+        if (needle.isEmpty() || limit <= 0) {
+            return toCommands(found);
+        }
+        long[] grams = Trigrams.of(needle);
+        if (grams.length == 0) {
+            // Too short to use the index: scan from the most recent, short queries match early
+            scan(needle, limit, newest, found);
+            return toCommands(found);
+        }
+
+        Postings[] lists = new Postings[grams.length];
+        boolean complete = true;
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            complete &= lists[i] != null;
+        }
+        if (complete) {
+            Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+            if (lists[0].size() > Math.max(limit * 8, size / 8)) {
+                scan(needle, limit, newest, found);
+            } else {
+                intersect(needle, limit, lists, found);
+            }
+        }
+        if (found.size() < limit) {
+            fuzzy(needle, grams, limit, found);
+        }
+        return toCommands(found);
+    }
+
+    private static void scan(String needle, int limit, CommandHistory.Node newest, List<CommandHistory.Node> found) {
+        for (CommandHistory.Node node = newest; node != null && found.size() < limit; node = node.older) {
+            if (node.lower.contains(needle)) {
+                found.add(node);
+            }
+        }
+    }
+
+    private void intersect(String needle, int limit, Postings[] lists, List<CommandHistory.Node> found) {
+        // Narrow down one list at a time, so the candidates shrink before the long lists are probed
+        int[] candidates = lists[0].toArray();
+        int count = candidates.length;
+        for (int j = 1; j < lists.length && count > 0; j++) {
+            count = Trigrams.intersect(candidates, count, lists[j]);
+        }
+        // Keep the most recent matches in a min-heap. Ids follow the order commands were first
+        // added, so going from the highest fills it early and older candidates are skipped unverified
+        PriorityQueue<CommandHistory.Node> recent = new PriorityQueue<>(limit, Comparator.comparingLong(n -> n.sequence));
+        for (int i = count - 1; i >= 0; i--) {
+            CommandHistory.Node node = nodes[candidates[i]];
+            if (node == null || recent.size() == limit && node.sequence < recent.peek().sequence) {
+                continue;
+            }
+            if (node.lower.contains(needle)) {
+                recent.add(node);
+                if (recent.size() > limit) {
+                    recent.poll();
+                }
+            }
+        }
+        List<CommandHistory.Node> matches = new ArrayList<>(recent);
+        matches.sort(Comparator.comparingLong((CommandHistory.Node n) -> n.sequence).reversed());
+        found.addAll(matches);
+    }
+
+    private void fuzzy(String needle, long[] grams, int limit, List<CommandHistory.Node> found) {
+        if (counts.length < nextId) {
+            counts = new int[nodes.length];
+        }
+        List<CommandHistory.Node> candidates = new ArrayList<>();
+        int required = Math.max(1, (int) Math.ceil(grams.length * FUZZY_THRESHOLD));
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = list.size() - 1; i >= Math.max(0, list.size() - FUZZY_SCAN_LIMIT); i--) {
+                int id = list.get(i);
+                if (++counts[id] == required && nodes[id] != null && !nodes[id].lower.contains(needle)) {
+                    candidates.add(nodes[id]);
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingInt((CommandHistory.Node n) -> counts[n.id]).reversed()
+                .thenComparing(Comparator.comparingLong((CommandHistory.Node n) -> n.sequence).reversed()));
+        for (int i = 0; i < candidates.size() && found.size() < limit; i++) {
+            found.add(candidates.get(i));
+        }
+        // Reset only what was touched, so the scratch array is reused without clearing it all
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list != null) {
+                for (int i = list.size() - 1; i >= Math.max(0, list.size() - FUZZY_SCAN_LIMIT); i--) {
+                    counts[list.get(i)] = 0;
+                }
+            }
+        }
+    }
+
+    private void index(CommandHistory.Node node) {
+        for (long gram : Trigrams.of(node.lower)) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(node.id);
+        }
+    }
+
+    /**
+     * Drop dead ids, renumbering the live ones in their original order so lists stay sorted
+     */
+    private void compact() {
+        CommandHistory.Node[] live = new CommandHistory.Node[Math.max(1024, Integer.highestOneBit(Math.max(1, nextId - dead)) * 2)];
+        int id = 0;
+        for (int i = 0; i < nextId; i++) {
+            if (nodes[i] != null) {
+                nodes[i].id = id;
+                live[id++] = nodes[i];
+            }
+        }
+        nodes = live;
+        nextId = id;
+        dead = 0;
+        postings.clear();
+        for (int i = 0; i < nextId; i++) {
+            index(nodes[i]);
+        }
+        counts = new int[0];
+    }
+
+    private static List<String> toCommands(List<CommandHistory.Node> nodes) {
+        List<String> commands = new ArrayList<>(nodes.size());
+        for (CommandHistory.Node node : nodes) {
+            commands.add(node.command);
+        }
+        return commands;
+    }
+}
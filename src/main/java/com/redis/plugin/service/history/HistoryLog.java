@@ -0,0 +1,289 @@
+package com.redis.plugin.service.history;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only binary log of the command history, so recording a command writes a few dozen
+ * bytes instead of serializing the whole history.
+ * <p>
+ * The file starts with a magic number and a version, followed by length-prefixed records:
+ * a command added to a partition, with its timestamp, latency and status, or a partition
+ * cleared. Replaying the records in order rebuilds the history, and a record torn by a crash
+ * is cut off. Re-run and evicted commands leave stale records behind, so the owner rewrites
+ * the log from the live history once they dominate: {@link #startRewrite}, then
+ * {@link #writeSnapshot} without holding its lock while records are still appended, then
+ * {@link #finishRewrite}. Not thread-safe otherwise; callers synchronize.
+ */
+public class HistoryLog implements Closeable {
+    private static final int MAGIC = 0x52484C47; // "RHLG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte ADD = 1;
+    private static final byte CLEAR = 2;
+
+    private final Path file;
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+    private FileChannel channel;
+    private long recordCount;
+    private List<byte[]> appendedDuringRewrite;
+
+    /**
+     * Receives the records of the log in the order they were written
+     */
+    public interface Listener {
+        void added(String partition, HistoryEntry entry);
+
+        void cleared(String partition);
+    }
+
+    public HistoryLog(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return Files.exists(file);
+    }
+
+    /**
+     * @return records written since the log was last rewritten, stale ones included
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Replay every record of the log, cutting off a torn record at the end. The file is read
+     * into memory rather than mapped, so it can be truncated or replaced right afterwards.
+     *
+     * @return number of records read
+     */
+    public long replay(Listener listener) throws IOException {
+        recordCount = 0;
+        if (!exists()) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            if (size < HEADER_SIZE) {
+                in.truncate(0);
+                return 0;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Command history log too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && in.read(buffer) >= 0) {
+                // Read the whole file
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a command history log: " + file);
+            }
+            Map<String, String> partitions = new HashMap<>();
+            long valid = buffer.position();
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer record = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                try {
+                    byte type = record.get();
+                    String partition = partitions.computeIfAbsent(readString(record), p -> p);
+                    if (type == ADD) {
+                        long timestamp = record.getLong();
+                        long latency = record.getLong();
+                        boolean error = record.get() != 0;
+                        listener.added(partition, new HistoryEntry(readString(record), timestamp, latency, error));
+                    } else if (type == CLEAR) {
+                        listener.cleared(partition);
+                    } else {
+                        break;
+                    }
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    break;
+                }
+                valid = buffer.position();
+                recordCount++;
+            }
+            if (valid < size) {
+                in.truncate(valid);
+            }
+        }
+        return recordCount;
+    }
+
+    /**
+     * Record a command run in a partition
+     */
+    public void append(String partition, HistoryEntry entry) throws IOException {
+        encodeAdd(scratch, partition, entry);
+        write();
+    }
+
+    /**
+     * Record that the history of a partition was cleared
+     */
+    public void clear(String partition) throws IOException {
+        record(scratch, CLEAR, partition);
+        write();
+    }
+
+    /**
+     * Start a rewrite: records appended from now on are kept, to be carried over to the new
+     * log by {@link #finishRewrite}
+     */
+    public void startRewrite() {
+        appendedDuringRewrite = new ArrayList<>();
+    }
+
+    /**
+     * Write the live history to a file next to the log, oldest commands first so replaying it
+     * restores their order. Uses no state of this log, so it can run while records are appended.
+     *
+     * @param partitions the entries of each partition, most recent first
+     * @return number of records written
+     */
+    public long writeSnapshot(Map<String, List<HistoryEntry>> partitions) throws IOException {
+        Files.createDirectories(file.getParent());
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        long written = 0;
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(snapshotFile()), 1 << 16)) {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Map.Entry<String, List<HistoryEntry>> partition : partitions.entrySet()) {
+                List<HistoryEntry> entries = partition.getValue();
+                for (int i = entries.size() - 1; i >= 0; i--) {
+                    encodeAdd(record, partition.getKey(), entries.get(i));
+                    out.writeInt(record.size());
+                    record.writeTo(out);
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Replace the log with the snapshot, followed by the records appended since the rewrite
+     * started, dropping every stale record
+     *
+     * @param snapshotRecords number of records in the snapshot, as returned by {@link #writeSnapshot}
+     */
+    public void finishRewrite(long snapshotRecords) throws IOException {
+        List<byte[]> appended = appendedDuringRewrite;
+        appendedDuringRewrite = null;
+        close();
+        Path temp = snapshotFile();
+        if (!appended.isEmpty()) {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.APPEND), 1 << 16)) {
+                for (byte[] record : appended) {
+                    out.write(record);
+                }
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = snapshotRecords + appended.size();
+    }
+
+    /**
+     * Abandon a rewrite that failed, keeping the current log
+     */
+    public void abortRewrite() throws IOException {
+        appendedDuringRewrite = null;
+        Files.deleteIfExists(snapshotFile());
+    }
+
+    private Path snapshotFile() {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static void encodeAdd(ByteArrayOutputStream buffer, String partition, HistoryEntry entry) throws IOException {
+        DataOutputStream out = record(buffer, ADD, partition);
+        out.writeLong(entry.getTimestamp());
+        out.writeLong(entry.getLatencyMillis());
+        out.writeByte(entry.isError() ? 1 : 0);
+        writeString(out, entry.getCommand());
+    }
+
+    private static DataOutputStream record(ByteArrayOutputStream buffer, byte type, String partition) throws IOException {
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(type);
+        writeString(out, partition);
+        return out;
+    }
+
+    private void write() throws IOException {
+        if (channel == null) {
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+            }
+            channel.position(channel.size());
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + scratch.size());
+        buffer.putInt(scratch.size()).put(scratch.toByteArray()).flip();
+        if (appendedDuringRewrite != null) {
+            appendedDuringRewrite.add(buffer.array());
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        recordCount++;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -4,7 +4,11 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.redis.plugin.model.RedisConnection;
 import com.redis.plugin.model.RedisResult;
 import com.redis.plugin.model.RedisResultType;
+import com.redis.plugin.service.RedisCommandCatalog;
 import com.redis.plugin.service.RedisService;
+import com.redis.plugin.service.replica.ReplicaRouter;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
@@ -14,43 +18,95 @@ import redis.clients.jedis.exceptions.JedisException;
 
 import java.io.UnsupportedEncodingException;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * Implementation of RedisService using Jedis client
+ * Implementation of RedisService using Jedis client.
+ * <p>
+ * For connections that read from replicas, read-only commands and the typed key reads go to
+ * the best replica of a {@link ReplicaRouter}, and to the primary when there is none or the
+ * replica fails.
  */
 public class JedisRedisService implements RedisService {
     private static final Logger LOG = Logger.getInstance(JedisRedisService.class);
     
+    private final Supplier<RedisCommandCatalog> catalogSupplier;
     private JedisPool jedisPool;
     private RedisConnection currentConnection;
+    private volatile ReplicaRouter replicaRouter;
+    
+    /**
+     * Create a service that always uses the primary
+     */
+    public JedisRedisService() {
+        this(null);
+    }
+    
+    /**
+     * @param catalogSupplier the catalog telling read-only commands apart, for connections
+     *                        that read from replicas; null to never route to a replica
+     */
+    public JedisRedisService(Supplier<RedisCommandCatalog> catalogSupplier) {
+        this.catalogSupplier = catalogSupplier;
+    }
     
     @Override
     public RedisResult execute(String command) {
+        return executeArgs(parseCommandLine(command));
+    }
+    
+    @Override
+    public RedisResult executeArgs(String... parts) {
         if (!isConnected()) {
             return RedisResult.error("Not connected to Redis server");
         }
-        
-        String[] parts = parseCommandLine(command);
         if (parts.length == 0) {
             return RedisResult.error("Empty command");
         }
+        String name = parts[0].toUpperCase();
+        if (name.equals("SUBSCRIBE") || name.equals("PSUBSCRIBE") || name.equals("SSUBSCRIBE")) {
+            // These never return, which would hold a pooled connection forever
+            return RedisResult.error(name + " blocks its connection; use the Pub/Sub tab instead");
+        } else if (name.equals("MONITOR")) {
+            return RedisResult.error("MONITOR blocks its connection; use the Monitor tab instead");
+        }
         
-        long startTime = System.currentTimeMillis();
-        try (Jedis jedis = jedisPool.getResource()) {
-            Object result = jedis.sendCommand(Protocol.Command.valueOf(parts[0].toUpperCase()),
-                    Arrays.copyOfRange(parts, 1, parts.length));
-            
-            RedisResult redisResult = convertResult(result);
-            redisResult.setExecutionTime(System.currentTimeMillis() - startTime);
-            return redisResult;
+        Protocol.Command command;
+        try {
+            command = Protocol.Command.valueOf(name);
         } catch (IllegalArgumentException e) {
             return RedisResult.error("Unknown command: " + parts[0]);
+        }
+        
+        long startTime = System.currentTimeMillis();
+        ReplicaRouter router = replicaRouter;
+        ReplicaRouter.Replica replica = router != null ? router.route(parts) : null;
+        if (replica != null) {
+            try (Jedis jedis = replica.getResource()) {
+                return send(jedis, command, parts, startTime);
+            } catch (JedisConnectionException e) {
+                // Retry on the primary, which has the data too
+                LOG.debug("Replica " + replica.getAddress() + " failed, reading from the primary", e);
+                router.markDown(replica, "unreachable: " + e.getMessage());
+            } catch (JedisException e) {
+                return RedisResult.error("Error executing command: " + e.getMessage());
+            }
+        }
+        try (Jedis jedis = jedisPool.getResource()) {
+            return send(jedis, command, parts, startTime);
         } catch (JedisException e) {
             return RedisResult.error("Error executing command: " + e.getMessage());
         }
     }
     
+    private static RedisResult send(Jedis jedis, Protocol.Command command, String[] parts, long startTime) {
+        Object result = jedis.sendCommand(command, Arrays.copyOfRange(parts, 1, parts.length));
+        RedisResult redisResult = convertResult(result);
+        redisResult.setExecutionTime(System.currentTimeMillis() - startTime);
+        return redisResult;
+    }
+    
     @Override
     public boolean isConnected() {
         return jedisPool != null && !jedisPool.isClosed();
@@ -58,6 +114,7 @@ public class JedisRedisService implements RedisService {
     
     @Override
     public RedisResult connect(RedisConnection connection) {
+        stopReplicaRouter();
         try {
             if (jedisPool != null && !jedisPool.isClosed()) {
                 jedisPool.close();
@@ -81,6 +138,7 @@ public class JedisRedisService implements RedisService {
                 jedis.select(connection.getDatabase());
                 jedis.ping();
                 this.currentConnection = connection;
+                startReplicaRouter(connection);
                 return RedisResult.success(RedisResultType.STATUS, "Connected to " + connection.getName());
             }
         } catch (JedisConnectionException e) {
@@ -103,6 +161,7 @@ public class JedisRedisService implements RedisService {
     
     @Override
     public void disconnect() {
+        stopReplicaRouter();
         if (jedisPool != null) {
             jedisPool.close();
             jedisPool = null;
@@ -116,7 +175,7 @@ public class JedisRedisService implements RedisService {
             return Collections.emptyList();
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return new ArrayList<>(jedis.keys(pattern));
         } catch (Exception e) {
             LOG.error("Error getting keys", e);
@@ -130,7 +189,7 @@ public class JedisRedisService implements RedisService {
             return null;
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.get(key);
         } catch (Exception e) {
             LOG.error("Error getting string value", e);
@@ -144,7 +203,7 @@ public class JedisRedisService implements RedisService {
             return Collections.emptyMap();
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.hgetAll(key);
         } catch (Exception e) {
             LOG.error("Error getting hash", e);
@@ -158,7 +217,7 @@ public class JedisRedisService implements RedisService {
             return Collections.emptyList();
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.lrange(key, start, end);
         } catch (Exception e) {
             LOG.error("Error getting list", e);
@@ -172,7 +231,7 @@ public class JedisRedisService implements RedisService {
             return Collections.emptySet();
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.smembers(key);
         } catch (Exception e) {
             LOG.error("Error getting set", e);
@@ -186,7 +245,7 @@ public class JedisRedisService implements RedisService {
             return "none";
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.type(key);
         } catch (Exception e) {
             LOG.error("Error getting type", e);
@@ -200,7 +259,7 @@ public class JedisRedisService implements RedisService {
             return 0;
         }
         
-        try (Jedis jedis = jedisPool.getResource()) {
+        try (Jedis jedis = readResource()) {
             return jedis.dbSize();
         } catch (Exception e) {
             LOG.error("Error getting database size", e);
@@ -243,7 +302,77 @@ public class JedisRedisService implements RedisService {
         return currentConnection;
     }
     
-    private String[] parseCommandLine(String command) {
+    @Override
+    public RedisConnection getReadConnection() {
+        ReplicaRouter router = replicaRouter;
+        RedisConnection replica = router != null ? router.getReadConnection() : null;
+        return replica != null ? replica : currentConnection;
+    }
+    
+    /**
+     * @return the router of the current connection, or null if it reads from the primary only
+     */
+    public ReplicaRouter getReplicaRouter() {
+        return replicaRouter;
+    }
+    
+    /**
+     * @return a client of the best replica if there is one, else of the primary
+     */
+    private Jedis readResource() {
+        ReplicaRouter router = replicaRouter;
+        ReplicaRouter.Replica replica = router != null ? router.getBest() : null;
+        if (replica != null) {
+            try {
+                return replica.getResource();
+            } catch (JedisConnectionException e) {
+                router.markDown(replica, "unreachable: " + e.getMessage());
+            }
+        }
+        return jedisPool.getResource();
+    }
+    
+    private void startReplicaRouter(RedisConnection connection) {
+        if (connection.isReadFromReplicas() && !connection.isEmbedded() && catalogSupplier != null) {
+            ReplicaRouter router = new ReplicaRouter(connection, catalogSupplier.get());
+            router.start();
+            replicaRouter = router;
+        }
+    }
+    
+    private void stopReplicaRouter() {
+        ReplicaRouter router = replicaRouter;
+        replicaRouter = null;
+        if (router != null) {
+            router.stop();
+        }
+    }
+
+    /**
+     * Create a dedicated client for the given connection, outside of any pool.
+     * Long-running jobs use their own client so they never hold a pooled
+     * connection that the UI needs. The caller is responsible for closing it.
+     * @param connection the connection details
+     * @return a connected client with the connection's database selected
+     */
+    public static Jedis createClient(RedisConnection connection) {
+        DefaultJedisClientConfig.Builder config = DefaultJedisClientConfig.builder()
+                .connectionTimeoutMillis(connection.getTimeout())
+                .socketTimeoutMillis(connection.getTimeout())
+                .database(connection.getDatabase())
+                .ssl(connection.isUseSSL());
+        if (connection.getPassword() != null && !connection.getPassword().isEmpty()) {
+            config.password(connection.getPassword());
+        }
+        return new Jedis(new HostAndPort(connection.getHost(), connection.getPort()), config.build());
+    }
+
+    /**
+     * Split a command line into arguments, honouring double quotes
+     * @param command the command line
+     * @return the command name followed by its arguments
+     */
+    public static String[] parseCommandLine(String command) {
         List<String> parts = new ArrayList<>();
         StringBuilder currentPart = new StringBuilder();
         boolean inQuotes = false;
@@ -270,7 +399,12 @@ public class JedisRedisService implements RedisService {
         return parts.toArray(new String[0]);
     }
     
-    private RedisResult convertResult(Object result) {
+    /**
+     * Convert a raw Jedis reply into a result
+     * @param result the reply, as returned by sendCommand or eval
+     * @return the result, typed after the reply
+     */
+    public static RedisResult convertResult(Object result) {
         if (result == null) {
             return RedisResult.success(RedisResultType.NIL, null);
         }
@@ -292,7 +426,7 @@ public class JedisRedisService implements RedisService {
         }
     }
 
-    private List<Object> getList (Object obj){
+    private static List<Object> getList (Object obj){
         ArrayList<Object> result = new ArrayList();
         List m = (List)obj;
         for (Object v : m.toArray()) {
@@ -300,7 +434,7 @@ public class JedisRedisService implements RedisService {
         }
         return result;
     }
-    private Set<Object> getSet (Object obj){
+    private static Set<Object> getSet (Object obj){
         Set<Object> result = new HashSet();
         Set m = (Set)obj;
         for (Object v : m.toArray()) {
@@ -309,7 +443,7 @@ public class JedisRedisService implements RedisService {
         return result;
     }
 
-    private Map<String, Object> getMap (Object obj){
+    private static Map<String, Object> getMap (Object obj){
         Map<String, Object> result = new HashMap();
         Map m = (Map)obj;
         for (Object key : m.keySet()) {
@@ -0,0 +1,108 @@
+package com.redis.plugin.service.info;
+
+import java.util.Arrays;
+
+/**
+ * Extracts the counters the dashboard needs from an {@code INFO} reply in a single pass.
+ * <p>
+ * The reply is scanned in place: each line's name is compared against the tracked fields and
+ * only their integer values are parsed, so nothing is allocated per line and the rest of the
+ * reply, usually well over a hundred fields, is skipped.
+ */
+public final class InfoParser {
+
+    /**
+     * A tracked {@code INFO} field
+     */
+    public enum Field {
+        UPTIME_IN_SECONDS("uptime_in_seconds"),
+        CONNECTED_CLIENTS("connected_clients"),
+        USED_MEMORY("used_memory"),
+        TOTAL_COMMANDS_PROCESSED("total_commands_processed"),
+        INSTANTANEOUS_OPS_PER_SEC("instantaneous_ops_per_sec"),
+        EVICTED_KEYS("evicted_keys"),
+        KEYSPACE_HITS("keyspace_hits"),
+        KEYSPACE_MISSES("keyspace_misses"),
+        MASTER_REPL_OFFSET("master_repl_offset");
+
+        private final String name;
+
+        Field(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private static final Field[] FIELDS = Field.values();
+
+    private InfoParser() {
+    }
+
+    /**
+     * Parse the tracked fields of an INFO reply
+     *
+     * @param info the reply
+     * @param values receives the values indexed by {@link Field#ordinal()}; -1 for fields
+     *               missing from the reply or not holding an integer
+     * @return number of fields found
+     */
+    public static int parse(String info, long[] values) {
+        Arrays.fill(values, 0, FIELDS.length, -1);
+        int found = 0;
+        int length = info.length();
+        int lineStart = 0;
+        while (lineStart < length && found < FIELDS.length) {
+            int lineEnd = info.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            // Section headers start with '#'; every field line has a lower case name
+            char first = info.charAt(lineStart);
+            if (first >= 'a' && first <= 'z') {
+                int colon = info.indexOf(':', lineStart);
+                if (colon > 0 && colon < lineEnd) {
+                    Field field = lookup(info, lineStart, colon - lineStart);
+                    if (field != null && values[field.ordinal()] < 0) {
+                        values[field.ordinal()] = parseLong(info, colon + 1, lineEnd);
+                        found++;
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return found;
+    }
+
+    private static Field lookup(String info, int start, int nameLength) {
+        for (Field field : FIELDS) {
+            if (field.name.length() == nameLength && info.startsWith(field.name, start)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the non-negative integer in the range, ignoring a trailing '\r', or -1
+     */
+    static long parseLong(String text, int start, int end) {
+        if (end > start && text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        if (start >= end) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
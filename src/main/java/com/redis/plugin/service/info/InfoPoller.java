@@ -0,0 +1,160 @@
+package com.redis.plugin.service.info;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.InfoMetric;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Polls {@code INFO} on the application scheduler and adds one sample of every
+ * {@link InfoMetric} to an {@link InfoTimeSeries} per poll.
+ * <p>
+ * Rates and the hit ratio are computed from the counter deltas between two polls, so they
+ * cover exactly the polling interval. A restart of the server resets the counters; the
+ * sample after it leaves those metrics unknown instead of showing a negative rate. The
+ * poller uses its own connection and reuses its parse buffers between polls.
+ */
+public class InfoPoller {
+    private static final Logger LOG = Logger.getInstance(InfoPoller.class);
+
+    private final RedisConnection connection;
+    private final InfoTimeSeries series;
+    private final Consumer<String> listener;
+    private final long[] fields = new long[InfoParser.Field.values().length];
+    private final long[] previous = new long[InfoParser.Field.values().length];
+    private final double[] sample = new double[InfoMetric.values().length];
+
+    private ScheduledFuture<?> future;
+    private Jedis jedis;
+    private long previousTime;
+
+    /**
+     * @param connection the server to poll
+     * @param series where samples are added
+     * @param listener called on a background thread after every poll, with the error or null
+     */
+    public InfoPoller(RedisConnection connection, InfoTimeSeries series, Consumer<String> listener) {
+        this.connection = connection;
+        this.series = series;
+        this.listener = listener;
+    }
+
+    /**
+     * Start polling immediately and then with the given delay between polls
+     */
+    public synchronized void start(long intervalMillis) {
+        if (future != null) {
+            return;
+        }
+        future = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Change the delay between polls, keeping the connection and the samples
+     */
+    public synchronized void setInterval(long intervalMillis) {
+        if (future == null) {
+            return;
+        }
+        future.cancel(false);
+        future = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(this::poll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        closeClient();
+    }
+
+    public synchronized boolean isRunning() {
+        return future != null;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    synchronized void poll() {
+        if (future == null) {
+            return;
+        }
+        String error = null;
+        try {
+            if (jedis == null) {
+                jedis = JedisRedisService.createClient(connection);
+            }
+            String info = jedis.info();
+            long now = System.currentTimeMillis();
+            InfoParser.parse(info, fields);
+            series.add(now, toSample(now));
+            System.arraycopy(fields, 0, previous, 0, fields.length);
+            previousTime = now;
+        } catch (JedisException e) {
+            LOG.info("INFO poll of " + connection.getName() + " failed: " + e.getMessage());
+            error = e.getMessage();
+            closeClient();
+            previousTime = 0;
+        }
+        listener.accept(error);
+    }
+
+    private double[] toSample(long now) {
+        double seconds = (now - previousTime) / 1000.0;
+        boolean delta = previousTime > 0 && seconds > 0
+                && field(InfoParser.Field.UPTIME_IN_SECONDS) >= previous[InfoParser.Field.UPTIME_IN_SECONDS.ordinal()];
+
+        double ops = rate(InfoParser.Field.TOTAL_COMMANDS_PROCESSED, delta, seconds);
+        // Before the first delta, fall back to the server's own short-term estimate
+        sample[InfoMetric.OPS_PER_SECOND.ordinal()] = Double.isNaN(ops)
+                ? value(InfoParser.Field.INSTANTANEOUS_OPS_PER_SEC) : ops;
+        sample[InfoMetric.USED_MEMORY.ordinal()] = value(InfoParser.Field.USED_MEMORY);
+        sample[InfoMetric.CONNECTED_CLIENTS.ordinal()] = value(InfoParser.Field.CONNECTED_CLIENTS);
+        sample[InfoMetric.EVICTIONS_PER_SECOND.ordinal()] = rate(InfoParser.Field.EVICTED_KEYS, delta, seconds);
+        sample[InfoMetric.REPLICATION_OFFSET.ordinal()] = value(InfoParser.Field.MASTER_REPL_OFFSET);
+
+        double hits = rate(InfoParser.Field.KEYSPACE_HITS, delta, seconds);
+        double misses = rate(InfoParser.Field.KEYSPACE_MISSES, delta, seconds);
+        sample[InfoMetric.HIT_RATIO.ordinal()] = hits + misses > 0 ? hits * 100 / (hits + misses) : Double.NaN;
+        return sample;
+    }
+
+    private long field(InfoParser.Field field) {
+        return fields[field.ordinal()];
+    }
+
+    private double value(InfoParser.Field field) {
+        long value = fields[field.ordinal()];
+        return value < 0 ? Double.NaN : value;
+    }
+
+    private double rate(InfoParser.Field field, boolean delta, double seconds) {
+        long current = fields[field.ordinal()];
+        long before = previous[field.ordinal()];
+        if (!delta || current < 0 || before < 0 || current < before) {
+            return Double.NaN;
+        }
+        return (current - before) / seconds;
+    }
+
+    private void closeClient() {
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing INFO client", e);
+            }
+            jedis = null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.redis.plugin.service.info;
+
+import com.redis.plugin.model.InfoMetric;
+
+import java.util.Arrays;
+
+/**
+ * The most recent samples of every {@link InfoMetric}, kept in fixed-size primitive rings.
+ * <p>
+ * All arrays are allocated up front and overwritten once full, so memory stays the same
+ * however long the dashboard runs. Samples are added by the poller thread and copied out
+ * by the UI; both hold the lock only for an array copy.
+ */
+public class InfoTimeSeries {
+    private final long[] times;
+    private final double[][] values;
+    private int next;
+    private int size;
+
+    /**
+     * @param capacity number of samples kept per metric
+     */
+    public InfoTimeSeries(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.times = new long[capacity];
+        this.values = new double[InfoMetric.values().length][capacity];
+    }
+
+    /**
+     * Add one sample of every metric
+     *
+     * @param time time of the sample in milliseconds
+     * @param sample values indexed by {@link InfoMetric#ordinal()}, NaN where unknown
+     */
+    public synchronized void add(long time, double[] sample) {
+        times[next] = time;
+        for (int metric = 0; metric < values.length; metric++) {
+            values[metric][next] = sample[metric];
+        }
+        next = (next + 1) % times.length;
+        size = Math.min(size + 1, times.length);
+    }
+
+    /**
+     * Copy the samples of a metric, oldest first
+     *
+     * @param metric the metric
+     * @param timesOut receives the sample times; at least {@link #getCapacity()} long
+     * @param valuesOut receives the values; at least {@link #getCapacity()} long
+     * @return number of samples copied
+     */
+    public synchronized int copy(InfoMetric metric, long[] timesOut, double[] valuesOut) {
+        int start = (next - size + times.length) % times.length;
+        int firstPart = Math.min(size, times.length - start);
+        System.arraycopy(times, start, timesOut, 0, firstPart);
+        System.arraycopy(values[metric.ordinal()], start, valuesOut, 0, firstPart);
+        System.arraycopy(times, 0, timesOut, firstPart, size - firstPart);
+        System.arraycopy(values[metric.ordinal()], 0, valuesOut, firstPart, size - firstPart);
+        return size;
+    }
+
+    /**
+     * @return the newest value of a metric, or NaN if there are no samples
+     */
+    public synchronized double latest(InfoMetric metric) {
+        return size == 0 ? Double.NaN : values[metric.ordinal()][(next - 1 + times.length) % times.length];
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(times, 0);
+        next = 0;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return times.length;
+    }
+}
@@ -0,0 +1,133 @@
+package com.redis.plugin.service.monitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling per-command operations per second over the last {@link #WINDOW_SECONDS} seconds.
+ * <p>
+ * Counting happens on the producer thread without locks. Each time a second completes,
+ * an immutable {@link Rates} snapshot is published through a volatile field for the UI.
+ */
+public class CommandRateTracker {
+    public static final int WINDOW_SECONDS = 5;
+    public static final String OTHER_COMMANDS = "(other)";
+
+    /**
+     * Distinct command names tracked per second; more means the stream is not what we expect
+     */
+    private static final int MAX_COMMANDS = 512;
+
+    /**
+     * Operations per second by command, over a window ending at a given second
+     */
+    public static class Rates {
+        private final long second;
+        private final Map<String, Double> opsPerSecond;
+        private final double total;
+
+        Rates(long second, Map<String, Double> opsPerSecond, double total) {
+            this.second = second;
+            this.opsPerSecond = Collections.unmodifiableMap(opsPerSecond);
+            this.total = total;
+        }
+
+        /**
+         * @return the last complete second of the window, in seconds since the epoch
+         */
+        public long getSecond() {
+            return second;
+        }
+
+        /**
+         * @return operations per second by command, busiest first
+         */
+        public Map<String, Double> getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getTotal() {
+            return total;
+        }
+    }
+
+    private final List<Map<String, long[]>> slots = new ArrayList<>(WINDOW_SECONDS);
+    private long currentSecond = -1;
+    private long firstSecond = -1;
+    private volatile Rates rates = new Rates(0, new HashMap<>(), 0);
+
+    public CommandRateTracker() {
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            slots.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Count one command; only called by the producer thread
+     * @param command the command name
+     * @param nowMillis the current time
+     */
+    public void record(String command, long nowMillis) {
+        long second = nowMillis / 1000;
+        if (second != currentSecond) {
+            roll(second);
+        }
+        Map<String, long[]> slot = slots.get((int) (second % WINDOW_SECONDS));
+        long[] count = slot.get(command);
+        if (count == null) {
+            if (slot.size() >= MAX_COMMANDS) {
+                command = OTHER_COMMANDS;
+                count = slot.get(command);
+            }
+            if (count == null) {
+                count = new long[1];
+                slot.put(command, count);
+            }
+        }
+        count[0]++;
+    }
+
+    private void roll(long second) {
+        if (currentSecond >= 0) {
+            publish(currentSecond);
+        } else {
+            firstSecond = second;
+        }
+        // Clear the slots of the seconds that had no commands, and the new one
+        long from = currentSecond < 0 ? second : Math.max(currentSecond + 1, second - WINDOW_SECONDS + 1);
+        for (long s = from; s <= second; s++) {
+            slots.get((int) (s % WINDOW_SECONDS)).clear();
+        }
+        currentSecond = second;
+    }
+
+    private void publish(long lastSecond) {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Map<String, long[]> slot : slots) {
+            slot.forEach((command, count) -> totals.computeIfAbsent(command, c -> new long[1])[0] += count[0]);
+        }
+        // The slots hold the window ending at lastSecond, or less right after starting
+        long seconds = Math.min(WINDOW_SECONDS, lastSecond - firstSecond + 1);
+        List<Map.Entry<String, long[]>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        Map<String, Double> opsPerSecond = new LinkedHashMap<>();
+        double total = 0;
+        for (Map.Entry<String, long[]> entry : entries) {
+            double value = entry.getValue()[0] / (double) seconds;
+            opsPerSecond.put(entry.getKey(), value);
+            total += value;
+        }
+        rates = new Rates(lastSecond, opsPerSecond, total);
+    }
+
+    /**
+     * @return the most recently published rates; they go stale when no commands arrive
+     */
+    public Rates getRates() {
+        return rates;
+    }
+}
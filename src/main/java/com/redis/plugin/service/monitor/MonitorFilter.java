@@ -0,0 +1,167 @@
+package com.redis.plugin.service.monitor;
+
+import com.redis.plugin.model.MonitorEvent;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which {@code MONITOR} events are kept. Instances are immutable so the UI can
+ * replace the filter of a running session at any time.
+ */
+public class MonitorFilter {
+    /**
+     * Keeps every event
+     */
+    public static final MonitorFilter ALL = builder().build();
+
+    private final Set<String> commands;
+    private final Pattern keyPattern;
+    private final String client;
+    private final double sampleRatio;
+
+    private MonitorFilter(Builder builder) {
+        this.commands = Collections.unmodifiableSet(new HashSet<>(builder.commands));
+        this.keyPattern = builder.keyPattern == null || builder.keyPattern.isEmpty()
+                ? null : Pattern.compile(globToRegex(builder.keyPattern));
+        this.client = builder.client == null || builder.client.isEmpty() ? null : builder.client;
+        this.sampleRatio = builder.sampleRatio;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Decide whether to look at the next event at all; this is checked before parsing
+     * @return true if the event is part of the sample
+     */
+    public boolean sample() {
+        return sampleRatio >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRatio;
+    }
+
+    /**
+     * @param command the upper-case command name
+     * @return false if the command is excluded, so the line need not be parsed
+     */
+    public boolean acceptsCommand(String command) {
+        return commands.isEmpty() || commands.contains(command);
+    }
+
+    /**
+     * Check the key pattern and client of a parsed event
+     * @return true if the event is kept
+     */
+    public boolean matches(MonitorEvent event) {
+        if (client != null && !event.getClient().contains(client)) {
+            return false;
+        }
+        if (keyPattern == null) {
+            return true;
+        }
+        List<String> args = event.getArgs();
+        for (int i = 1; i < args.size(); i++) {
+            if (keyPattern.matcher(args.get(i)).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public double getSampleRatio() {
+        return sampleRatio;
+    }
+
+    /**
+     * Convert a Redis glob-style pattern (*, ?, [abc], \x) to a regular expression
+     */
+    public static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inClass = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                    regex.append(']');
+                } else if (c == '^' && glob.charAt(i - 1) == '[') {
+                    regex.append('^');
+                } else if (c == '-') {
+                    regex.append('-');
+                } else {
+                    regex.append(Character.isLetterOrDigit(c) ? String.valueOf(c) : "\\" + c);
+                }
+            } else if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else if (c == '[' && glob.indexOf(']', i + 1) > i + 1) {
+                inClass = true;
+                regex.append('[');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Builder for MonitorFilter
+     */
+    public static class Builder {
+        private final Set<String> commands = new HashSet<>();
+        private String keyPattern;
+        private String client;
+        private double sampleRatio = 1;
+
+        /**
+         * Only keep these commands; none means all
+         */
+        public Builder commands(Set<String> commands) {
+            this.commands.clear();
+            for (String command : commands) {
+                if (!command.isBlank()) {
+                    this.commands.add(command.trim().toUpperCase());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Only keep commands with an argument matching this glob-style pattern
+         */
+        public Builder keyPattern(String keyPattern) {
+            this.keyPattern = keyPattern;
+            return this;
+        }
+
+        /**
+         * Only keep commands from clients whose address contains this text
+         */
+        public Builder client(String client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Fraction of commands to look at, between 0 (exclusive) and 1
+         */
+        public Builder sampleRatio(double sampleRatio) {
+            this.sampleRatio = sampleRatio;
+            return this;
+        }
+
+        public MonitorFilter build() {
+            if (!(sampleRatio > 0 && sampleRatio <= 1)) {
+                throw new IllegalStateException("Sample ratio must be greater than 0 and at most 1");
+            }
+            return new MonitorFilter(this);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.redis.plugin.service.monitor;
+
+import com.redis.plugin.model.MonitorEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the lines written by {@code MONITOR}, e.g.
+ * {@code 1700000000.123456 [0 127.0.0.1:52814] "SET" "key" "value"}.
+ * <p>
+ * Arguments are quoted the way {@code sdscatrepr} writes them: {@code \"}, {@code \\},
+ * {@code \n}, {@code \r}, {@code \t}, {@code \a}, {@code \b} and {@code \xhh} for other
+ * non-printable bytes.
+ */
+public final class MonitorLineParser {
+
+    private MonitorLineParser() {
+    }
+
+    /**
+     * Parse a line
+     * @param line the line without its trailing newline
+     * @return the event, or null if the line is not a command
+     */
+    public static MonitorEvent parse(String line) {
+        int space = line.indexOf(' ');
+        int open = line.indexOf('[');
+        int close = line.indexOf("] ", open);
+        if (space <= 0 || open != space + 1 || close < 0) {
+            return null;
+        }
+        long timestampMicros = parseTimestamp(line, space);
+        int dbEnd = line.indexOf(' ', open);
+        if (timestampMicros < 0 || dbEnd < 0 || dbEnd > close) {
+            return null;
+        }
+        int database;
+        try {
+            database = Integer.parseInt(line.substring(open + 1, dbEnd));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String client = line.substring(dbEnd + 1, close);
+
+        List<String> args = new ArrayList<>();
+        StringBuilder arg = new StringBuilder();
+        int i = close + 2;
+        while (i < line.length()) {
+            if (line.charAt(i) != '"') {
+                i++;
+                continue;
+            }
+            arg.setLength(0);
+            i = readQuoted(line, i + 1, arg);
+            args.add(arg.toString());
+        }
+        return args.isEmpty() ? null : new MonitorEvent(timestampMicros, database, client, args);
+    }
+
+    /**
+     * Extract the upper-case command name without parsing the arguments
+     * @param line the line
+     * @return the command name, or null if the line is not a command
+     */
+    public static String commandOf(String line) {
+        int start = line.indexOf("] \"");
+        if (start < 0) {
+            return null;
+        }
+        start += 3;
+        int end = line.indexOf('"', start);
+        if (end < 0) {
+            return null;
+        }
+        if (line.indexOf('\\', start) < 0 || line.indexOf('\\', start) > end) {
+            return line.substring(start, end).toUpperCase();
+        }
+        StringBuilder name = new StringBuilder();
+        readQuoted(line, start, name);
+        return name.toString().toUpperCase();
+    }
+
+    /**
+     * @return the timestamp in microseconds, or -1 if it is malformed
+     */
+    private static long parseTimestamp(String line, int end) {
+        long seconds = 0;
+        long micros = 0;
+        int fractionDigits = -1;
+        for (int i = 0; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fractionDigits < 0) {
+                    seconds = seconds * 10 + (c - '0');
+                } else if (fractionDigits < 6) {
+                    micros = micros * 10 + (c - '0');
+                    fractionDigits++;
+                }
+            } else {
+                return -1;
+            }
+        }
+        for (int i = Math.max(fractionDigits, 0); i < 6; i++) {
+            micros *= 10;
+        }
+        return seconds * 1_000_000 + micros;
+    }
+
+    /**
+     * Read a quoted argument
+     * @param line the line
+     * @param start the index after the opening quote
+     * @param out receives the unescaped argument
+     * @return the index after the closing quote
+     */
+    private static int readQuoted(String line, int start, StringBuilder out) {
+        int i = start;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (c == '"') {
+                return i;
+            } else if (c != '\\' || i >= line.length()) {
+                out.append(c);
+                continue;
+            }
+            char escaped = line.charAt(i++);
+            switch (escaped) {
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'a':
+                    out.append('\u0007');
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'x':
+                    int value = i + 2 <= line.length() ? hexValue(line, i) : -1;
+                    if (value >= 0) {
+                        out.append((char) value);
+                        i += 2;
+                    } else {
+                        out.append("\\x");
+                    }
+                    break;
+                default:
+                    out.append(escaped);
+            }
+        }
+        return i;
+    }
+
+    private static int hexValue(String line, int index) {
+        int high = Character.digit(line.charAt(index), 16);
+        int low = Character.digit(line.charAt(index + 1), 16);
+        return high < 0 || low < 0 ? -1 : high * 16 + low;
+    }
+}
@@ -0,0 +1,206 @@
+package com.redis.plugin.service.monitor;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.MonitorEvent;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.util.SpscRingBuffer;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisMonitor;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.function.Consumer;
+
+/**
+ * Runs {@code MONITOR} on a dedicated connection outside the pool.
+ * <p>
+ * Lines are sampled, filtered and parsed on a pooled background thread and handed to the
+ * UI through a {@link SpscRingBuffer}; events that do not fit are dropped and counted.
+ * Every line, sampled or not, is counted by the {@link CommandRateTracker}.
+ */
+public class MonitorSession {
+    private static final Logger LOG = Logger.getInstance(MonitorSession.class);
+
+    private final RedisConnection connection;
+    private final SpscRingBuffer<MonitorEvent> buffer;
+    private final CommandRateTracker rateTracker = new CommandRateTracker();
+    private volatile MonitorFilter filter;
+
+    private volatile Jedis jedis;
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    // Written by the monitor thread only
+    private volatile long received;
+    private volatile long skipped;
+
+    private MonitorSession(Builder builder) {
+        this.connection = builder.connection;
+        this.buffer = new SpscRingBuffer<>(builder.bufferSize);
+        this.filter = builder.filter;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Connect and start monitoring on a background thread
+     * @param onStopped called on the monitor thread when monitoring ends, with the error or null
+     */
+    public void start(Consumer<String> onStopped) {
+        running = true;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            String error = null;
+            try {
+                jedis = JedisRedisService.createClient(connection);
+                if (!stopping) {
+                    jedis.monitor(new JedisMonitor() {
+                        @Override
+                        public void onCommand(String line) {
+                            process(line);
+                        }
+                    });
+                }
+            } catch (JedisException e) {
+                if (!stopping) {
+                    LOG.info("MONITOR on " + connection.getName() + " ended: " + e.getMessage());
+                    error = e.getMessage();
+                }
+            } finally {
+                close();
+                running = false;
+            }
+            onStopped.accept(error);
+        });
+    }
+
+    private void process(String line) {
+        if (stopping) {
+            return;
+        }
+        received++;
+        String command = MonitorLineParser.commandOf(line);
+        if (command == null) {
+            return;
+        }
+        rateTracker.record(command, System.currentTimeMillis());
+
+        MonitorFilter current = filter;
+        if (!current.sample() || !current.acceptsCommand(command)) {
+            skipped++;
+            return;
+        }
+        MonitorEvent event = MonitorLineParser.parse(line);
+        if (event == null || !current.matches(event)) {
+            skipped++;
+            return;
+        }
+        buffer.offer(event);
+    }
+
+    /**
+     * Stop monitoring. MONITOR blocks without a timeout, so the connection is closed here
+     * to end an idle stream.
+     */
+    public void stop() {
+        stopping = true;
+        close();
+    }
+
+    private void close() {
+        Jedis client = jedis;
+        if (client != null) {
+            try {
+                client.disconnect();
+            } catch (JedisException e) {
+                LOG.debug("Error closing MONITOR connection", e);
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Replace the filter; it applies from the next line on
+     */
+    public void setFilter(MonitorFilter filter) {
+        this.filter = filter;
+    }
+
+    public SpscRingBuffer<MonitorEvent> getBuffer() {
+        return buffer;
+    }
+
+    public CommandRateTracker.Rates getRates() {
+        return rateTracker.getRates();
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * @return number of lines read from the server
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return number of lines left out by sampling or the filter
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return number of events lost because the UI did not drain the buffer in time
+     */
+    public long getDropped() {
+        return buffer.getDropped();
+    }
+
+    /**
+     * Builder for MonitorSession
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private int bufferSize = 65536;
+        private MonitorFilter filter = MonitorFilter.ALL;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        /**
+         * @param bufferSize number of events buffered between the monitor thread and the UI
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder filter(MonitorFilter filter) {
+            this.filter = filter;
+            return this;
+        }
+
+        public MonitorSession build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (bufferSize < 1) {
+                throw new IllegalStateException("Buffer size must be positive");
+            }
+            if (filter == null) {
+                throw new IllegalStateException("Filter is required");
+            }
+            return new MonitorSession(this);
+        }
+    }
+}
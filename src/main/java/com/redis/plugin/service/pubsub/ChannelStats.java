@@ -0,0 +1,116 @@
+package com.redis.plugin.service.pubsub;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Message and byte counts per channel, shared by the subscriptions of a panel.
+ * <p>
+ * Subscriber threads only increment counters. Rates are computed by {@link #sample(long)}
+ * from the difference since the previous sample, which is called from a single thread.
+ */
+public class ChannelStats {
+    /**
+     * Channels tracked individually; pattern subscriptions can match any number of channels
+     */
+    public static final int MAX_CHANNELS = 1000;
+    public static final String OTHER_CHANNELS = "(other channels)";
+
+    /**
+     * Totals and rates for one channel
+     */
+    public static class Rate {
+        private final String channel;
+        private final long messages;
+        private final long bytes;
+        private final double messagesPerSecond;
+        private final double bytesPerSecond;
+
+        Rate(String channel, long messages, long bytes, double messagesPerSecond, double bytesPerSecond) {
+            this.channel = channel;
+            this.messages = messages;
+            this.bytes = bytes;
+            this.messagesPerSecond = messagesPerSecond;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public long getMessages() {
+            return messages;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public double getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        public double getBytesPerSecond() {
+            return bytesPerSecond;
+        }
+    }
+
+    private static class Counter {
+        final AtomicLong messages = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        // Only used by the sampling thread
+        long sampledMessages;
+        long sampledBytes;
+    }
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private long lastSample;
+
+    /**
+     * Count one message
+     * @param channel the channel
+     * @param bytes the payload size
+     */
+    public void record(String channel, int bytes) {
+        Counter counter = counters.get(channel);
+        if (counter == null) {
+            counter = counters.size() < MAX_CHANNELS
+                    ? counters.computeIfAbsent(channel, c -> new Counter())
+                    : counters.computeIfAbsent(OTHER_CHANNELS, c -> new Counter());
+        }
+        counter.messages.incrementAndGet();
+        counter.bytes.addAndGet(bytes);
+    }
+
+    /**
+     * Compute the rates since the previous call
+     * @param nowMillis the current time
+     * @return the totals and rates of every channel, busiest first
+     */
+    public List<Rate> sample(long nowMillis) {
+        double seconds = lastSample == 0 ? 0 : (nowMillis - lastSample) / 1000.0;
+        lastSample = nowMillis;
+        List<Rate> rates = new ArrayList<>(counters.size());
+        counters.forEach((channel, counter) -> {
+            long messages = counter.messages.get();
+            long bytes = counter.bytes.get();
+            rates.add(new Rate(channel, messages, bytes,
+                    seconds > 0 ? (messages - counter.sampledMessages) / seconds : 0,
+                    seconds > 0 ? (bytes - counter.sampledBytes) / seconds : 0));
+            counter.sampledMessages = messages;
+            counter.sampledBytes = bytes;
+        });
+        rates.sort(Comparator.comparingDouble(Rate::getMessagesPerSecond)
+                .thenComparingLong(Rate::getMessages).reversed());
+        return rates;
+    }
+
+    public void clear() {
+        counters.clear();
+        lastSample = 0;
+    }
+}
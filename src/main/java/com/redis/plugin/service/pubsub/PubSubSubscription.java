@@ -0,0 +1,228 @@
+package com.redis.plugin.service.pubsub;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.PubSubMessage;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.util.SpscRingBuffer;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A set of channels and patterns subscribed on a dedicated connection.
+ * <p>
+ * SUBSCRIBE keeps its connection for as long as it runs, so it must never use a pooled one.
+ * Messages are counted in the shared {@link ChannelStats} and handed to the UI through a
+ * {@link SpscRingBuffer}; messages that do not fit are dropped and counted.
+ */
+public class PubSubSubscription {
+    private static final Logger LOG = Logger.getInstance(PubSubSubscription.class);
+
+    private final RedisConnection connection;
+    private final List<String> channels;
+    private final List<String> patterns;
+    private final ChannelStats stats;
+    private final SpscRingBuffer<PubSubMessage> buffer;
+
+    private volatile Jedis jedis;
+    private volatile boolean stopping;
+    private volatile boolean running;
+
+    private PubSubSubscription(Builder builder) {
+        this.connection = builder.connection;
+        this.channels = Collections.unmodifiableList(new ArrayList<>(builder.channels));
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(builder.patterns));
+        this.stats = builder.stats;
+        this.buffer = new SpscRingBuffer<>(builder.bufferSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Connect and subscribe on a background thread
+     * @param onStopped called on the subscriber thread when the subscription ends, with the error or null
+     */
+    public void start(Consumer<String> onStopped) {
+        running = true;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            String error = null;
+            try {
+                jedis = JedisRedisService.createClient(connection);
+                if (!stopping) {
+                    Listener listener = new Listener();
+                    if (!channels.isEmpty()) {
+                        jedis.subscribe(listener, toBytes(channels));
+                    } else {
+                        jedis.psubscribe(listener, toBytes(patterns));
+                    }
+                }
+            } catch (JedisException e) {
+                if (!stopping) {
+                    LOG.info("Subscription on " + connection.getName() + " ended: " + e.getMessage());
+                    error = e.getMessage();
+                }
+            } finally {
+                close();
+                running = false;
+            }
+            onStopped.accept(error);
+        });
+    }
+
+    private class Listener extends BinaryJedisPubSub {
+        private boolean patternsSubscribed;
+
+        @Override
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            // SUBSCRIBE and PSUBSCRIBE share the connection; add the patterns once the channels are in
+            if (!patternsSubscribed && !patterns.isEmpty() && subscribedChannels == channels.size()) {
+                patternsSubscribed = true;
+                psubscribe(toBytes(patterns));
+            }
+        }
+
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            receive(new String(channel, StandardCharsets.UTF_8), null, message);
+        }
+
+        @Override
+        public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
+            receive(new String(channel, StandardCharsets.UTF_8), new String(pattern, StandardCharsets.UTF_8), message);
+        }
+    }
+
+    private void receive(String channel, String pattern, byte[] message) {
+        stats.record(channel, message.length);
+        buffer.offer(new PubSubMessage(System.currentTimeMillis(), channel, pattern, message));
+    }
+
+    /**
+     * Unsubscribe by closing the connection, which also works when the server is unresponsive
+     */
+    public void stop() {
+        stopping = true;
+        close();
+    }
+
+    private void close() {
+        Jedis client = jedis;
+        if (client != null) {
+            try {
+                client.disconnect();
+            } catch (JedisException e) {
+                LOG.debug("Error closing subscriber connection", e);
+            }
+        }
+    }
+
+    private static byte[][] toBytes(List<String> names) {
+        byte[][] encoded = new byte[names.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        return encoded;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    public List<String> getChannels() {
+        return channels;
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public SpscRingBuffer<PubSubMessage> getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return number of messages lost because the UI did not drain the buffer in time
+     */
+    public long getDropped() {
+        return buffer.getDropped();
+    }
+
+    @Override
+    public String toString() {
+        List<String> names = new ArrayList<>(channels);
+        names.addAll(patterns);
+        return String.join(", ", names);
+    }
+
+    /**
+     * Builder for PubSubSubscription
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        // Deduplicated, so the subscription count reaches the number of channels
+        private final Set<String> channels = new LinkedHashSet<>();
+        private final Set<String> patterns = new LinkedHashSet<>();
+        private ChannelStats stats;
+        private int bufferSize = 16384;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder channels(List<String> channels) {
+            this.channels.addAll(channels);
+            return this;
+        }
+
+        public Builder patterns(List<String> patterns) {
+            this.patterns.addAll(patterns);
+            return this;
+        }
+
+        /**
+         * @param stats the counters this subscription adds to
+         */
+        public Builder stats(ChannelStats stats) {
+            this.stats = stats;
+            return this;
+        }
+
+        /**
+         * @param bufferSize number of messages buffered between the subscriber thread and the UI
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public PubSubSubscription build() {
+            if (connection == null || stats == null) {
+                throw new IllegalStateException("Connection and channel statistics are required");
+            }
+            if (channels.isEmpty() && patterns.isEmpty()) {
+                throw new IllegalStateException("At least one channel or pattern is required");
+            }
+            if (bufferSize < 1) {
+                throw new IllegalStateException("Buffer size must be positive");
+            }
+            return new PubSubSubscription(this);
+        }
+    }
+}
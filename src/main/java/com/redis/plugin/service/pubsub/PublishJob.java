@@ -0,0 +1,146 @@
+package com.redis.plugin.service.pubsub;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a number of messages to one channel through a pipeline, for load testing
+ * subscribers. {@value #SEQUENCE_PLACEHOLDER} in the message is replaced by the message number.
+ */
+public class PublishJob {
+    public static final String SEQUENCE_PLACEHOLDER = "{n}";
+
+    private final RedisConnection connection;
+    private final String channel;
+    private final String message;
+    private final long count;
+    private final int pipelineDepth;
+
+    private volatile long published;
+    private volatile long receivers;
+    private volatile long elapsedMillis;
+
+    private PublishJob(Builder builder) {
+        this.connection = builder.connection;
+        this.channel = builder.channel;
+        this.message = builder.message;
+        this.count = builder.count;
+        this.pipelineDepth = builder.pipelineDepth;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Publish on the calling thread
+     * @param indicator progress indicator used for reporting and cancellation
+     */
+    public void run(ProgressIndicator indicator) {
+        boolean numbered = message.contains(SEQUENCE_PLACEHOLDER);
+        long startTime = System.nanoTime();
+        try (Jedis jedis = JedisRedisService.createClient(connection)) {
+            Pipeline pipeline = jedis.pipelined();
+            List<Response<Long>> pending = new ArrayList<>(pipelineDepth);
+            for (long n = 1; n <= count; n++) {
+                String payload = numbered ? message.replace(SEQUENCE_PLACEHOLDER, Long.toString(n)) : message;
+                pending.add(pipeline.publish(channel, payload));
+                if (pending.size() == pipelineDepth || n == count) {
+                    pipeline.sync();
+                    long received = 0;
+                    for (Response<Long> response : pending) {
+                        received += response.get();
+                    }
+                    receivers += received;
+                    published += pending.size();
+                    pending.clear();
+
+                    indicator.checkCanceled();
+                    indicator.setFraction((double) n / count);
+                    indicator.setText2(String.format("%,d of %,d messages", n, count));
+                }
+            }
+        } finally {
+            elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * @return the sum of the subscriber counts returned by PUBLISH
+     */
+    public long getReceivers() {
+        return receivers;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Builder for PublishJob
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private String channel;
+        private String message = "";
+        private long count = 1;
+        private int pipelineDepth = 100;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder channel(String channel) {
+            this.channel = channel;
+            return this;
+        }
+
+        public Builder message(String message) {
+            this.message = message;
+            return this;
+        }
+
+        public Builder count(long count) {
+            this.count = count;
+            return this;
+        }
+
+        public Builder pipelineDepth(int pipelineDepth) {
+            this.pipelineDepth = pipelineDepth;
+            return this;
+        }
+
+        public PublishJob build() {
+            if (connection == null || channel == null || channel.isEmpty()) {
+                throw new IllegalStateException("Connection and channel are required");
+            }
+            if (message == null) {
+                throw new IllegalStateException("Message is required");
+            }
+            if (count < 1) {
+                throw new IllegalStateException("Count must be positive");
+            }
+            if (pipelineDepth < 1) {
+                throw new IllegalStateException("Pipeline depth must be positive");
+            }
+            return new PublishJob(this);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.redis.plugin.service.replica;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.slowlog.CommandTemplates;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the read-only commands of a connection to its replicas.
+ * <p>
+ * The replicas are those listed on the connection, or else those its primary reports in
+ * {@code INFO replication}. Every {@link #CHECK_INTERVAL_SECONDS} seconds a background check
+ * pings each replica, smoothing its round trip, and reads its replication state. A replica
+ * serves reads while its link to the primary is up, it is not resynchronizing and its lag is
+ * within the connection's maximum. The lag is the one the primary reports, in seconds since
+ * the replica last acknowledged; for a listed replica the primary knows under another
+ * address, it is the seconds since the replica last heard from the primary. Reads go to the
+ * healthy replica with the lowest round trip, and to the primary when there is none.
+ * <p>
+ * A command is read-only if the catalog read from the server flags it {@code readonly}, as
+ * {@code COMMAND INFO} reports; the built-in catalog has no flags, so until the server's is
+ * loaded every command goes to the primary.
+ */
+public class ReplicaRouter {
+    private static final Logger LOG = Logger.getInstance(ReplicaRouter.class);
+
+    public static final int CHECK_INTERVAL_SECONDS = 5;
+
+    /**
+     * Pooled connections per replica; reads from the UI are few and short
+     */
+    private static final int POOL_SIZE = 4;
+
+    /**
+     * A replica and its health as of the last check
+     */
+    public static class Replica {
+        private final String host;
+        private final int port;
+        private final JedisPool pool;
+        private volatile boolean healthy;
+        private volatile long latencyMicros;
+        private volatile long lagSeconds = -1;
+        private volatile String status = "not checked yet";
+
+        Replica(String host, int port, JedisPool pool) {
+            this.host = host;
+            this.port = port;
+            this.pool = pool;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public String getAddress() {
+            return host + ":" + port;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * @return the smoothed round trip of {@code PING}, in microseconds
+         */
+        public long getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        /**
+         * @return the replication lag in seconds, or -1 if unknown
+         */
+        public long getLagSeconds() {
+            return lagSeconds;
+        }
+
+        /**
+         * @return why the replica serves reads or not, e.g. "online" or "link to primary down"
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * @return a pooled client of the replica, to close after use
+         */
+        public Jedis getResource() {
+            return pool.getResource();
+        }
+
+        private void setUnhealthy(String status) {
+            this.healthy = false;
+            this.status = status;
+        }
+    }
+
+    private final RedisConnection primary;
+    private final RedisCommandCatalog catalog;
+    private final Map<String, Replica> replicas = new ConcurrentHashMap<>();
+    private final Object checkLock = new Object();
+
+    private volatile Replica best;
+    private volatile boolean stopped;
+    private volatile Jedis primaryClient;
+    private ScheduledFuture<?> future;
+
+    /**
+     * @param primary the connection whose reads to route
+     * @param catalog catalog flagging the read-only commands, or null to route none
+     */
+    public ReplicaRouter(RedisConnection primary, RedisCommandCatalog catalog) {
+        this.primary = primary;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Check the replicas now and then every {@link #CHECK_INTERVAL_SECONDS} seconds
+     */
+    public synchronized void start() {
+        if (future != null || stopped) {
+            return;
+        }
+        future = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+                this::check, 0, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop checking and close the connections to the replicas, without waiting for a check
+     * in progress
+     */
+    public synchronized void stop() {
+        stopped = true;
+        best = null;
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        closeAll();
+    }
+
+    /**
+     * @param args the command and its arguments
+     * @return whether the catalog flags the command as read-only
+     */
+    public boolean isReadOnly(String[] args) {
+        if (catalog == null || args.length == 0) {
+            return false;
+        }
+        RedisCommand command = catalog.getCommand(CommandTemplates.commandName(Arrays.asList(args)));
+        if (command == null) {
+            command = catalog.getCommand(args[0]);
+        }
+        return command != null && command.getFlags().contains("readonly");
+    }
+
+    /**
+     * @param args the command and its arguments
+     * @return the replica to send the command to, or null to send it to the primary
+     */
+    public Replica route(String[] args) {
+        Replica replica = best;
+        return replica != null && isReadOnly(args) ? replica : null;
+    }
+
+    /**
+     * @return the healthy replica with the lowest round trip, or null if there is none
+     */
+    public Replica getBest() {
+        return best;
+    }
+
+    /**
+     * Stop reading from a replica that failed until the next check finds it healthy
+     */
+    public void markDown(Replica replica, String reason) {
+        replica.setUnhealthy(reason);
+        best = pickBest();
+    }
+
+    /**
+     * @return the connection to the best replica, for jobs that read over a client of their
+     *         own, or null if there is no healthy replica
+     */
+    public RedisConnection getReadConnection() {
+        Replica replica = best;
+        if (replica == null) {
+            return null;
+        }
+        return primary.toBuilder()
+                .name(primary.getName() + " (replica " + replica.getAddress() + ")")
+                .host(replica.getHost())
+                .port(replica.getPort())
+                .readFromReplicas(false)
+                .build();
+    }
+
+    /**
+     * @return the replicas, best first
+     */
+    public List<Replica> getReplicas() {
+        List<Replica> sorted = new ArrayList<>(replicas.values());
+        sorted.sort((a, b) -> a.healthy != b.healthy
+                ? (a.healthy ? -1 : 1)
+                : Long.compare(a.latencyMicros, b.latencyMicros));
+        return sorted;
+    }
+
+    /**
+     * Refresh the list of replicas and their health; package-private so it can run on demand
+     */
+    void check() {
+        synchronized (checkLock) {
+            if (!stopped) {
+                checkReplicas();
+            }
+            if (stopped) {
+                // Stopped meanwhile; close what this check may have opened
+                closeAll();
+            }
+        }
+    }
+
+    private void checkReplicas() {
+        Map<String, Map<String, String>> reported;
+        try {
+            reported = reportedReplicas(primaryInfo());
+        } catch (JedisException e) {
+            LOG.debug("Could not read the replicas of " + primary.getName(), e);
+            closePrimaryClient();
+            reported = Collections.emptyMap();
+        }
+        Set<String> addresses = primary.getReplicas() != null && !primary.getReplicas().isBlank()
+                ? new LinkedHashSet<>(parseAddresses(primary.getReplicas()))
+                : reported.keySet();
+
+        replicas.entrySet().removeIf(entry -> {
+            if (addresses.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().pool.close();
+            return true;
+        });
+        for (String address : addresses) {
+            replicas.computeIfAbsent(address, this::open);
+        }
+        for (Replica replica : replicas.values()) {
+            check(replica, reported.get(replica.getAddress()));
+        }
+        best = pickBest();
+    }
+
+    private void check(Replica replica, Map<String, String> reported) {
+        try (Jedis jedis = replica.getResource()) {
+            long start = System.nanoTime();
+            jedis.ping();
+            long micros = (System.nanoTime() - start) / 1000;
+            replica.latencyMicros = replica.latencyMicros == 0 ? micros : (replica.latencyMicros * 7 + micros * 3) / 10;
+
+            Map<String, String> info = fields(jedis.info("replication"));
+            if (!"slave".equals(info.get("role"))) {
+                replica.setUnhealthy("not a replica");
+            } else if (!"up".equals(info.get("master_link_status"))) {
+                replica.setUnhealthy("link to primary down");
+            } else if ("1".equals(info.get("master_sync_in_progress"))) {
+                replica.setUnhealthy("resynchronizing");
+            } else {
+                String lag = reported != null && reported.containsKey("lag")
+                        ? reported.get("lag") : info.get("master_last_io_seconds_ago");
+                replica.lagSeconds = lag == null ? -1 : Long.parseLong(lag.trim());
+                if (replica.lagSeconds > primary.getMaxReplicaLag()) {
+                    replica.setUnhealthy("lagging " + replica.lagSeconds + " s");
+                } else {
+                    replica.healthy = true;
+                    replica.status = "online";
+                }
+            }
+        } catch (JedisException | NumberFormatException e) {
+            replica.setUnhealthy("unreachable: " + e.getMessage());
+        }
+    }
+
+    private Replica pickBest() {
+        Replica fastest = null;
+        for (Replica replica : replicas.values()) {
+            if (replica.healthy && (fastest == null || replica.latencyMicros < fastest.latencyMicros)) {
+                fastest = replica;
+            }
+        }
+        return fastest;
+    }
+
+    private Replica open(String address) {
+        int colon = address.lastIndexOf(':');
+        String host = address.substring(0, colon);
+        int port = Integer.parseInt(address.substring(colon + 1));
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(POOL_SIZE);
+        poolConfig.setMaxIdle(POOL_SIZE);
+        String password = primary.getPassword() != null && !primary.getPassword().isEmpty() ? primary.getPassword() : null;
+        return new Replica(host, port, new JedisPool(poolConfig, host, port, primary.getTimeout(), password,
+                primary.getDatabase(), primary.isUseSSL()));
+    }
+
+    private String primaryInfo() {
+        Jedis client = primaryClient;
+        if (client == null || !client.isConnected()) {
+            client = JedisRedisService.createClient(primary);
+            primaryClient = client;
+        }
+        return client.info("replication");
+    }
+
+    private void closeAll() {
+        best = null;
+        for (Replica replica : replicas.values()) {
+            replica.pool.close();
+        }
+        replicas.clear();
+        closePrimaryClient();
+    }
+
+    private void closePrimaryClient() {
+        Jedis client = primaryClient;
+        primaryClient = null;
+        if (client != null) {
+            try {
+                client.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing replication client", e);
+            }
+        }
+    }
+
+    /**
+     * Parse a list of replicas such as "10.0.0.2:6379, replica-2:6380"
+     *
+     * @return the addresses as host:port
+     * @throws IllegalArgumentException if an entry has no valid port
+     */
+    public static List<String> parseAddresses(String text) {
+        List<String> addresses = new ArrayList<>();
+        for (String entry : text.split(",")) {
+            String address = entry.trim();
+            if (address.isEmpty()) {
+                continue;
+            }
+            int colon = address.lastIndexOf(':');
+            try {
+                int port = colon > 0 ? Integer.parseInt(address.substring(colon + 1)) : -1;
+                if (port < 1 || port > 65535) {
+                    throw new IllegalArgumentException("Replica " + address + " must be given as host:port");
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Replica " + address + " must be given as host:port");
+            }
+            addresses.add(address);
+        }
+        return addresses;
+    }
+
+    /**
+     * @return the replicas a primary reports, by host:port, with their fields such as
+     *         state, offset and lag
+     */
+    static Map<String, Map<String, String>> reportedReplicas(String info) {
+        Map<String, Map<String, String>> reported = new HashMap<>();
+        // Lines such as slave0:ip=10.0.0.2,port=6379,state=online,offset=1234,lag=0
+        for (Map.Entry<String, String> field : fields(info).entrySet()) {
+            if (!field.getKey().matches("slave\\d+")) {
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (String pair : field.getValue().split(",")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    values.put(pair.substring(0, equals), pair.substring(equals + 1));
+                }
+            }
+            if (values.containsKey("ip") && values.containsKey("port")) {
+                reported.put(values.get("ip") + ":" + values.get("port"), values);
+            }
+        }
+        return reported;
+    }
+
+    private static Map<String, String> fields(String info) {
+        Map<String, String> fields = new HashMap<>();
+        for (String line : info.split("\r?\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && !line.startsWith("#")) {
+                fields.put(line.substring(0, colon), line.substring(colon + 1).trim());
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,72 @@
+package com.redis.plugin.service.script;
+
+import com.redis.plugin.model.RedisConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Scripts known to be registered on each connection, by the SHA1 digest the server gives
+ * them, so that a script is sent with {@code SCRIPT LOAD} once and run by digest afterwards.
+ * <p>
+ * The digest is computed locally, as the server does, so checking a script takes no round
+ * trip. The server may still have dropped a script, after {@code SCRIPT FLUSH} or a restart;
+ * the runner then forgets it here and registers it again. Thread-safe.
+ */
+public class ScriptCache {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<String, Set<String>> loaded = new ConcurrentHashMap<>();
+
+    /**
+     * @return the lowercase hex SHA1 of the script, as {@code SCRIPT LOAD} returns it
+     */
+    public static String sha1(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    public boolean isLoaded(RedisConnection connection, String sha) {
+        Set<String> shas = loaded.get(connection.getId());
+        return shas != null && shas.contains(sha);
+    }
+
+    public void markLoaded(RedisConnection connection, String sha) {
+        loaded.computeIfAbsent(connection.getId(), id -> ConcurrentHashMap.newKeySet()).add(sha);
+    }
+
+    public void forget(RedisConnection connection, String sha) {
+        Set<String> shas = loaded.get(connection.getId());
+        if (shas != null) {
+            shas.remove(sha);
+        }
+    }
+
+    /**
+     * Forget every script of the connection, e.g. after {@code SCRIPT FLUSH}
+     */
+    public void clear(RedisConnection connection) {
+        loaded.remove(connection.getId());
+    }
+
+    /**
+     * @return the number of scripts known to be registered on the connection
+     */
+    public int size(RedisConnection connection) {
+        Set<String> shas = loaded.get(connection.getId());
+        return shas == null ? 0 : shas.size();
+    }
+}
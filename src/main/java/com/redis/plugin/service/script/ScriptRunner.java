@@ -0,0 +1,218 @@
+package com.redis.plugin.service.script;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.model.RedisResultType;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.util.List;
+
+/**
+ * Runs Lua scripts on one connection by digest, over a client of its own.
+ * <p>
+ * A script is registered with {@code SCRIPT LOAD} the first time it runs on the connection,
+ * and runs with {@code EVALSHA} afterwards, so a large script is only sent again once it
+ * changes. If the server no longer has the script it replies {@code NOSCRIPT}, and the run
+ * falls back to {@code EVAL}, which registers the script again as it runs.
+ * <p>
+ * The client waits as long as the script runs, without the connection timeout. A running
+ * script can be stopped with {@link #kill()}, which sends {@code SCRIPT KILL} over another
+ * client. Runs block and must happen off the EDT, one at a time.
+ */
+public class ScriptRunner {
+    private static final Logger LOG = Logger.getInstance(ScriptRunner.class);
+
+    /**
+     * How a script was sent to the server
+     */
+    public enum Mode {
+        EVALSHA("EVALSHA"),
+        LOADED("SCRIPT LOAD + EVALSHA"),
+        RELOADED("EVAL after NOSCRIPT");
+
+        private final String displayName;
+
+        Mode(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * Outcome of one run of a script
+     */
+    public static class Run {
+        private final String sha;
+        private final Mode mode;
+        private final RedisResult result;
+        private final long loadNanos;
+        private final long runNanos;
+
+        Run(String sha, Mode mode, RedisResult result, long loadNanos, long runNanos) {
+            this.sha = sha;
+            this.mode = mode;
+            this.result = result;
+            this.loadNanos = loadNanos;
+            this.runNanos = runNanos;
+        }
+
+        public String getSha() {
+            return sha;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public RedisResult getResult() {
+            return result;
+        }
+
+        /**
+         * @return the time taken by {@code SCRIPT LOAD}, 0 if the script was already registered
+         */
+        public long getLoadNanos() {
+            return loadNanos;
+        }
+
+        /**
+         * @return the round trip of {@code EVALSHA} or {@code EVAL}, including the script run
+         */
+        public long getRunNanos() {
+            return runNanos;
+        }
+    }
+
+    private final RedisConnection connection;
+    private final ScriptCache cache;
+
+    private volatile Jedis jedis;
+    private volatile boolean running;
+
+    /**
+     * @param connection the connection to run scripts on
+     * @param cache the scripts registered on each connection, shared between runners
+     */
+    public ScriptRunner(RedisConnection connection, ScriptCache cache) {
+        this.connection = connection;
+        this.cache = cache;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Run a script, registering it first if the connection does not have it yet
+     *
+     * @param script the Lua source
+     * @param keys the key names, as {@code KEYS} in the script
+     * @param args the other arguments, as {@code ARGV} in the script
+     * @return the reply or error of the script, with its timings
+     */
+    public synchronized Run run(String script, List<String> keys, List<String> args) {
+        String sha = ScriptCache.sha1(script);
+        Mode mode = Mode.EVALSHA;
+        long loadNanos = 0;
+        long start = System.nanoTime();
+        running = true;
+        try {
+            Jedis client = client();
+            if (!cache.isLoaded(connection, sha)) {
+                mode = Mode.LOADED;
+                sha = client.scriptLoad(script);
+                cache.markLoaded(connection, sha);
+                loadNanos = System.nanoTime() - start;
+            }
+            start = System.nanoTime();
+            Object reply;
+            client.getConnection().setTimeoutInfinite();
+            try {
+                reply = client.evalsha(sha, keys, args);
+            } catch (JedisDataException e) {
+                if (e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT")) {
+                    throw e;
+                }
+                cache.forget(connection, sha);
+                mode = Mode.RELOADED;
+                start = System.nanoTime();
+                reply = client.eval(script, keys, args);
+                cache.markLoaded(connection, sha);
+            } finally {
+                client.getConnection().rollbackTimeout();
+            }
+            return run(sha, mode, JedisRedisService.convertResult(reply), loadNanos, start);
+        } catch (JedisDataException e) {
+            // Compile and runtime errors of the script, or BUSY while another one runs
+            return run(sha, mode, RedisResult.error(e.getMessage()), loadNanos, start);
+        } catch (JedisConnectionException e) {
+            close();
+            return run(sha, mode, RedisResult.error("Connection lost: " + e.getMessage()), loadNanos, start);
+        } catch (JedisException e) {
+            return run(sha, mode, RedisResult.error("Error running script: " + e.getMessage()), loadNanos, start);
+        } finally {
+            running = false;
+        }
+    }
+
+    private static Run run(String sha, Mode mode, RedisResult result, long loadNanos, long start) {
+        long runNanos = System.nanoTime() - start;
+        result.setExecutionTime((loadNanos + runNanos) / 1_000_000);
+        return new Run(sha, mode, result, loadNanos, runNanos);
+    }
+
+    /**
+     * Stop the script running on the server with {@code SCRIPT KILL}, from any thread.
+     * The server refuses to kill a script that has already written.
+     */
+    public RedisResult kill() {
+        try (Jedis killer = JedisRedisService.createClient(connection)) {
+            return RedisResult.success(RedisResultType.STATUS, killer.scriptKill());
+        } catch (JedisException e) {
+            return RedisResult.error(e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of scripts registered on the connection, as far as it is known
+     */
+    public int getCachedScripts() {
+        return cache.size(connection);
+    }
+
+    /**
+     * Close the client; a run in progress fails, though its script keeps running on the server
+     */
+    public void close() {
+        Jedis client = jedis;
+        jedis = null;
+        if (client != null) {
+            try {
+                client.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing script client", e);
+            }
+        }
+    }
+
+    private Jedis client() {
+        Jedis client = jedis;
+        if (client == null || !client.isConnected()) {
+            client = JedisRedisService.createClient(connection);
+            jedis = client;
+        }
+        return client;
+    }
+}
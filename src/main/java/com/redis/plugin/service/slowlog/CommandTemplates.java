@@ -0,0 +1,150 @@
+package com.redis.plugin.service.slowlog;
+
+import com.redis.plugin.service.analysis.KeyspaceStatsCollector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces concrete commands to templates that describe their shape, so that
+ * {@code HGETALL user:42} and {@code HGETALL user:7} are counted together.
+ * <p>
+ * The key becomes its namespace pattern, option keywords are kept, numbers become
+ * {@code ?int} or {@code ?num}, other values become {@code ?}, and repeated argument
+ * groups of variadic commands are collapsed so the number of templates stays small.
+ */
+public final class CommandTemplates {
+    private static final String DELIMITER = ":";
+    private static final String REPEAT = "…";
+    private static final Pattern INTEGER = Pattern.compile("[-+]?\\d+");
+    private static final Pattern NUMBER = Pattern.compile("[-+]?(\\d+\\.?\\d*|\\.\\d+)([eE][-+]?\\d+)?|[-+]?inf");
+    private static final Pattern TRUNCATED = Pattern.compile("\\.\\.\\. \\(\\d+ more arguments\\)");
+
+    /**
+     * Commands whose second word is a subcommand, e.g. CONFIG GET
+     */
+    private static final Set<String> CONTAINER_COMMANDS = new HashSet<>(Arrays.asList(
+            "ACL", "CLIENT", "CLUSTER", "COMMAND", "CONFIG", "DEBUG", "FUNCTION", "LATENCY", "MEMORY",
+            "MODULE", "OBJECT", "PUBSUB", "SCRIPT", "SLOWLOG", "XGROUP", "XINFO"));
+
+    /**
+     * Commands whose first argument is not a key
+     */
+    private static final Set<String> KEYLESS_COMMANDS = new HashSet<>(Arrays.asList(
+            "KEYS", "SCAN", "SELECT", "SWAPDB", "FLUSHALL", "FLUSHDB", "DBSIZE", "INFO", "PING", "ECHO",
+            "EVAL", "EVALSHA", "EVAL_RO", "EVALSHA_RO", "FCALL", "FCALL_RO", "PUBLISH", "SPUBLISH",
+            "SUBSCRIBE", "PSUBSCRIBE", "MULTI", "EXEC", "WAIT", "AUTH", "HELLO", "TIME", "LASTSAVE",
+            "ACL", "CLIENT", "CLUSTER", "COMMAND", "CONFIG", "DEBUG", "FUNCTION", "LATENCY", "MODULE",
+            "PUBSUB", "SCRIPT", "SLOWLOG"));
+
+    /**
+     * Option keywords that are kept as is in templates
+     */
+    private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList(
+            "EX", "PX", "EXAT", "PXAT", "NX", "XX", "GT", "LT", "CH", "INCR", "KEEPTTL", "GET", "PERSIST",
+            "WITHSCORES", "WITHSCORE", "LIMIT", "BYSCORE", "BYLEX", "REV", "COUNT", "MATCH", "TYPE",
+            "WITHVALUES", "STORE", "ASC", "DESC", "ALPHA", "BY", "MAXLEN", "MINID", "NOMKSTREAM", "BLOCK",
+            "STREAMS", "GROUP", "NOACK", "JUSTID", "IDLE", "TIME", "RETRYCOUNT", "FORCE", "REPLACE", "ABSTTL",
+            "COPY", "AUTH", "AUTH2", "KEYS", "AGGREGATE", "WEIGHTS", "SUM", "MIN", "MAX", "LEFT", "RIGHT",
+            "BEFORE", "AFTER", "RANK", "LEN", "IDX", "MINMATCHLEN", "WITHMATCHLEN", "FIELDS", "FNX", "FXX",
+            "SAMPLES", "ENTRIES", "FULL", "NOVALUES", "WITHCOORD", "WITHDIST", "WITHHASH", "FROMMEMBER",
+            "FROMLONLAT", "BYRADIUS", "BYBOX", "ANY", "STOREDIST", "SCHEDULE", "ASYNC", "SYNC"));
+
+    private CommandTemplates() {
+    }
+
+    /**
+     * Get the command name used for catalog lookups, e.g. "config get" for CONFIG GET
+     * @param args the command and its arguments
+     * @return the lower-case command name
+     */
+    public static String commandName(List<String> args) {
+        if (args.isEmpty()) {
+            return "";
+        }
+        String name = args.get(0).toLowerCase();
+        if (args.size() > 1 && CONTAINER_COMMANDS.contains(name.toUpperCase())) {
+            return name + " " + args.get(1).toLowerCase();
+        }
+        return name;
+    }
+
+    /**
+     * Normalize a command into its template
+     * @param args the command and its arguments, as reported by SLOWLOG GET
+     * @return the template
+     */
+    public static String normalize(List<String> args) {
+        if (args.isEmpty()) {
+            return "";
+        }
+        String name = args.get(0).toUpperCase();
+        List<String> shapes = new ArrayList<>();
+        shapes.add(name);
+        int index = 1;
+        if (CONTAINER_COMMANDS.contains(name) && args.size() > 1) {
+            shapes.add(args.get(1).toUpperCase());
+            index = 2;
+        }
+        if (index == 1 && args.size() > 1 && !KEYLESS_COMMANDS.contains(name)) {
+            shapes.add(KeyspaceStatsCollector.namespaceOf(args.get(1), DELIMITER));
+            index = 2;
+        }
+
+        List<String> rest = new ArrayList<>();
+        boolean truncated = false;
+        for (int i = index; i < args.size(); i++) {
+            String arg = args.get(i);
+            if (i == args.size() - 1 && TRUNCATED.matcher(arg).matches()) {
+                truncated = true;
+            } else {
+                rest.add(shapeOf(arg));
+            }
+        }
+        collapse(rest);
+        shapes.addAll(rest);
+        if (truncated && !rest.isEmpty() && !rest.get(rest.size() - 1).endsWith(REPEAT)) {
+            shapes.add(REPEAT);
+        }
+        return String.join(" ", shapes);
+    }
+
+    private static String shapeOf(String arg) {
+        String upper = arg.toUpperCase();
+        if (KEYWORDS.contains(upper)) {
+            return upper;
+        } else if (INTEGER.matcher(arg).matches()) {
+            return "?int";
+        } else if (NUMBER.matcher(arg).matches()) {
+            return "?num";
+        }
+        return "?";
+    }
+
+    /**
+     * Collapse repetitions of one or two argument shapes, such as the field/value pairs of HSET
+     */
+    private static void collapse(List<String> shapes) {
+        for (int unit = 1; unit <= 2; unit++) {
+            for (int start = 0; start + 2 * unit <= shapes.size(); start++) {
+                int end = start + unit;
+                while (end + unit <= shapes.size()
+                        && shapes.subList(end, end + unit).equals(shapes.subList(start, start + unit))) {
+                    end += unit;
+                }
+                if (end - start > unit) {
+                    shapes.subList(start + unit, end).clear();
+                    if (unit == 1) {
+                        shapes.set(start, shapes.get(start) + REPEAT);
+                    } else {
+                        shapes.set(start, "(" + shapes.get(start) + " " + shapes.remove(start + 1) + ")" + REPEAT);
+                    }
+                }
+            }
+        }
+    }
+}
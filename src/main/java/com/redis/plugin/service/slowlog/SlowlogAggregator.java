@@ -0,0 +1,145 @@
+package com.redis.plugin.service.slowlog;
+
+import com.redis.plugin.model.RedisCommand;
+import com.redis.plugin.model.RedisCommandComplexity;
+import com.redis.plugin.model.SlowlogSnapshot;
+import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.benchmark.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates slow log entries per command template in bounded memory.
+ * <p>
+ * At most {@link #MAX_TEMPLATES} templates are tracked, each with a compact latency
+ * histogram; later templates are counted under {@link #OTHER_TEMPLATES}. The most recent
+ * {@link #RECENT_SIZE} entries are kept in a ring buffer.
+ */
+public class SlowlogAggregator {
+    public static final int MAX_TEMPLATES = 500;
+    public static final int RECENT_SIZE = 200;
+    public static final String OTHER_TEMPLATES = "(other templates)";
+
+    /**
+     * 4 bits per power of two keep percentiles within about 6%, in under 4KB per template
+     */
+    private static final int HISTOGRAM_PRECISION = 4;
+    private static final int MAX_EXAMPLE_LENGTH = 200;
+
+    private static class Template {
+        final String command;
+        final RedisCommandComplexity complexity;
+        final LatencyHistogram histogram = new LatencyHistogram(HISTOGRAM_PRECISION);
+        long totalMicros;
+        long lastSeen;
+        String example;
+
+        Template(String command, RedisCommandComplexity complexity) {
+            this.command = command;
+            this.complexity = complexity;
+        }
+    }
+
+    private final RedisCommandCatalog catalog;
+    private final Map<String, Template> templates = new HashMap<>();
+    private final SlowlogSnapshot.Entry[] recent = new SlowlogSnapshot.Entry[RECENT_SIZE];
+    private int recentNext;
+    private long entries;
+    private long missed;
+
+    /**
+     * @param catalog catalog used to look up the complexity of each command, or null
+     */
+    public SlowlogAggregator(RedisCommandCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Add one entry
+     * @param id the slow log entry id
+     * @param timestamp unix time in seconds
+     * @param micros execution time
+     * @param args the command and its arguments
+     * @param client the client address and name
+     */
+    public synchronized void add(long id, long timestamp, long micros, List<String> args, String client) {
+        entries++;
+        String example = String.join(" ", args);
+        if (example.length() > MAX_EXAMPLE_LENGTH) {
+            example = example.substring(0, MAX_EXAMPLE_LENGTH) + "...";
+        }
+        recent[recentNext] = new SlowlogSnapshot.Entry(id, timestamp, micros, example, client);
+        recentNext = (recentNext + 1) % RECENT_SIZE;
+
+        String name = CommandTemplates.normalize(args);
+        Template template = templates.get(name);
+        if (template == null) {
+            if (templates.size() >= MAX_TEMPLATES) {
+                name = OTHER_TEMPLATES;
+                template = templates.computeIfAbsent(name, n -> new Template("", null));
+            } else {
+                RedisCommand command = lookup(args);
+                template = new Template(command == null ? CommandTemplates.commandName(args) : command.getName(),
+                        command == null ? null : command.getComplexity());
+                templates.put(name, template);
+            }
+        }
+        template.histogram.record(micros);
+        template.totalMicros += micros;
+        template.lastSeen = Math.max(template.lastSeen, timestamp);
+        template.example = example;
+    }
+
+    private RedisCommand lookup(List<String> args) {
+        if (catalog == null || args.isEmpty()) {
+            return null;
+        }
+        RedisCommand command = catalog.getCommand(CommandTemplates.commandName(args));
+        return command != null ? command : catalog.getCommand(args.get(0));
+    }
+
+    /**
+     * Record entries that were rotated out of the server's slow log before they could be read
+     */
+    public synchronized void addMissed(long count) {
+        missed += count;
+    }
+
+    public synchronized void reset() {
+        templates.clear();
+        Arrays.fill(recent, null);
+        recentNext = 0;
+        entries = 0;
+        missed = 0;
+    }
+
+    /**
+     * Copy the current state
+     * @param pollTime time of the last poll in milliseconds
+     * @param error the error of the last poll, or null
+     * @return the snapshot
+     */
+    public synchronized SlowlogSnapshot snapshot(long pollTime, String error) {
+        List<SlowlogSnapshot.TemplateStats> stats = new ArrayList<>(templates.size());
+        templates.forEach((name, template) -> stats.add(new SlowlogSnapshot.TemplateStats(name, template.command,
+                template.complexity, template.histogram.getCount(), template.totalMicros,
+                template.histogram.getMax(), template.histogram.getValueAtPercentile(99), template.lastSeen,
+                template.example)));
+        stats.sort(Comparator.comparingLong(SlowlogSnapshot.TemplateStats::getTotalMicros).reversed());
+
+        List<SlowlogSnapshot.Entry> recentEntries = new ArrayList<>(RECENT_SIZE);
+        for (int i = 1; i <= RECENT_SIZE; i++) {
+            SlowlogSnapshot.Entry entry = recent[(recentNext - i + RECENT_SIZE) % RECENT_SIZE];
+            if (entry == null) {
+                break;
+            }
+            recentEntries.add(entry);
+        }
+        return new SlowlogSnapshot(stats, recentEntries, entries, missed, pollTime, error);
+    }
+}
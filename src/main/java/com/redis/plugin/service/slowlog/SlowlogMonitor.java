@@ -0,0 +1,149 @@
+package com.redis.plugin.service.slowlog;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.SlowlogSnapshot;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.resps.Slowlog;
+
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Polls {@code SLOWLOG GET} on the application scheduler and feeds new entries into a
+ * {@link SlowlogAggregator}.
+ * <p>
+ * Only entries with an id above the last one seen are aggregated. A poll fetches
+ * {@link #FETCH_SIZE} entries; if all of them are new, it fetches up to {@link #MAX_FETCH}
+ * once more and counts anything older as missed. The monitor uses its own connection.
+ */
+public class SlowlogMonitor {
+    private static final Logger LOG = Logger.getInstance(SlowlogMonitor.class);
+
+    static final int FETCH_SIZE = 128;
+    static final int MAX_FETCH = 1024;
+
+    /**
+     * Client name of the polling connection, whose own SLOWLOG GET calls are not aggregated
+     */
+    static final String CLIENT_NAME = "redis-plugin-slowlog";
+
+    private final RedisConnection connection;
+    private final SlowlogAggregator aggregator;
+    private final Consumer<SlowlogSnapshot> listener;
+
+    private ScheduledFuture<?> future;
+    private Jedis jedis;
+    private long lastId = -1;
+
+    /**
+     * @param connection the server to monitor
+     * @param aggregator where new entries are added
+     * @param listener called on a background thread with a snapshot after every poll
+     */
+    public SlowlogMonitor(RedisConnection connection, SlowlogAggregator aggregator,
+                          Consumer<SlowlogSnapshot> listener) {
+        this.connection = connection;
+        this.aggregator = aggregator;
+        this.listener = listener;
+    }
+
+    /**
+     * Start polling immediately and then with the given delay between polls
+     */
+    public synchronized void start(long intervalMillis) {
+        if (future != null) {
+            return;
+        }
+        future = AppExecutorUtil.getAppScheduledExecutorService()
+                .scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        closeClient();
+    }
+
+    public synchronized boolean isRunning() {
+        return future != null;
+    }
+
+    public RedisConnection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Read the entries added since the previous poll
+     */
+    synchronized void poll() {
+        if (future == null) {
+            return;
+        }
+        String error = null;
+        try {
+            if (jedis == null) {
+                jedis = JedisRedisService.createClient(connection);
+                jedis.clientSetname(CLIENT_NAME);
+            }
+            List<Slowlog> entries = jedis.slowlogGet(lastId < 0 ? MAX_FETCH : FETCH_SIZE);
+            if (!entries.isEmpty() && lastId >= 0) {
+                long newestId = entries.get(0).getId();
+                long oldestId = entries.get(entries.size() - 1).getId();
+                if (newestId < lastId) {
+                    // The server restarted and ids start from zero again
+                    lastId = -1;
+                } else if (entries.size() == FETCH_SIZE && oldestId > lastId + 1) {
+                    entries = jedis.slowlogGet(MAX_FETCH);
+                }
+            }
+            process(entries);
+        } catch (JedisException e) {
+            LOG.info("Slow log poll of " + connection.getName() + " failed: " + e.getMessage());
+            error = e.getMessage();
+            closeClient();
+        }
+        listener.accept(aggregator.snapshot(System.currentTimeMillis(), error));
+    }
+
+    private void process(List<Slowlog> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long oldestId = entries.get(entries.size() - 1).getId();
+        if (lastId >= 0 && oldestId > lastId + 1) {
+            aggregator.addMissed(oldestId - lastId - 1);
+        }
+        // Entries are returned newest first
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Slowlog entry = entries.get(i);
+            if (entry.getId() <= lastId || CLIENT_NAME.equals(entry.getClientName())) {
+                continue;
+            }
+            String client = entry.getClientIpPort() == null ? "" : entry.getClientIpPort().toString();
+            if (entry.getClientName() != null && !entry.getClientName().isEmpty()) {
+                client += " (" + entry.getClientName() + ")";
+            }
+            aggregator.add(entry.getId(), entry.getTimeStamp(), entry.getExecutionTime(), entry.getArgs(), client);
+        }
+        lastId = Math.max(lastId, entries.get(0).getId());
+    }
+
+    private void closeClient() {
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing slow log client", e);
+            }
+            jedis = null;
+        }
+    }
+}
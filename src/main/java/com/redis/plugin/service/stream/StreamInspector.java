@@ -0,0 +1,242 @@
+package com.redis.plugin.service.stream;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.StreamMessage;
+import com.redis.plugin.model.StreamStatus;
+import com.redis.plugin.service.impl.JedisRedisService;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.resps.StreamConsumerInfo;
+import redis.clients.jedis.resps.StreamEntry;
+import redis.clients.jedis.resps.StreamGroupInfo;
+import redis.clients.jedis.resps.StreamInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reads the consumer groups and history of one stream over its own connection.
+ * <p>
+ * A status refresh takes two round trips whatever the number of groups: one pipeline with
+ * XINFO STREAM and XINFO GROUPS, and one with XINFO CONSUMERS for every group. Servers
+ * before 7.0 do not report the lag of a group, so it is counted with a bounded XRANGE in
+ * the second pipeline.
+ */
+public class StreamInspector {
+    private static final Logger LOG = Logger.getInstance(StreamInspector.class);
+
+    /**
+     * Entries read to count the lag of a group when the server does not report it
+     */
+    static final int MAX_LAG_COUNT = 1000;
+
+    private final RedisConnection connection;
+    private final String key;
+
+    private ScheduledFuture<?> future;
+    private Jedis jedis;
+
+    public StreamInspector(RedisConnection connection, String key) {
+        this.connection = connection;
+        this.key = key;
+    }
+
+    /**
+     * Refresh the status now and then with the given delay between refreshes
+     * @param listener called on a background thread with every status
+     */
+    public synchronized void start(long intervalMillis, Consumer<StreamStatus> listener) {
+        if (future != null) {
+            return;
+        }
+        future = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+                () -> listener.accept(status()), 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop refreshing and close the connection
+     */
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+        if (jedis != null) {
+            try {
+                jedis.close();
+            } catch (JedisException e) {
+                LOG.debug("Error closing stream client", e);
+            }
+            jedis = null;
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Read the length, ids and consumer groups of the stream
+     */
+    public synchronized StreamStatus status() {
+        long pollTime = System.currentTimeMillis();
+        try {
+            Pipeline pipeline = client().pipelined();
+            Response<StreamInfo> infoResponse = pipeline.xinfoStream(key);
+            Response<List<StreamGroupInfo>> groupsResponse = pipeline.xinfoGroups(key);
+            pipeline.sync();
+            StreamInfo info = infoResponse.get();
+            List<StreamGroupInfo> groupInfos = groupsResponse.get();
+
+            StreamEntryID lastGenerated = info.getLastGeneratedId();
+            List<Response<List<StreamConsumerInfo>>> consumerResponses = new ArrayList<>();
+            List<Response<List<StreamEntry>>> lagResponses = new ArrayList<>();
+            if (!groupInfos.isEmpty()) {
+                pipeline = client().pipelined();
+                for (StreamGroupInfo group : groupInfos) {
+                    consumerResponses.add(pipeline.xinfoConsumers2(key, group.getName()));
+                    StreamEntryID delivered = group.getLastDeliveredId();
+                    boolean countLag = reportedLag(group) == null && delivered.compareTo(lastGenerated) < 0;
+                    lagResponses.add(countLag ? pipeline.xrange(key, next(delivered), StreamEntryID.MAXIMUM_ID,
+                            MAX_LAG_COUNT + 1) : null);
+                }
+                pipeline.sync();
+            }
+
+            List<StreamStatus.Group> groups = new ArrayList<>();
+            for (int i = 0; i < groupInfos.size(); i++) {
+                StreamGroupInfo group = groupInfos.get(i);
+                List<StreamStatus.Consumer> consumers = new ArrayList<>();
+                for (StreamConsumerInfo consumer : consumerResponses.get(i).get()) {
+                    consumers.add(new StreamStatus.Consumer(consumer.getName(), consumer.getPending(),
+                            consumer.getIdle()));
+                }
+                long lag = 0;
+                boolean exact = true;
+                Long reported = reportedLag(group);
+                if (reported != null) {
+                    lag = reported;
+                } else if (lagResponses.get(i) != null) {
+                    lag = Math.min(lagResponses.get(i).get().size(), MAX_LAG_COUNT);
+                    exact = lagResponses.get(i).get().size() <= MAX_LAG_COUNT;
+                }
+                groups.add(new StreamStatus.Group(group.getName(), group.getPending(),
+                        group.getLastDeliveredId().toString(), lag, exact, consumers));
+            }
+            String firstId = info.getFirstEntry() == null ? null : info.getFirstEntry().getID().toString();
+            return new StreamStatus(key, info.getLength(), firstId, lastGenerated.toString(), groups, pollTime, null);
+        } catch (JedisException e) {
+            LOG.info("Reading stream " + key + " failed: " + e.getMessage());
+            closeBroken();
+            return StreamStatus.error(key, pollTime, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the lag reported by XINFO GROUPS on Redis 7.0 and later, or null
+     */
+    private static Long reportedLag(StreamGroupInfo group) {
+        Object lag = group.getGroupInfo().get("lag");
+        return lag instanceof Long ? (Long) lag : null;
+    }
+
+    /**
+     * Read the newest entries
+     * @param count maximum number of entries
+     * @return the entries, newest first
+     */
+    public synchronized List<StreamMessage> newest(int count) {
+        try {
+            return toMessages(client().xrevrange(key, StreamEntryID.MAXIMUM_ID, StreamEntryID.MINIMUM_ID, count));
+        } catch (JedisException e) {
+            closeBroken();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the entries before an id
+     * @param id the id of the oldest entry shown
+     * @param count maximum number of entries
+     * @return the entries, newest first
+     */
+    public synchronized List<StreamMessage> olderThan(String id, int count) {
+        StreamEntryID end = previous(new StreamEntryID(id));
+        if (end == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return toMessages(client().xrevrange(key, end, StreamEntryID.MINIMUM_ID, count));
+        } catch (JedisException e) {
+            closeBroken();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the entries after an id
+     * @param id the id of the newest entry shown
+     * @param count maximum number of entries
+     * @return the entries, newest first
+     */
+    public synchronized List<StreamMessage> newerThan(String id, int count) {
+        List<StreamMessage> messages;
+        try {
+            messages = toMessages(client().xrange(key, next(new StreamEntryID(id)), StreamEntryID.MAXIMUM_ID, count));
+        } catch (JedisException e) {
+            closeBroken();
+            throw e;
+        }
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    private Jedis client() {
+        if (jedis == null) {
+            jedis = JedisRedisService.createClient(connection);
+        }
+        return jedis;
+    }
+
+    private void closeBroken() {
+        if (jedis != null && jedis.isBroken()) {
+            jedis.close();
+            jedis = null;
+        }
+    }
+
+    /**
+     * The smallest id after the given one; exclusive ranges need Redis 6.2, this works everywhere
+     */
+    static StreamEntryID next(StreamEntryID id) {
+        return id.getSequence() == Long.MAX_VALUE
+                ? new StreamEntryID(id.getTime() + 1, 0) : new StreamEntryID(id.getTime(), id.getSequence() + 1);
+    }
+
+    /**
+     * @return the largest id before the given one, or null if there is none
+     */
+    static StreamEntryID previous(StreamEntryID id) {
+        if (id.getSequence() > 0) {
+            return new StreamEntryID(id.getTime(), id.getSequence() - 1);
+        }
+        return id.getTime() > 0 ? new StreamEntryID(id.getTime() - 1, Long.MAX_VALUE) : null;
+    }
+
+    static List<StreamMessage> toMessages(List<StreamEntry> entries) {
+        List<StreamMessage> messages = new ArrayList<>(entries.size());
+        for (StreamEntry entry : entries) {
+            messages.add(new StreamMessage(entry.getID().toString(), entry.getFields()));
+        }
+        return messages;
+    }
+}
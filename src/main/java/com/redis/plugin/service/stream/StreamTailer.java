@@ -0,0 +1,178 @@
+package com.redis.plugin.service.stream;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.StreamMessage;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.util.SpscRingBuffer;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.XReadParams;
+import redis.clients.jedis.resps.StreamEntry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Follows new entries of a stream with XREAD BLOCK on a dedicated connection.
+ * <p>
+ * A blocked XREAD holds its connection, so it must never use a pooled one. Each read blocks
+ * for less than the socket timeout and continues from the last id seen, so no entry is
+ * missed between reads. Entries are handed to the UI through a {@link SpscRingBuffer};
+ * entries that do not fit are dropped and counted.
+ */
+public class StreamTailer {
+    private static final Logger LOG = Logger.getInstance(StreamTailer.class);
+
+    /**
+     * Maximum number of entries returned by one XREAD
+     */
+    static final int READ_COUNT = 500;
+
+    private final RedisConnection connection;
+    private final String key;
+    private final SpscRingBuffer<StreamMessage> buffer;
+
+    private volatile Jedis jedis;
+    private volatile boolean stopping;
+    private volatile boolean running;
+    private volatile long received;
+
+    private StreamTailer(Builder builder) {
+        this.connection = builder.connection;
+        this.key = builder.key;
+        this.buffer = new SpscRingBuffer<>(builder.bufferSize);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Connect and follow the stream on a background thread, starting with entries added from now on
+     * @param onStopped called on the reader thread when tailing ends, with the error or null
+     */
+    public void start(Consumer<String> onStopped) {
+        running = true;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            String error = null;
+            try {
+                jedis = JedisRedisService.createClient(connection);
+                XReadParams params = XReadParams.xReadParams()
+                        .block(Math.max(100, connection.getTimeout() / 2))
+                        .count(READ_COUNT);
+                StreamEntryID lastId = StreamEntryID.XREAD_NEW_ENTRY;
+                while (!stopping) {
+                    List<Map.Entry<String, List<StreamEntry>>> result =
+                            jedis.xread(params, Collections.singletonMap(key, lastId));
+                    if (result == null || result.isEmpty()) {
+                        continue;
+                    }
+                    for (StreamEntry entry : result.get(0).getValue()) {
+                        buffer.offer(new StreamMessage(entry.getID().toString(), entry.getFields()));
+                        lastId = entry.getID();
+                        received++;
+                    }
+                }
+            } catch (JedisException e) {
+                if (!stopping) {
+                    LOG.info("Tailing " + key + " on " + connection.getName() + " ended: " + e.getMessage());
+                    error = e.getMessage();
+                }
+            } finally {
+                close();
+                running = false;
+            }
+            onStopped.accept(error);
+        });
+    }
+
+    /**
+     * Stop by closing the connection, which also interrupts a blocked read
+     */
+    public void stop() {
+        stopping = true;
+        close();
+    }
+
+    private void close() {
+        Jedis client = jedis;
+        if (client != null) {
+            try {
+                client.disconnect();
+            } catch (JedisException e) {
+                LOG.debug("Error closing stream connection", e);
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public SpscRingBuffer<StreamMessage> getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return number of entries read since the start
+     */
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return number of entries lost because the UI did not drain the buffer in time
+     */
+    public long getDropped() {
+        return buffer.getDropped();
+    }
+
+    /**
+     * Builder for StreamTailer
+     */
+    public static class Builder {
+        private RedisConnection connection;
+        private String key;
+        private int bufferSize = 16384;
+
+        public Builder connection(RedisConnection connection) {
+            this.connection = connection;
+            return this;
+        }
+
+        public Builder key(String key) {
+            this.key = key;
+            return this;
+        }
+
+        /**
+         * @param bufferSize number of entries buffered between the reader thread and the UI
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public StreamTailer build() {
+            if (connection == null) {
+                throw new IllegalStateException("Connection is required");
+            }
+            if (key == null || key.isEmpty()) {
+                throw new IllegalStateException("Stream key is required");
+            }
+            if (bufferSize < 1) {
+                throw new IllegalStateException("Buffer size must be positive");
+            }
+            return new StreamTailer(this);
+        }
+    }
+}
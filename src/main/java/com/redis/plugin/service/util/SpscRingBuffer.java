@@ -0,0 +1,94 @@
+package com.redis.plugin.service.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded single-producer, single-consumer queue that never blocks the producer.
+ * <p>
+ * When the consumer falls behind, new elements are dropped and counted instead of
+ * growing the queue, so a burst of traffic cannot exhaust the IDE's heap.
+ *
+ * @param <T> the element type
+ */
+public class SpscRingBuffer<T> {
+    private final AtomicReferenceArray<T> elements;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity the capacity, rounded up to a power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        elements = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    /**
+     * Add an element; only called by the producer thread
+     * @return false if the buffer was full and the element was dropped
+     */
+    public boolean offer(T element) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        elements.lazySet((int) (t & mask), element);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Remove up to {@code max} elements; only called by the consumer thread
+     * @return the number of elements removed
+     */
+    public int drain(Consumer<T> consumer, int max) {
+        long h = head.get();
+        long available = Math.min(tail.get() - h, max);
+        for (int i = 0; i < available; i++) {
+            int index = (int) ((h + i) & mask);
+            T element = elements.get(index);
+            elements.lazySet(index, null);
+            consumer.accept(element);
+        }
+        head.lazySet(h + available);
+        return (int) available;
+    }
+
+    /**
+     * @return the number of elements waiting to be drained
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the number of elements dropped because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Discard all waiting elements; only called by the consumer thread
+     */
+    public void clear() {
+        drain(element -> {
+        }, Integer.MAX_VALUE);
+    }
+}
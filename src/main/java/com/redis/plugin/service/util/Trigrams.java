@@ -0,0 +1,129 @@
+package com.redis.plugin.service.util;
+
+import java.util.Arrays;
+
+/**
+ * Building blocks of the trigram indexes used for search as you type: three-character
+ * sequences packed into a long, sorted posting lists of ids, and their intersection.
+ * <p>
+ * The indexes differ in what they keep around the lists, the command history updating its
+ * own as commands come and go and the command catalog building an immutable one, but both
+ * tokenise and intersect the same way.
+ */
+public final class Trigrams {
+
+    private Trigrams() {
+    }
+
+    /**
+     * @return the three characters of {@code text} starting at {@code at}, packed into a long
+     */
+    public static long pack(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    /**
+     * @param text the text, already lower-cased
+     * @return its distinct trigrams, sorted; empty if it is shorter than three characters
+     */
+    public static long[] of(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = pack(text, i);
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    /**
+     * Keep the candidates that are also in a posting list, in place
+     *
+     * @param candidates sorted ids
+     * @param count number of candidates
+     * @param list the posting list
+     * @return the number of candidates left
+     */
+    public static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < list.size; i++) {
+            int position = gallop(list, from, candidates[i]);
+            if (position >= 0) {
+                candidates[kept++] = candidates[i];
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Binary search for an id after doubling steps from {@code from}, cheap when the ids looked
+     * up are increasing and close together
+     *
+     * @return as {@link Arrays#binarySearch(int[], int, int, int)}
+     */
+    private static int gallop(Postings list, int from, int id) {
+        int step = 1;
+        int to = from;
+        while (to < list.size && list.ids[to] < id) {
+            from = to + 1;
+            to += step;
+            step <<= 1;
+        }
+        return Arrays.binarySearch(list.ids, from, Math.min(to + 1, list.size), id);
+    }
+
+    /**
+     * Ids of the entries containing one trigram, added in increasing order
+     */
+    public static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        /**
+         * Add an id, greater than or equal to the last one; adding the last one again does nothing
+         */
+        public void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int get(int index) {
+            return ids[index];
+        }
+
+        /**
+         * @return a copy of the ids, to start an intersection from
+         */
+        public int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        /**
+         * Release the unused capacity, once no more ids will be added
+         */
+        public void trim() {
+            ids = Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.redis.plugin.ui;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.RedisService;
+import com.redis.plugin.service.guard.CostEstimate;
+import com.redis.plugin.service.guard.CostGuard;
+import com.redis.plugin.service.impl.JedisRedisService;
+
+import java.util.function.Consumer;
+
+/**
+ * Helper that has expensive commands on production connections confirmed, refused or
+ * rewritten before they run, for every place in the UI that sends a command it did not
+ * page itself
+ */
+public final class ProductionGuard {
+
+    private ProductionGuard() {
+    }
+
+    /**
+     * Estimate what a command costs on a production connection, and have it confirmed,
+     * refused or rewritten to a paged equivalent according to the connection thresholds.
+     * Sizes the command with one or two constant-time round trips; call it on the EDT.
+     *
+     * @param project the project to show dialogs and notifications in
+     * @param service the service the command will run on
+     * @param command the command line
+     * @param refused receives the reason when the command is refused
+     * @return the command to run, or null if it must not run
+     */
+    public static String guard(Project project, RedisService service, String command, Consumer<String> refused) {
+        RedisConnection connection = service.getCurrentConnection();
+        if (connection == null || !connection.isProduction()) {
+            return command;
+        }
+        CostEstimate estimate = new CostGuard(service, ApplicationManager.getApplication().getService(RedisCommandCatalog.class))
+                .estimate(JedisRedisService.parseCommandLine(command));
+        if (estimate == null) {
+            return command;
+        }
+        switch (estimate.verdict(connection)) {
+            case WARN:
+                String message = estimate.describe() + " on production server " + connection.getName() + ".";
+                if (estimate.getRewrite() == null) {
+                    int choice = Messages.showOkCancelDialog(project, message, "Expensive Command",
+                            "Run Anyway", "Cancel", Messages.getWarningIcon());
+                    return choice == Messages.OK ? command : null;
+                }
+                int choice = Messages.showYesNoCancelDialog(project, message + "\n\nRun a page of it instead?\n" + estimate.getRewrite(),
+                        "Expensive Command", "Run Anyway", "Run Paged", "Cancel", Messages.getWarningIcon());
+                if (choice == Messages.YES) {
+                    return command;
+                }
+                return choice == Messages.NO ? estimate.getRewrite() : null;
+            case BLOCK:
+                if (estimate.getRewrite() != null) {
+                    RedisNotifications.warning(project, "Expensive command rewritten",
+                            estimate.describe() + "; ran " + estimate.getRewrite() + " instead");
+                    return estimate.getRewrite();
+                }
+                refused.accept(estimate.describe()
+                        + ", above the limit of " + connection.getBlockCost() + " for " + connection.getName());
+                return null;
+            default:
+                return command;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.redis.plugin.ui;
+
+import com.intellij.notification.NotificationGroupManager;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.project.Project;
+
+/**
+ * Helper for showing balloon notifications from background jobs
+ */
+public final class RedisNotifications {
+    private static final String GROUP_ID = "Redis Plugin Notifications";
+
+    private RedisNotifications() {
+    }
+
+    public static void info(Project project, String title, String content) {
+        notify(project, title, content, NotificationType.INFORMATION);
+    }
+
+    public static void warning(Project project, String title, String content) {
+        notify(project, title, content, NotificationType.WARNING);
+    }
+
+    public static void error(Project project, String title, String content) {
+        notify(project, title, content, NotificationType.ERROR);
+    }
+
+    private static void notify(Project project, String title, String content, NotificationType type) {
+        NotificationGroupManager.getInstance()
+                .getNotificationGroup(GROUP_ID)
+                .createNotification(title, content, type)
+                .notify(project);
+    }
+}
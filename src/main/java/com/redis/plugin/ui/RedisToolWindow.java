@@ -13,12 +13,22 @@ import com.intellij.ui.JBSplitter;
 import com.intellij.ui.components.JBTabbedPane;
 import com.redis.plugin.model.RedisConnection;
 import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisCommandCatalog;
 import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.ui.panel.BenchmarkPanel;
 import com.redis.plugin.ui.panel.CommandCatalogPanel;
 import com.redis.plugin.ui.panel.CommandPanel;
 import com.redis.plugin.ui.panel.ConnectionPanel;
 import com.redis.plugin.ui.panel.ConsolePanel;
+import com.redis.plugin.ui.panel.FunctionsPanel;
+import com.redis.plugin.ui.panel.InfoDashboardPanel;
+import com.redis.plugin.ui.panel.KeyspaceAnalysisPanel;
+import com.redis.plugin.ui.panel.MonitorPanel;
+import com.redis.plugin.ui.panel.PubSubPanel;
 import com.redis.plugin.ui.panel.ResultPanel;
+import com.redis.plugin.ui.panel.ScriptPanel;
+import com.redis.plugin.ui.panel.SlowlogPanel;
+import com.redis.plugin.ui.panel.StreamsPanel;
 
 import javax.swing.*;
 import java.awt.*;
@@ -34,6 +44,16 @@ public class RedisToolWindow implements Disposable {
     private ResultPanel resultPanel;
     private ConsolePanel consolePanel;
     private CommandCatalogPanel commandCatalogPanel;
+    private KeyspaceAnalysisPanel keyspaceAnalysisPanel;
+    private SlowlogPanel slowlogPanel;
+    private MonitorPanel monitorPanel;
+    private PubSubPanel pubSubPanel;
+    private StreamsPanel streamsPanel;
+    private InfoDashboardPanel infoDashboardPanel;
+    private BenchmarkPanel benchmarkPanel;
+    private ScriptPanel scriptPanel;
+    private FunctionsPanel functionsPanel;
+    private JBTabbedPane leftTabs;
     private final RedisConnectionManager connectionManager;
 
     public RedisToolWindow(Project project, ToolWindow toolWindow) {
@@ -55,6 +75,15 @@ public class RedisToolWindow implements Disposable {
         resultPanel = new ResultPanel(project);
         consolePanel = new ConsolePanel(project);
         commandCatalogPanel = new CommandCatalogPanel(project);
+        keyspaceAnalysisPanel = new KeyspaceAnalysisPanel(project);
+        slowlogPanel = new SlowlogPanel(project);
+        monitorPanel = new MonitorPanel(project);
+        pubSubPanel = new PubSubPanel(project);
+        streamsPanel = new StreamsPanel(project);
+        infoDashboardPanel = new InfoDashboardPanel(project);
+        benchmarkPanel = new BenchmarkPanel(project);
+        scriptPanel = new ScriptPanel(project);
+        functionsPanel = new FunctionsPanel(project);
 
         // Command panel at the top
         JPanel commandArea = new JPanel(new BorderLayout());
@@ -64,6 +93,15 @@ public class RedisToolWindow implements Disposable {
         JBTabbedPane resultTabs = new JBTabbedPane();
         resultTabs.addTab("Results", resultPanel);
         resultTabs.addTab("Console", consolePanel);
+        resultTabs.addTab("Analysis", keyspaceAnalysisPanel);
+        resultTabs.addTab("Slowlog", slowlogPanel);
+        resultTabs.addTab("Monitor", monitorPanel);
+        resultTabs.addTab("Pub/Sub", pubSubPanel);
+        resultTabs.addTab("Streams", streamsPanel);
+        resultTabs.addTab("Dashboard", infoDashboardPanel);
+        resultTabs.addTab("Benchmark", benchmarkPanel);
+        resultTabs.addTab("Scripts", scriptPanel);
+        resultTabs.addTab("Functions", functionsPanel);
 
         // Command area and results/console in vertical split
         JBSplitter commandResultSplitter = new JBSplitter(true, 0.3f);
@@ -71,7 +109,7 @@ public class RedisToolWindow implements Disposable {
         commandResultSplitter.setSecondComponent(resultTabs);
         
         // Connection panel and catalog in tabs
-        JBTabbedPane leftTabs = new JBTabbedPane();
+        leftTabs = new JBTabbedPane();
         leftTabs.addTab("Connections", connectionPanel);
         leftTabs.addTab("Commands", commandCatalogPanel);
         
@@ -88,6 +126,7 @@ public class RedisToolWindow implements Disposable {
         actionGroup.add(ActionManager.getInstance().getAction("Redis.NewConnection"));
         actionGroup.add(ActionManager.getInstance().getAction("Redis.ExecuteCommand"));
         actionGroup.add(ActionManager.getInstance().getAction("Redis.Refresh"));
+        actionGroup.add(ActionManager.getInstance().getAction("Redis.BulkOperations"));
         
         ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("RedisToolbar", actionGroup, true);
         toolbar.setTargetComponent(panel);
@@ -104,15 +143,27 @@ public class RedisToolWindow implements Disposable {
                 
                 if (!result.isError()) {
                     // Update UI elements
+                    RedisConnection current = connectionManager.getRedisService().getCurrentConnection();
+                    commandPanel.setConnection(current);
+                    ApplicationManager.getApplication().executeOnPooledThread(
+                            () -> ApplicationManager.getApplication().getService(RedisCommandCatalog.class).loadFromServer(current));
                     commandPanel.setEnabled(true);
                     resultPanel.setEnabled(true);
                     consolePanel.setEnabled(true);
                 }
             } else {
                 // Disconnect from Redis
+                slowlogPanel.stop();
+                monitorPanel.stop();
+                pubSubPanel.stopAll();
+                streamsPanel.stop();
+                infoDashboardPanel.stop();
+                scriptPanel.stop();
+                functionsPanel.stop();
                 connectionManager.disconnect();
                 
                 // Update UI elements
+                commandPanel.setConnection(null);
                 commandPanel.setEnabled(false);
                 resultPanel.setEnabled(false);
                 consolePanel.setEnabled(false);
@@ -121,8 +172,12 @@ public class RedisToolWindow implements Disposable {
         });
         
         // Command panel executes commands
-        commandPanel.addCommandListener(command -> {
+        commandPanel.addCommandListener(typed -> {
             if (connectionManager.isConnected()) {
+                String command = guardCost(typed);
+                if (command == null) {
+                    return;
+                }
                 RedisResult result = connectionManager.getRedisService().execute(command);
 
                 // Update both result panel and console
@@ -130,7 +185,7 @@ public class RedisToolWindow implements Disposable {
                 consolePanel.addCommandExecution(command, result);
 
                 // Add to command panel history
-                commandPanel.addToHistory(command);
+                commandPanel.addToHistory(command, result);
             }
         });
 
@@ -139,10 +194,35 @@ public class RedisToolWindow implements Disposable {
             commandPanel.setCommand(command);
         });
 
+        // Catalog read from the connected server replaces the built-in one
+        ApplicationManager.getApplication().getService(RedisCommandCatalog.class).addChangeListener(
+                () -> ApplicationManager.getApplication().invokeLater(() -> {
+                    commandCatalogPanel.reload();
+                    commandPanel.reloadCompletions();
+                }), this);
+
         // Command catalog panel sends commands to command panel
         commandCatalogPanel.addCommandSelectionListener(command -> {
             commandPanel.setCommand(command.getSyntax());
         });
+
+        // Slowlog templates open their command in the catalog
+        slowlogPanel.addTemplateSelectionListener(command -> {
+            if (commandCatalogPanel.selectCommand(command)) {
+                leftTabs.setSelectedComponent(commandCatalogPanel);
+            }
+        });
+    }
+    
+    /**
+     * Have an expensive command on a production connection confirmed, refused or rewritten
+     *
+     * @param command the command typed
+     * @return the command to run, or null if it must not run
+     */
+    private String guardCost(String command) {
+        return ProductionGuard.guard(project, connectionManager.getRedisService(), command,
+                reason -> resultPanel.displayResult(RedisResult.error(reason)));
     }
     
     public JComponent getContent() {
@@ -152,6 +232,14 @@ public class RedisToolWindow implements Disposable {
     @Override
     public void dispose() {
         // Clean up resources
+        slowlogPanel.stop();
+        monitorPanel.stop();
+        pubSubPanel.stopAll();
+        streamsPanel.stop();
+        infoDashboardPanel.stop();
+                scriptPanel.stop();
+                functionsPanel.stop();
+        commandPanel.setConnection(null);
         if (connectionManager.isConnected()) {
             connectionManager.disconnect();
         }
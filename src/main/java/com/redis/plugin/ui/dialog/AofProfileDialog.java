@@ -0,0 +1,108 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.AofProfile;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Dialog showing the command mix and key distribution of an append-only file
+ */
+public class AofProfileDialog extends DialogWrapper {
+    /**
+     * Exit code used when the user asks to replay the file
+     */
+    public static final int REPLAY_EXIT_CODE = NEXT_USER_EXIT_CODE;
+
+    private final AofProfile profile;
+
+    public AofProfileDialog(@Nullable Project project, AofProfile profile) {
+        super(project);
+        this.profile = profile;
+        setTitle("AOF File: " + profile.getSource());
+        setOKButtonText("Close");
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+
+        String summary = String.format("<html>%,d commands, %,d bytes, read in %,d ms",
+                profile.getTotalCommands(), profile.getTotalBytes(), profile.getElapsedMillis());
+        if (profile.hasTimestamps()) {
+            long span = profile.getLastTimestamp() - profile.getFirstTimestamp();
+            summary += String.format("<br>Recorded from %s to %s (%,d s, about %,d commands/s)",
+                    Instant.ofEpochSecond(profile.getFirstTimestamp()), Instant.ofEpochSecond(profile.getLastTimestamp()),
+                    span, profile.getTotalCommands() / Math.max(1, span));
+        } else {
+            summary += "<br>No timestamp annotations; replay is only possible at full speed";
+        }
+        panel.add(new JBLabel(summary + "</html>"), BorderLayout.NORTH);
+
+        JBTabbedPane tabbedPane = new JBTabbedPane();
+        tabbedPane.addTab("Commands", entryTable("Command", profile.getCommands()));
+        tabbedPane.addTab("Namespaces", entryTable("Namespace", profile.getNamespaces()));
+        tabbedPane.addTab("Databases", entryTable("Database", profile.getDatabases()));
+
+        DefaultTableModel details = new DefaultTableModel(new Object[]{"Property", "Value"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        profile.getMetadata().forEach((name, value) -> details.addRow(new Object[]{name, value}));
+        tabbedPane.addTab("Details", new JBScrollPane(new JBTable(details)));
+        panel.add(tabbedPane, BorderLayout.CENTER);
+
+        panel.setPreferredSize(new Dimension(640, 460));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    private JComponent entryTable(String nameColumn, List<AofProfile.Entry> entries) {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{nameColumn, "Commands", "% of Commands", "Bytes"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 1 || column == 3 ? Long.class : String.class;
+            }
+        };
+        for (AofProfile.Entry entry : entries) {
+            double share = profile.getTotalCommands() == 0 ? 0 : entry.getCommands() * 100.0 / profile.getTotalCommands();
+            model.addRow(new Object[]{entry.getName(), entry.getCommands(), String.format("%.1f%%", share),
+                    entry.getBytes()});
+        }
+
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        return new JBScrollPane(table);
+    }
+
+    @Override
+    protected Action[] createActions() {
+        Action replayAction = new DialogWrapperAction("Replay...") {
+            @Override
+            protected void doAction(ActionEvent e) {
+                close(REPLAY_EXIT_CODE);
+            }
+        };
+        return new Action[]{replayAction, getOKAction()};
+    }
+}
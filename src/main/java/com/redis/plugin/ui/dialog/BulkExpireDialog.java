@@ -0,0 +1,169 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.service.bulk.BulkExpireJob;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Dialog for configuring a bulk TTL job over all keys matching a pattern
+ */
+public class BulkExpireDialog extends DialogWrapper {
+    static final String ANY_TYPE = "any";
+    static final String[] KEY_TYPES = {ANY_TYPE, "string", "hash", "list", "set", "zset", "stream"};
+
+    private final JBTextField patternField;
+    private final ComboBox<String> typeComboBox;
+    private final ComboBox<BulkExpireJob.Mode> modeComboBox;
+    private final JBTextField valueField;
+    private final JBLabel valueLabel;
+    private final JBTextField jitterField;
+    private final JBTextField batchSizeField;
+    private final JBTextField rateField;
+
+    public BulkExpireDialog(@Nullable Project project) {
+        super(project);
+        setTitle("Set Expiration by Pattern");
+
+        patternField = new JBTextField("*");
+        typeComboBox = new ComboBox<>(KEY_TYPES);
+        modeComboBox = new ComboBox<>(BulkExpireJob.Mode.values());
+        valueField = new JBTextField("3600");
+        valueLabel = new JBLabel();
+        jitterField = new JBTextField("0");
+        jitterField.setToolTipText("Randomly spread each TTL by up to this percentage to avoid expiry stampedes");
+        batchSizeField = new JBTextField("1000");
+        rateField = new JBTextField("0");
+        rateField.setToolTipText("Maximum keys updated per second, 0 for unlimited");
+
+        modeComboBox.addActionListener(e -> updateValueField());
+        updateValueField();
+
+        init();
+    }
+
+    private void updateValueField() {
+        BulkExpireJob.Mode mode = getMode();
+        valueField.setEnabled(mode != BulkExpireJob.Mode.PERSIST);
+        jitterField.setEnabled(mode != BulkExpireJob.Mode.PERSIST);
+        if (mode == BulkExpireJob.Mode.PEXPIREAT) {
+            valueLabel.setText("Unix time (ms):");
+            valueField.setText(String.valueOf(System.currentTimeMillis() + 3_600_000L));
+        } else {
+            valueLabel.setText("Seconds:");
+            valueField.setText("3600");
+        }
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Key pattern:"), patternField)
+                .addLabeledComponent(new JBLabel("Key type:"), typeComboBox)
+                .addLabeledComponent(new JBLabel("Operation:"), modeComboBox)
+                .addLabeledComponent(valueLabel, valueField)
+                .addLabeledComponent(new JBLabel("TTL jitter (%):"), jitterField)
+                .addLabeledComponent(new JBLabel("Batch size:"), batchSizeField)
+                .addLabeledComponent(new JBLabel("Rate limit (keys/s):"), rateField)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(420, 260));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (patternField.getText().trim().isEmpty()) {
+            return new ValidationInfo("Pattern cannot be empty", patternField);
+        }
+
+        if (getMode() != BulkExpireJob.Mode.PERSIST) {
+            try {
+                long value = Long.parseLong(valueField.getText().trim());
+                if (value <= 0) {
+                    return new ValidationInfo("Value must be greater than 0", valueField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Value must be a number", valueField);
+            }
+
+            ValidationInfo jitterError = validateInt(jitterField, 0, 100, "Jitter must be between 0 and 100");
+            if (jitterError != null) {
+                return jitterError;
+            }
+        }
+
+        ValidationInfo batchError = validateInt(batchSizeField, 1, 100_000, "Batch size must be between 1 and 100000");
+        if (batchError != null) {
+            return batchError;
+        }
+        return validateInt(rateField, 0, Integer.MAX_VALUE, "Rate limit must be 0 or greater");
+    }
+
+    static ValidationInfo validateInt(JBTextField field, int min, int max, String message) {
+        try {
+            int value = Integer.parseInt(field.getText().trim());
+            if (value < min || value > max) {
+                return new ValidationInfo(message, field);
+            }
+        } catch (NumberFormatException e) {
+            return new ValidationInfo(message, field);
+        }
+        return null;
+    }
+
+    public String getPattern() {
+        return patternField.getText().trim();
+    }
+
+    /**
+     * @return the selected key type, or null when all types are selected
+     */
+    public String getKeyType() {
+        String type = (String) typeComboBox.getSelectedItem();
+        return type == null || ANY_TYPE.equals(type) ? null : type;
+    }
+
+    public BulkExpireJob.Mode getMode() {
+        return (BulkExpireJob.Mode) modeComboBox.getSelectedItem();
+    }
+
+    public long getValue() {
+        try {
+            return Long.parseLong(valueField.getText().trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public int getJitterPercent() {
+        return getMode() == BulkExpireJob.Mode.PERSIST ? 0 : parseInt(jitterField, 0);
+    }
+
+    public int getBatchSize() {
+        return parseInt(batchSizeField, 1000);
+    }
+
+    public int getOpsPerSecond() {
+        return parseInt(rateField, 0);
+    }
+
+    static int parseInt(JBTextField field, int defaultValue) {
+        try {
+            return Integer.parseInt(field.getText().trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
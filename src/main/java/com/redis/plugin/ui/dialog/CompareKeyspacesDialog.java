@@ -0,0 +1,96 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Dialog for comparing the keys of the active connection with another connection
+ */
+public class CompareKeyspacesDialog extends DialogWrapper {
+    private final JBTextField patternField;
+    private final ComboBox<String> typeComboBox;
+    private final ComboBox<RedisConnection> targetComboBox;
+    private final JBTextField batchSizeField;
+
+    /**
+     * @param project the project
+     * @param source the connection used as the baseline
+     * @param targets the connections it can be compared with
+     */
+    public CompareKeyspacesDialog(@Nullable Project project, RedisConnection source, List<RedisConnection> targets) {
+        super(project);
+        setTitle("Compare " + source.getName() + " With...");
+
+        patternField = new JBTextField("*");
+        typeComboBox = new ComboBox<>(BulkExpireDialog.KEY_TYPES);
+        targetComboBox = new ComboBox<>(targets.toArray(new RedisConnection[0]));
+        targetComboBox.setRenderer(SimpleListCellRenderer.create("", c ->
+                c.getName() + " (" + c.getHost() + ":" + c.getPort() + "/" + c.getDatabase() + ")"));
+        batchSizeField = new JBTextField("500");
+
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JBLabel hintLabel = new JBLabel("Values are compared by server-side digests and are not transferred.");
+        hintLabel.setFont(hintLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Key pattern:"), patternField)
+                .addLabeledComponent(new JBLabel("Key type:"), typeComboBox)
+                .addLabeledComponent(new JBLabel("Compare with:"), targetComboBox)
+                .addLabeledComponent(new JBLabel("Batch size:"), batchSizeField)
+                .addComponent(hintLabel)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(480, 180));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (patternField.getText().trim().isEmpty()) {
+            return new ValidationInfo("Pattern cannot be empty", patternField);
+        }
+        if (getTarget() == null) {
+            return new ValidationInfo("Select a connection to compare with", targetComboBox);
+        }
+        return BulkExpireDialog.validateInt(batchSizeField, 1, 10_000, "Batch size must be between 1 and 10000");
+    }
+
+    public String getPattern() {
+        return patternField.getText().trim();
+    }
+
+    /**
+     * @return the selected key type, or null when all types are selected
+     */
+    public String getKeyType() {
+        String type = (String) typeComboBox.getSelectedItem();
+        return type == null || BulkExpireDialog.ANY_TYPE.equals(type) ? null : type;
+    }
+
+    public RedisConnection getTarget() {
+        return (RedisConnection) targetComboBox.getSelectedItem();
+    }
+
+    public int getBatchSize() {
+        return BulkExpireDialog.parseInt(batchSizeField, 500);
+    }
+}
@@ -15,6 +15,7 @@ import com.redis.plugin.model.RedisResult;
 import com.redis.plugin.service.RedisConnectionManager;
 import com.redis.plugin.service.RedisService;
 import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.replica.ReplicaRouter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -33,6 +34,14 @@ public class ConnectionDialog extends DialogWrapper {
     private final JCheckBox useSslCheckbox;
     private final JBTextField databaseField;
     private final JBTextField timeoutField;
+    private final JCheckBox embeddedCheckbox;
+    private final JBTextField latencyField;
+    private final JCheckBox productionCheckbox;
+    private final JBTextField warnCostField;
+    private final JBTextField blockCostField;
+    private final JCheckBox readFromReplicasCheckbox;
+    private final JBTextField replicasField;
+    private final JBTextField maxReplicaLagField;
     private final RedisConnection originalConnection;
     private final JButton testButton;
     
@@ -51,6 +60,15 @@ public class ConnectionDialog extends DialogWrapper {
         useSslCheckbox = new JCheckBox("Use SSL/TLS");
         databaseField = new JBTextField();
         timeoutField = new JBTextField();
+        embeddedCheckbox = new JCheckBox("Embedded server (runs inside the IDE, no Redis needed)");
+        latencyField = new JBTextField();
+        productionCheckbox = new JCheckBox("Production server (estimate expensive commands before running them)");
+        warnCostField = new JBTextField();
+        blockCostField = new JBTextField();
+        readFromReplicasCheckbox = new JCheckBox("Read from replicas (send read-only commands to the fastest replica)");
+        replicasField = new JBTextField();
+        replicasField.getEmptyText().setText("host:port, ... or empty to discover from INFO replication");
+        maxReplicaLagField = new JBTextField();
         
         // Set initial values
         originalConnection = connection;
@@ -62,17 +80,37 @@ public class ConnectionDialog extends DialogWrapper {
             useSslCheckbox.setSelected(connection.isUseSSL());
             databaseField.setText(String.valueOf(connection.getDatabase()));
             timeoutField.setText(String.valueOf(connection.getTimeout()));
+            embeddedCheckbox.setSelected(connection.isEmbedded());
+            latencyField.setText(String.valueOf(connection.getEmbeddedLatency()));
+            productionCheckbox.setSelected(connection.isProduction());
+            warnCostField.setText(String.valueOf(connection.getWarnCost()));
+            blockCostField.setText(String.valueOf(connection.getBlockCost()));
+            readFromReplicasCheckbox.setSelected(connection.isReadFromReplicas());
+            replicasField.setText(connection.getReplicas());
+            maxReplicaLagField.setText(String.valueOf(connection.getMaxReplicaLag()));
         } else {
             // Default values
             portField.setText("6379");
             databaseField.setText("0");
             timeoutField.setText("5000");
+            latencyField.setText("0");
+            warnCostField.setText(String.valueOf(RedisConnection.DEFAULT_WARN_COST));
+            blockCostField.setText(String.valueOf(RedisConnection.DEFAULT_BLOCK_COST));
+            maxReplicaLagField.setText(String.valueOf(RedisConnection.DEFAULT_MAX_REPLICA_LAG));
         }
         
         // Create test button
         testButton = new JButton("Test Connection");
         testButton.addActionListener(e -> testConnection());
         
+        // An embedded server has no address to enter and nothing to test
+        embeddedCheckbox.addActionListener(e -> updateEmbeddedFields());
+        updateEmbeddedFields();
+        productionCheckbox.addActionListener(e -> updateProductionFields());
+        updateProductionFields();
+        readFromReplicasCheckbox.addActionListener(e -> updateReplicaFields());
+        updateReplicaFields();
+        
         // Initialize dialog
         init();
     }
@@ -89,16 +127,29 @@ public class ConnectionDialog extends DialogWrapper {
         JBLabel passwordLabel = new JBLabel("Password:");
         JBLabel databaseLabel = new JBLabel("Database:");
         JBLabel timeoutLabel = new JBLabel("Timeout (ms):");
+        JBLabel latencyLabel = new JBLabel("Added latency (ms):");
+        JBLabel warnCostLabel = new JBLabel("Confirm above (elements):");
+        JBLabel blockCostLabel = new JBLabel("Refuse or page above (elements):");
+        JBLabel replicasLabel = new JBLabel("Replicas:");
+        JBLabel maxReplicaLagLabel = new JBLabel("Max replica lag (s):");
         
         // Build form using FormBuilder
         JPanel formPanel = FormBuilder.createFormBuilder()
                 .addLabeledComponent(nameLabel, nameField)
+                .addComponent(embeddedCheckbox)
                 .addLabeledComponent(hostLabel, hostField)
                 .addLabeledComponent(portLabel, portField)
                 .addLabeledComponent(passwordLabel, passwordField)
                 .addComponent(useSslCheckbox)
                 .addLabeledComponent(databaseLabel, databaseField)
                 .addLabeledComponent(timeoutLabel, timeoutField)
+                .addLabeledComponent(latencyLabel, latencyField)
+                .addComponent(productionCheckbox)
+                .addLabeledComponent(warnCostLabel, warnCostField)
+                .addLabeledComponent(blockCostLabel, blockCostField)
+                .addComponent(readFromReplicasCheckbox)
+                .addLabeledComponent(replicasLabel, replicasField)
+                .addLabeledComponent(maxReplicaLagLabel, maxReplicaLagField)
                 .addComponentFillVertically(new JPanel(), 0)
                 .getPanel();
         
@@ -112,7 +163,7 @@ public class ConnectionDialog extends DialogWrapper {
         panel.add(buttonPanel, BorderLayout.SOUTH);
         
         // Set size and padding
-        panel.setPreferredSize(new Dimension(400, 300));
+        panel.setPreferredSize(new Dimension(440, 540));
         panel.setBorder(JBUI.Borders.empty(10));
         
         return panel;
@@ -128,19 +179,31 @@ public class ConnectionDialog extends DialogWrapper {
             return new ValidationInfo("Name cannot be empty", nameField);
         }
         
-        // Validate host (required)
-        if (hostField.getText().trim().isEmpty()) {
-            return new ValidationInfo("Host cannot be empty", hostField);
-        }
-        
-        // Validate port (must be a number between 1-65535)
-        try {
-            int port = Integer.parseInt(portField.getText().trim());
-            if (port < 1 || port > 65535) {
-                return new ValidationInfo("Port must be between 1 and 65535", portField);
+        if (embeddedCheckbox.isSelected()) {
+            // Validate added latency (must be a non-negative number)
+            try {
+                int latency = Integer.parseInt(latencyField.getText().trim());
+                if (latency < 0) {
+                    return new ValidationInfo("Latency must be a non-negative number", latencyField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Latency must be a valid number", latencyField);
+            }
+        } else {
+            // Validate host (required)
+            if (hostField.getText().trim().isEmpty()) {
+                return new ValidationInfo("Host cannot be empty", hostField);
+            }
+            
+            // Validate port (must be a number between 1-65535)
+            try {
+                int port = Integer.parseInt(portField.getText().trim());
+                if (port < 1 || port > 65535) {
+                    return new ValidationInfo("Port must be between 1 and 65535", portField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Port must be a valid number", portField);
             }
-        } catch (NumberFormatException e) {
-            return new ValidationInfo("Port must be a valid number", portField);
         }
         
         // Validate database (must be a non-negative number)
@@ -163,9 +226,80 @@ public class ConnectionDialog extends DialogWrapper {
             return new ValidationInfo("Timeout must be a valid number", timeoutField);
         }
         
+        if (productionCheckbox.isSelected()) {
+            // Validate cost thresholds (positive, confirming before refusing)
+            long warnCost;
+            try {
+                warnCost = Long.parseLong(warnCostField.getText().trim());
+                if (warnCost <= 0) {
+                    return new ValidationInfo("Threshold must be greater than 0", warnCostField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Threshold must be a valid number", warnCostField);
+            }
+            try {
+                long blockCost = Long.parseLong(blockCostField.getText().trim());
+                if (blockCost < warnCost) {
+                    return new ValidationInfo("Threshold must not be below the confirmation threshold", blockCostField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Threshold must be a valid number", blockCostField);
+            }
+        }
+        
+        if (readFromReplicasCheckbox.isSelected() && !embeddedCheckbox.isSelected()) {
+            // Validate replica addresses and lag
+            try {
+                ReplicaRouter.parseAddresses(replicasField.getText());
+            } catch (IllegalArgumentException e) {
+                return new ValidationInfo(e.getMessage(), replicasField);
+            }
+            try {
+                int maxLag = Integer.parseInt(maxReplicaLagField.getText().trim());
+                if (maxLag <= 0) {
+                    return new ValidationInfo("Lag must be greater than 0", maxReplicaLagField);
+                }
+            } catch (NumberFormatException e) {
+                return new ValidationInfo("Lag must be a valid number", maxReplicaLagField);
+            }
+        }
+        
         return null;
     }
     
+    /**
+     * Enables the cost thresholds of production servers
+     */
+    private void updateProductionFields() {
+        boolean production = productionCheckbox.isSelected();
+        warnCostField.setEnabled(production);
+        blockCostField.setEnabled(production);
+    }
+    
+    /**
+     * Enables the replica list and lag of servers read from replicas
+     */
+    private void updateReplicaFields() {
+        boolean replicas = readFromReplicasCheckbox.isSelected() && !embeddedCheckbox.isSelected();
+        replicasField.setEnabled(replicas);
+        maxReplicaLagField.setEnabled(replicas);
+    }
+    
+    /**
+     * Enables the fields that apply to the kind of server selected
+     */
+    private void updateEmbeddedFields() {
+        boolean embedded = embeddedCheckbox.isSelected();
+        hostField.setEnabled(!embedded);
+        portField.setEnabled(!embedded);
+        useSslCheckbox.setEnabled(!embedded);
+        testButton.setEnabled(!embedded);
+        latencyField.setEnabled(embedded);
+        // An embedded server has no replicas
+        readFromReplicasCheckbox.setEnabled(!embedded);
+        updateReplicaFields();
+    }
+    
     /**
      * Tests the connection to the Redis server
      */
@@ -223,12 +357,30 @@ public class ConnectionDialog extends DialogWrapper {
                 originalConnection : new RedisConnection();
         
         connection.setName(nameField.getText().trim());
-        connection.setHost(hostField.getText().trim());
-        connection.setPort(Integer.parseInt(portField.getText().trim()));
         connection.setPassword(new String(passwordField.getPassword()));
-        connection.setUseSSL(useSslCheckbox.isSelected());
         connection.setDatabase(Integer.parseInt(databaseField.getText().trim()));
         connection.setTimeout(Integer.parseInt(timeoutField.getText().trim()));
+        connection.setEmbedded(embeddedCheckbox.isSelected());
+        connection.setProduction(productionCheckbox.isSelected());
+        if (connection.isProduction()) {
+            connection.setWarnCost(Long.parseLong(warnCostField.getText().trim()));
+            connection.setBlockCost(Long.parseLong(blockCostField.getText().trim()));
+        }
+        if (connection.isEmbedded()) {
+            // Host and port are those of the embedded server, assigned when it starts
+            connection.setEmbeddedLatency(Integer.parseInt(latencyField.getText().trim()));
+            connection.setUseSSL(false);
+        } else {
+            connection.setHost(hostField.getText().trim());
+            connection.setPort(Integer.parseInt(portField.getText().trim()));
+            connection.setUseSSL(useSslCheckbox.isSelected());
+        }
+        connection.setReadFromReplicas(readFromReplicasCheckbox.isSelected() && !connection.isEmbedded());
+        if (connection.isReadFromReplicas()) {
+            String replicas = replicasField.getText().trim();
+            connection.setReplicas(replicas.isEmpty() ? null : replicas);
+            connection.setMaxReplicaLag(Integer.parseInt(maxReplicaLagField.getText().trim()));
+        }
         
         return connection;
     }
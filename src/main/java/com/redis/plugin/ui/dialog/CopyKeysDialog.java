@@ -0,0 +1,113 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.bulk.KeyMigrationJob;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Dialog for copying keys matching a pattern to another connection
+ */
+public class CopyKeysDialog extends DialogWrapper {
+    private final JBTextField patternField;
+    private final ComboBox<String> typeComboBox;
+    private final ComboBox<RedisConnection> targetComboBox;
+    private final ComboBox<KeyMigrationJob.Strategy> strategyComboBox;
+    private final JBCheckBox replaceCheckbox;
+    private final JBTextField batchSizeField;
+
+    /**
+     * @param project the project
+     * @param source the connection keys are copied from
+     * @param targets the connections keys can be copied to
+     */
+    public CopyKeysDialog(@Nullable Project project, RedisConnection source, List<RedisConnection> targets) {
+        super(project);
+        setTitle("Copy Keys from " + source.getName());
+
+        patternField = new JBTextField("*");
+        typeComboBox = new ComboBox<>(BulkExpireDialog.KEY_TYPES);
+        targetComboBox = new ComboBox<>(targets.toArray(new RedisConnection[0]));
+        targetComboBox.setRenderer(SimpleListCellRenderer.create("", c ->
+                c.getName() + " (" + c.getHost() + ":" + c.getPort() + "/" + c.getDatabase() + ")"));
+        strategyComboBox = new ComboBox<>(KeyMigrationJob.Strategy.values());
+        replaceCheckbox = new JBCheckBox("Replace existing keys on the target", true);
+        batchSizeField = new JBTextField("500");
+
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JBLabel hintLabel = new JBLabel("Automatic uses server-side MIGRATE when the source can reach the target, "
+                + "and falls back to DUMP / RESTORE otherwise.");
+        hintLabel.setFont(hintLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Key pattern:"), patternField)
+                .addLabeledComponent(new JBLabel("Key type:"), typeComboBox)
+                .addLabeledComponent(new JBLabel("Target connection:"), targetComboBox)
+                .addLabeledComponent(new JBLabel("Transfer:"), strategyComboBox)
+                .addComponent(replaceCheckbox)
+                .addLabeledComponent(new JBLabel("Batch size:"), batchSizeField)
+                .addComponent(hintLabel)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(520, 240));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (patternField.getText().trim().isEmpty()) {
+            return new ValidationInfo("Pattern cannot be empty", patternField);
+        }
+        if (getTarget() == null) {
+            return new ValidationInfo("Select a target connection", targetComboBox);
+        }
+        return BulkExpireDialog.validateInt(batchSizeField, 1, 100_000, "Batch size must be between 1 and 100000");
+    }
+
+    public String getPattern() {
+        return patternField.getText().trim();
+    }
+
+    /**
+     * @return the selected key type, or null when all types are selected
+     */
+    public String getKeyType() {
+        String type = (String) typeComboBox.getSelectedItem();
+        return type == null || BulkExpireDialog.ANY_TYPE.equals(type) ? null : type;
+    }
+
+    public RedisConnection getTarget() {
+        return (RedisConnection) targetComboBox.getSelectedItem();
+    }
+
+    public KeyMigrationJob.Strategy getStrategy() {
+        return (KeyMigrationJob.Strategy) strategyComboBox.getSelectedItem();
+    }
+
+    public boolean isReplace() {
+        return replaceCheckbox.isSelected();
+    }
+
+    public int getBatchSize() {
+        return BulkExpireDialog.parseInt(batchSizeField, 500);
+    }
+}
@@ -0,0 +1,144 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.service.bulk.ExportFormat;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Dialog for configuring a streaming keyspace export
+ */
+public class ExportKeyspaceDialog extends DialogWrapper {
+    private final JBTextField patternField;
+    private final ComboBox<String> typeComboBox;
+    private final ComboBox<ExportFormat> formatComboBox;
+    private final JBCheckBox gzipCheckbox;
+    private final JBTextField batchSizeField;
+    private final JBTextField fileField;
+
+    public ExportKeyspaceDialog(@Nullable Project project) {
+        super(project);
+        setTitle("Export Keyspace");
+
+        patternField = new JBTextField("*");
+        typeComboBox = new ComboBox<>(BulkExpireDialog.KEY_TYPES);
+        formatComboBox = new ComboBox<>(ExportFormat.values());
+        gzipCheckbox = new JBCheckBox("Compress with gzip");
+        batchSizeField = new JBTextField("500");
+
+        // Generate a default filename with timestamp
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMdd_HHmmss");
+        String timestamp = dateFormat.format(new Date());
+        fileField = new JBTextField(new File(System.getProperty("user.home"),
+                "redis_export_" + timestamp + ".ndjson").getAbsolutePath());
+
+        formatComboBox.addActionListener(e -> updateFileExtension());
+        gzipCheckbox.addActionListener(e -> updateFileExtension());
+
+        init();
+    }
+
+    private void updateFileExtension() {
+        String path = fileField.getText().trim();
+        if (path.endsWith(".gz")) {
+            path = path.substring(0, path.length() - 3);
+        }
+        int dot = path.lastIndexOf('.');
+        int slash = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+        if (dot > slash) {
+            path = path.substring(0, dot);
+        }
+        path += "." + getFormat().getExtension() + (isGzip() ? ".gz" : "");
+        fileField.setText(path);
+    }
+
+    private void chooseFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Keyspace");
+        fileChooser.setSelectedFile(new File(fileField.getText().trim()));
+        if (fileChooser.showSaveDialog(getContentPanel()) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(e -> chooseFile());
+
+        JPanel filePanel = new JPanel(new BorderLayout(5, 0));
+        filePanel.add(fileField, BorderLayout.CENTER);
+        filePanel.add(browseButton, BorderLayout.EAST);
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Key pattern:"), patternField)
+                .addLabeledComponent(new JBLabel("Key type:"), typeComboBox)
+                .addLabeledComponent(new JBLabel("Format:"), formatComboBox)
+                .addComponent(gzipCheckbox)
+                .addLabeledComponent(new JBLabel("Batch size:"), batchSizeField)
+                .addLabeledComponent(new JBLabel("File:"), filePanel)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(520, 220));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (patternField.getText().trim().isEmpty()) {
+            return new ValidationInfo("Pattern cannot be empty", patternField);
+        }
+        if (fileField.getText().trim().isEmpty()) {
+            return new ValidationInfo("File cannot be empty", fileField);
+        }
+        File parent = new File(fileField.getText().trim()).getAbsoluteFile().getParentFile();
+        if (parent == null || !parent.isDirectory()) {
+            return new ValidationInfo("Directory does not exist", fileField);
+        }
+        return BulkExpireDialog.validateInt(batchSizeField, 1, 100_000, "Batch size must be between 1 and 100000");
+    }
+
+    public String getPattern() {
+        return patternField.getText().trim();
+    }
+
+    /**
+     * @return the selected key type, or null when all types are selected
+     */
+    public String getKeyType() {
+        String type = (String) typeComboBox.getSelectedItem();
+        return type == null || BulkExpireDialog.ANY_TYPE.equals(type) ? null : type;
+    }
+
+    public ExportFormat getFormat() {
+        return (ExportFormat) formatComboBox.getSelectedItem();
+    }
+
+    public boolean isGzip() {
+        return gzipCheckbox.isSelected();
+    }
+
+    public int getBatchSize() {
+        return BulkExpireDialog.parseInt(batchSizeField, 500);
+    }
+
+    public Path getTarget() {
+        return new File(fileField.getText().trim()).toPath();
+    }
+}
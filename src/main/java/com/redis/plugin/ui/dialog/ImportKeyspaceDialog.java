@@ -0,0 +1,116 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.service.bulk.ExportFormat;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+
+/**
+ * Dialog for configuring a bulk import from a file
+ */
+public class ImportKeyspaceDialog extends DialogWrapper {
+    private final JBTextField fileField;
+    private final ComboBox<ExportFormat> formatComboBox;
+    private final JBCheckBox replaceCheckbox;
+    private final JBTextField pipelineDepthField;
+
+    public ImportKeyspaceDialog(@Nullable Project project) {
+        super(project);
+        setTitle("Import Keyspace");
+
+        fileField = new JBTextField();
+        formatComboBox = new ComboBox<>(ExportFormat.values());
+        replaceCheckbox = new JBCheckBox("Replace existing keys", true);
+        pipelineDepthField = new JBTextField("1000");
+
+        formatComboBox.addActionListener(e ->
+                replaceCheckbox.setEnabled(getFormat() != ExportFormat.RESP));
+
+        init();
+    }
+
+    private void chooseFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Keyspace");
+        if (!fileField.getText().trim().isEmpty()) {
+            fileChooser.setSelectedFile(new File(fileField.getText().trim()));
+        } else {
+            fileChooser.setCurrentDirectory(new File(System.getProperty("user.home")));
+        }
+        if (fileChooser.showOpenDialog(getContentPanel()) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            fileField.setText(file.getAbsolutePath());
+            ExportFormat format = ExportFormat.fromFileName(file.getName());
+            if (format != null) {
+                formatComboBox.setSelectedItem(format);
+            }
+        }
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(e -> chooseFile());
+
+        JPanel filePanel = new JPanel(new BorderLayout(5, 0));
+        filePanel.add(fileField, BorderLayout.CENTER);
+        filePanel.add(browseButton, BorderLayout.EAST);
+
+        JBLabel hintLabel = new JBLabel("Gzip-compressed files are detected automatically. "
+                + "RESP files may also contain inline commands, one per line.");
+        hintLabel.setFont(hintLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("File:"), filePanel)
+                .addLabeledComponent(new JBLabel("Format:"), formatComboBox)
+                .addComponent(replaceCheckbox)
+                .addLabeledComponent(new JBLabel("Pipeline depth:"), pipelineDepthField)
+                .addComponent(hintLabel)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(520, 200));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (fileField.getText().trim().isEmpty()) {
+            return new ValidationInfo("File cannot be empty", fileField);
+        }
+        if (!new File(fileField.getText().trim()).isFile()) {
+            return new ValidationInfo("File does not exist", fileField);
+        }
+        return BulkExpireDialog.validateInt(pipelineDepthField, 1, 100_000,
+                "Pipeline depth must be between 1 and 100000");
+    }
+
+    public Path getSource() {
+        return new File(fileField.getText().trim()).toPath();
+    }
+
+    public ExportFormat getFormat() {
+        return (ExportFormat) formatComboBox.getSelectedItem();
+    }
+
+    public boolean isReplace() {
+        return replaceCheckbox.isSelected();
+    }
+
+    public int getPipelineDepth() {
+        return BulkExpireDialog.parseInt(pipelineDepthField, 1000);
+    }
+}
@@ -0,0 +1,71 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.KeyspaceDiff;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * Dialog listing the result of a keyspace comparison
+ */
+public class KeyspaceDiffResultDialog extends DialogWrapper {
+    private final KeyspaceDiff diff;
+    private final String sourceName;
+    private final String targetName;
+
+    public KeyspaceDiffResultDialog(@Nullable Project project, KeyspaceDiff diff, String sourceName, String targetName) {
+        super(project);
+        this.diff = diff;
+        this.sourceName = sourceName;
+        this.targetName = targetName;
+        setTitle("Keyspace Diff: " + sourceName + " → " + targetName);
+        setOKButtonText("Close");
+        init();
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+
+        String summary = String.format("<html>%,d only in %s, %,d only in %s, %,d changed, %,d identical",
+                diff.getRemoved(), sourceName, diff.getAdded(), targetName, diff.getChanged(), diff.getUnchanged());
+        if (diff.isTruncated()) {
+            summary += String.format("<br>Showing the first %,d of %,d differences", diff.getSamples().size(),
+                    diff.getDifferences());
+        }
+        panel.add(new JBLabel(summary + "</html>"), BorderLayout.NORTH);
+
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Change", "Key"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        for (KeyspaceDiff.Entry entry : diff.getSamples()) {
+            model.addRow(new Object[]{entry.getChange(), entry.getKey()});
+        }
+
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(120);
+        table.getColumnModel().getColumn(1).setPreferredWidth(480);
+        panel.add(new JBScrollPane(table), BorderLayout.CENTER);
+
+        panel.setPreferredSize(new Dimension(640, 420));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+}
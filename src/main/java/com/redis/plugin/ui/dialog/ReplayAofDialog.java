@@ -0,0 +1,155 @@
+package com.redis.plugin.ui.dialog;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.ui.ValidationInfo;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Dialog for configuring the replay of an append-only file against a connection
+ */
+public class ReplayAofDialog extends DialogWrapper {
+    private static final String MAX_SPEED = "Max";
+    private static final String[] SPEEDS = {MAX_SPEED, "1x", "2x", "5x", "10x", "100x"};
+
+    private final JBTextField fileField;
+    private final ComboBox<RedisConnection> targetComboBox;
+    private final ComboBox<String> speedComboBox;
+    private final JBTextField pipelineDepthField;
+    private final JBCheckBox skipFlushCheckbox;
+
+    /**
+     * @param project the project
+     * @param file the file to preselect, or null
+     * @param targets the connections the file can be replayed against
+     * @param selected the connection to preselect, or null
+     */
+    public ReplayAofDialog(@Nullable Project project, @Nullable Path file, List<RedisConnection> targets,
+                           @Nullable RedisConnection selected) {
+        super(project);
+        setTitle("Replay AOF File");
+
+        fileField = new JBTextField(file == null ? "" : file.toString());
+        targetComboBox = new ComboBox<>(targets.toArray(new RedisConnection[0]));
+        targetComboBox.setRenderer(SimpleListCellRenderer.create("", c ->
+                c.getName() + " (" + c.getHost() + ":" + c.getPort() + "/" + c.getDatabase() + ")"));
+        if (selected != null) {
+            targetComboBox.setSelectedItem(selected);
+        }
+        speedComboBox = new ComboBox<>(SPEEDS);
+        speedComboBox.setEditable(true);
+        pipelineDepthField = new JBTextField("100");
+        skipFlushCheckbox = new JBCheckBox("Skip FLUSHALL and FLUSHDB", true);
+
+        init();
+    }
+
+    private void chooseFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Replay AOF File");
+        if (!fileField.getText().trim().isEmpty()) {
+            fileChooser.setSelectedFile(new File(fileField.getText().trim()));
+        } else {
+            fileChooser.setCurrentDirectory(new File(System.getProperty("user.home")));
+        }
+        if (fileChooser.showOpenDialog(getContentPanel()) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(fileChooser.getSelectedFile().getAbsolutePath());
+        }
+    }
+
+    @Override
+    protected @Nullable JComponent createCenterPanel() {
+        JButton browseButton = new JButton("Browse...");
+        browseButton.addActionListener(e -> chooseFile());
+
+        JPanel filePanel = new JPanel(new BorderLayout(5, 0));
+        filePanel.add(fileField, BorderLayout.CENTER);
+        filePanel.add(browseButton, BorderLayout.EAST);
+
+        JBLabel hintLabel = new JBLabel("<html>Every command is written to the target; use a disposable server. "
+                + "Speeds other than Max follow the file's #TS annotations (aof-timestamp-enabled).</html>");
+        hintLabel.setFont(hintLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel panel = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("AOF file or manifest:"), filePanel)
+                .addLabeledComponent(new JBLabel("Target:"), targetComboBox)
+                .addLabeledComponent(new JBLabel("Speed:"), speedComboBox)
+                .addLabeledComponent(new JBLabel("Pipeline depth:"), pipelineDepthField)
+                .addComponent(skipFlushCheckbox)
+                .addComponent(hintLabel)
+                .addComponentFillVertically(new JPanel(), 0)
+                .getPanel();
+
+        panel.setPreferredSize(new Dimension(520, 230));
+        panel.setBorder(JBUI.Borders.empty(10));
+        return panel;
+    }
+
+    @Override
+    protected @Nullable ValidationInfo doValidate() {
+        if (fileField.getText().trim().isEmpty()) {
+            return new ValidationInfo("File cannot be empty", fileField);
+        }
+        if (!new File(fileField.getText().trim()).isFile()) {
+            return new ValidationInfo("File does not exist", fileField);
+        }
+        if (getTarget() == null) {
+            return new ValidationInfo("Select a target connection", targetComboBox);
+        }
+        if (getSpeed() < 0) {
+            return new ValidationInfo("Speed must be Max or a positive factor such as 2x", speedComboBox);
+        }
+        return BulkExpireDialog.validateInt(pipelineDepthField, 1, 100_000,
+                "Pipeline depth must be between 1 and 100000");
+    }
+
+    public Path getSource() {
+        return new File(fileField.getText().trim()).toPath();
+    }
+
+    public RedisConnection getTarget() {
+        return (RedisConnection) targetComboBox.getSelectedItem();
+    }
+
+    /**
+     * @return the speed factor, 0 for as fast as possible, or -1 if the input is invalid
+     */
+    public double getSpeed() {
+        Object item = speedComboBox.getEditor().getItem();
+        String text = item == null ? "" : item.toString().trim();
+        if (text.equalsIgnoreCase(MAX_SPEED)) {
+            return 0;
+        }
+        if (text.toLowerCase().endsWith("x")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        try {
+            double speed = Double.parseDouble(text);
+            return speed > 0 && !Double.isInfinite(speed) ? speed : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int getPipelineDepth() {
+        return BulkExpireDialog.parseInt(pipelineDepthField, 100);
+    }
+
+    public boolean isSkipFlush() {
+        return skipFlushCheckbox.isSelected();
+    }
+}
@@ -0,0 +1,328 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.benchmark.BenchmarkJob;
+import com.redis.plugin.service.benchmark.BenchmarkTemplate;
+import com.redis.plugin.service.benchmark.LatencyHistogram;
+import com.redis.plugin.ui.RedisNotifications;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Panel for running redis-benchmark style workloads against the active connection.
+ * <p>
+ * Each run adds a row with its throughput and latency percentiles, both as measured and
+ * corrected for coordinated omission, so runs with different settings can be compared.
+ */
+public class BenchmarkPanel extends SimpleToolWindowPanel {
+    private static final Logger LOG = Logger.getInstance(BenchmarkPanel.class);
+    private static final int ERRORS_SHOWN = 10;
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final List<JBCheckBox> builtInBoxes = new ArrayList<>();
+    private final JBTextArea customTemplatesArea;
+    private final JBTextField clientsField;
+    private final JBTextField pipelineDepthField;
+    private final JBTextField durationField;
+    private final JBTextField targetRateField;
+    private final JBTextField keyspaceField;
+    private final JBTextField keyPrefixField;
+    private final JBTextField minValueSizeField;
+    private final JBTextField maxValueSizeField;
+    private final JBLabel statusLabel;
+    private final DefaultTableModel resultModel;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+
+    private boolean running;
+
+    public BenchmarkPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        JPanel commandsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        for (String template : new String[]{BenchmarkTemplate.GET, BenchmarkTemplate.SET, BenchmarkTemplate.INCR,
+                BenchmarkTemplate.LPUSH}) {
+            JBCheckBox box = new JBCheckBox(template, template.equals(BenchmarkTemplate.GET)
+                    || template.equals(BenchmarkTemplate.SET));
+            builtInBoxes.add(box);
+            commandsPanel.add(box);
+        }
+        customTemplatesArea = new JBTextArea(3, 40);
+        customTemplatesArea.getEmptyText().setText("One command per line, e.g. HSET user:{key} name {value}");
+
+        clientsField = new JBTextField("50", 6);
+        pipelineDepthField = new JBTextField("1", 6);
+        durationField = new JBTextField("10", 6);
+        targetRateField = new JBTextField("0", 8);
+        keyspaceField = new JBTextField("100000", 8);
+        keyPrefixField = new JBTextField("benchmark:", 12);
+        minValueSizeField = new JBTextField("3", 6);
+        maxValueSizeField = new JBTextField("3", 6);
+
+        JPanel loadPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        loadPanel.add(new JBLabel("Clients:"));
+        loadPanel.add(clientsField);
+        loadPanel.add(new JBLabel("Pipeline:"));
+        loadPanel.add(pipelineDepthField);
+        loadPanel.add(new JBLabel("Duration (s):"));
+        loadPanel.add(durationField);
+        loadPanel.add(new JBLabel("Target ops/s (0 = max):"));
+        loadPanel.add(targetRateField);
+
+        JPanel dataPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        dataPanel.add(new JBLabel("Key prefix:"));
+        dataPanel.add(keyPrefixField);
+        dataPanel.add(new JBLabel("Keyspace:"));
+        dataPanel.add(keyspaceField);
+        dataPanel.add(new JBLabel("Value size:"));
+        dataPanel.add(minValueSizeField);
+        dataPanel.add(new JBLabel("to"));
+        dataPanel.add(maxValueSizeField);
+
+        JBLabel hintLabel = new JBLabel("<html>" + BenchmarkTemplate.KEY_PLACEHOLDER + " is a random key of the keyspace, "
+                + BenchmarkTemplate.VALUE_PLACEHOLDER + " a random value. Commands write to the server; "
+                + "use a disposable one.</html>");
+        hintLabel.setFont(hintLabel.getFont().deriveFont(Font.ITALIC));
+
+        JPanel form = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Commands:"), commandsPanel)
+                .addLabeledComponent(new JBLabel("Custom:"), new JBScrollPane(customTemplatesArea))
+                .addLabeledComponent(new JBLabel("Load:"), loadPanel)
+                .addLabeledComponent(new JBLabel("Data:"), dataPanel)
+                .addComponent(hintLabel)
+                .getPanel();
+        form.setBorder(JBUI.Borders.empty(5));
+
+        statusLabel = new JBLabel("Run a benchmark against the active connection");
+        statusLabel.setBorder(JBUI.Borders.empty(5));
+
+        resultModel = new DefaultTableModel(new Object[]{"Time", "Commands", "Clients", "Pipeline", "Ops/sec",
+                "p50 ms", "p99 ms", "p99.9 ms", "Max ms", "Corrected p50 ms", "Corrected p99 ms",
+                "Corrected p99.9 ms", "Corrected Max ms", "Errors"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                if (column <= 1) {
+                    return String.class;
+                }
+                return column <= 4 || column == 13 ? Long.class : Double.class;
+            }
+        };
+        JBTable resultTable = new JBTable(resultModel);
+        resultTable.setAutoCreateRowSorter(true);
+        resultTable.getTableHeader().setReorderingAllowed(false);
+
+        JPanel results = new JPanel(new BorderLayout());
+        results.add(statusLabel, BorderLayout.NORTH);
+        results.add(new JBScrollPane(resultTable), BorderLayout.CENTER);
+
+        JBSplitter splitter = new JBSplitter(true, 0.45f);
+        splitter.setFirstComponent(new JBScrollPane(form));
+        splitter.setSecondComponent(results);
+        setContent(splitter);
+
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction runAction = new AnAction("Run Benchmark", "Run the workload against the active connection",
+                AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                runBenchmark();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!running && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear Results", "Remove all result rows", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                resultModel.setRowCount(0);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(resultModel.getRowCount() > 0);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(runAction);
+        actionGroup.addSeparator();
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("BenchmarkToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void runBenchmark() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (running || connection == null || !connectionManager.isConnected()) {
+            return;
+        }
+        BenchmarkJob job;
+        try {
+            job = createJob(connection);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+
+        running = true;
+        statusLabel.setText("Running against " + connection.getName() + "...");
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Benchmarking " + connection.getName(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                job.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                displayResult(job);
+            }
+
+            @Override
+            public void onCancel() {
+                displayResult(job);
+                statusLabel.setText(String.format("Cancelled after %,d commands", job.getCommands()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                statusLabel.setText("Benchmark failed");
+                RedisNotifications.error(project, "Benchmark", "Benchmark failed: " + error.getMessage());
+            }
+
+            @Override
+            public void onFinished() {
+                running = false;
+            }
+        });
+    }
+
+    private BenchmarkJob createJob(RedisConnection connection) {
+        BenchmarkJob.Builder builder = BenchmarkJob.builder()
+                .connection(connection)
+                .clients(parseInt(clientsField, "Clients", 1, 1000))
+                .pipelineDepth(parseInt(pipelineDepthField, "Pipeline depth", 1, 10_000))
+                .durationMillis(parseInt(durationField, "Duration", 1, 86_400) * 1000L)
+                .targetRate(parseInt(targetRateField, "Target rate", 0, Integer.MAX_VALUE))
+                .keyspace(parseInt(keyspaceField, "Keyspace", 1, Integer.MAX_VALUE))
+                .keyPrefix(keyPrefixField.getText())
+                .valueSize(parseInt(minValueSizeField, "Value size", 0, 512 * 1024 * 1024),
+                        parseInt(maxValueSizeField, "Value size", 0, 512 * 1024 * 1024));
+        for (JBCheckBox box : builtInBoxes) {
+            if (box.isSelected()) {
+                builder.template(BenchmarkTemplate.parse(box.getText()));
+            }
+        }
+        for (String line : customTemplatesArea.getText().split("\n")) {
+            if (!line.trim().isEmpty()) {
+                builder.template(BenchmarkTemplate.parse(line));
+            }
+        }
+        return builder.build();
+    }
+
+    private static int parseInt(JBTextField field, String name, int min, int max) {
+        try {
+            int value = Integer.parseInt(field.getText().trim());
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(String.format("%s must be between %,d and %,d", name, min, max));
+    }
+
+    private void displayResult(BenchmarkJob job) {
+        LatencyHistogram measured = job.getHistogram();
+        LatencyHistogram corrected = job.getCorrectedHistogram();
+        long elapsed = Math.max(1, job.getElapsedMillis());
+        List<String> names = new ArrayList<>();
+        for (BenchmarkTemplate template : job.getTemplates()) {
+            names.add(template.getName());
+        }
+        resultModel.addRow(new Object[]{timeFormat.format(new Date()), String.join(", ", names),
+                (long) job.getClients(), (long) job.getPipelineDepth(), job.getCommands() * 1000 / elapsed,
+                millis(measured.getValueAtPercentile(50)), millis(measured.getValueAtPercentile(99)),
+                millis(measured.getValueAtPercentile(99.9)), millis(measured.getMax()),
+                millis(corrected.getValueAtPercentile(50)), millis(corrected.getValueAtPercentile(99)),
+                millis(corrected.getValueAtPercentile(99.9)), millis(corrected.getMax()), job.getFailed()});
+
+        StringBuilder status = new StringBuilder(String.format("%,d commands in %.1f s against %s",
+                job.getCommands(), elapsed / 1000.0, job.getConnection().getName()));
+        status.append(job.getTargetRate() > 0
+                ? String.format(", target %,d ops/s; corrected latency counts from each command's scheduled time",
+                job.getTargetRate())
+                : "; corrected latency back-fills commands held up by stalls");
+        statusLabel.setText(status.toString());
+
+        if (job.getFailed() > 0) {
+            List<String> errors = job.getErrors();
+            StringBuilder summary = new StringBuilder(String.format("%,d commands failed:<br>", job.getFailed()));
+            for (int i = 0; i < Math.min(ERRORS_SHOWN, errors.size()); i++) {
+                LOG.warn("Benchmark against " + job.getConnection().getName() + ": " + errors.get(i));
+                summary.append(escape(errors.get(i))).append("<br>");
+            }
+            RedisNotifications.warning(project, "Benchmark", summary.toString());
+        }
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -12,12 +12,14 @@ import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBScrollPane;
 import com.intellij.ui.components.JBTextField;
 import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.JBUI;
 import com.intellij.util.ui.UIUtil;
 import com.intellij.util.ui.tree.TreeUtil;
 import com.redis.plugin.model.RedisCommand;
 import com.redis.plugin.model.RedisCommandCategory;
 import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.catalog.CommandSearchIndex;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -29,13 +31,22 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
- * Panel for browsing Redis commands by category
+ * Panel for browsing Redis commands by category.
+ * <p>
+ * The search is matched against a {@link CommandSearchIndex} of the catalog on a pooled thread
+ * once the user pauses typing, and the tree is updated by inserting and removing the nodes
+ * that changed rather than rebuilt.
  */
 public class CommandCatalogPanel extends SimpleToolWindowPanel {
+    private static final int FILTER_DELAY_MILLIS = 150;
+
     private final Project project;
     private final JBTextField searchField;
     private final Tree commandTree;
@@ -44,13 +55,21 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
     private final JEditorPane detailsPane;
     private final RedisCommandCatalog commandCatalog;
     private final List<Consumer<RedisCommand>> commandSelectionListeners = new ArrayList<>();
+    private final Timer filterTimer;
+    private final List<CategoryNodes> categoryNodes = new ArrayList<>();
+    private final DefaultMutableTreeNode noResultsNode = new DefaultMutableTreeNode("No matching commands found");
+    private CommandSearchIndex searchIndex;
+    private long filterGeneration;
+    private long loadGeneration;
 
     public CommandCatalogPanel(Project project) {
         super(true);
         this.project = project;
         this.commandCatalog = ApplicationManager.getApplication().getService(RedisCommandCatalog.class);
         
-        // Search field
+        // Search field, filtering once the user pauses typing
+        filterTimer = new Timer(FILTER_DELAY_MILLIS, e -> filterTree());
+        filterTimer.setRepeats(false);
         searchField = new JBTextField();
         searchField.getEmptyText().setText("Search commands...");
         
@@ -88,7 +107,7 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         searchField.getDocument().addDocumentListener(new DocumentAdapter() {
             @Override
             protected void textChanged(DocumentEvent e) {
-                filterTree(searchField.getText());
+                filterTimer.restart();
             }
         });
         
@@ -221,20 +240,41 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         return userObject instanceof RedisCommand;
     }
     
+    /**
+     * Rebuild the nodes of the whole catalog, and its search index on a pooled thread; the
+     * current search is applied once the index is built
+     */
     private void loadCommands() {
+        filterTimer.stop();
+        filterGeneration++;
+        categoryNodes.clear();
+        List<RedisCommand> commands = new ArrayList<>();
         rootNode.removeAllChildren();
-        
-        // Add all command categories
         for (RedisCommandCategory category : commandCatalog.getCategories()) {
-            DefaultMutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
-            rootNode.add(categoryNode);
-            
-            // Add commands in this category
+            CategoryNodes nodes = new CategoryNodes(new DefaultMutableTreeNode(category), commands.size());
             for (RedisCommand command : category.getCommands()) {
-                categoryNode.add(new DefaultMutableTreeNode(command));
+                DefaultMutableTreeNode node = new DefaultMutableTreeNode(command);
+                nodes.commands.add(node);
+                nodes.category.add(node);
+                commands.add(command);
             }
+            categoryNodes.add(nodes);
+            rootNode.add(nodes.category);
         }
-        
+
+        searchIndex = null;
+        long load = ++loadGeneration;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            CommandSearchIndex index = new CommandSearchIndex(commands);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (load == loadGeneration) {
+                    searchIndex = index;
+                    if (!searchField.getText().trim().isEmpty()) {
+                        filterTreeNow();
+                    }
+                }
+            });
+        });
         treeModel.reload();
         TreeUtil.expandAll(commandTree);
         
@@ -248,49 +288,123 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         }
     }
     
-    private void filterTree(String searchText) {
-        if (searchText == null || searchText.trim().isEmpty()) {
-            loadCommands();
+    /**
+     * Reload the tree after the catalog changed, keeping the current search
+     */
+    public void reload() {
+        loadCommands();
+    }
+
+    /**
+     * Search the index on a pooled thread, dropping the result if the search or the catalog
+     * changed meanwhile
+     */
+    private void filterTree() {
+        String searchText = searchField.getText();
+        CommandSearchIndex index = searchIndex;
+        if (index == null) {
+            // Filtered once the index is built
             return;
         }
-        
-        searchText = searchText.toLowerCase().trim();
-        
-        // Create a filtered tree
-        rootNode.removeAllChildren();
-        boolean anyMatch = false;
-        
-        for (RedisCommandCategory category : commandCatalog.getCategories()) {
-            DefaultMutableTreeNode categoryNode = new DefaultMutableTreeNode(category);
-            boolean categoryHasMatches = false;
-            
-            for (RedisCommand command : category.getCommands()) {
-                if (matches(command, searchText)) {
-                    categoryNode.add(new DefaultMutableTreeNode(command));
-                    categoryHasMatches = true;
-                    anyMatch = true;
+        long request = ++filterGeneration;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            BitSet matches = index.search(searchText);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (request == filterGeneration && index == searchIndex) {
+                    showMatches(matches);
                 }
+            });
+        });
+    }
+
+    private void filterTreeNow() {
+        filterTimer.stop();
+        filterGeneration++;
+        if (searchIndex != null) {
+            showMatches(searchIndex.search(searchField.getText()));
+        }
+    }
+
+    /**
+     * Update the tree to show the matching commands, only inserting and removing the nodes
+     * that changed so expanded categories stay expanded
+     */
+    private void showMatches(BitSet matches) {
+        List<DefaultMutableTreeNode> visibleCategories = new ArrayList<>();
+        for (CategoryNodes nodes : categoryNodes) {
+            List<DefaultMutableTreeNode> visible = nodes.visible(matches);
+            if (visible.isEmpty()) {
+                continue;
             }
-            
-            if (categoryHasMatches) {
-                rootNode.add(categoryNode);
+            if (nodes.category.getParent() == rootNode) {
+                updateChildren(nodes.category, visible);
+            } else {
+                // Not in the tree, so no event to fire
+                setChildren(nodes.category, visible);
             }
+            visibleCategories.add(nodes.category);
         }
-        
-        if (!anyMatch) {
-            // No matches found
-            DefaultMutableTreeNode noResultsNode = new DefaultMutableTreeNode("No matching commands found");
-            rootNode.add(noResultsNode);
+        if (visibleCategories.isEmpty()) {
+            visibleCategories.add(noResultsNode);
+        }
+        for (DefaultMutableTreeNode inserted : updateChildren(rootNode, visibleCategories)) {
+            commandTree.expandPath(new TreePath(inserted.getPath()));
         }
-        
-        treeModel.reload();
-        TreeUtil.expandAll(commandTree);
     }
-    
-    private boolean matches(RedisCommand command, String searchText) {
-        return command.getName().toLowerCase().contains(searchText) || 
-               command.getDescription().toLowerCase().contains(searchText) ||
-               command.getSyntax().toLowerCase().contains(searchText);
+
+    /**
+     * Make the children of a node in the tree the wanted ones, firing one removal and one
+     * insertion event. The current children must be in the same order as the wanted ones.
+     *
+     * @return the inserted nodes
+     */
+    private List<DefaultMutableTreeNode> updateChildren(DefaultMutableTreeNode parent, List<DefaultMutableTreeNode> wanted) {
+        Set<DefaultMutableTreeNode> kept = new HashSet<>(wanted);
+        List<Integer> removedIndices = new ArrayList<>();
+        List<Object> removed = new ArrayList<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            if (!kept.contains(parent.getChildAt(i))) {
+                removedIndices.add(i);
+                removed.add(parent.getChildAt(i));
+            }
+        }
+        for (int i = removedIndices.size() - 1; i >= 0; i--) {
+            parent.remove(removedIndices.get(i));
+        }
+        if (!removed.isEmpty()) {
+            treeModel.nodesWereRemoved(parent, toArray(removedIndices), removed.toArray());
+        }
+
+        // What is left is in the wanted order, so the missing nodes go in between
+        List<Integer> insertedIndices = new ArrayList<>();
+        List<DefaultMutableTreeNode> inserted = new ArrayList<>();
+        for (int i = 0; i < wanted.size(); i++) {
+            DefaultMutableTreeNode node = wanted.get(i);
+            if (i >= parent.getChildCount() || parent.getChildAt(i) != node) {
+                parent.insert(node, i);
+                insertedIndices.add(i);
+                inserted.add(node);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            treeModel.nodesWereInserted(parent, toArray(insertedIndices));
+        }
+        return inserted;
+    }
+
+    private static void setChildren(DefaultMutableTreeNode parent, List<DefaultMutableTreeNode> children) {
+        parent.removeAllChildren();
+        for (DefaultMutableTreeNode child : children) {
+            parent.add(child);
+        }
+    }
+
+    private static int[] toArray(List<Integer> indices) {
+        int[] array = new int[indices.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = indices.get(i);
+        }
+        return array;
     }
     
     private void handleTreeSelection(TreeSelectionEvent e) {
@@ -327,14 +441,14 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
             
             // Description
             html.append("<h3>Description</h3>");
-            html.append("<p>").append(command.getDescription()).append("</p>");
+            html.append("<p>").append(escape(command.getDescription())).append("</p>");
             
             // Parameters
             if (!command.getParameters().isEmpty()) {
                 html.append("<h3>Parameters</h3>");
                 html.append("<ul>");
                 for (String param : command.getParameters()) {
-                    html.append("<li>").append(param).append("</li>");
+                    html.append("<li>").append(escape(param)).append("</li>");
                 }
                 html.append("</ul>");
             }
@@ -359,11 +473,37 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
                 html.append("</ul>");
             }
             
-            // Complexity
-            if (command.getComplexity() != null) {
+            // Complexity, as documented by the server when read from it
+            if (command.getComplexityText() != null) {
+                html.append("<h3>Time Complexity</h3>");
+                html.append("<p>").append(escape(command.getComplexityText())).append("</p>");
+            } else if (command.getComplexity() != null) {
                 html.append("<h3>Time Complexity</h3>");
                 html.append("<p>").append(command.getComplexity().toString()).append("</p>");
             }
+
+            // Key specs
+            if (!command.getKeySpecs().isEmpty()) {
+                html.append("<h3>Keys</h3>");
+                html.append("<ul>");
+                for (String keySpec : command.getKeySpecs()) {
+                    html.append("<li>").append(escape(keySpec)).append("</li>");
+                }
+                html.append("</ul>");
+            }
+
+            // Flags and ACL categories
+            if (!command.getFlags().isEmpty()) {
+                html.append("<p><b>Flags:</b> ").append(escape(String.join(", ", command.getFlags()))).append("</p>");
+            }
+            if (!command.getAclCategories().isEmpty()) {
+                html.append("<p><b>ACL categories:</b> ").append(escape(String.join(", ", command.getAclCategories()))).append("</p>");
+            }
+            if (command.getArity() != 0) {
+                html.append("<p><b>Arity:</b> ").append(command.getArity() < 0
+                        ? "at least " + (-command.getArity())
+                        : String.valueOf(command.getArity())).append("</p>");
+            }
             
             // Since version
             if (command.getSince() != null && !command.getSince().isEmpty()) {
@@ -379,6 +519,10 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         }
     }
     
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
     private void displayCategoryDetails(RedisCommandCategory category) {
         try {
             StringBuilder html = new StringBuilder();
@@ -442,6 +586,29 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         }
     }
     
+    /**
+     * Clear the search and select a command in the tree
+     * @param name the command name
+     * @return true if the command is in the catalog
+     */
+    public boolean selectCommand(String name) {
+        RedisCommand command = commandCatalog.getCommand(name);
+        if (command == null) {
+            return false;
+        }
+        if (!searchField.getText().isEmpty()) {
+            searchField.setText("");
+            filterTreeNow();
+        }
+        DefaultMutableTreeNode node = TreeUtil.findNodeWithObject(rootNode, command);
+        if (node != null) {
+            TreePath path = new TreePath(node.getPath());
+            commandTree.setSelectionPath(path);
+            commandTree.scrollPathToVisible(path);
+        }
+        return true;
+    }
+
     /**
      * Add a command selection listener
      * @param listener the listener to add
@@ -450,6 +617,30 @@ public class CommandCatalogPanel extends SimpleToolWindowPanel {
         commandSelectionListeners.add(listener);
     }
     
+    /**
+     * Nodes of a category and of all its commands, whichever are shown
+     */
+    private static class CategoryNodes {
+        final DefaultMutableTreeNode category;
+        final int firstId;
+        final List<DefaultMutableTreeNode> commands = new ArrayList<>();
+
+        CategoryNodes(DefaultMutableTreeNode category, int firstId) {
+            this.category = category;
+            this.firstId = firstId;
+        }
+
+        List<DefaultMutableTreeNode> visible(BitSet matches) {
+            List<DefaultMutableTreeNode> visible = new ArrayList<>();
+            for (int i = 0; i < commands.size(); i++) {
+                if (matches.get(firstId + i)) {
+                    visible.add(commands.get(i));
+                }
+            }
+            return visible;
+        }
+    }
+
     /**
      * Cell renderer for command tree
      */
@@ -0,0 +1,248 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.ui.popup.JBPopup;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.awt.RelativePoint;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.redis.plugin.service.completion.Completion;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+/**
+ * Completion popup for the command editor.
+ * <p>
+ * Typing schedules a lookup once the user pauses for {@link #DEBOUNCE_MILLIS}; the lookup runs
+ * on a pooled thread, since completing keys may query the server, and its result is dropped
+ * if the text changed meanwhile. The popup never takes the focus: Up and Down move through
+ * the list, Enter or Tab insert the selected word and Escape closes it. Ctrl+Space asks for
+ * completions explicitly.
+ */
+public class CommandCompletionPopup {
+    private static final Logger LOG = Logger.getInstance(CommandCompletionPopup.class);
+    private static final int DEBOUNCE_MILLIS = 150;
+    private static final int MAX_COMPLETIONS = 30;
+
+    /**
+     * Computes completions off the EDT
+     */
+    public interface Source {
+        List<Completion> complete(String text, int caret, int limit);
+    }
+
+    private final JTextArea editor;
+    private final Source source;
+    private final Timer debounce;
+    private final DefaultListModel<Completion> model = new DefaultListModel<>();
+    private final JBList<Completion> list = new JBList<>(model);
+    private JBPopup popup;
+    private long generation;
+
+    public CommandCompletionPopup(JTextArea editor, Source source) {
+        this.editor = editor;
+        this.source = source;
+        this.debounce = new Timer(DEBOUNCE_MILLIS, e -> lookup());
+        debounce.setRepeats(false);
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        list.setCellRenderer(new CompletionCellRenderer());
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    insertSelected();
+                }
+            }
+        });
+
+        editor.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_SPACE && e.isControlDown()) {
+                    debounce.stop();
+                    lookup();
+                    e.consume();
+                    return;
+                }
+                if (!isShowing() || e.getModifiersEx() != 0) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        moveSelection(1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        moveSelection(-1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                    case KeyEvent.VK_TAB:
+                        insertSelected();
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        hide();
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+
+            @Override
+            public void keyTyped(KeyEvent e) {
+                char c = e.getKeyChar();
+                if (e.isControlDown() || e.isAltDown() || c == KeyEvent.CHAR_UNDEFINED || c == '\n' || c == '\t' || c == 27) {
+                    return;
+                }
+                // Typing a word or a space after one looks up completions, other keys only refresh them
+                if (c != '\b' || isShowing()) {
+                    debounce.restart();
+                }
+            }
+        });
+    }
+
+    /**
+     * Close the popup and drop any pending lookup
+     */
+    public void hide() {
+        debounce.stop();
+        generation++;
+        if (popup != null) {
+            popup.cancel();
+            popup = null;
+        }
+    }
+
+    private boolean isShowing() {
+        return popup != null && popup.isVisible();
+    }
+
+    private void lookup() {
+        String text = editor.getText();
+        int caret = editor.getCaretPosition();
+        long request = ++generation;
+        AppExecutorUtil.getAppExecutorService().execute(() -> {
+            List<Completion> completions;
+            try {
+                completions = source.complete(text, caret, MAX_COMPLETIONS);
+            } catch (RuntimeException e) {
+                LOG.debug("Completion failed", e);
+                return;
+            }
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (request == generation && editor.getCaretPosition() == caret && text.equals(editor.getText())) {
+                    show(completions);
+                }
+            });
+        });
+    }
+
+    private void show(List<Completion> completions) {
+        model.clear();
+        if (completions.isEmpty() || !editor.isShowing()) {
+            if (popup != null) {
+                popup.cancel();
+                popup = null;
+            }
+            return;
+        }
+        for (Completion completion : completions) {
+            model.addElement(completion);
+        }
+        list.setSelectedIndex(0);
+        list.setVisibleRowCount(Math.min(10, completions.size()));
+        if (isShowing()) {
+            popup.pack(true, true);
+            return;
+        }
+        JBScrollPane scrollPane = new JBScrollPane(list);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        popup = JBPopupFactory.getInstance()
+                .createComponentPopupBuilder(scrollPane, null)
+                .setRequestFocus(false)
+                .setFocusable(false)
+                .setResizable(false)
+                .setMovable(false)
+                .setCancelOnClickOutside(true)
+                .createPopup();
+        popup.show(new RelativePoint(editor, caretLocation()));
+    }
+
+    private Point caretLocation() {
+        try {
+            Rectangle2D caret = editor.modelToView2D(editor.getCaretPosition());
+            if (caret != null) {
+                return new Point((int) caret.getX(), (int) caret.getMaxY());
+            }
+        } catch (BadLocationException e) {
+            LOG.debug("Caret outside of the text", e);
+        }
+        return new Point(0, editor.getHeight());
+    }
+
+    private void moveSelection(int delta) {
+        if (model.isEmpty()) {
+            return;
+        }
+        int index = Math.floorMod(list.getSelectedIndex() + delta, model.size());
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+    }
+
+    private void insertSelected() {
+        Completion completion = list.getSelectedValue();
+        hide();
+        if (completion == null) {
+            return;
+        }
+        int caret = editor.getCaretPosition();
+        if (completion.getStart() > caret || completion.getStart() < 0) {
+            return;
+        }
+        editor.replaceRange(completion.getText() + " ", completion.getStart(), caret);
+    }
+
+    private static class CompletionCellRenderer extends ColoredListCellRenderer<Completion> {
+        @Override
+        protected void customizeCellRenderer(@NotNull JList<? extends Completion> list,
+                                             Completion completion,
+                                             int index,
+                                             boolean selected,
+                                             boolean hasFocus) {
+            append(completion.getText(), completion.getKind() == Completion.Kind.KEY
+                    ? SimpleTextAttributes.REGULAR_ATTRIBUTES
+                    : SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+            switch (completion.getKind()) {
+                case COMMAND:
+                    append("  " + completion.getHint(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                    break;
+                case OPTION:
+                    append("  option", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                    break;
+                case KEY:
+                    append("  key", SimpleTextAttributes.GRAYED_ATTRIBUTES);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
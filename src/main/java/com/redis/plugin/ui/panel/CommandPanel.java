@@ -1,14 +1,22 @@
 package com.redis.plugin.ui.panel;
 
 import com.intellij.icons.AllIcons;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.ComboBox;
 import com.intellij.ui.DocumentAdapter;
 import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBPanel;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisCommandCatalog;
 import com.redis.plugin.service.RedisHistoryService;
+import com.redis.plugin.service.completion.CommandCompleter;
+import com.redis.plugin.service.completion.KeySampler;
+import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
@@ -23,6 +31,11 @@ import java.util.function.Consumer;
  * Panel for entering and executing Redis commands
  */
 public class CommandPanel extends JBPanel<CommandPanel> {
+    /**
+     * Recent commands whose words rank completions
+     */
+    private static final int COMPLETION_HISTORY = 1000;
+
     private final Project project;
     private final JTextArea commandTextArea;
     private final JButton executeButton;
@@ -30,6 +43,12 @@ public class CommandPanel extends JBPanel<CommandPanel> {
     private final DefaultComboBoxModel<String> historyModel;
     private final RedisHistoryService historyService;
     private final List<Consumer<String>> commandListeners;
+    private final HistorySearchPanel historySearchPanel;
+    private volatile CommandCompleter completer;
+    private final CommandCompletionPopup completionPopup;
+    private volatile KeySampler keySampler;
+    private volatile String historyConnectionId;
+    private volatile int historyDatabase;
 
     public CommandPanel(Project project) {
         super(new BorderLayout());
@@ -52,8 +71,27 @@ public class CommandPanel extends JBPanel<CommandPanel> {
         historyComboBox = new ComboBox<>(historyModel);
         historyComboBox.setEditable(false);
 
+        // Reverse search over the whole history, hidden until Ctrl+R
+        historySearchPanel = new HistorySearchPanel(
+                (query, limit) -> historyService.search(historyConnectionId, historyDatabase, query, limit),
+                command -> {
+                    closeHistorySearch();
+                    setCommand(command);
+                },
+                this::closeHistorySearch);
+        historySearchPanel.setVisible(false);
+
+        // Completion of command names, options and keys
+        reloadCompletions();
+        completionPopup = new CommandCompletionPopup(commandTextArea, (text, caret, limit) -> {
+            CommandCompleter current = completer;
+            List<String> history = historyService.getHistory(historyConnectionId, historyDatabase, COMPLETION_HISTORY);
+            return current.complete(text, caret, keySampler, current.usage(history), limit);
+        });
+
         // Layout components
         JPanel commandPanel = new JPanel(new BorderLayout());
+        commandPanel.add(historySearchPanel, BorderLayout.NORTH);
         commandPanel.add(new JBScrollPane(commandTextArea), BorderLayout.CENTER);
 
         JPanel controlPanel = new JPanel(new BorderLayout());
@@ -96,6 +134,9 @@ public class CommandPanel extends JBPanel<CommandPanel> {
                 if (e.getKeyCode() == KeyEvent.VK_ENTER && e.isControlDown()) {
                     executeCommand();
                     e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_R && e.isControlDown()) {
+                    openHistorySearch();
+                    e.consume();
                 }
             }
         });
@@ -123,13 +164,71 @@ public class CommandPanel extends JBPanel<CommandPanel> {
     }
 
     /**
-     * Add a command to the history
+     * Show the history search, starting from the selected text if any, or move to the next
+     * match if it is already open
+     */
+    private void openHistorySearch() {
+        if (historySearchPanel.isVisible()) {
+            historySearchPanel.next();
+            return;
+        }
+        String selected = commandTextArea.getSelectedText();
+        historySearchPanel.setVisible(true);
+        historySearchPanel.start(selected == null ? "" : selected.trim());
+        revalidate();
+    }
+
+    private void closeHistorySearch() {
+        historySearchPanel.setVisible(false);
+        revalidate();
+        commandTextArea.requestFocus();
+    }
+
+    /**
+     * Rebuild the command completions from the command catalog, after it changed
+     */
+    public void reloadCompletions() {
+        completer = new CommandCompleter(ApplicationManager.getApplication().getService(RedisCommandCatalog.class).getCategories());
+    }
+
+    /**
+     * Switch to the history and keys of a connection
+     *
+     * @param connection the connection commands now run on, or null when disconnected
+     */
+    public void setConnection(@Nullable RedisConnection connection) {
+        KeySampler previous = keySampler;
+        keySampler = connection == null ? null : new KeySampler(connection);
+        if (previous != null) {
+            // Closing waits for a scan in progress
+            AppExecutorUtil.getAppExecutorService().execute(previous::close);
+        }
+        if (connection != null) {
+            setHistoryPartition(connection.getId(), connection.getDatabase());
+        }
+    }
+
+    /**
+     * Switch to the history of a connection and database
+     *
+     * @param connectionId the connection commands now run on
+     * @param database the database commands now run against
+     */
+    public void setHistoryPartition(String connectionId, int database) {
+        this.historyConnectionId = connectionId;
+        this.historyDatabase = database;
+        updateHistoryDropdown();
+    }
+
+    /**
+     * Add a command to the history of the current connection and database
      *
      * @param command the command to add
+     * @param result the result of running it
      */
-    public void addToHistory(String command) {
+    public void addToHistory(String command, RedisResult result) {
         // Add to persistent history service
-        historyService.addCommand(command);
+        historyService.addCommand(historyConnectionId, historyDatabase, command, result.getExecutionTime(), result.isError());
 
         // Update history dropdown
         updateHistoryDropdown();
@@ -140,12 +239,10 @@ public class CommandPanel extends JBPanel<CommandPanel> {
      */
     private void updateHistoryDropdown() {
         historyModel.removeAllElements();
-        List<String> history = historyService.getHistory();
 
         // Add most recent 20 commands to dropdown (for UI performance)
-        int maxDropdownItems = Math.min(20, history.size());
-        for (int i = 0; i < maxDropdownItems; i++) {
-            historyModel.addElement(history.get(i));
+        for (String command : historyService.getHistory(historyConnectionId, historyDatabase, 20)) {
+            historyModel.addElement(command);
         }
     }
 
@@ -179,5 +276,11 @@ public class CommandPanel extends JBPanel<CommandPanel> {
         commandTextArea.setEnabled(enabled);
         executeButton.setEnabled(enabled && !commandTextArea.getText().trim().isEmpty());
         historyComboBox.setEnabled(enabled);
+        if (!enabled) {
+            completionPopup.hide();
+            if (historySearchPanel.isVisible()) {
+                closeHistorySearch();
+            }
+        }
     }
 }
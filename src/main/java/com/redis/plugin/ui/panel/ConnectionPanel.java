@@ -392,11 +392,16 @@ public class ConnectionPanel extends JBPanel<ConnectionPanel> {
             infoPanel.add(new JBLabel("Name:"));
             infoPanel.add(new JBLabel(connection.getName()));
             
-            infoPanel.add(new JBLabel("Host:"));
-            infoPanel.add(new JBLabel(connection.getHost()));
-            
-            infoPanel.add(new JBLabel("Port:"));
-            infoPanel.add(new JBLabel(String.valueOf(connection.getPort())));
+            if (connection.isEmbedded()) {
+                infoPanel.add(new JBLabel("Server:"));
+                infoPanel.add(new JBLabel("Embedded, " + connection.getEmbeddedLatency() + " ms added latency"));
+            } else {
+                infoPanel.add(new JBLabel("Host:"));
+                infoPanel.add(new JBLabel(connection.getHost()));
+                
+                infoPanel.add(new JBLabel("Port:"));
+                infoPanel.add(new JBLabel(String.valueOf(connection.getPort())));
+            }
             
             infoPanel.add(new JBLabel("Database:"));
             infoPanel.add(new JBLabel(String.valueOf(connection.getDatabase())));
@@ -451,8 +456,14 @@ public class ConnectionPanel extends JBPanel<ConnectionPanel> {
                 append(connection.getName(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
             }
             
-            append(" - " + connection.getHost() + ":" + connection.getPort(), 
+            append(connection.isEmbedded() ? " - embedded" : " - " + connection.getHost() + ":" + connection.getPort(),
                     SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            if (connection.isProduction()) {
+                append("  production", SimpleTextAttributes.ERROR_ATTRIBUTES);
+            }
+            if (connection.isReadFromReplicas()) {
+                append("  replica reads", SimpleTextAttributes.GRAY_ITALIC_ATTRIBUTES);
+            }
         }
         }
     }
@@ -222,7 +222,10 @@ public class ConsolePanel extends JBPanel<ConsolePanel> {
         }
     }
 
-    private String formatResult(RedisResult result) {
+    /**
+     * Format a result as redis-cli does; package-private for the JMH benchmarks
+     */
+    static String formatResult(RedisResult result) {
         if (result.getValue() == null) {
             return "(nil)";
         }
@@ -299,7 +302,7 @@ public class ConsolePanel extends JBPanel<ConsolePanel> {
         return value.toString();
     }
 
-    private String formatValue(Object value) {
+    private static String formatValue(Object value) {
         if (value == null) {
             return "(nil)";
         }
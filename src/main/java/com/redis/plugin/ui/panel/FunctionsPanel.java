@@ -0,0 +1,424 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisFunction;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.function.FunctionLibraryManager;
+import com.redis.plugin.service.function.FunctionStats;
+import com.redis.plugin.service.impl.JedisRedisService;
+import org.jetbrains.annotations.NotNull;
+import redis.clients.jedis.exceptions.JedisException;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Panel for the Redis 7 function libraries of the active connection.
+ * <p>
+ * Lists the functions of every library with their flags, loads or updates libraries from
+ * project files, and calls the selected function with {@code FCALL}, or {@code FCALL_RO} for
+ * read-only ones. Each function row shows the client-side latency of the calls made from here.
+ */
+public class FunctionsPanel extends SimpleToolWindowPanel {
+    private static final int STATS_COLUMN = 4;
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final DefaultTableModel functionModel;
+    private final JBTable functionTable;
+    private final JBTextField keysField;
+    private final JBTextField argsField;
+    private final JBCheckBox readOnlyCheckbox;
+    private final JBLabel statusLabel;
+    private final ResultPanel resultPanel;
+
+    private FunctionLibraryManager manager;
+    private List<RedisFunction> functions = Collections.emptyList();
+    private boolean busy;
+
+    public FunctionsPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        functionModel = new DefaultTableModel(new Object[]{"Library", "Function", "Flags", "Description",
+                "Calls", "Errors", "p50 ms", "p99 ms", "Max ms"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                if (column < STATS_COLUMN) {
+                    return String.class;
+                }
+                return column <= STATS_COLUMN + 1 ? Long.class : Double.class;
+            }
+        };
+        functionTable = new JBTable(functionModel);
+        functionTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        functionTable.getTableHeader().setReorderingAllowed(false);
+
+        keysField = new JBTextField();
+        keysField.getEmptyText().setText("Keys, separated by spaces");
+        argsField = new JBTextField();
+        argsField.getEmptyText().setText("Arguments, separated by spaces; quote values with spaces");
+        readOnlyCheckbox = new JBCheckBox("Read-only (FCALL_RO, may be served by a replica)");
+        functionTable.getSelectionModel().addListSelectionListener(e -> {
+            RedisFunction function = getSelectedFunction();
+            if (!e.getValueIsAdjusting() && function != null) {
+                readOnlyCheckbox.setSelected(function.isReadOnly());
+            }
+        });
+        JButton callButton = new JButton("Call", AllIcons.Actions.Execute);
+        callButton.addActionListener(e -> callFunction());
+
+        JPanel callPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        callPanel.add(readOnlyCheckbox);
+        callPanel.add(callButton);
+
+        JPanel form = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Keys:"), keysField)
+                .addLabeledComponent(new JBLabel("Args:"), argsField)
+                .addComponent(callPanel)
+                .getPanel();
+        form.setBorder(JBUI.Borders.empty(5));
+
+        statusLabel = new JBLabel("Refresh to list the function libraries of the active connection");
+        statusLabel.setBorder(JBUI.Borders.empty(5));
+
+        resultPanel = new ResultPanel(project);
+
+        JPanel call = new JPanel(new BorderLayout());
+        call.add(form, BorderLayout.NORTH);
+        call.add(resultPanel, BorderLayout.CENTER);
+
+        JPanel list = new JPanel(new BorderLayout());
+        list.add(statusLabel, BorderLayout.NORTH);
+        list.add(new JBScrollPane(functionTable), BorderLayout.CENTER);
+
+        JBSplitter splitter = new JBSplitter(true, 0.5f);
+        splitter.setFirstComponent(list);
+        splitter.setSecondComponent(call);
+        setContent(splitter);
+
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction refreshAction = new AnAction("Refresh", "List the libraries with FUNCTION LIST", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                refresh();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!busy && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction loadAction = new AnAction("Load Library...", "Load or replace a library from a Lua file",
+                AllIcons.Actions.Upload) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                chooseLibraryFile();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!busy && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction updateAction = new AnAction("Update from File", "Load the selected library again from its file",
+                AllIcons.Actions.Rerun) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                RedisFunction function = getSelectedFunction();
+                if (function != null && manager != null && manager.getFile(function.getLibrary()) != null) {
+                    loadLibrary(manager.getFile(function.getLibrary()));
+                }
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                RedisFunction function = getSelectedFunction();
+                e.getPresentation().setEnabled(!busy && function != null && manager != null
+                        && manager.getFile(function.getLibrary()) != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction deleteAction = new AnAction("Delete Library", "Delete the library of the selected function",
+                AllIcons.General.Remove) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                deleteLibrary();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!busy && getSelectedFunction() != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction resetStatsAction = new AnAction("Reset Latency", "Forget the latency of past calls", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                if (manager != null) {
+                    manager.resetStats();
+                    for (int row = 0; row < functions.size(); row++) {
+                        displayStats(row);
+                    }
+                }
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(manager != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(refreshAction);
+        actionGroup.add(loadAction);
+        actionGroup.add(updateAction);
+        actionGroup.add(deleteAction);
+        actionGroup.addSeparator();
+        actionGroup.add(resetStatsAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("FunctionsToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    /**
+     * @return the manager of the active connection, created when the connection changes
+     */
+    private FunctionLibraryManager getManager() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null || !connectionManager.isConnected()) {
+            return null;
+        }
+        if (manager == null || !manager.getConnection().getId().equals(connection.getId())) {
+            manager = new FunctionLibraryManager(connection, connectionManager.getRedisService());
+        }
+        return manager;
+    }
+
+    private void refresh() {
+        FunctionLibraryManager current = getManager();
+        if (busy || current == null) {
+            return;
+        }
+        busy = true;
+        statusLabel.setText("Listing libraries...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            List<RedisFunction> listed;
+            try {
+                listed = current.list();
+            } catch (JedisException e) {
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    busy = false;
+                    statusLabel.setText("Could not list functions (Redis 7.0 or later is needed): " + e.getMessage());
+                });
+                return;
+            }
+            ApplicationManager.getApplication().invokeLater(() -> {
+                busy = false;
+                if (manager == current) {
+                    displayFunctions(listed);
+                }
+            });
+        });
+    }
+
+    private void chooseLibraryFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Load Function Library");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Lua libraries", "lua"));
+        fileChooser.setCurrentDirectory(new File(project.getBasePath() != null
+                ? project.getBasePath() : System.getProperty("user.home")));
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            loadLibrary(fileChooser.getSelectedFile().toPath());
+        }
+    }
+
+    private void loadLibrary(Path file) {
+        FunctionLibraryManager current = getManager();
+        if (busy || current == null) {
+            return;
+        }
+        busy = true;
+        statusLabel.setText("Loading " + file.getFileName() + "...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            RedisResult result;
+            try {
+                result = current.load(file);
+            } catch (IOException e) {
+                result = RedisResult.error("Could not read " + file + ": " + e.getMessage());
+            }
+            RedisResult loaded = result;
+            ApplicationManager.getApplication().invokeLater(() -> {
+                busy = false;
+                resultPanel.displayResult(loaded);
+                if (loaded.isError()) {
+                    statusLabel.setText("Could not load " + file.getFileName());
+                } else {
+                    refresh();
+                }
+            });
+        });
+    }
+
+    private void deleteLibrary() {
+        RedisFunction function = getSelectedFunction();
+        FunctionLibraryManager current = getManager();
+        if (busy || function == null || current == null) {
+            return;
+        }
+        int choice = Messages.showOkCancelDialog(project,
+                "Delete library " + function.getLibrary() + " and all its functions from "
+                        + current.getConnection().getName() + "?",
+                "Delete Library", "Delete", "Cancel", Messages.getWarningIcon());
+        if (choice != Messages.OK) {
+            return;
+        }
+        busy = true;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            RedisResult result = current.delete(function.getLibrary());
+            ApplicationManager.getApplication().invokeLater(() -> {
+                busy = false;
+                resultPanel.displayResult(result);
+                refresh();
+            });
+        });
+    }
+
+    private void callFunction() {
+        RedisFunction function = getSelectedFunction();
+        FunctionLibraryManager current = getManager();
+        if (function == null || current == null) {
+            statusLabel.setText("Select a function to call");
+            return;
+        }
+        List<String> keys = Arrays.asList(JedisRedisService.parseCommandLine(keysField.getText()));
+        List<String> args = Arrays.asList(JedisRedisService.parseCommandLine(argsField.getText()));
+        boolean readOnly = readOnlyCheckbox.isSelected();
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            RedisResult result = current.call(function, readOnly, keys, args);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                resultPanel.displayResult(result);
+                for (int row = 0; manager == current && row < functions.size(); row++) {
+                    if (functions.get(row).getName().equals(function.getName())) {
+                        displayStats(row);
+                    }
+                }
+            });
+        });
+    }
+
+    private RedisFunction getSelectedFunction() {
+        int row = functionTable.getSelectedRow();
+        return row >= 0 && row < functions.size() ? functions.get(row) : null;
+    }
+
+    private void displayFunctions(List<RedisFunction> listed) {
+        RedisFunction selected = getSelectedFunction();
+        functions = listed;
+        functionModel.setRowCount(0);
+        long libraries = listed.stream().map(RedisFunction::getLibrary).distinct().count();
+        for (int row = 0; row < listed.size(); row++) {
+            RedisFunction function = listed.get(row);
+            functionModel.addRow(new Object[]{function.getLibrary(), function.getName(),
+                    String.join(", ", function.getFlags()), function.getDescription(), 0L, 0L, 0.0, 0.0, 0.0});
+            displayStats(row);
+            if (selected != null && selected.getName().equals(function.getName())) {
+                functionTable.getSelectionModel().setSelectionInterval(row, row);
+            }
+        }
+        statusLabel.setText(String.format("%d function(s) in %d librar%s on %s", listed.size(), libraries,
+                libraries == 1 ? "y" : "ies", manager.getConnection().getName()));
+    }
+
+    private void displayStats(int row) {
+        FunctionStats stats = manager.getStats(functions.get(row).getName());
+        if (stats == null || stats.getCalls() == 0) {
+            functionModel.setValueAt(0L, row, STATS_COLUMN);
+            functionModel.setValueAt(0L, row, STATS_COLUMN + 1);
+            functionModel.setValueAt(0.0, row, STATS_COLUMN + 2);
+            functionModel.setValueAt(0.0, row, STATS_COLUMN + 3);
+            functionModel.setValueAt(0.0, row, STATS_COLUMN + 4);
+            return;
+        }
+        functionModel.setValueAt(stats.getCalls(), row, STATS_COLUMN);
+        functionModel.setValueAt(stats.getErrors(), row, STATS_COLUMN + 1);
+        functionModel.setValueAt(millis(stats.getValueAtPercentile(50)), row, STATS_COLUMN + 2);
+        functionModel.setValueAt(millis(stats.getValueAtPercentile(99)), row, STATS_COLUMN + 3);
+        functionModel.setValueAt(millis(stats.getMax()), row, STATS_COLUMN + 4);
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    /**
+     * Forget the connection and its libraries
+     */
+    public void stop() {
+        manager = null;
+        functions = Collections.emptyList();
+        functionModel.setRowCount(0);
+        statusLabel.setText("Refresh to list the function libraries of the active connection");
+    }
+}
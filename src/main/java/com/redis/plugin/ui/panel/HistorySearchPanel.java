@@ -0,0 +1,202 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBPanel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.util.ui.JBUI;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Reverse incremental search over the command history, like Ctrl+R in a shell.
+ * <p>
+ * Matches are looked up on every keystroke and listed most recent first, followed by similar
+ * commands. Ctrl+R or Down moves to the next match, Up to the previous one, Enter picks the
+ * selected command and Escape closes the search.
+ */
+public class HistorySearchPanel extends JBPanel<HistorySearchPanel> {
+    /**
+     * Maximum number of matches listed
+     */
+    private static final int MAX_RESULTS = 50;
+
+    private final JBTextField queryField;
+    private final JBList<String> resultList;
+    private final DefaultListModel<String> resultModel;
+    private final JBLabel statusLabel;
+    private final BiFunction<String, Integer, List<String>> search;
+    private final Consumer<String> onSelect;
+    private final Runnable onClose;
+
+    /**
+     * @param search looks up at most the given number of commands matching a query
+     * @param onSelect receives the command picked by the user
+     * @param onClose called when the search is closed without picking a command
+     */
+    public HistorySearchPanel(BiFunction<String, Integer, List<String>> search, Consumer<String> onSelect, Runnable onClose) {
+        super(new BorderLayout());
+        this.search = search;
+        this.onSelect = onSelect;
+        this.onClose = onClose;
+
+        queryField = new JBTextField();
+        queryField.getEmptyText().setText("Type to search command history...");
+        statusLabel = new JBLabel();
+        statusLabel.setForeground(JBColor.GRAY);
+
+        resultModel = new DefaultListModel<>();
+        resultList = new JBList<>(resultModel);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(8);
+        resultList.setCellRenderer(new MatchCellRenderer());
+
+        JPanel queryPanel = new JPanel(new BorderLayout());
+        queryPanel.add(new JBLabel("(reverse-i-search): "), BorderLayout.WEST);
+        queryPanel.add(queryField, BorderLayout.CENTER);
+        queryPanel.add(statusLabel, BorderLayout.EAST);
+        queryPanel.setBorder(JBUI.Borders.empty(2, 5, 2, 5));
+
+        add(queryPanel, BorderLayout.NORTH);
+        add(new JBScrollPane(resultList), BorderLayout.CENTER);
+
+        queryField.getDocument().addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                refresh();
+            }
+        });
+        queryField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_R:
+                        if (e.isControlDown()) {
+                            moveSelection(1);
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_DOWN:
+                        moveSelection(1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        moveSelection(-1);
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        selectCurrent();
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        onClose.run();
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    selectCurrent();
+                }
+            }
+        });
+    }
+
+    /**
+     * Start a new search and move the focus to the query field
+     *
+     * @param query initial query, may be empty
+     */
+    public void start(String query) {
+        queryField.setText(query);
+        queryField.selectAll();
+        refresh();
+        queryField.requestFocusInWindow();
+    }
+
+    /**
+     * Move to the next match, for Ctrl+R pressed again while searching
+     */
+    public void next() {
+        moveSelection(1);
+    }
+
+    private void refresh() {
+        String query = queryField.getText();
+        List<String> matches = search.apply(query, MAX_RESULTS);
+        resultModel.clear();
+        for (String command : matches) {
+            resultModel.addElement(command);
+        }
+        if (!resultModel.isEmpty()) {
+            resultList.setSelectedIndex(0);
+            resultList.ensureIndexIsVisible(0);
+        }
+        if (query.isEmpty()) {
+            statusLabel.setText("");
+        } else {
+            statusLabel.setText(matches.isEmpty() ? "  no match" : "  " + matches.size() + (matches.size() == MAX_RESULTS ? "+" : "") + " matches");
+        }
+    }
+
+    private void moveSelection(int delta) {
+        if (resultModel.isEmpty()) {
+            return;
+        }
+        int index = Math.floorMod(resultList.getSelectedIndex() + delta, resultModel.size());
+        resultList.setSelectedIndex(index);
+        resultList.ensureIndexIsVisible(index);
+    }
+
+    private void selectCurrent() {
+        String command = resultList.getSelectedValue();
+        if (command != null) {
+            onSelect.accept(command);
+        } else {
+            onClose.run();
+        }
+    }
+
+    /**
+     * Renders a command with the part matching the query in bold
+     */
+    private class MatchCellRenderer extends ColoredListCellRenderer<String> {
+        @Override
+        protected void customizeCellRenderer(@NotNull JList<? extends String> list,
+                                             String command,
+                                             int index,
+                                             boolean selected,
+                                             boolean hasFocus) {
+            String query = queryField.getText().toLowerCase(Locale.ROOT);
+            int start = query.isEmpty() ? -1 : command.toLowerCase(Locale.ROOT).indexOf(query);
+            if (start < 0 || start + query.length() > command.length()) {
+                append(command, SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                return;
+            }
+            append(command.substring(0, start), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            append(command.substring(start, start + query.length()), SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+            append(command.substring(start + query.length()), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.JBUI;
+import com.intellij.util.ui.UIUtil;
+import com.redis.plugin.model.InfoMetric;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.info.InfoPoller;
+import com.redis.plugin.service.info.InfoTimeSeries;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Panel charting server metrics from {@code INFO} over time.
+ * <p>
+ * A poller on its own connection adds a sample per interval to a fixed-size
+ * {@link InfoTimeSeries}; the charts copy the series into preallocated arrays when they paint,
+ * so a dashboard left open for hours uses no more memory than a new one.
+ */
+public class InfoDashboardPanel extends SimpleToolWindowPanel {
+    private static final int CAPACITY = 3600;
+    private static final String[] INTERVAL_LABELS = {"1 s", "2 s", "5 s", "10 s", "30 s"};
+    private static final long[] INTERVAL_MILLIS = {1000, 2000, 5000, 10000, 30000};
+
+    private final RedisConnectionManager connectionManager;
+    private final InfoTimeSeries series = new InfoTimeSeries(CAPACITY);
+    private final List<MetricChart> charts = new ArrayList<>();
+    private final ComboBox<String> intervalCombo;
+    private final JBLabel statusLabel;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+
+    private InfoPoller poller;
+
+    public InfoDashboardPanel(Project project) {
+        super(true);
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        intervalCombo = new ComboBox<>(INTERVAL_LABELS);
+        intervalCombo.setSelectedIndex(0);
+        intervalCombo.addActionListener(e -> {
+            if (poller != null) {
+                poller.setInterval(selectedInterval());
+            }
+        });
+
+        statusLabel = new JBLabel("Start polling to chart INFO metrics of the active connection");
+
+        JPanel header = new JPanel(new BorderLayout(5, 0));
+        JPanel intervalPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        intervalPanel.add(new JBLabel("Interval:"));
+        intervalPanel.add(intervalCombo);
+        header.add(intervalPanel, BorderLayout.WEST);
+        header.add(statusLabel, BorderLayout.CENTER);
+        header.setBorder(JBUI.Borders.empty(5));
+
+        JPanel chartGrid = new JPanel(new GridLayout(0, 3, 5, 5));
+        chartGrid.setBorder(JBUI.Borders.empty(5));
+        for (InfoMetric metric : InfoMetric.values()) {
+            MetricChart chart = new MetricChart(metric, series);
+            charts.add(chart);
+            chartGrid.add(chart);
+        }
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(header, BorderLayout.NORTH);
+        content.add(chartGrid, BorderLayout.CENTER);
+        setContent(content);
+
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction startAction = new AnAction("Start Polling", "Poll INFO of the active connection",
+                AllIcons.Actions.Resume) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                start();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(poller == null && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction stopAction = new AnAction("Stop Polling", "Stop polling INFO", AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stop();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(poller != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear", "Forget the samples charted so far", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                series.clear();
+                repaintCharts();
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(startAction);
+        actionGroup.add(stopAction);
+        actionGroup.addSeparator();
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("InfoDashboardToolbar",
+                actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private long selectedInterval() {
+        return INTERVAL_MILLIS[Math.max(0, intervalCombo.getSelectedIndex())];
+    }
+
+    private void start() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null) {
+            return;
+        }
+        // Samples of another server would make the charts meaningless
+        series.clear();
+        InfoPoller started = new InfoPoller(connection, series,
+                error -> SwingUtilities.invokeLater(() -> displayPoll(connection, error)));
+        poller = started;
+        started.start(selectedInterval());
+        statusLabel.setText("Polling " + connection.getName() + "...");
+    }
+
+    /**
+     * Stop polling, keeping the samples collected so far
+     */
+    public void stop() {
+        if (poller != null) {
+            InfoPoller stopped = poller;
+            poller = null;
+            // A poll may be in progress; wait for it off the EDT
+            ApplicationManager.getApplication().executeOnPooledThread(stopped::stop);
+            statusLabel.setText("Stopped, " + series.size() + " samples");
+        }
+    }
+
+    private void displayPoll(RedisConnection connection, String error) {
+        if (poller == null) {
+            return;
+        }
+        if (error != null) {
+            statusLabel.setText("Polling " + connection.getName() + " failed: " + error);
+        } else {
+            statusLabel.setText(String.format("%s at %s, %,d of %,d samples", connection.getName(),
+                    timeFormat.format(new Date()), series.size(), series.getCapacity()));
+        }
+        repaintCharts();
+    }
+
+    private void repaintCharts() {
+        for (MetricChart chart : charts) {
+            chart.repaint();
+        }
+    }
+
+    /**
+     * Line chart of one metric, drawn straight from the series without intermediate objects
+     */
+    private static class MetricChart extends JComponent {
+        private static final Color LINE_COLOR = new JBColor(new Color(0x3574F0), new Color(0x548AF7));
+
+        private final InfoMetric metric;
+        private final InfoTimeSeries series;
+        private final long[] times;
+        private final double[] values;
+
+        MetricChart(InfoMetric metric, InfoTimeSeries series) {
+            this.metric = metric;
+            this.series = series;
+            this.times = new long[series.getCapacity()];
+            this.values = new double[series.getCapacity()];
+            setPreferredSize(new Dimension(JBUI.scale(240), JBUI.scale(120)));
+        }
+
+        @Override
+        protected void paintComponent(Graphics graphics) {
+            Graphics2D g = (Graphics2D) graphics.create();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                paintChart(g);
+            } finally {
+                g.dispose();
+            }
+        }
+
+        private void paintChart(Graphics2D g) {
+            int count = series.copy(metric, times, values);
+            FontMetrics fm = g.getFontMetrics();
+            int width = getWidth();
+            int height = getHeight();
+
+            g.setColor(UIUtil.getPanelBackground());
+            g.fillRect(0, 0, width, height);
+            g.setColor(JBColor.border());
+            g.drawRect(0, 0, width - 1, height - 1);
+
+            double latest = Double.NaN;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                if (!Double.isNaN(values[i])) {
+                    latest = values[i];
+                    min = Math.min(min, values[i]);
+                    max = Math.max(max, values[i]);
+                }
+            }
+
+            int padding = JBUI.scale(6);
+            g.setColor(UIUtil.getLabelForeground());
+            g.drawString(metric.getLabel(), padding, padding + fm.getAscent());
+            String latestText = metric.format(latest);
+            g.drawString(latestText, width - padding - fm.stringWidth(latestText), padding + fm.getAscent());
+            if (Double.isInfinite(min)) {
+                return;
+            }
+
+            // Rates and percentages start at zero; levels such as memory use their own range
+            double lower = metric.getUnit() == InfoMetric.Unit.RATE || metric.getUnit() == InfoMetric.Unit.PERCENT
+                    ? 0 : min;
+            double upper = metric.getUnit() == InfoMetric.Unit.PERCENT ? 100 : max;
+            if (upper <= lower) {
+                upper = lower + 1;
+            }
+
+            int top = padding * 2 + fm.getHeight();
+            int bottom = height - padding - fm.getHeight();
+            int left = padding;
+            int right = width - padding;
+            if (bottom - top < 10 || right - left < 10) {
+                return;
+            }
+
+            g.setColor(UIUtil.getContextHelpForeground());
+            g.drawString(metric.format(upper), left, top + fm.getAscent());
+            g.drawString(metric.format(lower), left, bottom);
+            if (count > 1) {
+                long span = times[count - 1] - times[0];
+                String spanText = "last " + formatSpan(span);
+                g.drawString(spanText, right - fm.stringWidth(spanText), height - padding);
+            }
+
+            g.setColor(LINE_COLOR);
+            long firstTime = times[0];
+            long timeSpan = Math.max(1, times[count - 1] - firstTime);
+            int previousX = -1;
+            int previousY = 0;
+            int columnMin = 0;
+            int columnMax = 0;
+            for (int i = 0; i < count; i++) {
+                if (Double.isNaN(values[i])) {
+                    // Unknown values leave a gap
+                    if (previousX >= 0) {
+                        g.drawLine(previousX, columnMin, previousX, columnMax);
+                    }
+                    previousX = -1;
+                    continue;
+                }
+                int x = count == 1 ? right : left + (int) ((times[i] - firstTime) * (right - left) / timeSpan);
+                int y = bottom - (int) Math.round((values[i] - lower) * (bottom - top) / (upper - lower));
+                if (x == previousX) {
+                    // Samples sharing a pixel column are drawn as one vertical min-max line
+                    columnMin = Math.min(columnMin, y);
+                    columnMax = Math.max(columnMax, y);
+                } else {
+                    if (previousX >= 0) {
+                        g.drawLine(previousX, columnMin, previousX, columnMax);
+                        g.drawLine(previousX, previousY, x, y);
+                    }
+                    columnMin = y;
+                    columnMax = y;
+                }
+                previousX = x;
+                previousY = y;
+            }
+            if (previousX >= 0) {
+                g.drawLine(previousX, columnMin, previousX, columnMax);
+            }
+        }
+
+        private static String formatSpan(long millis) {
+            long seconds = millis / 1000;
+            if (seconds < 120) {
+                return seconds + " s";
+            }
+            if (seconds < 7200) {
+                return seconds / 60 + " min";
+            }
+            return String.format("%.1f h", seconds / 3600.0);
+        }
+    }
+}
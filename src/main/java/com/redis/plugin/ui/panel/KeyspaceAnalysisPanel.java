@@ -0,0 +1,416 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBPanel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.actions.bulk.ReplayAofAction;
+import com.redis.plugin.model.AofProfile;
+import com.redis.plugin.model.KeyspaceReport;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.analysis.LiveKeyspaceAnalyzer;
+import com.redis.plugin.service.analysis.RdbAnalyzer;
+import com.redis.plugin.service.aof.AofProfiler;
+import com.redis.plugin.ui.RedisNotifications;
+import com.redis.plugin.ui.dialog.AofProfileDialog;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Panel showing a keyspace report for the active connection or an RDB file,
+ * and the command mix of AOF files
+ */
+public class KeyspaceAnalysisPanel extends SimpleToolWindowPanel {
+    private static final String DELIMITER = ":";
+    private static final int TOP_KEYS = 100;
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final JBLabel summaryLabel;
+    private final JBTabbedPane tabbedPane;
+    private final CardLayout cardLayout;
+    private final JPanel contentPanel;
+
+    private static final String CARD_REPORT = "REPORT";
+    private static final String CARD_EMPTY = "EMPTY";
+
+    private KeyspaceReport currentReport;
+    private boolean running;
+
+    public KeyspaceAnalysisPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        summaryLabel = new JBLabel();
+        summaryLabel.setBorder(JBUI.Borders.empty(5));
+        tabbedPane = new JBTabbedPane();
+
+        JPanel reportPanel = new JPanel(new BorderLayout());
+        reportPanel.add(summaryLabel, BorderLayout.NORTH);
+        reportPanel.add(tabbedPane, BorderLayout.CENTER);
+
+        JPanel emptyPanel = new JBPanel<>(new BorderLayout());
+        JBLabel emptyLabel = new JBLabel("Analyze the connected keyspace or open an RDB file", SwingConstants.CENTER);
+        emptyLabel.setForeground(JBColor.GRAY);
+        emptyPanel.add(emptyLabel, BorderLayout.CENTER);
+
+        cardLayout = new CardLayout();
+        contentPanel = new JPanel(cardLayout);
+        contentPanel.add(reportPanel, CARD_REPORT);
+        contentPanel.add(emptyPanel, CARD_EMPTY);
+        setContent(contentPanel);
+
+        setupToolbar();
+        cardLayout.show(contentPanel, CARD_EMPTY);
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction analyzeAction = new AnAction("Analyze Keyspace", "Analyze the keys of the active connection",
+                AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                analyzeLive();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!running && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction openRdbAction = new AnAction("Open RDB File", "Analyze an RDB snapshot without loading it",
+                AllIcons.Actions.MenuOpen) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                analyzeRdb();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!running);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction openAofAction = new AnAction("Open AOF File", "Show the command mix of an append-only file",
+                AllIcons.Actions.ListFiles) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                analyzeAof();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!running);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear", "Clear the report", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                clear();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(currentReport != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(analyzeAction);
+        actionGroup.add(openRdbAction);
+        actionGroup.add(openAofAction);
+        actionGroup.addSeparator();
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("KeyspaceAnalysisToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void analyzeLive() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null) {
+            return;
+        }
+        // The scan only reads, so a replica may serve it
+        LiveKeyspaceAnalyzer analyzer = LiveKeyspaceAnalyzer.builder()
+                .connection(connectionManager.getRedisService().getReadConnection())
+                .delimiter(DELIMITER)
+                .topKeys(TOP_KEYS)
+                .build();
+        runAnalysis("Analyzing " + connection.getName(), analyzer::run);
+    }
+
+    private void analyzeRdb() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Open RDB File");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("RDB files (*.rdb)", "rdb"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = fileChooser.getSelectedFile().toPath();
+        RdbAnalyzer analyzer = RdbAnalyzer.builder()
+                .file(file)
+                .delimiter(DELIMITER)
+                .topKeys(TOP_KEYS)
+                .build();
+        runAnalysis("Analyzing " + file.getFileName(), indicator -> {
+            try {
+                return analyzer.run(indicator);
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        });
+    }
+
+    private void analyzeAof() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Open AOF File");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("AOF files and manifests (*.aof, *.manifest)",
+                "aof", "manifest", "gz"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path file = fileChooser.getSelectedFile().toPath();
+        AofProfiler profiler = AofProfiler.builder()
+                .source(file)
+                .delimiter(DELIMITER)
+                .build();
+
+        running = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Reading " + file.getFileName(), true) {
+            private AofProfile profile;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                try {
+                    profile = profiler.run(indicator);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex.getMessage(), ex);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                AofProfileDialog dialog = new AofProfileDialog(project, profile);
+                dialog.show();
+                if (dialog.getExitCode() == AofProfileDialog.REPLAY_EXIT_CODE) {
+                    ReplayAofAction.replay(project, file);
+                }
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "AOF Analysis", "Analysis failed: " + error.getMessage());
+            }
+
+            @Override
+            public void onFinished() {
+                running = false;
+            }
+        });
+    }
+
+    private interface Analysis {
+        KeyspaceReport run(ProgressIndicator indicator);
+    }
+
+    private void runAnalysis(String title, Analysis analysis) {
+        running = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, title, true) {
+            private KeyspaceReport report;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                report = analysis.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                displayReport(report);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Keyspace Analysis", "Analysis failed: " + error.getMessage());
+            }
+
+            @Override
+            public void onFinished() {
+                running = false;
+            }
+        });
+    }
+
+    /**
+     * Show a report, replacing the current one
+     */
+    public void displayReport(KeyspaceReport report) {
+        currentReport = report;
+
+        String summary = String.format("<html><b>%s</b>: %,d keys, %s %s, %,d with TTL, analyzed in %,d ms",
+                escape(report.getSource()), report.getTotalKeys(), formatBytes(report.getTotalBytes()),
+                report.getSizeMetric().toLowerCase(), report.getKeysWithTtl(), report.getElapsedMillis());
+        if (!report.isComplete()) {
+            summary += "<br>The analysis did not cover the whole keyspace; see Details";
+        }
+        summaryLabel.setText(summary + "</html>");
+
+        int selected = tabbedPane.getSelectedIndex();
+        tabbedPane.removeAll();
+        tabbedPane.addTab("Namespaces", groupTable("Namespace", report.getNamespaces(), report.getTotalBytes()));
+        tabbedPane.addTab("Biggest Keys", keyTable(report.getBiggestKeys()));
+        tabbedPane.addTab("Types", groupTable("Type", report.getTypes(), report.getTotalBytes()));
+        tabbedPane.addTab("Encodings", groupTable("Encoding", report.getEncodings(), report.getTotalBytes()));
+        tabbedPane.addTab("TTL", groupTable("Expires in", report.getTtlBuckets(), report.getTotalBytes()));
+        tabbedPane.addTab("Databases", groupTable("Database", report.getDatabases(), report.getTotalBytes()));
+        tabbedPane.addTab("Details", detailsTable(report.getMetadata()));
+        if (selected >= 0 && selected < tabbedPane.getTabCount()) {
+            tabbedPane.setSelectedIndex(selected);
+        }
+
+        cardLayout.show(contentPanel, CARD_REPORT);
+    }
+
+    public void clear() {
+        currentReport = null;
+        tabbedPane.removeAll();
+        summaryLabel.setText("");
+        cardLayout.show(contentPanel, CARD_EMPTY);
+    }
+
+    private JComponent groupTable(String nameColumn, List<KeyspaceReport.GroupStats> groups, long totalBytes) {
+        DefaultTableModel model = createModel(new Object[]{nameColumn, "Keys", "Bytes", "Size", "% of Size", "With TTL"},
+                1, 2, 5);
+        for (KeyspaceReport.GroupStats group : groups) {
+            double share = totalBytes == 0 ? 0 : group.getBytes() * 100.0 / totalBytes;
+            model.addRow(new Object[]{group.getName(), group.getKeys(), group.getBytes(),
+                    formatBytes(group.getBytes()), String.format("%.1f%%", share), group.getKeysWithTtl()});
+        }
+        return createTable(model);
+    }
+
+    private JComponent keyTable(List<KeyspaceReport.KeyInfo> keys) {
+        DefaultTableModel model = createModel(
+                new Object[]{"Key", "Type", "Encoding", "Bytes", "Size", "Elements", "TTL", "Database"}, 3, 5, 7);
+        for (KeyspaceReport.KeyInfo key : keys) {
+            model.addRow(new Object[]{key.getKey(), key.getType(), key.getEncoding(), key.getBytes(),
+                    formatBytes(key.getBytes()), key.getElements() < 0 ? null : key.getElements(),
+                    formatTtl(key.getTtlMillis()), (long) key.getDatabase()});
+        }
+        return createTable(model);
+    }
+
+    private JComponent detailsTable(Map<String, String> metadata) {
+        DefaultTableModel model = createModel(new Object[]{"Property", "Value"});
+        metadata.forEach((name, value) -> model.addRow(new Object[]{name, value}));
+        return createTable(model);
+    }
+
+    /**
+     * Create a read-only model whose numeric columns sort as numbers
+     */
+    private static DefaultTableModel createModel(Object[] columns, int... numericColumns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                for (int numeric : numericColumns) {
+                    if (numeric == column) {
+                        return Long.class;
+                    }
+                }
+                return String.class;
+            }
+        };
+    }
+
+    private static JComponent createTable(DefaultTableModel model) {
+        JBTable table = new JBTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        return new JBScrollPane(table);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KB", "MB", "GB", "TB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    private static String formatTtl(long ttlMillis) {
+        if (ttlMillis < 0) {
+            return "";
+        } else if (ttlMillis == 0) {
+            return "expired";
+        }
+        long seconds = ttlMillis / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        } else if (seconds < 3600) {
+            return seconds / 60 + "m " + seconds % 60 + "s";
+        } else if (seconds < 86400) {
+            return seconds / 3600 + "h " + seconds % 3600 / 60 + "m";
+        }
+        return seconds / 86400 + "d " + seconds % 86400 / 3600 + "h";
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
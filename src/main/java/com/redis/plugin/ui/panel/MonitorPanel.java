@@ -0,0 +1,389 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.MonitorEvent;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.monitor.CommandRateTracker;
+import com.redis.plugin.service.monitor.MonitorFilter;
+import com.redis.plugin.service.monitor.MonitorSession;
+import com.redis.plugin.ui.RedisNotifications;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Panel that streams {@code MONITOR} output of the active connection, with sampling,
+ * filters and a rolling per-command operations per second view.
+ * <p>
+ * The stream is read on a background thread; this panel drains the events it kept a few
+ * times per second and only shows the most recent {@link #MAX_ROWS}.
+ */
+public class MonitorPanel extends SimpleToolWindowPanel {
+    private static final int MAX_ROWS = 5000;
+    private static final int REFRESH_MILLIS = 250;
+    private static final int MAX_ARGUMENTS_LENGTH = 500;
+    private static final String[] SAMPLE_LABELS = {"All commands", "1 in 10", "1 in 100", "1 in 1,000"};
+    private static final double[] SAMPLE_RATIOS = {1, 0.1, 0.01, 0.001};
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSSSSS").withZone(ZoneId.systemDefault());
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final JBTextField commandField;
+    private final JBTextField keyPatternField;
+    private final JBTextField clientField;
+    private final ComboBox<String> sampleComboBox;
+    private final JBLabel statusLabel;
+    private final EventTableModel eventModel;
+    private final JBTable eventTable;
+    private final DefaultTableModel rateModel;
+    private final Timer refreshTimer;
+
+    private MonitorSession session;
+    private long lastRatesSecond = -1;
+    private boolean follow = true;
+
+    public MonitorPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        commandField = new JBTextField(12);
+        commandField.getEmptyText().setText("GET, SET...");
+        keyPatternField = new JBTextField(12);
+        keyPatternField.getEmptyText().setText("user:*");
+        clientField = new JBTextField(10);
+        clientField.getEmptyText().setText("10.0.0.5");
+        sampleComboBox = new ComboBox<>(SAMPLE_LABELS);
+
+        DocumentAdapter filterListener = new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                applyFilter();
+            }
+        };
+        commandField.getDocument().addDocumentListener(filterListener);
+        keyPatternField.getDocument().addDocumentListener(filterListener);
+        clientField.getDocument().addDocumentListener(filterListener);
+        sampleComboBox.addActionListener(e -> applyFilter());
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        filterPanel.add(new JBLabel("Commands:"));
+        filterPanel.add(commandField);
+        filterPanel.add(new JBLabel("Key pattern:"));
+        filterPanel.add(keyPatternField);
+        filterPanel.add(new JBLabel("Client:"));
+        filterPanel.add(clientField);
+        filterPanel.add(new JBLabel("Sample:"));
+        filterPanel.add(sampleComboBox);
+
+        statusLabel = new JBLabel("Start monitoring to see the commands processed by the server");
+        statusLabel.setBorder(JBUI.Borders.empty(5));
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(filterPanel, BorderLayout.NORTH);
+        header.add(statusLabel, BorderLayout.SOUTH);
+
+        eventModel = new EventTableModel();
+        eventTable = new JBTable(eventModel);
+        eventTable.getTableHeader().setReorderingAllowed(false);
+
+        rateModel = new DefaultTableModel(new Object[]{"Command", "Ops/sec", "% of Ops"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 1 ? Double.class : String.class;
+            }
+        };
+        JBTable rateTable = new JBTable(rateModel);
+        rateTable.setAutoCreateRowSorter(true);
+        rateTable.getTableHeader().setReorderingAllowed(false);
+
+        JBSplitter splitter = new JBSplitter(false, 0.7f);
+        splitter.setFirstComponent(new JBScrollPane(eventTable));
+        splitter.setSecondComponent(new JBScrollPane(rateTable));
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(header, BorderLayout.NORTH);
+        content.add(splitter, BorderLayout.CENTER);
+        setContent(content);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction startAction = new AnAction("Start Monitoring", "Run MONITOR on a dedicated connection",
+                AllIcons.Actions.Resume) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                start();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(session == null && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction stopAction = new AnAction("Stop Monitoring", "Stop MONITOR and close its connection",
+                AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stop();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(session != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        ToggleAction followAction = new ToggleAction("Follow", "Scroll to the newest command",
+                AllIcons.RunConfigurations.Scroll_down) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return follow;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                follow = state;
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear", "Clear the command list", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                eventModel.clear();
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(startAction);
+        actionGroup.add(stopAction);
+        actionGroup.addSeparator();
+        actionGroup.add(followAction);
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("MonitorToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void start() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null) {
+            return;
+        }
+        MonitorFilter filter = createFilter();
+        if (filter == null) {
+            return;
+        }
+        MonitorSession started = MonitorSession.builder()
+                .connection(connection)
+                .filter(filter)
+                .build();
+        session = started;
+        lastRatesSecond = -1;
+        started.start(error -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                RedisNotifications.error(project, "Monitor", "MONITOR stopped: " + error);
+            }
+            if (session == started) {
+                stop();
+            }
+        }));
+        refreshTimer.start();
+        statusLabel.setText("Monitoring " + connection.getName() + "...");
+    }
+
+    /**
+     * Stop monitoring and close the dedicated connection
+     */
+    public void stop() {
+        if (session == null) {
+            return;
+        }
+        session.stop();
+        refresh();
+        refreshTimer.stop();
+        statusLabel.setText(statusLabel.getText() + " (stopped)");
+        session = null;
+    }
+
+    private void applyFilter() {
+        if (session == null) {
+            return;
+        }
+        MonitorFilter filter = createFilter();
+        if (filter != null) {
+            session.setFilter(filter);
+        }
+    }
+
+    /**
+     * @return the filter from the fields, or null if the key pattern is invalid
+     */
+    private MonitorFilter createFilter() {
+        int sample = Math.max(0, sampleComboBox.getSelectedIndex());
+        try {
+            MonitorFilter filter = MonitorFilter.builder()
+                    .commands(new HashSet<>(Arrays.asList(commandField.getText().split("[,\\s]+"))))
+                    .keyPattern(keyPatternField.getText().trim())
+                    .client(clientField.getText().trim())
+                    .sampleRatio(SAMPLE_RATIOS[sample])
+                    .build();
+            keyPatternField.setForeground(JBColor.foreground());
+            return filter;
+        } catch (IllegalArgumentException e) {
+            keyPatternField.setForeground(JBColor.RED);
+            return null;
+        }
+    }
+
+    private void refresh() {
+        MonitorSession current = session;
+        if (current == null) {
+            return;
+        }
+        int drained = current.getBuffer().drain(eventModel::add, Integer.MAX_VALUE);
+        if (drained > 0) {
+            eventModel.fireTableDataChanged();
+            if (follow && eventModel.getRowCount() > 0) {
+                eventTable.scrollRectToVisible(eventTable.getCellRect(eventModel.getRowCount() - 1, 0, true));
+            }
+        }
+
+        CommandRateTracker.Rates rates = current.getRates();
+        boolean stale = System.currentTimeMillis() / 1000 - rates.getSecond() > CommandRateTracker.WINDOW_SECONDS;
+        if (rates.getSecond() != lastRatesSecond) {
+            lastRatesSecond = rates.getSecond();
+            rateModel.setRowCount(0);
+            if (!stale) {
+                for (Map.Entry<String, Double> entry : rates.getOpsPerSecond().entrySet()) {
+                    double share = rates.getTotal() == 0 ? 0 : entry.getValue() * 100 / rates.getTotal();
+                    rateModel.addRow(new Object[]{entry.getKey(), Math.round(entry.getValue() * 10) / 10.0,
+                            String.format("%.1f%%", share)});
+                }
+            }
+        }
+
+        statusLabel.setText(String.format("%s: %,d received, %,d skipped, %,d dropped, %,.0f ops/sec",
+                current.getConnection().getName(), current.getReceived(), current.getSkipped(),
+                current.getDropped(), stale ? 0.0 : rates.getTotal()));
+    }
+
+    /**
+     * Table model over a fixed-size ring of the most recent events
+     */
+    private static class EventTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Time", "DB", "Client", "Command", "Arguments"};
+
+        private final MonitorEvent[] events = new MonitorEvent[MAX_ROWS];
+        private int start;
+        private int size;
+
+        void add(MonitorEvent event) {
+            if (size < MAX_ROWS) {
+                events[(start + size++) % MAX_ROWS] = event;
+            } else {
+                events[start] = event;
+                start = (start + 1) % MAX_ROWS;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(events, null);
+            start = 0;
+            size = 0;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return size;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            MonitorEvent event = events[(start + row) % MAX_ROWS];
+            switch (column) {
+                case 0:
+                    long micros = event.getTimestampMicros();
+                    return TIME_FORMAT.format(Instant.ofEpochSecond(micros / 1_000_000, micros % 1_000_000 * 1000));
+                case 1:
+                    return event.getDatabase();
+                case 2:
+                    return event.getClient();
+                case 3:
+                    return event.getCommand();
+                default:
+                    List<String> args = event.getArgs();
+                    String joined = String.join(" ", args.subList(1, args.size()));
+                    return joined.length() > MAX_ARGUMENTS_LENGTH
+                            ? joined.substring(0, MAX_ARGUMENTS_LENGTH) + "..." : joined;
+            }
+        }
+    }
+}
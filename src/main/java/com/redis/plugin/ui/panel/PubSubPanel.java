@@ -0,0 +1,453 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.PubSubMessage;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.pubsub.ChannelStats;
+import com.redis.plugin.service.pubsub.PubSubSubscription;
+import com.redis.plugin.service.pubsub.PublishJob;
+import com.redis.plugin.ui.RedisNotifications;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Panel for subscribing to channels and patterns, each set on its own connection, and for
+ * publishing test messages.
+ * <p>
+ * Subscriber threads only fill ring buffers; the panel drains them a few times per second
+ * so the UI is updated in batches rather than once per message.
+ */
+public class PubSubPanel extends SimpleToolWindowPanel {
+    private static final int MAX_ROWS = 5000;
+    private static final int REFRESH_MILLIS = 250;
+    private static final int STATS_EVERY_REFRESHES = 4;
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final ChannelStats stats = new ChannelStats();
+    private final JBTextField subscribeField;
+    private final DefaultListModel<PubSubSubscription> subscriptionModel = new DefaultListModel<>();
+    private final JBList<PubSubSubscription> subscriptionList;
+    private final MessageTableModel messageModel = new MessageTableModel();
+    private final JBTable messageTable;
+    private final DefaultTableModel statsModel;
+    private final JBLabel statusLabel;
+    private final JBTextField publishChannelField;
+    private final JBTextField publishMessageField;
+    private final JBTextField publishCountField;
+    private final Timer refreshTimer;
+
+    private int refreshes;
+    private boolean follow = true;
+    private boolean publishing;
+
+    public PubSubPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        subscribeField = new JBTextField();
+        subscribeField.getEmptyText().setText("Channels or patterns, e.g. orders news.*");
+        subscribeField.addActionListener(e -> subscribe());
+        JButton subscribeButton = new JButton("Subscribe");
+        subscribeButton.addActionListener(e -> subscribe());
+
+        JPanel subscribePanel = new JPanel(new BorderLayout(5, 0));
+        subscribePanel.add(subscribeField, BorderLayout.CENTER);
+        subscribePanel.add(subscribeButton, BorderLayout.EAST);
+        subscribePanel.setBorder(JBUI.Borders.empty(5));
+
+        statusLabel = new JBLabel("Each subscription uses its own connection");
+        statusLabel.setBorder(JBUI.Borders.empty(0, 5, 5, 5));
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(subscribePanel, BorderLayout.NORTH);
+        header.add(statusLabel, BorderLayout.SOUTH);
+
+        messageTable = new JBTable(messageModel);
+        messageTable.getTableHeader().setReorderingAllowed(false);
+
+        subscriptionList = new JBList<>(subscriptionModel);
+        subscriptionList.getEmptyText().setText("No subscriptions");
+
+        statsModel = new DefaultTableModel(new Object[]{"Channel", "Messages", "Msg/sec", "Bytes/sec", "Bytes"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column == 2 || column == 3 ? Double.class : Long.class;
+            }
+        };
+        JBTable statsTable = new JBTable(statsModel);
+        statsTable.setAutoCreateRowSorter(true);
+        statsTable.getTableHeader().setReorderingAllowed(false);
+
+        JBSplitter bottomSplitter = new JBSplitter(false, 0.3f);
+        bottomSplitter.setFirstComponent(new JBScrollPane(subscriptionList));
+        bottomSplitter.setSecondComponent(new JBScrollPane(statsTable));
+
+        JBSplitter splitter = new JBSplitter(true, 0.65f);
+        splitter.setFirstComponent(new JBScrollPane(messageTable));
+        splitter.setSecondComponent(bottomSplitter);
+
+        publishChannelField = new JBTextField(12);
+        publishChannelField.getEmptyText().setText("Channel");
+        publishMessageField = new JBTextField(20);
+        publishMessageField.getEmptyText().setText("Message, " + PublishJob.SEQUENCE_PLACEHOLDER + " is the number");
+        publishCountField = new JBTextField("1", 6);
+        JButton publishButton = new JButton("Publish");
+        publishButton.addActionListener(e -> publish());
+
+        JPanel publishPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        publishPanel.add(new JBLabel("Publish to:"));
+        publishPanel.add(publishChannelField);
+        publishPanel.add(publishMessageField);
+        publishPanel.add(new JBLabel("Count:"));
+        publishPanel.add(publishCountField);
+        publishPanel.add(publishButton);
+        publishPanel.setBorder(JBUI.Borders.empty(5));
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(header, BorderLayout.NORTH);
+        content.add(splitter, BorderLayout.CENTER);
+        content.add(publishPanel, BorderLayout.SOUTH);
+        setContent(content);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction unsubscribeAction = new AnAction("Unsubscribe", "Close the selected subscription",
+                AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                for (PubSubSubscription subscription : subscriptionList.getSelectedValuesList()) {
+                    unsubscribe(subscription);
+                }
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!subscriptionList.isSelectionEmpty());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction unsubscribeAllAction = new AnAction("Unsubscribe All", "Close all subscriptions",
+                AllIcons.Actions.Cancel) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stopAll();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!subscriptionModel.isEmpty());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        ToggleAction followAction = new ToggleAction("Follow", "Scroll to the newest message",
+                AllIcons.RunConfigurations.Scroll_down) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return follow;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                follow = state;
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear", "Clear messages and statistics", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                messageModel.clear();
+                stats.clear();
+                statsModel.setRowCount(0);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(unsubscribeAction);
+        actionGroup.add(unsubscribeAllAction);
+        actionGroup.addSeparator();
+        actionGroup.add(followAction);
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("PubSubToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void subscribe() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null || !connectionManager.isConnected()) {
+            statusLabel.setText("Connect to a server before subscribing");
+            return;
+        }
+        List<String> channels = new ArrayList<>();
+        List<String> patterns = new ArrayList<>();
+        for (String name : subscribeField.getText().trim().split("[,\\s]+")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.contains("*") || name.contains("?") || name.contains("[")) {
+                patterns.add(name);
+            } else {
+                channels.add(name);
+            }
+        }
+        if (channels.isEmpty() && patterns.isEmpty()) {
+            return;
+        }
+
+        PubSubSubscription subscription = PubSubSubscription.builder()
+                .connection(connection)
+                .channels(channels)
+                .patterns(patterns)
+                .stats(stats)
+                .build();
+        subscriptionModel.addElement(subscription);
+        subscription.start(error -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                RedisNotifications.error(project, "Pub/Sub", "Subscription to " + subscription + " ended: " + error);
+            }
+            unsubscribe(subscription);
+        }));
+        subscribeField.setText("");
+        refreshTimer.start();
+    }
+
+    private void unsubscribe(PubSubSubscription subscription) {
+        subscription.stop();
+        subscription.getBuffer().drain(messageModel::add, Integer.MAX_VALUE);
+        messageModel.fireTableDataChanged();
+        subscriptionModel.removeElement(subscription);
+        if (subscriptionModel.isEmpty()) {
+            refreshTimer.stop();
+            refreshStats();
+        }
+    }
+
+    /**
+     * Close all subscriptions and their connections
+     */
+    public void stopAll() {
+        for (PubSubSubscription subscription : subscriptionModelArray()) {
+            unsubscribe(subscription);
+        }
+    }
+
+    private PubSubSubscription[] subscriptionModelArray() {
+        PubSubSubscription[] subscriptions = new PubSubSubscription[subscriptionModel.size()];
+        subscriptionModel.copyInto(subscriptions);
+        return subscriptions;
+    }
+
+    private void refresh() {
+        int drained = 0;
+        for (PubSubSubscription subscription : subscriptionModelArray()) {
+            drained += subscription.getBuffer().drain(messageModel::add, Integer.MAX_VALUE);
+        }
+        if (drained > 0) {
+            messageModel.fireTableDataChanged();
+            if (follow && messageModel.getRowCount() > 0) {
+                messageTable.scrollRectToVisible(messageTable.getCellRect(messageModel.getRowCount() - 1, 0, true));
+            }
+        }
+        if (++refreshes % STATS_EVERY_REFRESHES == 0) {
+            refreshStats();
+        }
+    }
+
+    private void refreshStats() {
+        long messages = 0;
+        double messagesPerSecond = 0;
+        statsModel.setRowCount(0);
+        for (ChannelStats.Rate rate : stats.sample(System.currentTimeMillis())) {
+            statsModel.addRow(new Object[]{rate.getChannel(), rate.getMessages(),
+                    Math.round(rate.getMessagesPerSecond() * 10) / 10.0,
+                    Math.round(rate.getBytesPerSecond() * 10) / 10.0, rate.getBytes()});
+            messages += rate.getMessages();
+            messagesPerSecond += rate.getMessagesPerSecond();
+        }
+        long dropped = 0;
+        for (PubSubSubscription subscription : subscriptionModelArray()) {
+            dropped += subscription.getDropped();
+        }
+        statusLabel.setText(String.format("%d subscriptions, %,d messages, %,.0f msg/sec, %,d dropped",
+                subscriptionModel.size(), messages, messagesPerSecond, dropped));
+    }
+
+    private void publish() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (publishing || connection == null || !connectionManager.isConnected()) {
+            return;
+        }
+        long count;
+        try {
+            count = Long.parseLong(publishCountField.getText().trim());
+        } catch (NumberFormatException e) {
+            statusLabel.setText("Count must be a number");
+            return;
+        }
+        PublishJob job;
+        try {
+            job = PublishJob.builder()
+                    .connection(connection)
+                    .channel(publishChannelField.getText().trim())
+                    .message(publishMessageField.getText())
+                    .count(count)
+                    .build();
+        } catch (IllegalStateException e) {
+            statusLabel.setText(e.getMessage());
+            return;
+        }
+
+        publishing = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Publishing to " + job.getChannel(), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                job.run(indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                report("Published");
+            }
+
+            @Override
+            public void onCancel() {
+                report("Cancelled after publishing");
+            }
+
+            private void report(String prefix) {
+                RedisNotifications.info(project, "Pub/Sub", String.format(
+                        "%s %,d messages to %s in %,d ms (%,.0f msg/sec), received %,d times",
+                        prefix, job.getPublished(), job.getChannel(), job.getElapsedMillis(),
+                        job.getPublished() * 1000.0 / Math.max(1, job.getElapsedMillis()), job.getReceivers()));
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Pub/Sub", "Publishing failed: " + error.getMessage());
+            }
+
+            @Override
+            public void onFinished() {
+                publishing = false;
+            }
+        });
+    }
+
+    /**
+     * Table model over a fixed-size ring of the most recent messages
+     */
+    private static class MessageTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Time", "Channel", "Pattern", "Size", "Message"};
+
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        private final PubSubMessage[] messages = new PubSubMessage[MAX_ROWS];
+        private int start;
+        private int size;
+
+        void add(PubSubMessage message) {
+            if (size < MAX_ROWS) {
+                messages[(start + size++) % MAX_ROWS] = message;
+            } else {
+                messages[start] = message;
+                start = (start + 1) % MAX_ROWS;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(messages, null);
+            start = 0;
+            size = 0;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return size;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            PubSubMessage message = messages[(start + row) % MAX_ROWS];
+            switch (column) {
+                case 0:
+                    return timeFormat.format(new Date(message.getTimestamp()));
+                case 1:
+                    return message.getChannel();
+                case 2:
+                    return message.getPattern() == null ? "" : message.getPattern();
+                case 3:
+                    return message.getSize();
+                default:
+                    String text = message.getText();
+                    return text.length() > MAX_MESSAGE_LENGTH ? text.substring(0, MAX_MESSAGE_LENGTH) + "..." : text;
+            }
+        }
+    }
+}
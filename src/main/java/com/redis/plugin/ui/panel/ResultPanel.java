@@ -287,24 +287,11 @@ public class ResultPanel extends SimpleToolWindowPanel {
             
             // For small lists, use a table
             if (list.size() <= 100) {
-                DefaultTableModel model = new DefaultTableModel(
-                        new Object[]{"Index", "Value"}, 0);
-                
-                for (int i = 0; i < list.size(); i++) {
-                    model.addRow(new Object[]{i, list.get(i)});
-                }
-                
-                tableResultArea.setModel(model);
+                tableResultArea.setModel(createListTableModel(list));
                 cardLayout.show(contentPanel, CARD_TABLE);
             } else {
                 // For large lists, use a tree
-                DefaultMutableTreeNode arrayNode = new DefaultMutableTreeNode("Array (" + list.size() + " items)");
-                rootNode.add(arrayNode);
-                
-                for (int i = 0; i < list.size(); i++) {
-                    arrayNode.add(new DefaultMutableTreeNode("[" + i + "] " + list.get(i)));
-                }
-                
+                rootNode.add(createListNode(list));
                 treeModel.reload();
                 TreeUtil.expandAll(treeResultArea);
                 cardLayout.show(contentPanel, CARD_TREE);
@@ -324,24 +311,11 @@ public class ResultPanel extends SimpleToolWindowPanel {
             
             // For small maps, use a table
             if (map.size() <= 100) {
-                DefaultTableModel model = new DefaultTableModel(
-                        new Object[]{"Field", "Value"}, 0);
-                
-                for (Map.Entry<?, ?> entry : map.entrySet()) {
-                    model.addRow(new Object[]{entry.getKey(), entry.getValue()});
-                }
-                
-                tableResultArea.setModel(model);
+                tableResultArea.setModel(createHashTableModel(map));
                 cardLayout.show(contentPanel, CARD_TABLE);
             } else {
                 // For large maps, use a tree
-                DefaultMutableTreeNode hashNode = new DefaultMutableTreeNode("Hash (" + map.size() + " fields)");
-                rootNode.add(hashNode);
-                
-                for (Map.Entry<?, ?> entry : map.entrySet()) {
-                    hashNode.add(new DefaultMutableTreeNode(new KeyValue(entry.getKey(), entry.getValue())));
-                }
-                
+                rootNode.add(createHashNode(map));
                 treeModel.reload();
                 TreeUtil.expandAll(treeResultArea);
                 cardLayout.show(contentPanel, CARD_TREE);
@@ -361,26 +335,11 @@ public class ResultPanel extends SimpleToolWindowPanel {
             
             // For small sets, use a table
             if (set.size() <= 100) {
-                DefaultTableModel model = new DefaultTableModel(
-                        new Object[]{"Index", "Value"}, 0);
-                
-                int i = 0;
-                for (Object element : set) {
-                    model.addRow(new Object[]{i++, element});
-                }
-                
-                tableResultArea.setModel(model);
+                tableResultArea.setModel(createSetTableModel(set));
                 cardLayout.show(contentPanel, CARD_TABLE);
             } else {
                 // For large sets, use a tree
-                DefaultMutableTreeNode setNode = new DefaultMutableTreeNode("Set (" + set.size() + " members)");
-                rootNode.add(setNode);
-                
-                int i = 0;
-                for (Object element : set) {
-                    setNode.add(new DefaultMutableTreeNode(new IndexedValue(i++, element)));
-                }
-                
+                rootNode.add(createSetNode(set));
                 treeModel.reload();
                 TreeUtil.expandAll(treeResultArea);
                 cardLayout.show(contentPanel, CARD_TREE);
@@ -391,6 +350,58 @@ public class ResultPanel extends SimpleToolWindowPanel {
         }
     }
     
+    // Model builders are static and package-private so the JMH benchmarks can measure them
+
+    static DefaultTableModel createListTableModel(List<?> list) {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Index", "Value"}, 0);
+        for (int i = 0; i < list.size(); i++) {
+            model.addRow(new Object[]{i, list.get(i)});
+        }
+        return model;
+    }
+
+    static DefaultMutableTreeNode createListNode(List<?> list) {
+        DefaultMutableTreeNode arrayNode = new DefaultMutableTreeNode("Array (" + list.size() + " items)");
+        for (int i = 0; i < list.size(); i++) {
+            arrayNode.add(new DefaultMutableTreeNode("[" + i + "] " + list.get(i)));
+        }
+        return arrayNode;
+    }
+
+    static DefaultTableModel createHashTableModel(Map<?, ?> map) {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Field", "Value"}, 0);
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            model.addRow(new Object[]{entry.getKey(), entry.getValue()});
+        }
+        return model;
+    }
+
+    static DefaultMutableTreeNode createHashNode(Map<?, ?> map) {
+        DefaultMutableTreeNode hashNode = new DefaultMutableTreeNode("Hash (" + map.size() + " fields)");
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            hashNode.add(new DefaultMutableTreeNode(new KeyValue(entry.getKey(), entry.getValue())));
+        }
+        return hashNode;
+    }
+
+    static DefaultTableModel createSetTableModel(Set<?> set) {
+        DefaultTableModel model = new DefaultTableModel(new Object[]{"Index", "Value"}, 0);
+        int i = 0;
+        for (Object element : set) {
+            model.addRow(new Object[]{i++, element});
+        }
+        return model;
+    }
+
+    static DefaultMutableTreeNode createSetNode(Set<?> set) {
+        DefaultMutableTreeNode setNode = new DefaultMutableTreeNode("Set (" + set.size() + " members)");
+        int i = 0;
+        for (Object element : set) {
+            setNode.add(new DefaultMutableTreeNode(new IndexedValue(i++, element)));
+        }
+        return setNode;
+    }
+    
     /**
      * Clear all results
      */
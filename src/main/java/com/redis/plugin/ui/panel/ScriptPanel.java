@@ -0,0 +1,271 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTextArea;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.FormBuilder;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.RedisResult;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.impl.JedisRedisService;
+import com.redis.plugin.service.script.ScriptCache;
+import com.redis.plugin.service.script.ScriptRunner;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Workbench for Lua scripts run on the active connection.
+ * <p>
+ * Scripts are registered once per connection and then run by digest, so editing and rerunning
+ * a large script does not resend it until it changes. Each run adds a row with how the script
+ * was sent and how long loading and running it took; a script that runs too long can be
+ * stopped with {@code SCRIPT KILL}.
+ */
+public class ScriptPanel extends SimpleToolWindowPanel {
+    private static final int RESULT_PREVIEW_LENGTH = 200;
+
+    private final RedisConnectionManager connectionManager;
+    private final ScriptCache scriptCache = new ScriptCache();
+    private final JBTextArea scriptArea;
+    private final JBTextField keysField;
+    private final JBTextField argsField;
+    private final JBLabel statusLabel;
+    private final ResultPanel resultPanel;
+    private final DefaultTableModel runModel;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+
+    private ScriptRunner runner;
+    private boolean running;
+
+    public ScriptPanel(Project project) {
+        super(true);
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        scriptArea = new JBTextArea(10, 60);
+        scriptArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        scriptArea.setTabSize(4);
+        scriptArea.getEmptyText().setText("Lua script, e.g. return redis.call('GET', KEYS[1])");
+        scriptArea.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_ENTER && e.isControlDown()) {
+                    runScript();
+                    e.consume();
+                }
+            }
+        });
+
+        keysField = new JBTextField();
+        keysField.getEmptyText().setText("KEYS, separated by spaces");
+        argsField = new JBTextField();
+        argsField.getEmptyText().setText("ARGV, separated by spaces; quote values with spaces");
+
+        JPanel form = FormBuilder.createFormBuilder()
+                .addLabeledComponent(new JBLabel("Keys:"), keysField)
+                .addLabeledComponent(new JBLabel("Args:"), argsField)
+                .getPanel();
+        form.setBorder(JBUI.Borders.empty(5));
+
+        JPanel editor = new JPanel(new BorderLayout());
+        editor.add(new JBScrollPane(scriptArea), BorderLayout.CENTER);
+        editor.add(form, BorderLayout.SOUTH);
+
+        statusLabel = new JBLabel("Run a script with Ctrl+Enter; it is sent once and run by SHA afterwards");
+        statusLabel.setBorder(JBUI.Borders.empty(5));
+
+        resultPanel = new ResultPanel(project);
+
+        runModel = new DefaultTableModel(new Object[]{"Time", "SHA", "Sent As", "Load ms", "Run ms", "Result"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 3 || column == 4 ? Double.class : String.class;
+            }
+        };
+        JBTable runTable = new JBTable(runModel);
+        runTable.getTableHeader().setReorderingAllowed(false);
+
+        JBSplitter outputSplitter = new JBSplitter(false, 0.5f);
+        outputSplitter.setFirstComponent(resultPanel);
+        outputSplitter.setSecondComponent(new JBScrollPane(runTable));
+
+        JPanel output = new JPanel(new BorderLayout());
+        output.add(statusLabel, BorderLayout.NORTH);
+        output.add(outputSplitter, BorderLayout.CENTER);
+
+        JBSplitter splitter = new JBSplitter(true, 0.5f);
+        splitter.setFirstComponent(editor);
+        splitter.setSecondComponent(output);
+        setContent(splitter);
+
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction runAction = new AnAction("Run Script", "Run the script on the active connection (Ctrl+Enter)",
+                AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                runScript();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(!running && connectionManager.isConnected()
+                        && !scriptArea.getText().trim().isEmpty());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction killAction = new AnAction("Stop Script", "Stop the running script with SCRIPT KILL",
+                AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                killScript();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(running);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction clearAction = new AnAction("Clear Runs", "Remove all run rows", AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                runModel.setRowCount(0);
+                resultPanel.clear();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(runModel.getRowCount() > 0);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(runAction);
+        actionGroup.add(killAction);
+        actionGroup.addSeparator();
+        actionGroup.add(clearAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("ScriptToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void runScript() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        String script = scriptArea.getText();
+        if (running || connection == null || !connectionManager.isConnected() || script.trim().isEmpty()) {
+            return;
+        }
+        if (runner == null || !runner.getConnection().getId().equals(connection.getId())) {
+            stop();
+            runner = new ScriptRunner(connection, scriptCache);
+        }
+        ScriptRunner current = runner;
+        List<String> keys = Arrays.asList(JedisRedisService.parseCommandLine(keysField.getText()));
+        List<String> args = Arrays.asList(JedisRedisService.parseCommandLine(argsField.getText()));
+
+        running = true;
+        statusLabel.setText("Running on " + connection.getName() + "...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            ScriptRunner.Run run = current.run(script, keys, args);
+            ApplicationManager.getApplication().invokeLater(() -> {
+                running = false;
+                displayRun(current, run);
+            });
+        });
+    }
+
+    private void killScript() {
+        ScriptRunner current = runner;
+        if (current == null || !running) {
+            return;
+        }
+        statusLabel.setText("Stopping the script...");
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            RedisResult result = current.kill();
+            ApplicationManager.getApplication().invokeLater(() -> {
+                if (result.isError()) {
+                    // UNKILLABLE once the script has written, NOTBUSY once it has finished
+                    statusLabel.setText("Could not stop the script: " + result.getError());
+                }
+            });
+        });
+    }
+
+    private void displayRun(ScriptRunner source, ScriptRunner.Run run) {
+        RedisResult result = run.getResult();
+        resultPanel.displayResult(result);
+        String preview = result.isError() ? "Error: " + result.getError() : String.valueOf(result.getValue());
+        if (preview.length() > RESULT_PREVIEW_LENGTH) {
+            preview = preview.substring(0, RESULT_PREVIEW_LENGTH) + "...";
+        }
+        runModel.insertRow(0, new Object[]{timeFormat.format(new Date()), run.getSha().substring(0, 12),
+                run.getMode().getDisplayName(), millis(run.getLoadNanos()), millis(run.getRunNanos()), preview});
+
+        StringBuilder status = new StringBuilder(String.format("%s in %.2f ms", run.getMode().getDisplayName(),
+                millis(run.getRunNanos())));
+        if (run.getLoadNanos() > 0) {
+            status.append(String.format(" after loading in %.2f ms", millis(run.getLoadNanos())));
+        }
+        status.append(String.format("; %d script(s) registered on %s", source.getCachedScripts(),
+                source.getConnection().getName()));
+        statusLabel.setText(status.toString());
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    /**
+     * Close the script client; a script still running on the server is left to finish
+     */
+    public void stop() {
+        if (runner != null) {
+            ScriptRunner stopped = runner;
+            runner = null;
+            // A run may be holding the client; close it off the EDT
+            ApplicationManager.getApplication().executeOnPooledThread(stopped::close);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBColor;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.SlowlogSnapshot;
+import com.redis.plugin.service.RedisCommandCatalog;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.slowlog.SlowlogAggregator;
+import com.redis.plugin.service.slowlog.SlowlogMonitor;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Panel that polls the slow log of the active connection and groups entries by command template.
+ * Templates of commands the catalog lists as O(N) or worse are highlighted.
+ */
+public class SlowlogPanel extends SimpleToolWindowPanel {
+    private static final long POLL_INTERVAL_MILLIS = 2000;
+
+    private final RedisConnectionManager connectionManager;
+    private final RedisCommandCatalog commandCatalog;
+    private final JBLabel statusLabel;
+    private final DefaultTableModel templateModel;
+    private final DefaultTableModel recentModel;
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    private final List<Consumer<String>> templateSelectionListeners = new ArrayList<>();
+
+    private SlowlogAggregator aggregator;
+    private SlowlogMonitor monitor;
+    private List<SlowlogSnapshot.TemplateStats> templates = Collections.emptyList();
+    private long displayedEntries = -1;
+
+    public SlowlogPanel(Project project) {
+        super(true);
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+        this.commandCatalog = ApplicationManager.getApplication().getService(RedisCommandCatalog.class);
+
+        statusLabel = new JBLabel("Start polling to follow the slow log of the active connection");
+        statusLabel.setBorder(JBUI.Borders.empty(5));
+
+        templateModel = createModel(new Object[]{"Template", "Complexity", "Count", "Total ms", "Avg ms", "p99 ms",
+                "Max ms", "Last Seen", "Example"}, new Class<?>[]{String.class, String.class, Long.class,
+                Double.class, Double.class, Double.class, Double.class, String.class, String.class});
+        recentModel = createModel(new Object[]{"ID", "Time", "Duration ms", "Command", "Client"},
+                new Class<?>[]{Long.class, String.class, Double.class, String.class, String.class});
+
+        JBTable templateTable = new JBTable(templateModel) {
+            @Override
+            public Component prepareRenderer(TableCellRenderer renderer, int row, int column) {
+                Component component = super.prepareRenderer(renderer, row, column);
+                SlowlogSnapshot.TemplateStats stats = templateAt(this, row);
+                if (stats != null && !isRowSelected(row)) {
+                    component.setForeground(stats.isLinear() ? JBColor.ORANGE : getForeground());
+                }
+                if (component instanceof JComponent) {
+                    ((JComponent) component).setToolTipText(stats == null || stats.getComplexity() == null ? null
+                            : stats.getComplexity().getNotation() + " - " + stats.getComplexity().getDescription());
+                }
+                return component;
+            }
+        };
+        templateTable.setAutoCreateRowSorter(true);
+        templateTable.getTableHeader().setReorderingAllowed(false);
+        templateTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    SlowlogSnapshot.TemplateStats stats = templateAt(templateTable,
+                            templateTable.rowAtPoint(e.getPoint()));
+                    if (stats != null && stats.getComplexity() != null) {
+                        for (Consumer<String> listener : templateSelectionListeners) {
+                            listener.accept(stats.getCommand());
+                        }
+                    }
+                }
+            }
+        });
+
+        JBTable recentTable = new JBTable(recentModel);
+        recentTable.setAutoCreateRowSorter(true);
+        recentTable.getTableHeader().setReorderingAllowed(false);
+
+        JBTabbedPane tabbedPane = new JBTabbedPane();
+        tabbedPane.addTab("Templates", new JBScrollPane(templateTable));
+        tabbedPane.addTab("Recent", new JBScrollPane(recentTable));
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(statusLabel, BorderLayout.NORTH);
+        content.add(tabbedPane, BorderLayout.CENTER);
+        setContent(content);
+
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction startAction = new AnAction("Start Polling", "Poll the slow log of the active connection",
+                AllIcons.Actions.Resume) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                start();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(monitor == null && connectionManager.isConnected());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction stopAction = new AnAction("Stop Polling", "Stop polling the slow log", AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stop();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(monitor != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction resetAction = new AnAction("Reset Statistics", "Forget the entries aggregated so far",
+                AllIcons.Actions.GC) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                aggregator.reset();
+                displaySnapshot(aggregator.snapshot(System.currentTimeMillis(), null));
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(aggregator != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(startAction);
+        actionGroup.add(stopAction);
+        actionGroup.addSeparator();
+        actionGroup.add(resetAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("SlowlogToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void start() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null) {
+            return;
+        }
+        // A new monitor reads the whole server slow log again, so start from empty statistics
+        aggregator = new SlowlogAggregator(commandCatalog);
+        displayedEntries = -1;
+        monitor = new SlowlogMonitor(connection, aggregator,
+                snapshot -> SwingUtilities.invokeLater(() -> displaySnapshot(snapshot)));
+        monitor.start(POLL_INTERVAL_MILLIS);
+        statusLabel.setText("Polling " + connection.getName() + "...");
+    }
+
+    /**
+     * Stop polling, keeping the statistics collected so far
+     */
+    public void stop() {
+        if (monitor != null) {
+            monitor.stop();
+            monitor = null;
+            statusLabel.setText(statusLabel.getText() + " (stopped)");
+        }
+    }
+
+    private void displaySnapshot(SlowlogSnapshot snapshot) {
+        String status = String.format("%,d entries in %,d templates", snapshot.getEntries(),
+                snapshot.getTemplates().size());
+        if (snapshot.getMissed() > 0) {
+            status += String.format(", %,d missed (raise slowlog-max-len)", snapshot.getMissed());
+        }
+        if (snapshot.getError() != null) {
+            status += " - poll failed: " + snapshot.getError();
+        } else {
+            status += ", last poll " + timeFormat.format(new Date(snapshot.getPollTime()));
+        }
+        statusLabel.setText(monitor == null ? status + " (stopped)" : status);
+
+        if (snapshot.getEntries() == displayedEntries) {
+            return;
+        }
+        displayedEntries = snapshot.getEntries();
+        templates = snapshot.getTemplates();
+        templateModel.setRowCount(0);
+        for (SlowlogSnapshot.TemplateStats stats : templates) {
+            templateModel.addRow(new Object[]{stats.getTemplate(),
+                    stats.getComplexity() == null ? "" : stats.getComplexity().getNotation(), stats.getCount(),
+                    millis(stats.getTotalMicros()), millis(stats.getTotalMicros() / Math.max(1, stats.getCount())),
+                    millis(stats.getP99Micros()), millis(stats.getMaxMicros()),
+                    timeFormat.format(new Date(stats.getLastSeen() * 1000)), stats.getExample()});
+        }
+        recentModel.setRowCount(0);
+        for (SlowlogSnapshot.Entry entry : snapshot.getRecent()) {
+            recentModel.addRow(new Object[]{entry.getId(), timeFormat.format(new Date(entry.getTimestamp() * 1000)),
+                    millis(entry.getMicros()), entry.getCommand(), entry.getClient()});
+        }
+    }
+
+    private SlowlogSnapshot.TemplateStats templateAt(JBTable table, int viewRow) {
+        if (viewRow < 0) {
+            return null;
+        }
+        int row = table.convertRowIndexToModel(viewRow);
+        return row < templates.size() ? templates.get(row) : null;
+    }
+
+    /**
+     * Add a listener called with the catalog command name when a template is double-clicked
+     * @param listener the listener to add
+     */
+    public void addTemplateSelectionListener(Consumer<String> listener) {
+        templateSelectionListeners.add(listener);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static DefaultTableModel createModel(Object[] columns, Class<?>[] columnClasses) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return columnClasses[column];
+            }
+        };
+    }
+}
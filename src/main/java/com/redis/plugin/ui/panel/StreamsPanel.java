@@ -0,0 +1,568 @@
+package com.redis.plugin.ui.panel;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.*;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.SimpleToolWindowPanel;
+import com.intellij.ui.JBSplitter;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.components.JBTabbedPane;
+import com.intellij.ui.components.JBTextField;
+import com.intellij.ui.table.JBTable;
+import com.intellij.util.ui.JBUI;
+import com.redis.plugin.model.RedisConnection;
+import com.redis.plugin.model.StreamMessage;
+import com.redis.plugin.model.StreamStatus;
+import com.redis.plugin.service.RedisConnectionManager;
+import com.redis.plugin.service.stream.StreamInspector;
+import com.redis.plugin.service.stream.StreamTailer;
+import com.redis.plugin.ui.RedisNotifications;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Panel for one stream: pages through its history, follows new entries and shows the backlog
+ * of its consumer groups.
+ * <p>
+ * History is read in pages with XRANGE and XREVRANGE, new entries are followed with XREAD BLOCK
+ * on a dedicated connection, and the groups are refreshed on a schedule on another one.
+ */
+public class StreamsPanel extends SimpleToolWindowPanel {
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_ROWS = 5000;
+    private static final int REFRESH_MILLIS = 250;
+    private static final int STATUS_INTERVAL_MILLIS = 2000;
+    private static final int MAX_FIELDS_LENGTH = 1000;
+
+    private final Project project;
+    private final RedisConnectionManager connectionManager;
+    private final JBTextField keyField;
+    private final JBLabel statusLabel;
+    private final DefaultTableModel entryModel;
+    private final TailTableModel tailModel = new TailTableModel();
+    private final JBTable tailTable;
+    private final DefaultTableModel groupModel;
+    private final JBTable groupTable;
+    private final DefaultTableModel consumerModel;
+    private final JBTabbedPane tabs;
+    private final Timer refreshTimer;
+
+    private StreamInspector inspector;
+    private StreamTailer tailer;
+    private StreamStatus status;
+    private List<StreamMessage> page = Collections.emptyList();
+    private boolean loading;
+    private boolean follow = true;
+
+    public StreamsPanel(Project project) {
+        super(true);
+        this.project = project;
+        this.connectionManager = ApplicationManager.getApplication().getService(RedisConnectionManager.class);
+
+        keyField = new JBTextField();
+        keyField.getEmptyText().setText("Stream key");
+        keyField.addActionListener(e -> open());
+        JButton openButton = new JButton("Open");
+        openButton.addActionListener(e -> open());
+
+        JPanel keyPanel = new JPanel(new BorderLayout(5, 0));
+        keyPanel.add(keyField, BorderLayout.CENTER);
+        keyPanel.add(openButton, BorderLayout.EAST);
+        keyPanel.setBorder(JBUI.Borders.empty(5));
+
+        statusLabel = new JBLabel("Open a stream to see its entries and consumer groups");
+        statusLabel.setBorder(JBUI.Borders.empty(0, 5, 5, 5));
+
+        JPanel header = new JPanel(new BorderLayout());
+        header.add(keyPanel, BorderLayout.NORTH);
+        header.add(statusLabel, BorderLayout.SOUTH);
+
+        entryModel = new DefaultTableModel(new Object[]{"ID", "Time", "Fields"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JBTable entryTable = new JBTable(entryModel);
+        entryTable.getTableHeader().setReorderingAllowed(false);
+
+        tailTable = new JBTable(tailModel);
+        tailTable.getTableHeader().setReorderingAllowed(false);
+
+        groupModel = new DefaultTableModel(new Object[]{"Group", "Consumers", "Pending", "Last Delivered", "Lag"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 1 || column == 2 ? Long.class : String.class;
+            }
+        };
+        groupTable = new JBTable(groupModel);
+        groupTable.setAutoCreateRowSorter(true);
+        groupTable.getTableHeader().setReorderingAllowed(false);
+        groupTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                displayConsumers();
+            }
+        });
+
+        consumerModel = new DefaultTableModel(new Object[]{"Consumer", "Pending", "Idle (ms)"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : Long.class;
+            }
+        };
+        JBTable consumerTable = new JBTable(consumerModel);
+        consumerTable.setAutoCreateRowSorter(true);
+        consumerTable.getTableHeader().setReorderingAllowed(false);
+
+        JBSplitter groupSplitter = new JBSplitter(true, 0.6f);
+        groupSplitter.setFirstComponent(new JBScrollPane(groupTable));
+        groupSplitter.setSecondComponent(new JBScrollPane(consumerTable));
+
+        tabs = new JBTabbedPane();
+        tabs.addTab("Entries", new JBScrollPane(entryTable));
+        tabs.addTab("Tail", new JBScrollPane(tailTable));
+        tabs.addTab("Groups", groupSplitter);
+
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(header, BorderLayout.NORTH);
+        content.add(tabs, BorderLayout.CENTER);
+        setContent(content);
+
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> drainTail());
+        setupToolbar();
+    }
+
+    private void setupToolbar() {
+        DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+        AnAction tailAction = new AnAction("Tail", "Follow new entries with XREAD BLOCK", AllIcons.Actions.Execute) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                startTail();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(inspector != null && tailer == null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction stopTailAction = new AnAction("Stop Tail", "Stop following new entries", AllIcons.Actions.Suspend) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stopTail();
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(tailer != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction newestAction = new AnAction("Newest", "Show the newest entries", AllIcons.Actions.Refresh) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                loadPage(Direction.NEWEST);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(inspector != null && !loading);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction olderAction = new AnAction("Older", "Show the previous page of entries", AllIcons.Actions.Back) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                loadPage(Direction.OLDER);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(inspector != null && !loading && !page.isEmpty());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction newerAction = new AnAction("Newer", "Show the next page of entries", AllIcons.Actions.Forward) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                loadPage(Direction.NEWER);
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(inspector != null && !loading && !page.isEmpty());
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        ToggleAction followAction = new ToggleAction("Follow", "Scroll to the newest tailed entry",
+                AllIcons.RunConfigurations.Scroll_down) {
+            @Override
+            public boolean isSelected(@NotNull AnActionEvent e) {
+                return follow;
+            }
+
+            @Override
+            public void setSelected(@NotNull AnActionEvent e, boolean state) {
+                follow = state;
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        AnAction closeAction = new AnAction("Close", "Close the stream and its connections", AllIcons.Actions.Cancel) {
+            @Override
+            public void actionPerformed(@NotNull AnActionEvent e) {
+                stop();
+                statusLabel.setText("Stream closed");
+            }
+
+            @Override
+            public void update(@NotNull AnActionEvent e) {
+                e.getPresentation().setEnabled(inspector != null);
+            }
+
+            @Override
+            public @NotNull ActionUpdateThread getActionUpdateThread() {
+                return ActionUpdateThread.EDT;
+            }
+        };
+
+        actionGroup.add(newestAction);
+        actionGroup.add(olderAction);
+        actionGroup.add(newerAction);
+        actionGroup.addSeparator();
+        actionGroup.add(tailAction);
+        actionGroup.add(stopTailAction);
+        actionGroup.add(followAction);
+        actionGroup.addSeparator();
+        actionGroup.add(closeAction);
+
+        ActionToolbar toolbar = ActionManager.getInstance().createActionToolbar("StreamsToolbar", actionGroup, true);
+        toolbar.setTargetComponent(this);
+        setToolbar(toolbar.getComponent());
+    }
+
+    private void open() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (connection == null || !connectionManager.isConnected()) {
+            statusLabel.setText("Connect to a server before opening a stream");
+            return;
+        }
+        String key = keyField.getText().trim();
+        if (key.isEmpty()) {
+            return;
+        }
+        stop();
+        inspector = new StreamInspector(connection, key);
+        StreamInspector started = inspector;
+        started.start(STATUS_INTERVAL_MILLIS, polled -> SwingUtilities.invokeLater(() -> {
+            if (inspector == started) {
+                displayStatus(polled);
+            }
+        }));
+        loadPage(Direction.NEWEST);
+    }
+
+    /**
+     * Close the stream and stop tailing and refreshing
+     */
+    public void stop() {
+        stopTail();
+        if (inspector != null) {
+            StreamInspector stopped = inspector;
+            inspector = null;
+            // A refresh may be running; wait for it off the EDT
+            ApplicationManager.getApplication().executeOnPooledThread(stopped::stop);
+        }
+        status = null;
+        page = Collections.emptyList();
+        entryModel.setRowCount(0);
+        groupModel.setRowCount(0);
+        consumerModel.setRowCount(0);
+    }
+
+    private void startTail() {
+        RedisConnection connection = connectionManager.getActiveConnection();
+        if (inspector == null || tailer != null || connection == null) {
+            return;
+        }
+        tailModel.clear();
+        tailer = StreamTailer.builder()
+                .connection(connection)
+                .key(inspector.getKey())
+                .build();
+        StreamTailer started = tailer;
+        started.start(error -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                RedisNotifications.error(project, "Streams", "Tailing " + started.getKey() + " ended: " + error);
+            }
+            if (tailer == started) {
+                stopTail();
+            }
+        }));
+        refreshTimer.start();
+        tabs.setSelectedIndex(1);
+    }
+
+    private void stopTail() {
+        if (tailer == null) {
+            return;
+        }
+        tailer.stop();
+        drainTail();
+        tailer = null;
+        refreshTimer.stop();
+    }
+
+    private void drainTail() {
+        if (tailer == null) {
+            return;
+        }
+        if (tailer.getBuffer().drain(tailModel::add, Integer.MAX_VALUE) > 0) {
+            tailModel.fireTableDataChanged();
+            if (follow && tailModel.getRowCount() > 0) {
+                tailTable.scrollRectToVisible(tailTable.getCellRect(tailModel.getRowCount() - 1, 0, true));
+            }
+        }
+        displayStatusText();
+    }
+
+    private enum Direction {
+        NEWEST, OLDER, NEWER
+    }
+
+    private void loadPage(Direction direction) {
+        StreamInspector source = inspector;
+        if (source == null || loading) {
+            return;
+        }
+        String oldestId = page.isEmpty() ? null : page.get(page.size() - 1).getId();
+        String newestId = page.isEmpty() ? null : page.get(0).getId();
+        loading = true;
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Reading " + source.getKey(), false) {
+            private List<StreamMessage> messages;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                switch (direction) {
+                    case OLDER:
+                        messages = source.olderThan(oldestId, PAGE_SIZE);
+                        break;
+                    case NEWER:
+                        messages = source.newerThan(newestId, PAGE_SIZE);
+                        break;
+                    default:
+                        messages = source.newest(PAGE_SIZE);
+                }
+            }
+
+            @Override
+            public void onSuccess() {
+                if (inspector != source) {
+                    return;
+                }
+                // Paging past either end keeps the current page
+                if (messages.isEmpty() && direction != Direction.NEWEST) {
+                    statusLabel.setText(direction == Direction.OLDER ? "No older entries" : "No newer entries");
+                    return;
+                }
+                displayPage(messages);
+            }
+
+            @Override
+            public void onThrowable(@NotNull Throwable error) {
+                RedisNotifications.error(project, "Streams", "Reading " + source.getKey() + " failed: "
+                        + error.getMessage());
+            }
+
+            @Override
+            public void onFinished() {
+                loading = false;
+            }
+        });
+    }
+
+    private void displayPage(List<StreamMessage> messages) {
+        page = messages;
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        entryModel.setRowCount(0);
+        for (StreamMessage message : messages) {
+            entryModel.addRow(new Object[]{message.getId(), timeFormat.format(new Date(message.getTimestamp())),
+                    truncate(message.getFieldsText())});
+        }
+        displayStatusText();
+    }
+
+    private void displayStatus(StreamStatus polled) {
+        status = polled;
+        String selected = selectedGroup();
+        groupModel.setRowCount(0);
+        for (StreamStatus.Group group : polled.getGroups()) {
+            String lag = group.isLagExact() ? String.valueOf(group.getLag()) : ">" + group.getLag();
+            groupModel.addRow(new Object[]{group.getName(), (long) group.getConsumers().size(), group.getPending(),
+                    group.getLastDeliveredId(), lag});
+        }
+        for (int row = 0; row < groupTable.getRowCount(); row++) {
+            if (groupTable.getValueAt(row, 0).equals(selected)) {
+                groupTable.setRowSelectionInterval(row, row);
+                break;
+            }
+        }
+        displayConsumers();
+        displayStatusText();
+    }
+
+    private String selectedGroup() {
+        int row = groupTable.getSelectedRow();
+        return row < 0 ? null : (String) groupTable.getValueAt(row, 0);
+    }
+
+    private void displayConsumers() {
+        consumerModel.setRowCount(0);
+        String selected = selectedGroup();
+        if (status == null || selected == null) {
+            return;
+        }
+        for (StreamStatus.Group group : status.getGroups()) {
+            if (group.getName().equals(selected)) {
+                for (StreamStatus.Consumer consumer : group.getConsumers()) {
+                    consumerModel.addRow(new Object[]{consumer.getName(), consumer.getPending(),
+                            consumer.getIdleMillis()});
+                }
+            }
+        }
+    }
+
+    private void displayStatusText() {
+        if (inspector == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(inspector.getKey());
+        if (status != null && status.getError() != null) {
+            text.append(": ").append(status.getError());
+        } else if (status != null) {
+            text.append(String.format(": %,d entries, %d groups, last id %s", status.getLength(),
+                    status.getGroups().size(), status.getLastGeneratedId()));
+        }
+        if (!page.isEmpty()) {
+            text.append(String.format(", showing %s to %s", page.get(page.size() - 1).getId(), page.get(0).getId()));
+        }
+        if (tailer != null) {
+            text.append(String.format(", tailed %,d (%,d dropped)", tailer.getReceived(), tailer.getDropped()));
+        }
+        statusLabel.setText(text.toString());
+    }
+
+    private static String truncate(String text) {
+        return text.length() > MAX_FIELDS_LENGTH ? text.substring(0, MAX_FIELDS_LENGTH) + "..." : text;
+    }
+
+    /**
+     * Table model over a fixed-size ring of the most recent tailed entries
+     */
+    private static class TailTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"ID", "Time", "Fields"};
+
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+        private final StreamMessage[] messages = new StreamMessage[MAX_ROWS];
+        private int start;
+        private int size;
+
+        void add(StreamMessage message) {
+            if (size < MAX_ROWS) {
+                messages[(start + size++) % MAX_ROWS] = message;
+            } else {
+                messages[start] = message;
+                start = (start + 1) % MAX_ROWS;
+            }
+        }
+
+        void clear() {
+            Arrays.fill(messages, null);
+            start = 0;
+            size = 0;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return size;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            StreamMessage message = messages[(start + row) % MAX_ROWS];
+            switch (column) {
+                case 0:
+                    return message.getId();
+                case 1:
+                    return timeFormat.format(new Date(message.getTimestamp()));
+                default:
+                    return truncate(message.getFieldsText());
+            }
+        }
+    }
+}